@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.pde.api.tools.internal.ApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
+import org.eclipse.pde.api.tools.internal.provisional.RestrictionModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IPackageDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves annotations of members in an {@link ApiDescription} shaped like the
+ * ones of the bundles in a baseline: a few packages with many types, each with
+ * restricted fields and methods. The heap retained by the description is
+ * printed once it has been built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class ApiDescriptionBenchmark {
+
+	@Param({ "5000" })
+	public int types;
+
+	@Param({ "10" })
+	public int members;
+
+	private ApiDescription fDescription;
+	private IElementDescriptor[] fElements;
+	private final SplittableRandom fRandom = new SplittableRandom(42);
+
+	@Setup
+	public void setUp() {
+		long before = usedMemory();
+		fDescription = new ApiDescription("org.example.bundle");
+		fElements = new IElementDescriptor[types * members];
+		int next = 0;
+		for (int i = 0; i < types; i++) {
+			IPackageDescriptor pkg = Factory.packageDescriptor("org.example.pkg" + (i % 50));
+			IReferenceTypeDescriptor type = pkg.getType("Type" + i);
+			fDescription.setVisibility(pkg, VisibilityModifiers.API);
+			fDescription.setRestrictions(type, RestrictionModifiers.NO_EXTEND);
+			for (int j = 0; j < members; j++) {
+				IElementDescriptor member = j % 2 == 0 ? type.getField("field" + j)
+						: type.getMethod("method", "(I" + "J".repeat(j) + ")V");
+				fDescription.setRestrictions(member, RestrictionModifiers.NO_REFERENCE);
+				fElements[next++] = member;
+			}
+		}
+		long after = usedMemory();
+		System.out.println("Heap retained by API description with " + fElements.length + " members: "
+				+ ((after - before) / 1024) + " KB");
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	@Benchmark
+	public IApiAnnotations resolveAnnotations() {
+		return fDescription.resolveAnnotations(fElements[fRandom.nextInt(fElements.length)]);
+	}
+}
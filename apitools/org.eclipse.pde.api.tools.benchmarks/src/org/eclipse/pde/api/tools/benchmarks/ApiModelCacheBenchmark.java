@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.internal.core.util.LRUCache;
+import org.eclipse.pde.api.tools.internal.ConcurrentClockCache;
+import org.eclipse.pde.api.tools.internal.SynchronizedOverflowingLRUCache;
+import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up types from several threads in the cache used by the
+ * {@link ApiModelCache} and in the {@link SynchronizedOverflowingLRUCache} it
+ * used before. Every lookup that misses caches the type, some lookups miss as
+ * there are more types than the caches can keep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(0)
+public class ApiModelCacheBenchmark {
+
+	/** Key of a type, as used by the {@link ApiModelCache} */
+	record TypeKey(String baseline, String component, String typeName) {
+	}
+
+	static class SynchronizedCache<K, V> extends SynchronizedOverflowingLRUCache<K, V> {
+		SynchronizedCache(int size, int overflow) {
+			super(size, overflow);
+		}
+
+		@Override
+		protected boolean close(LRUCacheEntry<K, V> entry) {
+			return true;
+		}
+
+		@Override
+		protected LRUCache<K, V> newInstance(int size, int newOverflow) {
+			return new SynchronizedCache<>(size, newOverflow);
+		}
+	}
+
+	/**
+	 * Each thread looks up its own random sequence of types
+	 */
+	@State(Scope.Thread)
+	public static class Lookups {
+		SplittableRandom fRandom = new SplittableRandom(Thread.currentThread().getId());
+
+		/**
+		 * Returns the next key, most lookups go to a tenth of the types
+		 */
+		TypeKey next(TypeKey[] keys) {
+			int index = fRandom.nextInt(10) < 8 ? fRandom.nextInt(keys.length / 10) : fRandom.nextInt(keys.length);
+			return keys[index];
+		}
+	}
+
+	@Param({ "10000" })
+	public int cacheSize;
+
+	private TypeKey[] fKeys;
+	private SynchronizedCache<TypeKey, Object> fSynchronizedCache;
+	private ConcurrentClockCache<TypeKey, Object> fConcurrentCache;
+
+	@Setup
+	public void setUp() {
+		fKeys = new TypeKey[cacheSize * 2];
+		for (int i = 0; i < fKeys.length; i++) {
+			fKeys[i] = new TypeKey("baseline", "component" + (i % 100), "a.b.c.Type" + i);
+		}
+		fSynchronizedCache = new SynchronizedCache<>(cacheSize, cacheSize / 10);
+		fConcurrentCache = new ConcurrentClockCache<>(cacheSize);
+	}
+
+	@Benchmark
+	public Object synchronizedLRUCache(Lookups lookups) {
+		TypeKey key = lookups.next(fKeys);
+		Object type = fSynchronizedCache.get(key);
+		if (type == null) {
+			type = key.typeName();
+			fSynchronizedCache.put(key, type);
+		}
+		return type;
+	}
+
+	@Benchmark
+	public Object concurrentClockCache(Lookups lookups) {
+		TypeKey key = lookups.next(fKeys);
+		Object type = fConcurrentCache.get(key);
+		if (type == null) {
+			type = key.typeName();
+			fConcurrentCache.put(key, type);
+		}
+		return type;
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this bundle inside the test runtime. They run
+ * headless and in the same VM, so they see the started API tools bundle.
+ * <p>
+ * The benchmarks can be configured with these system properties:
+ * </p>
+ * <ul>
+ * <li><code>pde.benchmarks.include</code> - a regular expression for the
+ * benchmarks to run, all by default</li>
+ * <li><code>pde.benchmarks.result</code> - file to write the results to in JSON
+ * format</li>
+ * </ul>
+ */
+public class ApiToolsBenchmarks {
+
+	@Test
+	public void runBenchmarks() throws Exception {
+		ChainedOptionsBuilder options = new OptionsBuilder() //
+				.include(System.getProperty("pde.benchmarks.include", ".*")) //$NON-NLS-1$ //$NON-NLS-2$
+				.forks(0) //
+				.shouldFailOnError(true);
+		String result = System.getProperty("pde.benchmarks.result"); //$NON-NLS-1$
+		if (result != null) {
+			options.result(result).resultFormat(ResultFormatType.JSON);
+		}
+		Collection<RunResult> results = new Runner(options.build()).run();
+		assertFalse("No benchmark was run", results.isEmpty()); //$NON-NLS-1$
+	}
+}
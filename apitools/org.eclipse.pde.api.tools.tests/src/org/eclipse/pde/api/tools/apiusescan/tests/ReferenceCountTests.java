@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.ApiDescription;
@@ -110,6 +115,48 @@ public class ReferenceCountTests {
 		verifyReferenceCount(apiComponent, apiUseTpes, expectedResult);
 	}
 
+	/**
+	 * Tests that references looked up from the index written by a previous
+	 * lookup match the references looked up when the index was compiled
+	 */
+	@Test
+	public void testReferenceCountFromIndex() {
+		String location = ExternalDependencyTestUtils.setupReport("reportAll", true); //$NON-NLS-1$
+		if (location == null) {
+			fail("Could not setup the report : reportAll.zip"); //$NON-NLS-1$
+		}
+		IApiComponent apiComponent = fBaseline.getApiComponent(ExternalDependencyTestUtils.PROJECT_NAME);
+		String[][] apiUseTpes = new String[][] {
+				{"tests.apiusescan.coretestproject.ClassWithInnerType"},  //$NON-NLS-1$
+				{"tests.apiusescan.coretestproject.ClassWithInnerType",  //$NON-NLS-1$
+					"tests.apiusescan.coretestproject.IConstants"},  //$NON-NLS-1$
+				{"tests.apiusescan.coretestproject.DoesNotExist"} //$NON-NLS-1$
+		};
+		int[] expectedResult = new int[] {7, 9, 0};
+		verifyReferenceCount(apiComponent, apiUseTpes, expectedResult);
+		Map<String, Long> indexes = getIndexFiles();
+		assertFalse("The index should be written", indexes.isEmpty()); //$NON-NLS-1$
+		// forget the index in memory, so it is read from its file
+		fUseScanManager.clearCache();
+		verifyReferenceCount(apiComponent, apiUseTpes, expectedResult);
+		assertEquals("The index should not be compiled again", indexes, getIndexFiles()); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the time stamps of the compiled use scan indexes by name
+	 */
+	private static Map<String, Long> getIndexFiles() {
+		File directory = ResourcesPlugin.getWorkspace().getRoot().getLocation().append(".metadata/.plugins").append(ApiPlugin.PLUGIN_ID).append("ApiUseScans/index").toFile(); //$NON-NLS-1$ //$NON-NLS-2$
+		Map<String, Long> indexes = new HashMap<>();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				indexes.put(file.getName(), Long.valueOf(file.lastModified()));
+			}
+		}
+		return indexes;
+	}
+
 	@Test
 	public void testCacheSize() {
 		fUseScanManager.clearCache();
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisScheduler;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisScheduler.ProjectRule;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ApiAnalysisScheduler}
+ */
+public class ApiAnalysisSchedulerTests {
+
+	private final Object fFamily = new Object();
+	private final List<String> fEvents = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger fRunning = new AtomicInteger();
+	private final AtomicInteger fPeak = new AtomicInteger();
+
+	@After
+	public void tearDown() throws Exception {
+		Job.getJobManager().cancel(fFamily);
+		Job.getJobManager().join(fFamily, null);
+	}
+
+	/**
+	 * Tests that no more jobs than allowed run at the same time
+	 */
+	@Test
+	public void testConcurrencyCap() throws Exception {
+		ApiAnalysisScheduler scheduler = new ApiAnalysisScheduler("test", fFamily, () -> 2); //$NON-NLS-1$
+		for (int i = 0; i < 6; i++) {
+			scheduler.schedule(new TestJob("p" + i, new String[0], null), 0); //$NON-NLS-1$
+		}
+		Job.getJobManager().join(fFamily, null);
+		assertEquals("All jobs should have run", 12, fEvents.size()); //$NON-NLS-1$
+		assertTrue("No more than 2 jobs should run at once: " + fPeak.get(), fPeak.get() <= 2); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the jobs of projects requiring each other never overlap
+	 */
+	@Test
+	public void testRelatedProjectsDoNotOverlap() throws Exception {
+		ApiAnalysisScheduler scheduler = new ApiAnalysisScheduler("test", fFamily, () -> 4); //$NON-NLS-1$
+		scheduler.schedule(new TestJob("a", new String[0], null), 0); //$NON-NLS-1$
+		scheduler.schedule(new TestJob("b", new String[] { "a" }, null), 0); //$NON-NLS-1$ //$NON-NLS-2$
+		scheduler.schedule(new TestJob("c", new String[] { "b" }, null), 0); //$NON-NLS-1$ //$NON-NLS-2$
+		Job.getJobManager().join(fFamily, null);
+		assertEquals("All jobs should have run", 6, fEvents.size()); //$NON-NLS-1$
+		assertEquals("Related jobs should not overlap", 1, fPeak.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a job scheduled before the job of a project it requires runs
+	 * after that job
+	 */
+	@Test
+	public void testDependencyScheduledLater() throws Exception {
+		ApiAnalysisScheduler scheduler = new ApiAnalysisScheduler("test", fFamily, () -> 1); //$NON-NLS-1$
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch blocker = new CountDownLatch(1);
+		// occupy the only thread, so the other jobs are all waiting
+		scheduler.schedule(new TestJob("other", new String[0], () -> { //$NON-NLS-1$
+			started.countDown();
+			try {
+				blocker.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}), 0);
+		assertTrue("The blocking job should start", started.await(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+		scheduler.schedule(new TestJob("dependent", new String[] { "required" }, null), 0); //$NON-NLS-1$ //$NON-NLS-2$
+		scheduler.schedule(new TestJob("required", new String[0], null), 0); //$NON-NLS-1$
+		blocker.countDown();
+		Job.getJobManager().join(fFamily, null);
+		assertEquals(List.of("start other", "end other", "start required", "end required", "start dependent", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"end dependent"), fEvents); //$NON-NLS-1$
+	}
+
+	private static IProject project(String name) {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+	}
+
+	/**
+	 * Job of the test family recording when it runs
+	 */
+	private class TestJob extends Job {
+
+		private final Runnable fWork;
+
+		TestJob(String project, String[] required, Runnable work) {
+			super(project);
+			fWork = work;
+			IProject[] projects = new IProject[required.length];
+			for (int i = 0; i < required.length; i++) {
+				projects[i] = project(required[i]);
+			}
+			setRule(new ProjectRule(project(project), projects));
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			fEvents.add("start " + getName()); //$NON-NLS-1$
+			fPeak.accumulateAndGet(fRunning.incrementAndGet(), Math::max);
+			try {
+				if (fWork != null) {
+					fWork.run();
+				} else {
+					Thread.sleep(50);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				fRunning.decrementAndGet();
+				fEvents.add("end " + getName()); //$NON-NLS-1$
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == fFamily;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.pde.api.tools.internal.builder.BuildState;
+import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+import org.junit.Test;
+
+/**
+ * Tests reading and writing the {@link BuildState}
+ */
+public class BuildStateTests {
+
+	/**
+	 * The index of the manifest section in the state file
+	 */
+	static final int MANIFEST_SECTION = 2;
+
+	static final String TYPE_NAME = "a.b.c.Foo"; //$NON-NLS-1$
+
+	/**
+	 * @return a state with something in every section that can be set
+	 *         without a workspace
+	 */
+	private static BuildState createState() {
+		BuildState state = new BuildState();
+		state.setBuildPathCRC(42L);
+		state.addApiToolingDependentProject("dependent"); //$NON-NLS-1$
+		Map<String, String> manifest = new LinkedHashMap<>();
+		manifest.put("Bundle-SymbolicName", "a.b.c"); //$NON-NLS-1$ //$NON-NLS-2$
+		manifest.put("Bundle-Version", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		state.setManifestState(manifest);
+		state.setApiFingerprint("a.b.c.Bar", 4711L); //$NON-NLS-1$
+		state.addBreakingChange(new Delta(null, IDelta.CLASS_ELEMENT_TYPE, IDelta.REMOVED, IDelta.METHOD, 0, 0, 0, TYPE_NAME, "foo()V", "foo()")); //$NON-NLS-1$ //$NON-NLS-2$
+		state.addCompatibleChange(new Delta(null, IDelta.CLASS_ELEMENT_TYPE, IDelta.ADDED, IDelta.METHOD, 0, 0, 0, TYPE_NAME, "bar()V", "bar()")); //$NON-NLS-1$ //$NON-NLS-2$
+		return state;
+	}
+
+	private static byte[] write(BuildState state) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			BuildState.write(state, out);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static BuildState read(byte[] bytes) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			return BuildState.read(in);
+		}
+	}
+
+	/**
+	 * Returns the position of the given section in the state file
+	 */
+	private static int getSectionPosition(byte[] bytes, int section) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			in.readUTF();
+			in.readUTF();
+			in.readInt(); // version
+			in.readLong(); // build path CRC
+			int count = in.readInt();
+			int offset = -1;
+			for (int i = 0; i < count; i++) {
+				int id = in.readInt();
+				int start = in.readInt();
+				in.readInt(); // length
+				if (id == section) {
+					offset = start;
+				}
+			}
+			assertTrue("Missing section " + section, offset >= 0); //$NON-NLS-1$
+			return bytes.length - in.available() + offset;
+		}
+	}
+
+	/**
+	 * Tests that everything written is read back
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		BuildState state = read(write(createState()));
+		assertNotNull("The state should be read", state); //$NON-NLS-1$
+		assertEquals("wrong build path CRC", 42L, state.getBuildPathCRC()); //$NON-NLS-1$
+		assertEquals("wrong dependent projects", Set.of("dependent"), state.getApiToolingDependentProjects()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("wrong manifest", createState().getManifestState(), state.getManifestState()); //$NON-NLS-1$
+		assertEquals("wrong fingerprint", Long.valueOf(4711L), state.getApiFingerprint("a.b.c.Bar")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertArrayEquals("wrong breaking changes", keys(createState().getBreakingChanges()), keys(state.getBreakingChanges())); //$NON-NLS-1$
+		assertArrayEquals("wrong compatible changes", keys(createState().getCompatibleChanges()), keys(state.getCompatibleChanges())); //$NON-NLS-1$
+		assertEquals("no re-exported components were set", 0, state.getReexportedComponents().length); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that sections are written back as they were read when they were
+	 * not accessed, and that changing one section keeps the others
+	 */
+	@Test
+	public void testLazySections() throws Exception {
+		byte[] bytes = write(createState());
+		assertArrayEquals("untouched sections should be copied", bytes, write(read(bytes))); //$NON-NLS-1$
+
+		BuildState state = read(bytes);
+		state.cleanup(TYPE_NAME);
+		state.removeApiFingerprint("a.b.c.Bar"); //$NON-NLS-1$
+		BuildState changed = read(write(state));
+		assertEquals("wrong breaking changes", 0, changed.getBreakingChanges().length); //$NON-NLS-1$
+		assertNull("the fingerprint should be removed", changed.getApiFingerprint("a.b.c.Bar")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("the manifest should be kept", createState().getManifestState(), changed.getManifestState()); //$NON-NLS-1$
+		assertEquals("the dependent projects should be kept", Set.of("dependent"), changed.getApiToolingDependentProjects()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a corrupt string length only drops its section
+	 */
+	@Test
+	public void testCorruptStringLength() throws Exception {
+		for (int length : new int[] { -1, Integer.MAX_VALUE }) {
+			byte[] bytes = write(createState());
+			// the first string of the manifest section follows its count
+			ByteBuffer.wrap(bytes).putInt(getSectionPosition(bytes, MANIFEST_SECTION) + 4, length);
+			BuildState state = read(bytes);
+			assertTrue("the corrupt manifest should be dropped", state.getManifestState().isEmpty()); //$NON-NLS-1$
+			assertEquals("wrong fingerprint", Long.valueOf(4711L), state.getApiFingerprint("a.b.c.Bar")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("wrong breaking changes", 1, state.getBreakingChanges().length); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that a corrupt element count only drops its section
+	 */
+	@Test
+	public void testCorruptCount() throws Exception {
+		for (int count : new int[] { -1, Integer.MAX_VALUE }) {
+			byte[] bytes = write(createState());
+			ByteBuffer.wrap(bytes).putInt(getSectionPosition(bytes, MANIFEST_SECTION), count);
+			BuildState state = read(bytes);
+			assertTrue("the corrupt manifest should be dropped", state.getManifestState().isEmpty()); //$NON-NLS-1$
+			assertEquals("wrong dependent projects", Set.of("dependent"), state.getApiToolingDependentProjects()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Tests that truncated files and files of other formats are rejected
+	 */
+	@Test
+	public void testInvalidFile() throws Exception {
+		byte[] bytes = write(createState());
+		assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, 20)));
+		assertThrows(IOException.class, () -> read(new byte[] { 0, 3, 'f', 'o', 'o' }));
+		byte[] truncated = Arrays.copyOf(bytes, getSectionPosition(bytes, MANIFEST_SECTION));
+		assertThrows(IOException.class, () -> read(truncated));
+	}
+
+	private static String[] keys(IDelta[] deltas) {
+		return Arrays.stream(deltas).map(IDelta::getKey).sorted().toArray(String[]::new);
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests.compatibility;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.pde.api.tools.internal.builder.BuildState;
+import org.eclipse.pde.api.tools.internal.problems.ApiProblemFactory;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem;
+
+import junit.framework.Test;
+
+/**
+ * Tests that the builder skips the comparison of types whose API fingerprint
+ * did not change since the last build, and compares them again once their API
+ * changes.
+ */
+public class ClassCompatibilityFingerprintTests extends ClassCompatibilityTests {
+
+	/**
+	 * Workspace relative path classes in bundle/project A
+	 */
+	protected static IPath WORKSPACE_CLASSES_PACKAGE_A = IPath.fromOSString("bundle.a/src/a/classes/methods"); //$NON-NLS-1$
+
+	/**
+	 * Package prefix for test classes
+	 */
+	protected static String PACKAGE_PREFIX = "a.classes.methods."; //$NON-NLS-1$
+
+	public ClassCompatibilityFingerprintTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected IPath getTestSourcePath() {
+		return super.getTestSourcePath().append("methods"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the tests for this class
+	 */
+	public static Test suite() {
+		return buildTestSuite(ClassCompatibilityFingerprintTests.class);
+	}
+
+	@Override
+	protected int getDefaultProblemId() {
+		return ApiProblemFactory.createProblemId(IApiProblem.CATEGORY_COMPATIBILITY, IDelta.CLASS_ELEMENT_TYPE, IDelta.REMOVED, IDelta.METHOD);
+	}
+
+	/**
+	 * Returns the API fingerprint recorded for the given type of bundle.a in
+	 * the last build
+	 */
+	private Long getApiFingerprint(String typeName) throws Exception {
+		BuildState state = BuildState.getLastBuiltState(getEnv().getProject("bundle.a")); //$NON-NLS-1$
+		assertNotNull("Missing build state", state); //$NON-NLS-1$
+		return state.getApiFingerprint(typeName);
+	}
+
+	/**
+	 * Tests that changing only a method body keeps the fingerprint of the type,
+	 * so it is not compared again
+	 */
+	public void testUnchangedApiSkipsComparison() throws Exception {
+		String typeName = PACKAGE_PREFIX + "RemovePrivateMethod"; //$NON-NLS-1$
+		Long fingerprint = getApiFingerprint(typeName);
+		assertNotNull("A type without delta should have a fingerprint", fingerprint); //$NON-NLS-1$
+		IPath filePath = WORKSPACE_CLASSES_PACKAGE_A.append("RemovePrivateMethod.java"); //$NON-NLS-1$
+		IFile file = getEnv().getWorkspace().getRoot().getFile(filePath);
+		String contents;
+		try (InputStream stream = file.getContents()) {
+			contents = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		String changed = contents.replace("return -1;", "return 1;"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("The method body should have changed", contents.equals(changed)); //$NON-NLS-1$
+		file.setContents(new ByteArrayInputStream(changed.getBytes(StandardCharsets.UTF_8)), true, false, null);
+		getEnv().changed(filePath);
+		incrementalBuild();
+		expectingNoJDTProblemsFor(filePath);
+		assertProblems(getEnv().getProblemsFor(filePath, null));
+		assertEquals("The fingerprint should not change with a method body", fingerprint, getApiFingerprint(typeName)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that changing the API of a type with a fingerprint compares it
+	 * again and reports the breaking change
+	 */
+	public void testChangedApiIsCompared() throws Exception {
+		String typeName = PACKAGE_PREFIX + "RemovePublicMethod"; //$NON-NLS-1$
+		assertNotNull("A type without delta should have a fingerprint", getApiFingerprint(typeName)); //$NON-NLS-1$
+		setExpectedProblemIds(new int[] { getDefaultProblemId() });
+		setExpectedMessageArgs(new String[][] { { typeName, "publicMethod(String)" } }); //$NON-NLS-1$
+		performCompatibilityTest(WORKSPACE_CLASSES_PACKAGE_A.append("RemovePublicMethod.java"), true); //$NON-NLS-1$
+		assertNull("A type with a delta should not have a fingerprint", getApiFingerprint(typeName)); //$NON-NLS-1$
+	}
+}
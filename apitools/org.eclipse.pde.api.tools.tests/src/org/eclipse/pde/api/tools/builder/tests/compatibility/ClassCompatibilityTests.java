@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -85,7 +85,8 @@ public abstract class ClassCompatibilityTests extends CompatibilityTest {
 				ClassCompatibilityModifierTests.class,
 				ClassCompatibilityMemberTypeTests.class,
 				ClassCompatibilityRestrictionTests.class,
-				ClassCompatibilityTypeParameterTests.class };
+				ClassCompatibilityTypeParameterTests.class,
+				ClassCompatibilityFingerprintTests.class };
 		return classes;
 	}
 
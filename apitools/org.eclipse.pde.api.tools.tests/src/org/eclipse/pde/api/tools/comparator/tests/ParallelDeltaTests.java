@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.comparator.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiScope;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.CompareApiScopeVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.DeltaVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests that comparing components large enough to have their packages
+ * compared in parallel produces the same deltas as comparing them one type
+ * after the other
+ */
+public class ParallelDeltaTests {
+
+	static final String[] BUNDLES = { "parallel.a", "parallel.b" }; //$NON-NLS-1$ //$NON-NLS-2$
+	static final int PACKAGES = 4;
+	/**
+	 * Types per package, large enough for the components to be over the
+	 * threshold of parallel package comparison
+	 */
+	static final int TYPES = 60;
+
+	Path fDirectory;
+	IApiBaseline fReference;
+	IApiBaseline fBaseline;
+
+	@Before
+	public void setUp() throws Exception {
+		fDirectory = Files.createTempDirectory("parallel"); //$NON-NLS-1$
+		File reference = fDirectory.resolve("reference").toFile(); //$NON-NLS-1$
+		File current = fDirectory.resolve("current").toFile(); //$NON-NLS-1$
+		for (String bundle : BUNDLES) {
+			writeBundle(reference, bundle, false);
+			writeBundle(current, bundle, true);
+		}
+		fReference = TestSuiteHelper.createBaseline("reference", reference); //$NON-NLS-1$
+		fBaseline = TestSuiteHelper.createBaseline("current", current); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fReference.dispose();
+		fBaseline.dispose();
+		TestSuiteHelper.delete(fDirectory.toFile());
+	}
+
+	/**
+	 * Tests that comparing two baselines in parallel produces the same deltas
+	 * in the same order as comparing their components one after the other in
+	 * the calling thread
+	 */
+	@Test
+	public void testCompareBaselines() throws Exception {
+		IDelta delta = ApiComparator.compare(fReference, fBaseline, VisibilityModifiers.API, true, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		assertNotSame("No delta", ApiComparator.NO_DELTA, delta); //$NON-NLS-1$
+
+		List<String> expected = new ArrayList<>();
+		for (IApiComponent component : fReference.getApiComponents()) {
+			if (component.isSystemComponent()) {
+				continue;
+			}
+			IApiComponent component2 = fBaseline.getApiComponent(component.getSymbolicName());
+			// not in a comparator pool, so the types are compared serially
+			IDelta componentDelta = ApiComparator.compare(component, component2, fReference, fBaseline, VisibilityModifiers.API, null);
+			expected.addAll(leaves(componentDelta));
+		}
+		assertTrue("Wrong number of deltas", expected.size() > PACKAGES * BUNDLES.length); //$NON-NLS-1$
+		assertEquals("Wrong deltas", expected, leaves(delta)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that comparing a scope in parallel produces the same deltas as
+	 * comparing its components one after the other. The deltas of a scope
+	 * comparison are collected in a set, so only their content is compared.
+	 */
+	@Test
+	public void testCompareScope() throws Exception {
+		ApiScope scope = new ApiScope();
+		for (IApiComponent component : fBaseline.getApiComponents()) {
+			if (!component.isSystemComponent()) {
+				scope.addElement(component);
+			}
+		}
+		IDelta delta = ApiComparator.compare(scope, fReference, VisibilityModifiers.API, true, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		assertNotSame("No delta", ApiComparator.NO_DELTA, delta); //$NON-NLS-1$
+
+		// a visitor without a pool compares the components while visiting
+		Set<IDelta> deltas = new HashSet<>();
+		CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, fReference, true, VisibilityModifiers.API, false, SubMonitor.convert(null));
+		scope.accept(visitor);
+		List<String> expected = deltas.stream().map(IDelta::toString).sorted().collect(Collectors.toList());
+		assertTrue("Wrong number of deltas", expected.size() > PACKAGES * BUNDLES.length); //$NON-NLS-1$
+		assertEquals("Wrong deltas", expected, leaves(delta).stream().sorted().collect(Collectors.toList())); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the leaf deltas of the given delta in visiting order
+	 */
+	private static List<String> leaves(IDelta delta) {
+		List<String> leaves = new ArrayList<>();
+		delta.accept(new DeltaVisitor() {
+			@Override
+			public void endVisit(IDelta localDelta) {
+				if (localDelta.getChildren().length == 0) {
+					leaves.add(localDelta.toString());
+				}
+			}
+		});
+		return leaves;
+	}
+
+	/**
+	 * Writes a bundle jar with {@link #PACKAGES} exported packages of
+	 * {@link #TYPES} classes each. The changed version of the bundle removes a
+	 * method from every 7th class, adds one to every 11th class and removes
+	 * every 13th class.
+	 */
+	private static void writeBundle(File directory, String symbolicName, boolean changed) throws Exception {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		attributes.putValue(Constants.BUNDLE_MANIFESTVERSION, "2"); //$NON-NLS-1$
+		attributes.putValue(Constants.BUNDLE_NAME, symbolicName);
+		attributes.putValue(Constants.BUNDLE_SYMBOLICNAME, symbolicName);
+		attributes.putValue(Constants.BUNDLE_VERSION, "1.0.0"); //$NON-NLS-1$
+		List<String> packages = new ArrayList<>();
+		for (int p = 0; p < PACKAGES; p++) {
+			packages.add(symbolicName + ".p" + p); //$NON-NLS-1$
+		}
+		attributes.putValue(Constants.EXPORT_PACKAGE, String.join(",", packages)); //$NON-NLS-1$
+		directory.mkdirs();
+		try (OutputStream stream = Files.newOutputStream(new File(directory, symbolicName + "_1.0.0.jar").toPath()); //$NON-NLS-1$
+				JarOutputStream jar = new JarOutputStream(stream, manifest)) {
+			for (String packageName : packages) {
+				for (int t = 0; t < TYPES; t++) {
+					if (changed && t % 13 == 12) {
+						continue;
+					}
+					String name = packageName.replace('.', '/') + "/Type" + t; //$NON-NLS-1$
+					jar.putNextEntry(new JarEntry(name + ".class")); //$NON-NLS-1$
+					jar.write(classFile(name, !(changed && t % 7 == 0), changed && t % 11 == 0));
+					jar.closeEntry();
+				}
+			}
+		}
+	}
+
+	private static byte[] classFile(String name, boolean removable, boolean added) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null); //$NON-NLS-1$
+		addMethod(writer, "<init>"); //$NON-NLS-1$
+		addMethod(writer, "kept"); //$NON-NLS-1$
+		if (removable) {
+			addMethod(writer, "removable"); //$NON-NLS-1$
+		}
+		if (added) {
+			addMethod(writer, "added"); //$NON-NLS-1$
+		}
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	private static void addMethod(ClassWriter writer, String name) {
+		MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, name, "()V", null, null); //$NON-NLS-1$
+		method.visitCode();
+		method.visitInsn(Opcodes.RETURN);
+		method.visitMaxs(0, 1);
+		method.visitEnd();
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ApiBaselineIndex;
+import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
+import org.eclipse.pde.api.tools.internal.model.TypeStructureBuilder;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMethod;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests the {@link ApiBaselineIndex}
+ */
+public class ApiBaselineIndexTests {
+
+	static final String COMPONENT_A = "component.a"; //$NON-NLS-1$
+	static final String TYPE_NAME = "a.b.c.Erasure"; //$NON-NLS-1$
+
+	Path fDirectory;
+	IApiBaseline fBaseline;
+	File fIndexFile;
+
+	@Before
+	public void setUp() throws Exception {
+		// copy the bundles, so they can be changed
+		fDirectory = Files.createTempDirectory("baseline"); //$NON-NLS-1$
+		File plugins = TestSuiteHelper.getPluginDirectoryPath().append(ApiBaselineTests.TEST_PLUGINS).toFile();
+		for (File bundle : plugins.listFiles()) {
+			Files.copy(bundle.toPath(), fDirectory.resolve(bundle.getName()));
+		}
+		fBaseline = TestSuiteHelper.createBaseline("index", fDirectory.toFile()); //$NON-NLS-1$
+		fIndexFile = fDirectory.resolve("index" + ApiBaselineIndex.INDEX_FILE_EXTENSION).toFile(); //$NON-NLS-1$
+		ApiBaselineIndex.write(fBaseline, fIndexFile, null);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fBaseline.dispose();
+		TestSuiteHelper.delete(fDirectory.toFile());
+	}
+
+	/**
+	 * Tests that manifest and type structures are read back from the index
+	 */
+	@Test
+	public void testIndexedComponent() throws Exception {
+		ApiBaselineIndex index = ApiBaselineIndex.open(fIndexFile);
+		assertNotNull("the index should exist", index); //$NON-NLS-1$
+		assertTrue("the index should be up to date", index.isUpToDate(fBaseline)); //$NON-NLS-1$
+		IApiComponent component = fBaseline.getApiComponent(COMPONENT_A);
+		ApiBaselineIndex.Entry entry = index.getEntry(component.getLocation());
+		assertNotNull("the component should be indexed", entry); //$NON-NLS-1$
+		assertTrue("wrong symbolic name", entry.getManifest().get(Constants.BUNDLE_SYMBOLICNAME).startsWith(COMPONENT_A)); //$NON-NLS-1$
+
+		IApiTypeRoot root = component.findTypeRoot(TYPE_NAME);
+		IApiType expected = root.getStructure();
+		byte[] structure = index.getTypeStructure(entry, TYPE_NAME);
+		assertNotNull("the type should be indexed", structure); //$NON-NLS-1$
+		IApiType actual = TypeStructureBuilder.buildTypeStructure(structure, component, root);
+		assertEquals("wrong super class", expected.getSuperclassName(), actual.getSuperclassName()); //$NON-NLS-1$
+		assertEquals("wrong modifiers", expected.getModifiers(), actual.getModifiers()); //$NON-NLS-1$
+		assertArrayEquals("wrong methods", signatures(expected.getMethods()), signatures(actual.getMethods())); //$NON-NLS-1$
+		assertEquals("wrong fields", expected.getFields().length, actual.getFields().length); //$NON-NLS-1$
+		assertNull("unknown type should not be indexed", index.getTypeStructure(entry, "a.b.c.Unknown")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that components of a baseline with an index are created from it
+	 */
+	@Test
+	public void testRestoreFromIndex() throws Exception {
+		ApiBaseline baseline = (ApiBaseline) ApiModelFactory.newApiBaseline("restored"); //$NON-NLS-1$
+		try {
+			baseline.setIndex(ApiBaselineIndex.open(fIndexFile));
+			String location = fBaseline.getApiComponent(COMPONENT_A).getLocation();
+			IApiComponent component = ApiModelFactory.newApiComponent(baseline, location);
+			assertNotNull("the component should be created", component); //$NON-NLS-1$
+			baseline.addApiComponents(new IApiComponent[] { component });
+			assertEquals("wrong symbolic name", COMPONENT_A, component.getSymbolicName()); //$NON-NLS-1$
+			IApiType type = component.findTypeRoot(TYPE_NAME).getStructure();
+			assertNotNull("the type structure should be created", type); //$NON-NLS-1$
+			assertEquals("wrong type", TYPE_NAME, type.getName()); //$NON-NLS-1$
+		} finally {
+			baseline.dispose();
+		}
+	}
+
+	/**
+	 * Tests that a changed jar is not read from the index
+	 */
+	@Test
+	public void testChangedComponent() throws Exception {
+		File jar = new File(fBaseline.getApiComponent(COMPONENT_A).getLocation());
+		assertTrue(jar.setLastModified(jar.lastModified() + 10000));
+		ApiBaselineIndex index = ApiBaselineIndex.open(fIndexFile);
+		assertNull("a changed component should not be indexed", index.getEntry(jar.getAbsolutePath())); //$NON-NLS-1$
+		assertFalse("the index should be outdated", index.isUpToDate(fBaseline)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a jar changed after the index was opened and checked is no
+	 * longer read from the index
+	 */
+	@Test
+	public void testComponentChangedAfterCheck() throws Exception {
+		File jar = new File(fBaseline.getApiComponent(COMPONENT_A).getLocation());
+		ApiBaselineIndex index = ApiBaselineIndex.open(fIndexFile);
+		assertNotNull("the component should be indexed", index.getEntry(jar.getAbsolutePath())); //$NON-NLS-1$
+		assertTrue(jar.setLastModified(jar.lastModified() + 10000));
+		assertNull("a changed component should not be indexed", index.getEntry(jar.getAbsolutePath())); //$NON-NLS-1$
+		assertFalse("the index should be outdated", index.isUpToDate(fBaseline)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that an index with a corrupt string length is rejected instead of
+	 * allocating a huge array
+	 */
+	@Test
+	public void testCorruptStringLength() throws Exception {
+		try (FileChannel channel = FileChannel.open(fIndexFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(16);
+			channel.read(header, 0);
+			long tableOffset = header.getLong(8);
+			// the location of the first component follows the component count
+			channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), tableOffset + 4);
+		}
+		assertThrows(IOException.class, () -> ApiBaselineIndex.open(fIndexFile));
+	}
+
+	/**
+	 * Tests that an index can be written again and deleted while a previous
+	 * index of the same file is in use
+	 */
+	@Test
+	public void testReplaceOpenIndex() throws Exception {
+		ApiBaselineIndex index = ApiBaselineIndex.open(fIndexFile);
+		String location = fBaseline.getApiComponent(COMPONENT_A).getLocation();
+		ApiBaselineIndex.Entry entry = index.getEntry(location);
+		ApiBaselineIndex.write(fBaseline, fIndexFile, null);
+		assertNotNull("the previous index should still be readable", index.getTypeStructure(entry, TYPE_NAME)); //$NON-NLS-1$
+		ApiBaselineIndex replaced = ApiBaselineIndex.open(fIndexFile);
+		assertNotNull("the new index should exist", replaced); //$NON-NLS-1$
+		assertTrue("the new index should be up to date", replaced.isUpToDate(fBaseline)); //$NON-NLS-1$
+		Files.delete(fIndexFile.toPath());
+		assertFalse("the index should be deleted", fIndexFile.exists()); //$NON-NLS-1$
+	}
+
+	private static String[] signatures(IApiMethod[] methods) {
+		return Arrays.stream(methods).map(method -> method.getName() + method.getSignature()).sorted().toArray(String[]::new);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -603,6 +603,73 @@ public class ApiDescriptionTests {
 		assertNull("The description must be null", description); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that members sharing a name - a field and overloaded methods - keep
+	 * their own annotations, whatever order they are added in
+	 */
+	@Test
+	public void testResolveOverloadedMembers() {
+		IApiDescription manifest = newDescription();
+		IReferenceTypeDescriptor type = Factory.packageDescriptor("a.b.c").getType("E"); //$NON-NLS-1$ //$NON-NLS-2$
+		IElementDescriptor[] members = new IElementDescriptor[] {
+				type.getMethod("m", "(Ljava/lang/String;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+				type.getField("m"), //$NON-NLS-1$
+				type.getMethod("m", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+				type.getMethod("m", "(I)V") }; //$NON-NLS-1$ //$NON-NLS-2$
+		int[] restrictions = new int[] {
+				RestrictionModifiers.NO_OVERRIDE, RestrictionModifiers.NO_REFERENCE,
+				RestrictionModifiers.NO_REFERENCE | RestrictionModifiers.NO_OVERRIDE, RestrictionModifiers.NO_RESTRICTIONS };
+		manifest.setVisibility(type.getPackage(), VisibilityModifiers.API);
+		for (int i = 0; i < members.length; i++) {
+			manifest.setRestrictions(members[i], restrictions[i]);
+		}
+		for (int i = 0; i < members.length; i++) {
+			IApiAnnotations description = manifest.resolveAnnotations(members[i]);
+			assertEquals("Wrong restrictions for " + members[i], restrictions[i], description.getRestrictions()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the annotations of a package with many types, each with many
+	 * members, are resolved and visited once the children of their nodes are
+	 * looked up through a table rather than scanned
+	 */
+	@Test
+	public void testResolveManyMembers() {
+		IApiDescription manifest = newDescription();
+		IPackageDescriptor pkg = Factory.packageDescriptor("a.b.many"); //$NON-NLS-1$
+		manifest.setVisibility(pkg, VisibilityModifiers.API);
+		List<IElementDescriptor> members = new ArrayList<>();
+		for (int t = 0; t < 40; t++) {
+			IReferenceTypeDescriptor type = pkg.getType("T" + t); //$NON-NLS-1$
+			manifest.setRestrictions(type, RestrictionModifiers.NO_EXTEND);
+			for (int m = 0; m < 40; m++) {
+				IElementDescriptor member = m % 2 == 0 ? type.getField("f" + m) : type.getMethod("m", "(" + "I".repeat(m) + ")V"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				manifest.setRestrictions(member, m % 3 == 0 ? RestrictionModifiers.NO_REFERENCE : RestrictionModifiers.NO_OVERRIDE);
+				members.add(member);
+			}
+		}
+		for (int i = 0; i < members.size(); i++) {
+			int expected = i % 40 % 3 == 0 ? RestrictionModifiers.NO_REFERENCE : RestrictionModifiers.NO_OVERRIDE;
+			IApiAnnotations description = manifest.resolveAnnotations(members.get(i));
+			assertEquals("Wrong restrictions for " + members.get(i), expected, description.getRestrictions()); //$NON-NLS-1$
+		}
+		IApiAnnotations missing = manifest.resolveAnnotations(pkg.getType("T3").getField("missing")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong restrictions for a missing member", RestrictionModifiers.NO_RESTRICTIONS, missing.getRestrictions()); //$NON-NLS-1$
+		List<IElementDescriptor> visited = new ArrayList<>();
+		manifest.accept(new ApiDescriptionVisitor() {
+			@Override
+			public boolean visitElement(IElementDescriptor element, IApiAnnotations description) {
+				if (element.getElementType() == IElementDescriptor.FIELD || element.getElementType() == IElementDescriptor.METHOD) {
+					visited.add(element);
+				}
+				return true;
+			}
+		}, null);
+		assertEquals("Wrong number of visited members", members.size(), visited.size()); //$NON-NLS-1$
+		assertTrue("Missing visited members", visited.containsAll(members)); //$NON-NLS-1$
+	}
+
 	/**
 	 * Resolves API description for a type with the given name.
 	 *
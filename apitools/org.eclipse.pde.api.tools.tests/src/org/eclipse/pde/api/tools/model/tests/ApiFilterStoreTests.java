@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,11 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -248,6 +253,139 @@ public class ApiFilterStoreTests extends AbstractApiTest {
 		assertFalse("src/x/y/z/C4.java should not have a filter", store.isFiltered(problem)); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that a filter with simple names as message arguments filters
+	 * problems with qualified names as message arguments, and only those
+	 *
+	 * @throws CoreException
+	 */
+	@Test
+	public void testFilterMessageArguments() throws CoreException {
+		IApiComponent component = getProjectApiComponent(TESTING_PLUGIN_PROJECT_NAME);
+		assertNotNull("the testing project api component must exist", component); //$NON-NLS-1$
+		IProject project = getTestingJavaProject(TESTING_PLUGIN_PROJECT_NAME).getProject();
+		IResource resource = project.findMember(IPath.fromOSString("src/x/y/z/C4.java")); //$NON-NLS-1$
+		assertNotNull("the resource src/x/y/z/C4.java must exist", resource); //$NON-NLS-1$
+		String path = resource.getProjectRelativePath().toPortableString();
+		IApiProblem problem = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] { "C4", "m()" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS);
+		IApiFilterStore store = component.getFilterStore();
+		store.addFiltersFor(new IApiProblem[] { problem });
+		try {
+			IApiProblem qualified = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] { "x.y.z.C4", "m()" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS);
+			assertTrue("the problem with qualified arguments should be filtered", store.isFiltered(qualified)); //$NON-NLS-1$
+			IApiProblem other = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] { "x.y.z.C5", "m()" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS);
+			assertFalse("the problem with other arguments should not be filtered", store.isFiltered(other)); //$NON-NLS-1$
+		} finally {
+			store.removeFilters(new IApiProblemFilter[] {
+					ApiProblemFactory.newProblemFilter(component.getSymbolicName(), problem, null) });
+		}
+		assertFalse("the removed filter should not filter the problem", store.isFiltered(problem)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that filters added and removed after the store was queried are
+	 * seen by the next queries
+	 *
+	 * @throws CoreException
+	 */
+	@Test
+	public void testQueryAfterChanges() throws CoreException {
+		IApiComponent component = getProjectApiComponent(TESTING_PLUGIN_PROJECT_NAME);
+		assertNotNull("the testing project api component must exist", component); //$NON-NLS-1$
+		IProject project = getTestingJavaProject(TESTING_PLUGIN_PROJECT_NAME).getProject();
+		IResource c4 = project.findMember(IPath.fromOSString("src/x/y/z/C4.java")); //$NON-NLS-1$
+		assertNotNull("the resource src/x/y/z/C4.java must exist", c4); //$NON-NLS-1$
+		IResource c1 = project.findMember(IPath.fromOSString("src/x/C1.java")); //$NON-NLS-1$
+		assertNotNull("the resource src/x/C1.java must exist", c1); //$NON-NLS-1$
+		IApiProblem filtered = ApiProblemFactory.newApiProblem(c4.getProjectRelativePath().toPortableString(),
+				null, null, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, IElementDescriptor.TYPE,
+				IApiProblem.ILLEGAL_IMPLEMENT, IApiProblem.NO_FLAGS);
+		IApiProblem added = ApiProblemFactory.newApiProblem(c1.getProjectRelativePath().toPortableString(),
+				null, null, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT,
+				IApiProblem.NO_FLAGS);
+		IApiFilterStore store = component.getFilterStore();
+		assertTrue("src/x/y/z/C4.java should have a filter", store.isFiltered(filtered)); //$NON-NLS-1$
+		assertFalse("src/x/C1.java should not have a usage filter", store.isFiltered(added)); //$NON-NLS-1$
+
+		store.addFiltersFor(new IApiProblem[] { added });
+		assertTrue("the added filter should filter the problem", store.isFiltered(added)); //$NON-NLS-1$
+		assertTrue("the other filters should be kept", store.isFiltered(filtered)); //$NON-NLS-1$
+		assertEquals("there should be 3 filters for src/x/C1.java", 3, store.getFilters(c1).length); //$NON-NLS-1$
+
+		store.removeFilters(new IApiProblemFilter[] {
+				ApiProblemFactory.newProblemFilter(component.getSymbolicName(), filtered, null) });
+		assertFalse("the removed filter should not filter the problem", store.isFiltered(filtered)); //$NON-NLS-1$
+		assertTrue("the added filter should be kept", store.isFiltered(added)); //$NON-NLS-1$
+
+		store.removeFilters(new IApiProblemFilter[] {
+				ApiProblemFactory.newProblemFilter(component.getSymbolicName(), added, null) });
+		assertFalse("the removed filter should not filter the problem", store.isFiltered(added)); //$NON-NLS-1$
+		assertEquals("there should be 2 filters for src/x/C1.java", 2, store.getFilters(c1).length); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that problems are filtered consistently by threads querying the
+	 * store while filters are added and removed
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testConcurrentQueries() throws Exception {
+		IApiComponent component = getProjectApiComponent(TESTING_PLUGIN_PROJECT_NAME);
+		assertNotNull("the testing project api component must exist", component); //$NON-NLS-1$
+		IProject project = getTestingJavaProject(TESTING_PLUGIN_PROJECT_NAME).getProject();
+		IResource c4 = project.findMember(IPath.fromOSString("src/x/y/z/C4.java")); //$NON-NLS-1$
+		assertNotNull("the resource src/x/y/z/C4.java must exist", c4); //$NON-NLS-1$
+		IResource c1 = project.findMember(IPath.fromOSString("src/x/C1.java")); //$NON-NLS-1$
+		assertNotNull("the resource src/x/C1.java must exist", c1); //$NON-NLS-1$
+		IApiProblem filtered = ApiProblemFactory.newApiProblem(c4.getProjectRelativePath().toPortableString(),
+				null, null, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, IElementDescriptor.TYPE,
+				IApiProblem.ILLEGAL_IMPLEMENT, IApiProblem.NO_FLAGS);
+		IApiProblem unfiltered = ApiProblemFactory.newApiProblem(c4.getProjectRelativePath().toPortableString(),
+				null, null, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, IApiProblem.MINOR_VERSION_CHANGE,
+				IDelta.ADDED);
+		IApiProblem changing = ApiProblemFactory.newApiProblem(c1.getProjectRelativePath().toPortableString(),
+				null, null, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT,
+				IApiProblem.NO_FLAGS);
+		IApiProblemFilter changingFilter = ApiProblemFactory.newProblemFilter(component.getSymbolicName(), changing, null);
+		IApiFilterStore store = component.getFilterStore();
+		AtomicBoolean done = new AtomicBoolean();
+		Queue<String> failures = new ConcurrentLinkedQueue<>();
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					if (!store.isFiltered(filtered)) {
+						failures.add("src/x/y/z/C4.java should have a filter"); //$NON-NLS-1$
+					}
+					if (store.isFiltered(unfiltered)) {
+						failures.add("the bogus problem should not be filtered"); //$NON-NLS-1$
+					}
+					store.isFiltered(changing);
+				}
+			}, "ApiFilterStore reader " + i); //$NON-NLS-1$
+			reader.start();
+			readers.add(reader);
+		}
+		try {
+			for (int i = 0; i < 50; i++) {
+				store.addFilters(new IApiProblemFilter[] { changingFilter });
+				assertTrue("the added filter should filter the problem", store.isFiltered(changing)); //$NON-NLS-1$
+				store.removeFilters(new IApiProblemFilter[] { changingFilter });
+				assertFalse("the removed filter should not filter the problem", store.isFiltered(changing)); //$NON-NLS-1$
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+		assertTrue("wrong results while filters changed: " + failures.peek(), failures.isEmpty()); //$NON-NLS-1$
+	}
+
 	/**
 	 * Tests that a filter store will not be annotated from a bundle
 	 *
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the creation of the components of a baseline with
+ * {@link ApiModelFactory#newApiComponents(List, ApiModelFactory.ComponentCreator, org.eclipse.core.runtime.IProgressMonitor)}
+ */
+public class ApiModelFactoryTests {
+
+	IApiBaseline fBaseline;
+	List<String> fLocations;
+
+	/**
+	 * The components created by {@link #create(String)}
+	 */
+	final Queue<IApiComponent> fCreated = new ConcurrentLinkedQueue<>();
+
+	@Before
+	public void setUp() throws Exception {
+		fBaseline = ApiModelFactory.newApiBaseline("components"); //$NON-NLS-1$
+		File plugins = TestSuiteHelper.getPluginDirectoryPath().append(ApiBaselineTests.TEST_PLUGINS).toFile();
+		fLocations = new ArrayList<>();
+		for (File bundle : plugins.listFiles()) {
+			fLocations.add(bundle.getAbsolutePath());
+		}
+		Collections.sort(fLocations);
+		assertTrue("Not enough test bundles", fLocations.size() > 2); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fBaseline.dispose();
+	}
+
+	/**
+	 * Creates the component at the given location and remembers it
+	 */
+	IApiComponent create(String location) throws CoreException {
+		IApiComponent component = ApiModelFactory.newApiComponent(fBaseline, location);
+		if (component != null) {
+			fCreated.add(component);
+		}
+		return component;
+	}
+
+	/**
+	 * Tests that the components are returned in the order of their locations
+	 * even when they are not created in that order
+	 */
+	@Test
+	public void testComponentOrder() throws Exception {
+		List<String> locations = new ArrayList<>(fLocations);
+		List<IApiComponent> components = ApiModelFactory.newApiComponents(locations, location -> {
+			// the first locations take longest
+			try {
+				Thread.sleep(5L * (locations.size() - locations.indexOf(location)));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return create(location);
+		}, null);
+		assertEquals("Wrong number of components", fCreated.size(), components.size()); //$NON-NLS-1$
+		int index = -1;
+		for (IApiComponent component : components) {
+			int next = locations.indexOf(component.getLocation());
+			assertTrue("Component out of order: " + component.getLocation(), next > index); //$NON-NLS-1$
+			index = next;
+			assertFalse("Component disposed", component.isDisposed()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the created components are disposed when a component cannot
+	 * be created
+	 */
+	@Test
+	public void testFailureDisposesComponents() throws Exception {
+		String failing = fLocations.get(fLocations.size() - 1);
+		CoreException e = assertThrows(CoreException.class, () -> ApiModelFactory.newApiComponents(fLocations, location -> {
+			if (location.equals(failing)) {
+				throw new CoreException(Status.error("Cannot create " + location)); //$NON-NLS-1$
+			}
+			return create(location);
+		}, null));
+		assertEquals("Wrong failure", "Cannot create " + failing, e.getStatus().getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertDisposed();
+	}
+
+	/**
+	 * Tests that the created components are disposed when the creation is
+	 * canceled
+	 */
+	@Test
+	public void testCancelDisposesComponents() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		// not the last one, so a serial creation checks the monitor again
+		String canceling = fLocations.get(fLocations.size() - 2);
+		assertThrows(OperationCanceledException.class, () -> ApiModelFactory.newApiComponents(fLocations, location -> {
+			IApiComponent component = create(location);
+			if (location.equals(canceling)) {
+				monitor.setCanceled(true);
+			}
+			return component;
+		}, monitor));
+		assertFalse("No component created", fCreated.isEmpty()); //$NON-NLS-1$
+		assertDisposed();
+	}
+
+	/**
+	 * Tests that a pre-canceled monitor creates no components
+	 */
+	@Test
+	public void testCanceledBeforeStart() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		assertThrows(OperationCanceledException.class, () -> ApiModelFactory.newApiComponents(fLocations, this::create, monitor));
+		assertTrue("Components created", fCreated.isEmpty()); //$NON-NLS-1$
+	}
+
+	private void assertDisposed() {
+		for (IApiComponent component : fCreated) {
+			assertTrue("Component not disposed: " + component.getLocation(), component.isDisposed()); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.pde.api.tools.internal.model.ArchivePool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ArchivePool}
+ */
+public class ArchivePoolTests {
+
+	Path fDirectory;
+	ArchivePool fPool;
+
+	@Before
+	public void setUp() throws Exception {
+		fDirectory = Files.createTempDirectory("archives"); //$NON-NLS-1$
+		fPool = new ArchivePool(2);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fPool.clear();
+		TestSuiteHelper.delete(fDirectory.toFile());
+	}
+
+	/**
+	 * Creates an archive with a single entry
+	 */
+	private Path createArchive(String name) throws IOException {
+		Path archive = fDirectory.resolve(name + ".jar"); //$NON-NLS-1$
+		try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+			zip.putNextEntry(new ZipEntry("entry.txt")); //$NON-NLS-1$
+			zip.write(name.getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+		}
+		return archive;
+	}
+
+	private String read(Path archive) throws IOException {
+		try (ArchivePool.Handle handle = fPool.acquire(archive)) {
+			return Files.readString(handle.getRoot().resolve("entry.txt")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that an open archive is reused
+	 */
+	@Test
+	public void testReuse() throws Exception {
+		Path archive = createArchive("a"); //$NON-NLS-1$
+		assertEquals("wrong contents", "a", read(archive)); //$NON-NLS-1$ //$NON-NLS-2$
+		try (ArchivePool.Handle first = fPool.acquire(archive); ArchivePool.Handle second = fPool.acquire(archive)) {
+			assertSame("the handle should be shared", first, second); //$NON-NLS-1$
+		}
+		assertEquals("the archive should be opened once", 1, fPool.getOpenCount()); //$NON-NLS-1$
+		assertEquals("wrong hit count", 2, fPool.getHitCount()); //$NON-NLS-1$
+		assertEquals("the archive should stay open", 1, fPool.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the least recently used archive is closed when the limit is
+	 * exceeded
+	 */
+	@Test
+	public void testEviction() throws Exception {
+		Path a = createArchive("a"); //$NON-NLS-1$
+		Path b = createArchive("b"); //$NON-NLS-1$
+		Path c = createArchive("c"); //$NON-NLS-1$
+		ArchivePool.Handle handle;
+		try (ArchivePool.Handle h = fPool.acquire(a)) {
+			handle = h;
+		}
+		read(b);
+		read(c);
+		assertEquals("the pool should stay in its limit", 2, fPool.size()); //$NON-NLS-1$
+		assertEquals("wrong eviction count", 1, fPool.getEvictionCount()); //$NON-NLS-1$
+		assertFalse("the least recently used archive should be closed", handle.getRoot().getFileSystem().isOpen()); //$NON-NLS-1$
+		try (ArchivePool.Handle reopened = fPool.acquire(a)) {
+			assertNotSame("the archive should be opened again", handle, reopened); //$NON-NLS-1$
+		}
+		assertEquals("wrong open count", 4, fPool.getOpenCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that archives in use are not closed and that the pool is brought
+	 * back in its limit when they are released
+	 */
+	@Test
+	public void testEvictionOnRelease() throws Exception {
+		Path a = createArchive("a"); //$NON-NLS-1$
+		Path b = createArchive("b"); //$NON-NLS-1$
+		Path c = createArchive("c"); //$NON-NLS-1$
+		try (ArchivePool.Handle ha = fPool.acquire(a); ArchivePool.Handle hb = fPool.acquire(b); ArchivePool.Handle hc = fPool.acquire(c)) {
+			assertEquals("archives in use should not be closed", 3, fPool.size()); //$NON-NLS-1$
+			assertTrue("archives in use should be open", ha.getRoot().getFileSystem().isOpen()); //$NON-NLS-1$
+		}
+		assertEquals("the pool should be back in its limit", 2, fPool.size()); //$NON-NLS-1$
+		assertEquals("wrong eviction count", 1, fPool.getEvictionCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that closed archives release their files, also when they are in
+	 * use while being closed
+	 */
+	@Test
+	public void testClose() throws Exception {
+		Path a = createArchive("a"); //$NON-NLS-1$
+		Path b = createArchive("b"); //$NON-NLS-1$
+		ArchivePool.Handle handle;
+		try (ArchivePool.Handle h = fPool.acquire(a)) {
+			handle = h;
+			fPool.close(a);
+			assertEquals("the archive should be removed", 0, fPool.size()); //$NON-NLS-1$
+			assertTrue("an archive in use should stay open", h.getRoot().getFileSystem().isOpen()); //$NON-NLS-1$
+		}
+		assertFalse("the archive should be closed once released", handle.getRoot().getFileSystem().isOpen()); //$NON-NLS-1$
+
+		try (ArchivePool.Handle h = fPool.acquire(b)) {
+			handle = h;
+		}
+		fPool.clear();
+		assertEquals("all archives should be closed", 0, fPool.size()); //$NON-NLS-1$
+		assertFalse("the archive should be closed", handle.getRoot().getFileSystem().isOpen()); //$NON-NLS-1$
+		Files.delete(a);
+		Files.delete(b);
+	}
+}
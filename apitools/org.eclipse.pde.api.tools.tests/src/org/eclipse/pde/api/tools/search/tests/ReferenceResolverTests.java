@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.search.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
+import org.eclipse.pde.api.tools.internal.provisional.search.ApiSearchEngine;
+import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchReporter;
+import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchRequestor;
+import org.eclipse.pde.api.tools.internal.provisional.search.IMetadata;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link ReferenceResolver} remembers resolutions and forgets
+ * them when the baseline or one of its packages changes
+ */
+public class ReferenceResolverTests extends SearchTest {
+
+	/**
+	 * The number of remembered resolutions used and not found by one search
+	 */
+	record Lookups(long hits, long misses) {
+		long total() {
+			return hits + misses;
+		}
+	}
+
+	/**
+	 * Searches the test baseline and returns the lookups of resolutions the
+	 * search made
+	 */
+	private Lookups search() throws Exception {
+		TEST_REQUESTOR.setScopeBaseline(getTestBaseline());
+		TEST_REQUESTOR.setSearchMask(IApiSearchRequestor.INCLUDE_API | IApiSearchRequestor.INCLUDE_INTERNAL);
+		long hits = ReferenceResolver.getResolutionHitCount();
+		long misses = ReferenceResolver.getResolutionMissCount();
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR, new NullReporter(), null);
+		return new Lookups(ReferenceResolver.getResolutionHitCount() - hits, ReferenceResolver.getResolutionMissCount() - misses);
+	}
+
+	/**
+	 * Tests that a second search uses the resolutions of the first one
+	 */
+	@Test
+	public void testResolutionsRemembered() throws Exception {
+		Lookups first = search();
+		assertTrue("the first search should resolve references", first.misses() > 0); //$NON-NLS-1$
+		Lookups second = search();
+		assertEquals("the second search should resolve nothing", 0, second.misses()); //$NON-NLS-1$
+		assertEquals("the second search should use all resolutions", first.total(), second.hits()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that clearing a package only forgets the resolutions of references
+	 * to its types, and that they are remembered again
+	 */
+	@Test
+	public void testClearPackage() throws Exception {
+		Lookups first = search();
+		((ApiBaseline) getTestBaseline()).clearPackage("x.y.z"); //$NON-NLS-1$
+		Lookups cleared = search();
+		assertEquals("the same references should be resolved", first.total(), cleared.total()); //$NON-NLS-1$
+		assertTrue("references to the package should be resolved again", cleared.misses() > 0); //$NON-NLS-1$
+		assertTrue("references to other packages should be remembered", cleared.hits() > 0); //$NON-NLS-1$
+		assertEquals("the resolutions should be remembered again", 0, search().misses()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that clearing the baseline forgets all of its resolutions
+	 */
+	@Test
+	public void testClearBaseline() throws Exception {
+		Lookups first = search();
+		((ApiBaseline) getTestBaseline()).clearPackage("x.y.z"); //$NON-NLS-1$
+		Lookups afterPackage = search();
+		ReferenceResolver.clearResolutions(getTestBaseline());
+		Lookups afterBaseline = search();
+		assertEquals("the same references should be resolved", first.total(), afterBaseline.total()); //$NON-NLS-1$
+		assertTrue("all references should be resolved again", afterBaseline.misses() > afterPackage.misses()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reporter ignoring the results
+	 */
+	static class NullReporter implements IApiSearchReporter {
+		@Override
+		public void reportResults(IApiElement element, IReference[] references) {
+		}
+
+		@Override
+		public void reportNotSearched(IApiElement[] elements) {
+		}
+
+		@Override
+		public void reportMetadata(IMetadata data) {
+		}
+
+		@Override
+		public void reportCounts() {
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -82,6 +82,13 @@ public class TestCompositeSearchReporter implements IApiSearchReporter {
 		}
 	}
 
+	@Override
+	public void reportSearched(IApiElement element) {
+		for (IApiSearchReporter reporter : this.reporters) {
+			reporter.reportSearched(element);
+		}
+	}
+
 	@Override
 	public void reportMetadata(IMetadata data) {
 	}
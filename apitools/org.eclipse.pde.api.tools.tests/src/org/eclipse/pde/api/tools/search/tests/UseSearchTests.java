@@ -21,14 +21,24 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.search.ApiSearchEngine;
 import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchReporter;
 import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchRequestor;
+import org.eclipse.pde.api.tools.internal.provisional.search.IMetadata;
+import org.eclipse.pde.api.tools.internal.search.UseReportConverter;
 import org.eclipse.pde.api.tools.internal.search.XmlSearchReporter;
 import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
 import org.junit.After;
@@ -45,6 +55,8 @@ public class UseSearchTests extends SearchTest {
 	static IPath TMP_PATH = TestSuiteHelper.getUserDirectoryPath().append("use-search-tests"); //$NON-NLS-1$
 	static IPath XML_PATH = TMP_PATH.append("xml"); //$NON-NLS-1$
 	static IPath HTML_PATH = TMP_PATH.append("html"); //$NON-NLS-1$
+	static IPath BATCH_XML_PATH = TMP_PATH.append("batch-xml"); //$NON-NLS-1$
+	static IPath SEQUENTIAL_HTML_PATH = TMP_PATH.append("sequential-html"); //$NON-NLS-1$
 	final HashMap<String, HashSet<String>> usedprojects = new HashMap<>();
 
 	@Override
@@ -189,6 +201,103 @@ public class UseSearchTests extends SearchTest {
 		}
 	}
 
+	/**
+	 * Tests that the XML reporter writes the same files when the references of
+	 * a component are merged into the XML files once, as it does, and when
+	 * every batch of references is written to the XML files as it is reported
+	 */
+	@Test
+	public void testSearchXmlReporterBatchesUnchanged() throws Exception {
+		TEST_REQUESTOR.setScopeBaseline(getTestBaseline());
+		TEST_REQUESTOR.setSearchMask(IApiSearchRequestor.INCLUDE_API | IApiSearchRequestor.INCLUDE_INTERNAL);
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR, new SingleReferenceReporter(new XmlSearchReporter(XML_PATH.toOSString(), false), false), null);
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR, new SingleReferenceReporter(new XmlSearchReporter(BATCH_XML_PATH.toOSString(), false), true), null);
+		List<Path> files = listFiles(XML_PATH.toFile().toPath());
+		assertFalse("the report should not be empty", files.isEmpty()); //$NON-NLS-1$
+		assertEquals("the reports should have the same files", files, listFiles(BATCH_XML_PATH.toFile().toPath())); //$NON-NLS-1$
+		for (Path file : files) {
+			assertEquals("the file " + file + " should be the same", //$NON-NLS-1$ //$NON-NLS-2$
+					Files.readString(XML_PATH.toFile().toPath().resolve(file)),
+					Files.readString(BATCH_XML_PATH.toFile().toPath().resolve(file)));
+		}
+	}
+
+	/**
+	 * Tests that the use report pages written in parallel with the compiled
+	 * XSLTs are the same as the pages written one after the other
+	 */
+	@Test
+	public void testUseReportPagesUnchanged() throws Exception {
+		TEST_REQUESTOR.setScopeBaseline(getTestBaseline());
+		TEST_REQUESTOR.setSearchMask(IApiSearchRequestor.INCLUDE_API | IApiSearchRequestor.INCLUDE_INTERNAL);
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR, new XmlSearchReporter(XML_PATH.toOSString(), false), null);
+		new UseReportConverter(HTML_PATH.toOSString(), XML_PATH.toOSString(), null, null).convert(null, new NullProgressMonitor());
+		new UseReportConverter(SEQUENTIAL_HTML_PATH.toOSString(), XML_PATH.toOSString(), null, null) {
+			@Override
+			protected boolean startPageWriters() {
+				return false;
+			}
+		}.convert(null, new NullProgressMonitor());
+		List<Path> files = listFiles(SEQUENTIAL_HTML_PATH.toFile().toPath());
+		assertTrue("the report should have pages of referenced bundles", files.size() > 2); //$NON-NLS-1$
+		assertEquals("the reports should have the same pages", files, listFiles(HTML_PATH.toFile().toPath())); //$NON-NLS-1$
+		for (Path file : files) {
+			assertEquals("the page " + file + " should be the same", //$NON-NLS-1$ //$NON-NLS-2$
+					Files.readString(SEQUENTIAL_HTML_PATH.toFile().toPath().resolve(file)),
+					Files.readString(HTML_PATH.toFile().toPath().resolve(file)));
+		}
+	}
+
+	private static List<Path> listFiles(Path root) throws IOException {
+		try (Stream<Path> files = Files.walk(root)) {
+			return files.filter(Files::isRegularFile).map(root::relativize).sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Reports every reference as a batch of its own, optionally writing each
+	 * batch to the XML files at once
+	 */
+	static class SingleReferenceReporter implements IApiSearchReporter {
+		private final IApiSearchReporter fDelegate;
+		private final boolean fWriteEachBatch;
+
+		SingleReferenceReporter(IApiSearchReporter delegate, boolean writeEachBatch) {
+			fDelegate = delegate;
+			fWriteEachBatch = writeEachBatch;
+		}
+
+		@Override
+		public void reportResults(IApiElement element, IReference[] references) {
+			for (IReference reference : references) {
+				fDelegate.reportResults(element, new IReference[] { reference });
+				if (fWriteEachBatch) {
+					fDelegate.reportSearched(element);
+				}
+			}
+		}
+
+		@Override
+		public void reportSearched(IApiElement element) {
+			fDelegate.reportSearched(element);
+		}
+
+		@Override
+		public void reportNotSearched(IApiElement[] elements) {
+			fDelegate.reportNotSearched(elements);
+		}
+
+		@Override
+		public void reportMetadata(IMetadata data) {
+			fDelegate.reportMetadata(data);
+		}
+
+		@Override
+		public void reportCounts() {
+			fDelegate.reportCounts();
+		}
+	}
+
 	String getProjectId(String project, String version) {
 		StringBuilder buffer = new StringBuilder();
 		buffer.append(project).append(" ").append('(').append(version).append(')'); //$NON-NLS-1$
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.search.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMemberDescriptor;
+import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
+import org.eclipse.pde.api.tools.internal.search.XmlReferenceDescriptorWriter;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that references appended to the segments of the
+ * {@link XmlReferenceDescriptorWriter} and merged once produce the same XML as
+ * writing every batch of references on its own
+ */
+public class XmlReferenceDescriptorWriterTests {
+
+	static final IComponentDescriptor ORIGIN = Factory.componentDescriptor("origin", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+	static final IComponentDescriptor TARGET = Factory.componentDescriptor("target", "2.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+	static final IComponentDescriptor OTHER = Factory.componentDescriptor("other", "3.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	Path fDirectory;
+
+	@Before
+	public void setUp() throws Exception {
+		fDirectory = Files.createTempDirectory("references"); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		TestSuiteHelper.delete(fDirectory.toFile());
+	}
+
+	/**
+	 * Returns a reference from a method of the origin component to the given
+	 * member
+	 */
+	static IReferenceDescriptor reference(IComponentDescriptor target, IMemberDescriptor member, int line, int kind, int flags, int visibility) {
+		return Factory.referenceDescriptor(ORIGIN, Factory.methodDescriptor("o.Origin", "run", "()V"), line, target, member, kind, flags, visibility, null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Returns batches of references as a use scan reports them, one per
+	 * scanned component. Later batches reference members of earlier ones
+	 * again, so the XML files of their groups have to be merged.
+	 */
+	static IReferenceDescriptor[][] batches() {
+		IMemberDescriptor type = Factory.typeDescriptor("t.Type"); //$NON-NLS-1$
+		IMemberDescriptor otherType = Factory.typeDescriptor("t.OtherType"); //$NON-NLS-1$
+		IMemberDescriptor method = Factory.methodDescriptor("t.Type", "call", "(I)V"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		IMemberDescriptor field = Factory.fieldDescriptor("t.Type", "value"); //$NON-NLS-1$ //$NON-NLS-2$
+		IMemberDescriptor internal = Factory.typeDescriptor("o.internal.Internal"); //$NON-NLS-1$
+		return new IReferenceDescriptor[][] {
+				{ reference(TARGET, type, 10, IReference.REF_EXTENDS, 0, VisibilityModifiers.API),
+						reference(TARGET, method, 11, IReference.REF_VIRTUALMETHOD, 0, VisibilityModifiers.API),
+						reference(OTHER, internal, 12, IReference.REF_PARAMETER, IReference.F_ILLEGAL, VisibilityModifiers.PRIVATE) },
+				{ reference(TARGET, type, 20, IReference.REF_PARAMETER, 0, VisibilityModifiers.API),
+						reference(TARGET, otherType, 21, IReference.REF_EXTENDS, 0, VisibilityModifiers.API),
+						reference(TARGET, field, 22, IReference.REF_GETFIELD, 0, VisibilityModifiers.PRIVATE) },
+				{ reference(TARGET, type, 30, IReference.REF_EXTENDS, 0, VisibilityModifiers.API),
+						reference(TARGET, method, 31, IReference.REF_STATICMETHOD, 0, VisibilityModifiers.API),
+						reference(OTHER, internal, 32, IReference.REF_PARAMETER, IReference.F_ILLEGAL, VisibilityModifiers.PRIVATE),
+						reference(TARGET, field, 33, IReference.REF_GETFIELD, 0, VisibilityModifiers.PRIVATE) } };
+	}
+
+	/**
+	 * Returns the contents of the files below the given directory by their
+	 * relative path. Every rewrite of an XML file indents the elements it read
+	 * again, so the whitespace between elements is removed.
+	 */
+	static Map<String, String> contents(Path directory) throws IOException {
+		Map<String, String> contents = new TreeMap<>();
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				contents.put(directory.relativize(file).toString(), Files.readString(file).replaceAll(">\\s+<", "><")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return contents;
+	}
+
+	/**
+	 * Tests that appending batches and merging them once writes the same XML
+	 * files as writing the batches one after the other
+	 */
+	@Test
+	public void testAppendedBatches() throws Exception {
+		Path written = fDirectory.resolve("written"); //$NON-NLS-1$
+		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(written.toString());
+		for (IReferenceDescriptor[] batch : batches()) {
+			writer.writeReferences(batch);
+		}
+		Path appended = fDirectory.resolve("appended"); //$NON-NLS-1$
+		writer = new XmlReferenceDescriptorWriter(appended.toString());
+		for (IReferenceDescriptor[] batch : batches()) {
+			writer.appendReferences(batch);
+		}
+		writer.finish();
+
+		Map<String, String> expected = contents(written);
+		assertEquals("Wrong number of XML files", 4, expected.size()); //$NON-NLS-1$
+		assertEquals("Appended batches differ", expected, contents(appended)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the segments of a run that was interrupted before merging are
+	 * removed and not merged by the next run
+	 */
+	@Test
+	public void testInterruptedRun() throws Exception {
+		IReferenceDescriptor[][] batches = batches();
+		Path expectedDirectory = fDirectory.resolve("expected"); //$NON-NLS-1$
+		new XmlReferenceDescriptorWriter(expectedDirectory.toString()).writeReferences(batches[2]);
+
+		Path directory = fDirectory.resolve("interrupted"); //$NON-NLS-1$
+		XmlReferenceDescriptorWriter interrupted = new XmlReferenceDescriptorWriter(directory.toString());
+		interrupted.appendReferences(batches[0]);
+		interrupted.appendReferences(batches[1]);
+		assertFalse("No segments written", segments(directory).isEmpty()); //$NON-NLS-1$
+
+		// a new scan of the same location does not finish the interrupted one
+		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(directory.toString());
+		writer.appendReferences(batches[2]);
+		writer.finish();
+		assertTrue("Segments left", segments(directory).isEmpty()); //$NON-NLS-1$
+		assertEquals("Interrupted references merged", contents(expectedDirectory), contents(directory)); //$NON-NLS-1$
+	}
+
+	static List<Path> segments(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".segment")).collect(Collectors.toList()); //$NON-NLS-1$
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,16 @@
 package org.eclipse.pde.api.tools.tests;
 
 
+import org.eclipse.pde.api.tools.builder.tests.BuildStateTests;
 import org.eclipse.pde.api.tools.builder.tests.OSGiLessAnalysisTests;
 import org.eclipse.pde.api.tools.comparator.tests.AllDeltaTests;
+import org.eclipse.pde.api.tools.model.tests.ApiBaselineIndexTests;
 import org.eclipse.pde.api.tools.model.tests.ApiBaselineTests;
 import org.eclipse.pde.api.tools.model.tests.ApiDescriptionTests;
 import org.eclipse.pde.api.tools.model.tests.ApiModelCacheTests;
+import org.eclipse.pde.api.tools.model.tests.ApiModelFactoryTests;
 import org.eclipse.pde.api.tools.model.tests.ApiTypeContainerTests;
+import org.eclipse.pde.api.tools.model.tests.ArchivePoolTests;
 import org.eclipse.pde.api.tools.model.tests.BadClassfileTests;
 import org.eclipse.pde.api.tools.model.tests.CRCTests;
 import org.eclipse.pde.api.tools.model.tests.ClassFileScannerTests;
@@ -31,9 +35,12 @@ import org.eclipse.pde.api.tools.problems.tests.ApiFilterTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiProblemFactoryTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiProblemTests;
 import org.eclipse.pde.api.tools.reference.tests.SearchScopeTests;
+import org.eclipse.pde.api.tools.search.tests.ReferenceResolverTests;
 import org.eclipse.pde.api.tools.search.tests.SearchEngineTests;
 import org.eclipse.pde.api.tools.search.tests.SkippedComponentTests;
 import org.eclipse.pde.api.tools.search.tests.UseSearchTests;
+import org.eclipse.pde.api.tools.search.tests.XmlReferenceDescriptorWriterTests;
+import org.eclipse.pde.api.tools.util.tests.ConcurrentClockCacheTests;
 import org.eclipse.pde.api.tools.util.tests.HeadlessApiBaselineManagerTests;
 import org.eclipse.pde.api.tools.util.tests.SignaturesTests;
 import org.eclipse.pde.api.tools.util.tests.TarEntryTests;
@@ -57,13 +64,13 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-		ApiDescriptionTests.class, SearchEngineTests.class, SkippedComponentTests.class, UseSearchTests.class,
+		ApiDescriptionTests.class, SearchEngineTests.class, SkippedComponentTests.class, UseSearchTests.class, XmlReferenceDescriptorWriterTests.class, ReferenceResolverTests.class,
 		HeadlessApiBaselineManagerTests.class, TagScannerTests.class, ComponentManifestTests.class, UtilTests.class,
 		SignaturesTests.class, ApiBaselineTests.class, ApiTypeContainerTests.class, ClassFileScannerTests.class,
 		Java8ClassfileScannerTests.class, ElementDescriptorTests.class, SearchScopeTests.class, ApiProblemTests.class,
 		ApiProblemFactoryTests.class, ApiFilterTests.class, TarEntryTests.class, TarExceptionTests.class,
-		OSGiLessAnalysisTests.class, ApiModelCacheTests.class, BadClassfileTests.class,
-	CRCTests.class,
+		OSGiLessAnalysisTests.class, ApiModelCacheTests.class, BadClassfileTests.class, ApiBaselineIndexTests.class, ApiModelFactoryTests.class,
+	CRCTests.class, ConcurrentClockCacheTests.class, BuildStateTests.class, ArchivePoolTests.class,
 	AllDeltaTests.class
 })
 public class ApiToolsTestSuite {
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.util.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.pde.api.tools.internal.ConcurrentClockCache;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ConcurrentClockCache}
+ */
+public class ConcurrentClockCacheTests {
+
+	/**
+	 * Tests that the cache stays in its capacity and counts its evictions
+	 */
+	@Test
+	public void testEviction() {
+		ConcurrentClockCache<Integer, String> cache = new ConcurrentClockCache<>(10);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, String.valueOf(i));
+		}
+		assertEquals("wrong size", 10, cache.size()); //$NON-NLS-1$
+		assertEquals("wrong eviction count", 90, cache.getEvictionCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that entries which are read survive the eviction of entries which
+	 * are not
+	 */
+	@Test
+	public void testReferencedEntriesSurvive() {
+		ConcurrentClockCache<Integer, String> cache = new ConcurrentClockCache<>(10);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, String.valueOf(i));
+		}
+		for (int i = 0; i < 5; i++) {
+			assertNotNull(cache.get(i));
+		}
+		for (int i = 10; i < 15; i++) {
+			cache.put(i, String.valueOf(i));
+		}
+		for (int i = 0; i < 5; i++) {
+			assertNotNull("a used entry was evicted: " + i, cache.get(i)); //$NON-NLS-1$
+		}
+		assertEquals("wrong size", 10, cache.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests the hit and miss counters
+	 */
+	@Test
+	public void testCounters() {
+		ConcurrentClockCache<String, String> cache = new ConcurrentClockCache<>(10);
+		cache.put("a", "a"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull(cache.get("a")); //$NON-NLS-1$
+		assertNull(cache.get("b")); //$NON-NLS-1$
+		assertEquals("b", cache.computeIfAbsent("b", key -> key)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("wrong hit count", 1, cache.getHitCount()); //$NON-NLS-1$
+		assertEquals("wrong miss count", 2, cache.getMissCount()); //$NON-NLS-1$
+		assertEquals("a", cache.remove("a")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("the cache should not be empty", !cache.isEmpty()); //$NON-NLS-1$
+		cache.clear();
+		assertTrue("the cache should be empty", cache.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the cache stays bounded when it is filled by many threads
+	 */
+	@Test
+	public void testConcurrentPut() throws Exception {
+		ConcurrentClockCache<Integer, Integer> cache = new ConcurrentClockCache<>(100);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int offset = t * 10000;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10000; i++) {
+						cache.put(offset + i, i);
+						cache.get(offset + i / 2);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// a last put evicts what was added while another thread was evicting
+		cache.put(-1, -1);
+		assertTrue("the cache exceeds its capacity: " + cache.size(), cache.size() <= 100); //$NON-NLS-1$
+	}
+}
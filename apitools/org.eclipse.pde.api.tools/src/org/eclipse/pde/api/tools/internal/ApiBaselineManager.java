@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,6 +51,7 @@ import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisBuilder.ApiAnalysisJob;
 import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ApiBaselineIndex;
 import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
@@ -185,6 +186,7 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 			baselinecache.put(newbaseline.getName(), newbaseline);
 			if (((ApiBaseline) newbaseline).peekInfos()) {
 				hasinfos.add(newbaseline.getName());
+				scheduleIndexing(newbaseline);
 			}
 			fNeedsSaving = true;
 		}
@@ -215,6 +217,11 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 					ApiPlugin.log(e);
 				}
 			}
+			try {
+				Files.deleteIfExists(getIndexFile(name).toPath());
+			} catch (IOException e) {
+				ApiPlugin.log(e);
+			}
 			fNeedsSaving = true;
 
 			// flush the model cache
@@ -239,16 +246,70 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 		if (filename != null) {
 			File file = new File(filename);
 			if (file.exists()) {
+				ApiBaselineIndex index = null;
+				try {
+					index = ApiBaselineIndex.open(getIndexFile(baseline.getName()));
+				} catch (IOException e) {
+					ApiPlugin.log(e);
+				}
+				baseline.setIndex(index);
 				try (FileInputStream inputStream = new FileInputStream(file)) {
 					baseline.restoreFrom(inputStream);
 				} catch (IOException e) {
 					ApiPlugin.log(e);
 				}
 				hasinfos.add(baseline.getName());
+				if (index == null || !index.isUpToDate(baseline)) {
+					scheduleIndexing(baseline);
+				}
 			}
 		}
 	}
 
+	/**
+	 * Returns the file of the index of the baseline with the given name
+	 *
+	 * @param name the name of the baseline
+	 * @return the index file
+	 */
+	private File getIndexFile(String name) {
+		return savelocation.append(name + ApiBaselineIndex.INDEX_FILE_EXTENSION).toFile();
+	}
+
+	/**
+	 * Writes the index of the given baseline in the background. The index is
+	 * used the next time the baseline is restored, to create its components
+	 * without reading their jars.
+	 *
+	 * @param baseline the baseline to index
+	 */
+	private void scheduleIndexing(IApiBaseline baseline) {
+		if (savelocation == null || !ApiPlugin.isRunningInFramework()) {
+			return;
+		}
+		String name = baseline.getName();
+		File file = getIndexFile(name);
+		Job job = Job.createSystem("Indexing API baseline " + name, monitor -> { //$NON-NLS-1$
+			try {
+				ApiBaselineIndex.write(baseline, file, monitor);
+			} catch (CoreException e) {
+				if (!baseline.isDisposed()) {
+					throw e;
+				}
+			}
+			if (!isExistingProfileName(name)) {
+				// removed while it was indexed
+				try {
+					Files.deleteIfExists(file.toPath());
+				} catch (IOException e) {
+					ApiPlugin.log(e);
+				}
+			}
+		});
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
 	public boolean isBaselineLoaded(IApiBaseline baseline) {
 		return hasinfos.contains(baseline.getName());
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,21 @@
 package org.eclipse.pde.api.tools.internal;
 
 import java.text.MessageFormat;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -95,6 +102,239 @@ public class ApiDescription implements IApiDescription {
 	 */
 	static NodeComparator fgComparator = new NodeComparator();
 
+	/**
+	 * The child nodes of a {@link ManifestNode} or the package nodes of a
+	 * description, keyed by their element.
+	 * <p>
+	 * There is one of these for every node in a description, and most nodes
+	 * (fields and methods) never get any children. Rather than a hash map per
+	 * node, the children are kept in an array in insertion order together with
+	 * an array of the hash codes of their elements, and nothing is allocated
+	 * until the first child is added. The key of every mapping is the element
+	 * of its node, so no key or entry objects are retained.
+	 * </p>
+	 * <p>
+	 * Up to {@link #SCAN_LIMIT} children are found by scanning their hash
+	 * codes. Nodes with more children, like packages, also get an open
+	 * addressing table of positions, so their lookups do not depend on the
+	 * number of children.
+	 * </p>
+	 */
+	static final class ManifestChildren extends AbstractMap<IElementDescriptor, ManifestNode> {
+		private static final ManifestNode[] NO_NODES = new ManifestNode[0];
+		private static final int[] NO_HASHES = new int[0];
+
+		/**
+		 * The number of children up to which a lookup scans the hash codes
+		 */
+		static final int SCAN_LIMIT = 16;
+
+		/**
+		 * Child nodes in insertion order
+		 */
+		private ManifestNode[] fNodes = NO_NODES;
+		/**
+		 * Hash codes of the elements of {@link #fNodes}
+		 */
+		private int[] fHashes = NO_HASHES;
+		/**
+		 * Positions into {@link #fNodes} plus one by the hash code of their
+		 * element, or <code>null</code> while there are no more than
+		 * {@link #SCAN_LIMIT} children
+		 */
+		private int[] fTable = null;
+		private int fSize = 0;
+		private int fModCount = 0;
+
+		/**
+		 * Returns the slot of the given hash code in a table of the given
+		 * length, a power of two
+		 */
+		private static int slot(int hash, int length) {
+			return (hash ^ (hash >>> 16)) & (length - 1);
+		}
+
+		/**
+		 * Returns the position of the child for the given key in
+		 * {@link #fNodes}, or -1 if there is none.
+		 */
+		private int indexOf(Object key) {
+			if (!(key instanceof IElementDescriptor)) {
+				return -1;
+			}
+			int hash = key.hashCode();
+			if (fTable == null) {
+				for (int i = 0; i < fSize; i++) {
+					if (fHashes[i] == hash && key.equals(fNodes[i].element)) {
+						return i;
+					}
+				}
+				return -1;
+			}
+			int mask = fTable.length - 1;
+			for (int slot = slot(hash, fTable.length);; slot = (slot + 1) & mask) {
+				int position = fTable[slot] - 1;
+				if (position < 0) {
+					return -1;
+				}
+				if (fHashes[position] == hash && key.equals(fNodes[position].element)) {
+					return position;
+				}
+			}
+		}
+
+		/**
+		 * Builds the table for the current children, or drops it if they can
+		 * be scanned. The table is at most two thirds full.
+		 */
+		private void rehash() {
+			if (fSize <= SCAN_LIMIT) {
+				fTable = null;
+				return;
+			}
+			int length = Integer.highestOneBit(fSize + (fSize >> 1)) << 1;
+			int[] table = new int[length];
+			for (int i = 0; i < fSize; i++) {
+				int slot = slot(fHashes[i], length);
+				while (table[slot] != 0) {
+					slot = (slot + 1) & (length - 1);
+				}
+				table[slot] = i + 1;
+			}
+			fTable = table;
+		}
+
+		@Override
+		public ManifestNode get(Object key) {
+			int index = indexOf(key);
+			return index < 0 ? null : fNodes[index];
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(key) >= 0;
+		}
+
+		@Override
+		public ManifestNode put(IElementDescriptor key, ManifestNode value) {
+			Assert.isLegal(value != null && key.equals(value.element));
+			int index = indexOf(key);
+			if (index >= 0) {
+				ManifestNode old = fNodes[index];
+				fNodes[index] = value;
+				return old;
+			}
+			if (fSize == fNodes.length) {
+				int capacity = fSize + (fSize >> 1) + 1;
+				fNodes = Arrays.copyOf(fNodes, capacity);
+				fHashes = Arrays.copyOf(fHashes, capacity);
+			}
+			fNodes[fSize] = value;
+			fHashes[fSize] = key.hashCode();
+			fSize++;
+			fModCount++;
+			if (fTable == null || fSize + (fSize >> 1) > fTable.length) {
+				rehash();
+			} else {
+				int slot = slot(fHashes[fSize - 1], fTable.length);
+				while (fTable[slot] != 0) {
+					slot = (slot + 1) & (fTable.length - 1);
+				}
+				fTable[slot] = fSize;
+			}
+			return null;
+		}
+
+		@Override
+		public ManifestNode remove(Object key) {
+			int index = indexOf(key);
+			return index < 0 ? null : removeAt(index);
+		}
+
+		private ManifestNode removeAt(int index) {
+			ManifestNode old = fNodes[index];
+			System.arraycopy(fNodes, index + 1, fNodes, index, fSize - index - 1);
+			System.arraycopy(fHashes, index + 1, fHashes, index, fSize - index - 1);
+			fSize--;
+			fNodes[fSize] = null;
+			fModCount++;
+			if (fTable != null) {
+				rehash();
+			}
+			return old;
+		}
+
+		@Override
+		public int size() {
+			return fSize;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return fSize == 0;
+		}
+
+		@Override
+		public void clear() {
+			fNodes = NO_NODES;
+			fHashes = NO_HASHES;
+			fTable = null;
+			fSize = 0;
+			fModCount++;
+		}
+
+		@Override
+		public Set<Entry<IElementDescriptor, ManifestNode>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public int size() {
+					return fSize;
+				}
+
+				@Override
+				public Iterator<Entry<IElementDescriptor, ManifestNode>> iterator() {
+					return new Iterator<>() {
+						private int fNext = 0;
+						private int fLast = -1;
+						private int fExpectedModCount = fModCount;
+
+						@Override
+						public boolean hasNext() {
+							return fNext < fSize;
+						}
+
+						@Override
+						public Entry<IElementDescriptor, ManifestNode> next() {
+							if (fExpectedModCount != fModCount) {
+								throw new ConcurrentModificationException();
+							}
+							if (fNext >= fSize) {
+								throw new NoSuchElementException();
+							}
+							fLast = fNext++;
+							ManifestNode node = fNodes[fLast];
+							return new SimpleImmutableEntry<>(node.element, node);
+						}
+
+						@Override
+						public void remove() {
+							if (fLast < 0) {
+								throw new IllegalStateException();
+							}
+							if (fExpectedModCount != fModCount) {
+								throw new ConcurrentModificationException();
+							}
+							removeAt(fLast);
+							fNext = fLast;
+							fLast = -1;
+							fExpectedModCount = fModCount;
+						}
+					};
+				}
+			};
+		}
+	}
+
 	/**
 	 * Represents a single node in the tree of mapped manifest items
 	 */
@@ -102,7 +342,7 @@ public class ApiDescription implements IApiDescription {
 		protected IElementDescriptor element = null;
 		protected int visibility, restrictions;
 		protected ManifestNode parent = null;
-		protected HashMap<IElementDescriptor, ManifestNode> children = new LinkedHashMap<>(1);
+		protected final ManifestChildren children = new ManifestChildren();
 
 		public ManifestNode(ManifestNode parent, IElementDescriptor element, int visibility, int restrictions) {
 			this.element = element;
@@ -247,10 +487,10 @@ public class ApiDescription implements IApiDescription {
 	 * node objects represented as:
 	 *
 	 * <pre>
-	 * HashMap<IElementDescriptor(package), ManifestNode(package)>
+	 * Map<IElementDescriptor(package), ManifestNode(package)>
 	 * </pre>
 	 */
-	protected Map<IElementDescriptor, ManifestNode> fPackageMap = new LinkedHashMap<>();
+	protected Map<IElementDescriptor, ManifestNode> fPackageMap = new ManifestChildren();
 
 	/**
 	 * This map holds the mapping of special access kinds for packages and has
@@ -390,7 +630,7 @@ public class ApiDescription implements IApiDescription {
 			buffer.append(element);
 			System.out.println(buffer.toString());
 		}
-		IElementDescriptor[] path = element.getPath();
+		IElementDescriptor[] path = getPath(element);
 		Map<IElementDescriptor, ManifestNode> map = fPackageMap;
 		ManifestNode parentNode = null;
 		ManifestNode node = null;
@@ -433,6 +673,25 @@ public class ApiDescription implements IApiDescription {
 		return node;
 	}
 
+	/**
+	 * Returns the path from the root element down to the given element, like
+	 * {@link IElementDescriptor#getPath()} but without the intermediate list.
+	 *
+	 * @param element the element
+	 * @return the path to the element
+	 */
+	private static IElementDescriptor[] getPath(IElementDescriptor element) {
+		int depth = 0;
+		for (IElementDescriptor current = element; current != null; current = current.getParent()) {
+			depth++;
+		}
+		IElementDescriptor[] path = new IElementDescriptor[depth];
+		for (IElementDescriptor current = element; current != null; current = current.getParent()) {
+			path[--depth] = current;
+		}
+		return path;
+	}
+
 	@Override
 	public IApiAnnotations resolveAnnotations(IElementDescriptor element) {
 		ManifestNode node = findNode(element, false);
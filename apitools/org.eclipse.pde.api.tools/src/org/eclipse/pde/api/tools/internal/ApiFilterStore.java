@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.ITextFileBuffer;
@@ -71,12 +72,35 @@ import org.w3c.dom.Element;
  *
  * @since 1.0.0
  */
-public class ApiFilterStore extends FilterStore implements IResourceChangeListener {
+public final class ApiFilterStore extends FilterStore implements IResourceChangeListener {
 
 	/**
-	 * Map used to collect unused {@link IApiProblemFilter}s
+	 * The filters of a resource with the same problem id and message
+	 * arguments hash, see {@link FilterKey}
 	 */
-	private HashMap<IResource, Set<IApiProblemFilter>> fUnusedFilters = null;
+	private record Filters(IResource resource, IApiProblemFilter[] filters) {
+	}
+
+	/**
+	 * Key of the filters that may match a problem: the project relative path of
+	 * the resource, the problem id and the hash of the simple names of the
+	 * message arguments, as arguments match by simple name
+	 */
+	private record FilterKey(IPath path, int id, int arguments) {
+	}
+
+	/**
+	 * Map used to collect unused {@link IApiProblemFilter}s, changed
+	 * concurrently by {@link #isFiltered(IApiProblem)}
+	 */
+	private volatile Map<IResource, Set<IApiProblemFilter>> fUnusedFilters = null;
+
+	/**
+	 * Immutable index of the filters for {@link #isFiltered(IApiProblem)},
+	 * replaced when the filters change. <code>null</code> if it has to be
+	 * built.
+	 */
+	private volatile Map<FilterKey, Filters> fSnapshot = null;
 
 	/**
 	 * The backing {@link IJavaProject}
@@ -226,6 +250,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			}
 			fNeedsSaving |= pfilters.add(filter);
 		}
+		filtersChanged();
 		persistApiFilters();
 	}
 
@@ -263,32 +288,35 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	}
 
 	@Override
-	public synchronized boolean isFiltered(IApiProblem problem) {
-		initializeApiFilters();
+	public boolean isFiltered(IApiProblem problem) {
 		String resourcePath = problem.getResourcePath();
 		if (resourcePath == null) {
 			return false;
 		}
-		IResource resource = fProject.getProject().findMember(IPath.fromOSString(resourcePath));
-		if (resource == null) {
-			if (ApiPlugin.DEBUG_FILTER_STORE) {
-				System.out.println("no resource exists: [" + resourcePath + "]"); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-			return false;
+		Map<FilterKey, Filters> snapshot = fSnapshot;
+		if (snapshot == null) {
+			snapshot = getSnapshot();
 		}
-		IApiProblemFilter[] filters = this.getFilters(resource);
+		IPath path = IPath.fromOSString(resourcePath).makeRelative().removeTrailingSeparator();
+		Filters filters = snapshot.get(new FilterKey(path, problem.getId(), getArgumentsHash(problem.getMessageArguments())));
 		if (filters == null) {
 			if (ApiPlugin.DEBUG_FILTER_STORE) {
-				System.out.println("no filters defined for [" + resourcePath + "] return not filtered"); //$NON-NLS-1$ //$NON-NLS-2$
+				System.out.println("no filter defined for problem: [" + problem.toString() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			return false;
 		}
-		for (IApiProblemFilter filter : filters) {
+		for (IApiProblemFilter filter : filters.filters()) {
 			if (problemsMatch(filter.getUnderlyingProblem(), problem)) {
+				if (!filters.resource().exists()) {
+					if (ApiPlugin.DEBUG_FILTER_STORE) {
+						System.out.println("no resource exists: [" + resourcePath + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					return false;
+				}
 				if (ApiPlugin.DEBUG_FILTER_STORE) {
 					System.out.println("recording filter used: [" + filter.toString() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
 				}
-				recordFilterUsed(resource, filter);
+				recordFilterUsed(filters.resource(), filter);
 				return true;
 			}
 		}
@@ -298,6 +326,74 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 		return false;
 	}
 
+	/**
+	 * Returns the index of the filters, building it if the filters changed
+	 *
+	 * @return the index of the filters
+	 */
+	private synchronized Map<FilterKey, Filters> getSnapshot() {
+		Map<FilterKey, Filters> snapshot = fSnapshot;
+		if (snapshot != null) {
+			return snapshot;
+		}
+		initializeApiFilters();
+		Map<FilterKey, List<IApiProblemFilter>> index = new LinkedHashMap<>();
+		Map<FilterKey, IResource> resources = new HashMap<>();
+		for (Entry<IResource, Map<String, Set<IApiProblemFilter>>> entry : fFilterMap.entrySet()) {
+			IResource resource = entry.getKey();
+			IPath path = resource.getProjectRelativePath().makeRelative().removeTrailingSeparator();
+			for (Set<IApiProblemFilter> filters : entry.getValue().values()) {
+				for (IApiProblemFilter filter : filters) {
+					IApiProblem problem = filter.getUnderlyingProblem();
+					FilterKey key = new FilterKey(path, problem.getId(), getArgumentsHash(problem.getMessageArguments()));
+					index.computeIfAbsent(key, k -> new ArrayList<>()).add(filter);
+					resources.put(key, resource);
+				}
+			}
+		}
+		snapshot = new HashMap<>(index.size() * 4 / 3 + 1);
+		for (Entry<FilterKey, List<IApiProblemFilter>> entry : index.entrySet()) {
+			List<IApiProblemFilter> filters = entry.getValue();
+			snapshot.put(entry.getKey(), new Filters(resources.get(entry.getKey()), filters.toArray(new IApiProblemFilter[filters.size()])));
+		}
+		snapshot = Collections.unmodifiableMap(snapshot);
+		fSnapshot = snapshot;
+		if (ApiPlugin.DEBUG_FILTER_STORE) {
+			System.out.println("indexed " + snapshot.size() + " filter keys for project [" + fProject.getElementName() + "]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Discards the index of the filters, it is built again from the changed
+	 * filters on the next {@link #isFiltered(IApiProblem)}
+	 */
+	private void filtersChanged() {
+		fSnapshot = null;
+	}
+
+	/**
+	 * Returns the hash of the simple names of the given message arguments,
+	 * equal for all arguments matched by
+	 * {@link #problemsMatch(IApiProblem, IApiProblem)}
+	 *
+	 * @param arguments the message arguments
+	 * @return the hash
+	 */
+	private static int getArgumentsHash(String[] arguments) {
+		if (arguments == null) {
+			return 0;
+		}
+		int hash = arguments.length;
+		for (String argument : arguments) {
+			for (int i = argument.lastIndexOf('.') + 1; i < argument.length(); i++) {
+				hash = 31 * hash + argument.charAt(i);
+			}
+			hash = 31 * hash;
+		}
+		return hash;
+	}
+
 	@Override
 	public void dispose() {
 		// if the store is about to be disposed and has pending changes save
@@ -305,10 +401,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=299319
 		persistApiFilters();
 		clearFilters();
-		if (fUnusedFilters != null) {
-			fUnusedFilters.clear();
-			fUnusedFilters = null;
-		}
+		fUnusedFilters = null;
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
 	}
 
@@ -369,6 +462,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 				success &= false;
 			}
 		}
+		filtersChanged();
 		persistApiFilters();
 		return success;
 	}
@@ -570,6 +664,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			}
 			fNeedsSaving |= filters.add(filter);
 		}
+		filtersChanged();
 	}
 
 	/**
@@ -613,18 +708,19 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 */
 	public synchronized void recordFilterUsage() {
 		initializeApiFilters();
-		fUnusedFilters = new LinkedHashMap<>();
+		Map<IResource, Set<IApiProblemFilter>> unusedFilters = new ConcurrentHashMap<>();
 		Map<String, Set<IApiProblemFilter>> types = null;
 		Set<IApiProblemFilter> values = null;
 		for (Entry<IResource, Map<String, Set<IApiProblemFilter>>> filterEntry : fFilterMap.entrySet()) {
 			IResource resource = filterEntry.getKey();
 			types = filterEntry.getValue();
-			values = new LinkedHashSet<>();
-			fUnusedFilters.put(resource, values);
+			values = ConcurrentHashMap.newKeySet();
+			unusedFilters.put(resource, values);
 			for (Entry<String, Set<IApiProblemFilter>> entry : types.entrySet()) {
 				values.addAll(entry.getValue());
 			}
 		}
+		fUnusedFilters = unusedFilters;
 	}
 
 	/**
@@ -634,13 +730,11 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 * @param filter
 	 */
 	private void recordFilterUsed(IResource resource, IApiProblemFilter filter) {
-		if (fUnusedFilters != null) {
-			Set<IApiProblemFilter> unused = fUnusedFilters.get(resource);
-			if (unused != null) {
-				unused.remove(filter);
-				if (unused.isEmpty()) {
-					fUnusedFilters.remove(resource);
-				}
+		Map<IResource, Set<IApiProblemFilter>> unusedFilters = fUnusedFilters;
+		if (unusedFilters != null) {
+			Set<IApiProblemFilter> unused = unusedFilters.get(resource);
+			if (unused != null && unused.remove(filter)) {
+				unusedFilters.computeIfPresent(resource, (r, filters) -> filters.isEmpty() ? null : filters);
 			}
 		}
 	}
@@ -658,12 +752,13 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 *         <code>null</code>
 	 */
 	public IApiProblemFilter[] getUnusedFilters(IResource resource, String typeName, int[] categories) {
-		if (fUnusedFilters != null) {
+		Map<IResource, Set<IApiProblemFilter>> unusedFilters = fUnusedFilters;
+		if (unusedFilters != null) {
 			Set<IApiProblemFilter> unused = new HashSet<>();
 			Set<IApiProblemFilter> set = null;
 			if (resource != null) {
 				// add any unused filters for the resource
-				set = fUnusedFilters.get(resource);
+				set = unusedFilters.get(resource);
 				if (set != null) {
 					collectFilterFor(set, typeName, unused, categories);
 				}
@@ -673,17 +768,17 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 					// deleted types are only ever passed in with the manifest
 					// associated with them
 					IResource res = null;
-					for (Entry<IResource, Set<IApiProblemFilter>> entry : fUnusedFilters.entrySet()) {
+					for (Entry<IResource, Set<IApiProblemFilter>> entry : unusedFilters.entrySet()) {
 						res = entry.getKey();
 						if (res == null || !res.exists() || !res.getProject().equals(resource.getProject())) {
 							continue;
 						}
-						set = fUnusedFilters.get(res);
+						set = unusedFilters.get(res);
 						collectFilterFor(set, typeName, unused, categories);
 					}
 				}
 			} else {
-				for (Entry<IResource, Set<IApiProblemFilter>> entry : fUnusedFilters.entrySet()) {
+				for (Entry<IResource, Set<IApiProblemFilter>> entry : unusedFilters.entrySet()) {
 					set = entry.getValue();
 					if (set != null) {
 						unused.addAll(set);
@@ -778,6 +873,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 				}
 				if (fFilterMap != null) {
 					fFilterMap.clear();
+					filtersChanged();
 					needsbuild = fProject.getProject().isAccessible();
 				}
 			} else if (leafdelta.getKind() == IResourceDelta.ADDED || (leafdelta.getFlags() & IResourceDelta.CONTENT) != 0 || (leafdelta.getFlags() & IResourceDelta.REPLACED) != 0) {
@@ -814,5 +910,6 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			fFilterMap.clear();
 			fFilterMap = null;
 		}
+		filtersChanged();
 	}
 }
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A size-bounded cache that can be used concurrently without a global lock,
+ * unlike {@link SynchronizedOverflowingLRUCache}.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}. When the cache grows beyond
+ * its capacity, one thread at a time evicts entries with the clock algorithm: a
+ * hand sweeps over the entries, clearing the reference bit of entries that were
+ * read since the last sweep and evicting the others. Entries start without the
+ * reference bit, so entries that are never read again are evicted before
+ * entries that are used. Lookups only set a volatile flag and never block.
+ * </p>
+ * <p>
+ * The cache counts hits, misses and evictions, see {@link #toString()}.
+ * </p>
+ *
+ * @param <K> the type of the keys, must implement <code>equals</code> and
+ *            <code>hashCode</code>
+ * @param <V> the type of the values
+ */
+public class ConcurrentClockCache<K, V> {
+
+	/**
+	 * A cached value and its reference bit
+	 */
+	private static final class Node<V> {
+		final V value;
+		volatile boolean referenced;
+
+		Node(V value) {
+			this.value = value;
+		}
+	}
+
+	private final ConcurrentHashMap<K, Node<V>> fEntries;
+	private final int fCapacity;
+
+	/**
+	 * Guards the clock hand, only one thread evicts at a time
+	 */
+	private final ReentrantLock fEvictionLock = new ReentrantLock();
+	private Iterator<Map.Entry<K, Node<V>>> fHand;
+
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fMisses = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity the maximum number of entries the cache keeps
+	 */
+	public ConcurrentClockCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive"); //$NON-NLS-1$
+		}
+		fCapacity = capacity;
+		fEntries = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+	}
+
+	/**
+	 * Returns the value cached for the given key
+	 *
+	 * @param key the key
+	 * @return the cached value or <code>null</code> if none
+	 */
+	public V get(K key) {
+		Node<V> node = fEntries.get(key);
+		if (node == null) {
+			fMisses.increment();
+			return null;
+		}
+		if (!node.referenced) {
+			node.referenced = true;
+		}
+		fHits.increment();
+		return node.value;
+	}
+
+	/**
+	 * Caches the given value, evicting entries if the cache is full
+	 *
+	 * @param key the key
+	 * @param value the value, must not be <code>null</code>
+	 * @return the value previously cached for the key or <code>null</code>
+	 */
+	public V put(K key, V value) {
+		Node<V> previous = fEntries.put(key, new Node<>(value));
+		if (previous == null) {
+			evictIfFull();
+			return null;
+		}
+		return previous.value;
+	}
+
+	/**
+	 * Returns the value cached for the given key, computing and caching it if
+	 * there is none. The function is called at most once per absent key and
+	 * must not access this cache.
+	 *
+	 * @param key the key
+	 * @param function computes the value, must not return <code>null</code>
+	 * @return the cached or computed value
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+		boolean[] added = new boolean[1];
+		Node<V> node = fEntries.computeIfAbsent(key, k -> {
+			added[0] = true;
+			return new Node<>(function.apply(k));
+		});
+		if (added[0]) {
+			evictIfFull();
+		}
+		return node.value;
+	}
+
+	/**
+	 * Removes the entry of the given key
+	 *
+	 * @param key the key
+	 * @return the removed value or <code>null</code> if none was cached
+	 */
+	public V remove(K key) {
+		Node<V> node = fEntries.remove(key);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Removes all entries whose key matches the given predicate
+	 *
+	 * @param filter the predicate
+	 * @return <code>true</code> if any entry was removed
+	 */
+	public boolean removeIf(Predicate<? super K> filter) {
+		return fEntries.keySet().removeIf(filter);
+	}
+
+	/**
+	 * Removes all entries, the counters are kept
+	 */
+	public void clear() {
+		fEntries.clear();
+	}
+
+	/**
+	 * @return <code>true</code> if the cache has no entries
+	 */
+	public boolean isEmpty() {
+		return fEntries.isEmpty();
+	}
+
+	/**
+	 * @return the current number of entries
+	 */
+	public int size() {
+		return fEntries.size();
+	}
+
+	/**
+	 * @return the number of lookups that found a value
+	 */
+	public long getHitCount() {
+		return fHits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a value
+	 */
+	public long getMissCount() {
+		return fMisses.sum();
+	}
+
+	/**
+	 * @return the number of entries evicted to keep the cache in its capacity
+	 */
+	public long getEvictionCount() {
+		return fEvictions.sum();
+	}
+
+	/**
+	 * Evicts entries until the cache is in its capacity again. If another
+	 * thread is already evicting, it takes care of the entries added meanwhile.
+	 */
+	private void evictIfFull() {
+		if (fEntries.size() <= fCapacity || !fEvictionLock.tryLock()) {
+			return;
+		}
+		try {
+			// the rest of the current sweep and one full sweep clear every
+			// reference bit, so a third one evicts enough entries even if all
+			// of them are in use
+			int steps = 3 * fEntries.size() + 1;
+			while (fEntries.size() > fCapacity && steps-- > 0) {
+				if (fHand == null || !fHand.hasNext()) {
+					fHand = fEntries.entrySet().iterator();
+					if (!fHand.hasNext()) {
+						return;
+					}
+				}
+				Map.Entry<K, Node<V>> entry = fHand.next();
+				Node<V> node = entry.getValue();
+				if (node.referenced) {
+					node.referenced = false;
+				} else if (fEntries.remove(entry.getKey(), node)) {
+					fEvictions.increment();
+				}
+			}
+		} finally {
+			fEvictionLock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		long hits = getHitCount();
+		long lookups = hits + getMissCount();
+		return "size=" + size() + "/" + fCapacity + ", hits=" + hits + ", misses=" + getMissCount() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", hit rate=" + (lookups == 0 ? 0 : hits * 100 / lookups) + "%, evictions=" + getEvictionCount(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
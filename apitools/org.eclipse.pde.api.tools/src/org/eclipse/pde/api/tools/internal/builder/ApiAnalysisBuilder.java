@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -390,8 +390,8 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			ApiAnalysisJob job = new ApiAnalysisJob(BuilderMessages.api_analysis_builder, currentproject, fullBuild,
 					wbaseline, projects);
 			job.cancelSimilarJobs(fullBuild);
-			job.schedule(100);
 			job.setPriority(Job.DECORATE);
+			ApiAnalysisScheduler.getDefault().schedule(job, 100);
 		} else {
 			work(fullBuild, wbaseline, projects, monitor);
 		}
@@ -543,7 +543,7 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
-	public class ApiAnalysisJob extends Job {
+	public final class ApiAnalysisJob extends Job {
 
 		private boolean fullBuild;
 		private IApiBaseline wbaseline;
@@ -559,7 +559,7 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			this.projects = projects;
 			// Intentionally not using project as rule to allow run in parallel with build
 			// locking entire workspace
-			setRule(new ApiAnalysisJobRule(project));
+			setRule(new ApiAnalysisScheduler.ProjectRule(project, projects));
 		}
 
 		@Override
@@ -595,7 +595,9 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			IStatus s = new Status(IStatus.INFO, ApiAnalysisBuilder.class,
 					"Re-scheduling API analysis for " + project.getName(), e); //$NON-NLS-1$
 			ApiPlugin.log(s);
-			schedule();
+			ApiAnalysisJob job = new ApiAnalysisJob(getName(), project, fullBuild, wbaseline, projects);
+			job.setPriority(Job.DECORATE);
+			ApiAnalysisScheduler.getDefault().schedule(job, 0);
 		}
 
 		@Override
@@ -614,30 +616,6 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
-	private static class ApiAnalysisJobRule implements ISchedulingRule {
-
-		private final IProject project;
-
-		public ApiAnalysisJobRule(IProject project) {
-			this.project = project;
-		}
-
-		@Override
-		public boolean contains(ISchedulingRule rule) {
-			return isConflicting(rule);
-		}
-
-		@Override
-		public boolean isConflicting(ISchedulingRule rule) {
-			if (!(rule instanceof ApiAnalysisJobRule)) {
-				return false;
-			}
-			ApiAnalysisJobRule other = (ApiAnalysisJobRule) rule;
-			return project.equals(other.project);
-		}
-
-	}
-
 	/**
 	 * Returns if the backing project should be fully built, based on the delta
 	 *
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisBuilder.ApiAnalysisJob;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.internal.core.ICoreConstants;
+import org.eclipse.pde.internal.core.PDECore;
+
+/**
+ * Schedules the {@link ApiAnalysisJob}s of API analysis running as background
+ * jobs.
+ * <p>
+ * The jobs are throttled by a {@link JobGroup}, so at most as many analyses as
+ * the {@link ICoreConstants#API_ANALYSIS_THREADS} preference allows run in
+ * parallel. Each job has a {@link ProjectRule} that conflicts with the rules
+ * of the jobs of the projects it requires or that require it, so related
+ * projects are never analyzed at the same time. When a job is scheduled, the
+ * jobs of projects requiring its project that did not start yet are put
+ * behind it, so a project is analyzed after the projects it requires, no
+ * matter in which order they were scheduled.
+ * </p>
+ * <p>
+ * Waiting jobs do not occupy a thread, they are only started by the job
+ * manager once their group and rule allow it.
+ * </p>
+ */
+public final class ApiAnalysisScheduler {
+
+	private static final ApiAnalysisScheduler INSTANCE = new ApiAnalysisScheduler(
+			BuilderMessages.api_analysis_builder, ApiAnalysisJob.class, ApiAnalysisScheduler::getMaxRunningJobs);
+
+	private final String fName;
+	private final Object fFamily;
+	private final IntSupplier fMaxThreads;
+	private JobGroup fGroup;
+
+	/**
+	 * Creates a scheduler for analysis jobs of the given family
+	 *
+	 * @param name the name of the job groups
+	 * @param family the family all jobs of this scheduler belong to
+	 * @param maxThreads the maximum number of jobs that may run in parallel,
+	 *            asked whenever a new group is needed
+	 */
+	public ApiAnalysisScheduler(String name, Object family, IntSupplier maxThreads) {
+		fName = name;
+		fFamily = family;
+		fMaxThreads = maxThreads;
+	}
+
+	/**
+	 * @return the scheduler of the API analysis jobs
+	 */
+	static ApiAnalysisScheduler getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Schedules the given job. The job must belong to the family of this
+	 * scheduler and have a {@link ProjectRule}.
+	 *
+	 * @param job the job to schedule
+	 * @param delay the delay in milliseconds
+	 */
+	public synchronized void schedule(Job job, long delay) {
+		job.setJobGroup(getGroup());
+		// put the jobs that have to wait for this one behind it
+		List<Job> dependents = new ArrayList<>();
+		if (job.getRule() instanceof ProjectRule rule) {
+			for (Job other : Job.getJobManager().find(fFamily)) {
+				if (other != job && other.getRule() instanceof ProjectRule otherRule && otherRule.requires(rule.fProject)
+						&& other.sleep()) {
+					dependents.add(other);
+				}
+			}
+		}
+		job.schedule(delay);
+		for (Job dependent : dependents) {
+			dependent.wakeUp(delay + 1);
+		}
+		if (ApiPlugin.DEBUG_BUILDER) {
+			System.out.println("ApiAnalysisScheduler: scheduled " + job.getName() + ", delayed " + dependents.size() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " dependent job(s)"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns the group of the scheduled jobs. A new group is started once all
+	 * jobs of the last one are done, so it picks up changes of the maximum
+	 * number of threads and does not accumulate results.
+	 */
+	private JobGroup getGroup() {
+		if (fGroup == null || fGroup.getState() == JobGroup.NONE) {
+			fGroup = new JobGroup(fName, Math.max(1, fMaxThreads.getAsInt()), 0);
+		}
+		return fGroup;
+	}
+
+	/**
+	 * @return the maximum number of analyses that may run in parallel
+	 */
+	private static int getMaxRunningJobs() {
+		PDECore core = PDECore.getDefault();
+		if (core == null) {
+			return 1;
+		}
+		return core.getPreferencesManager().getInt(ICoreConstants.API_ANALYSIS_THREADS);
+	}
+
+	/**
+	 * Rule of an analysis job, conflicting with the rules of the same project
+	 * and of projects it requires or that require it.
+	 */
+	public static final class ProjectRule implements ISchedulingRule {
+
+		final IProject fProject;
+		private final IProject[] fRequired;
+
+		/**
+		 * @param project the project analyzed by the job
+		 * @param required the projects the project requires
+		 */
+		public ProjectRule(IProject project, IProject[] required) {
+			fProject = project;
+			fRequired = required;
+		}
+
+		/**
+		 * @return <code>true</code> if the project of this rule requires the
+		 *         given other project
+		 */
+		boolean requires(IProject project) {
+			return !fProject.equals(project) && Arrays.asList(fRequired).contains(project);
+		}
+
+		@Override
+		public boolean contains(ISchedulingRule rule) {
+			return isConflicting(rule);
+		}
+
+		@Override
+		public boolean isConflicting(ISchedulingRule rule) {
+			if (!(rule instanceof ProjectRule other)) {
+				return false;
+			}
+			return fProject.equals(other.fProject) || requires(other.fProject) || other.requires(fProject);
+		}
+
+		@Override
+		public String toString() {
+			return "ApiAnalysis[" + fProject.getName() + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.builder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
+import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiField;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMethod;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
+
+/**
+ * Computes fingerprints of the API of types, used to skip the comparison of a
+ * type against the baseline when its API did not change since the last build.
+ * <p>
+ * The fingerprint covers everything the comparison depends on: the modifiers,
+ * signatures, constant and default values and API restrictions of the type
+ * and its members, the names of its member types, the same information for
+ * its super types, and the reference component the type is compared with. A
+ * change of a method body or of a private implementation detail leaves the
+ * fingerprint of a type as it is.
+ * </p>
+ */
+final class ApiTypeFingerprint {
+
+	private ApiTypeFingerprint() {
+	}
+
+	/**
+	 * Computes the API fingerprint of the given type
+	 *
+	 * @param type the type
+	 * @param reference the component of the baseline the type is compared
+	 *            with
+	 * @return the fingerprint
+	 * @throws CoreException if the type hierarchy or an API description could
+	 *             not be read
+	 */
+	static long compute(IApiType type, IApiComponent reference) throws CoreException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new CoreException(Status.error("Failed to create digest for API fingerprint", e)); //$NON-NLS-1$
+		}
+		try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+			writeString(out, reference.getSymbolicName());
+			writeString(out, reference.getVersion());
+			writeString(out, reference.getLocation());
+			writeString(out, reference.getBaseline().getName());
+			writeType(out, type, new HashSet<>());
+		} catch (IOException e) {
+			throw new CoreException(Status.error("Failed to compute API fingerprint of " + type.getName(), e)); //$NON-NLS-1$
+		}
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	/**
+	 * Writes the API of the given type and of its super types
+	 */
+	private static void writeType(DataOutputStream out, IApiType type, Set<String> visited) throws IOException, CoreException {
+		if (!visited.add(type.getName())) {
+			return;
+		}
+		IApiComponent component = type.getApiComponent();
+		IApiDescription description = null;
+		if (component != null) {
+			writeString(out, component.getSymbolicName());
+			writeString(out, component.getVersion());
+			description = component.getApiDescription();
+		}
+		writeString(out, type.getName());
+		writeMember(out, type, description);
+		out.writeBoolean(type.isAnonymous());
+		out.writeBoolean(type.isLocal());
+		out.writeBoolean(type.isMemberType());
+		writeString(out, type.getSuperclassName());
+		writeStrings(out, type.getSuperInterfaceNames());
+		IApiType[] memberTypes = type.getMemberTypes();
+		out.writeInt(memberTypes.length);
+		for (IApiType memberType : memberTypes) {
+			writeString(out, memberType.getName());
+			out.writeInt(memberType.getModifiers());
+		}
+		IApiField[] fields = type.getFields();
+		out.writeInt(fields.length);
+		for (IApiField field : fields) {
+			writeString(out, field.getName());
+			writeMember(out, field, description);
+			out.writeBoolean(field.isEnumConstant());
+			Object value = field.getConstantValue();
+			writeString(out, value == null ? null : value.toString());
+		}
+		IApiMethod[] methods = type.getMethods();
+		out.writeInt(methods.length);
+		for (IApiMethod method : methods) {
+			writeString(out, method.getName());
+			writeMember(out, method, description);
+			writeStrings(out, method.getExceptionNames());
+			writeString(out, method.getDefaultValue());
+		}
+		IApiType superclass = type.getSuperclass();
+		if (superclass != null) {
+			writeType(out, superclass, visited);
+		}
+		for (IApiType superinterface : type.getSuperInterfaces()) {
+			writeType(out, superinterface, visited);
+		}
+	}
+
+	/**
+	 * Writes the signatures, modifiers and API restrictions of the given member
+	 */
+	private static void writeMember(DataOutputStream out, IApiMember member, IApiDescription description) throws IOException {
+		writeString(out, member.getSignature());
+		writeString(out, member.getGenericSignature());
+		out.writeInt(member.getModifiers());
+		IApiAnnotations annotations = description == null ? null : description.resolveAnnotations(member.getHandle());
+		if (annotations == null) {
+			out.writeBoolean(false);
+		} else {
+			out.writeBoolean(true);
+			out.writeInt(annotations.getVisibility());
+			out.writeInt(annotations.getRestrictions());
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+		if (strings == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(strings.length);
+		for (String string : strings) {
+			writeString(out, string);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeBoolean(false);
+		} else {
+			out.writeBoolean(true);
+			out.writeUTF(string);
+		}
+	}
+}
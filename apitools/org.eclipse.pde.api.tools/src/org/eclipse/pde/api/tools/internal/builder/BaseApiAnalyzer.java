@@ -1442,9 +1442,20 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 					ApiPlugin.log(e);
 				}
 			}
+			fBuildState.removeApiFingerprint(typeName);
 			subMonitor.split(1);
 		} else {
 			fBuildState.cleanup(typeName);
+			Long fingerprint = provider == component ? getApiFingerprint(classFile, reference) : null;
+			if (fingerprint != null && fingerprint.equals(fBuildState.getApiFingerprint(typeName))) {
+				// the API of the type did not change since it was last compared
+				// without a delta
+				if (ApiPlugin.DEBUG_API_ANALYZER) {
+					System.out.println("API of [" + typeName + "] did not change, skipping comparison"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return;
+			}
+			fBuildState.removeApiFingerprint(typeName);
 			long time = System.currentTimeMillis();
 			try {
 				IApiComponent exporter = null;
@@ -1466,6 +1477,9 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 				}
 				fPendingDeltaInfos.clear();
 			}
+			if (delta == ApiComparator.NO_DELTA && fingerprint != null) {
+				fBuildState.setApiFingerprint(typeName, fingerprint.longValue());
+			}
 		}
 		if (delta == null) {
 			return;
@@ -1489,6 +1503,26 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 		}
 	}
 
+	/**
+	 * Returns the API fingerprint of the given type to be compared with the
+	 * given reference component
+	 *
+	 * @param typeRoot the type to compare
+	 * @param reference the reference component
+	 * @return the fingerprint or <code>null</code> if it could not be computed
+	 */
+	private Long getApiFingerprint(IApiTypeRoot typeRoot, IApiComponent reference) {
+		try {
+			IApiType type = typeRoot.getStructure();
+			if (type != null) {
+				return Long.valueOf(ApiTypeFingerprint.compute(type, reference));
+			}
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+		}
+		return null;
+	}
+
 	/**
 	 * Compares the two given components and generates an {@link IDelta}
 	 *
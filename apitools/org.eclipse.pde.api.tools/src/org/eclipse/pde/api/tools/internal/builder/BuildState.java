@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2021 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,20 +13,28 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.builder;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,6 +44,7 @@ import java.util.zip.CRC32;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
@@ -53,16 +62,38 @@ import org.eclipse.pde.core.build.IBuildModel;
 
 /**
  * The API tools build state
+ * <p>
+ * The state file starts with a header: the plug-in id, the kind, the version,
+ * the build path CRC and an index with the offset and length of every
+ * section. The sections (re-exported components, dependent projects, manifest,
+ * build properties, API fingerprints, compatible and breaking changes) are
+ * only decoded when they are first accessed, sections that are never accessed
+ * are written back as they were read. The deltas are grouped by type name and
+ * the deltas of a type are only decoded when they are needed, so an
+ * incremental build decodes the deltas of its changed types only.
+ * </p>
  *
  * @since 1.0.1
  */
 public class BuildState {
 	private static final IDelta[] EMPTY_DELTAS = new IDelta[0];
 	private static final String[] NO_REEXPORTED_COMPONENTS = new String[0];
-	private static final int VERSION = 33;
+	private static final int VERSION = 35;
 
-	private Map<String, Set<IDelta>> compatibleChanges;
-	private Map<String, Set<IDelta>> breakingChanges;
+	/*
+	 * The sections of the state file
+	 */
+	private static final int REEXPORTED_COMPONENTS = 0;
+	private static final int DEPENDENT_PROJECTS = 1;
+	private static final int MANIFEST = 2;
+	private static final int BUILD_PROPERTIES = 3;
+	private static final int API_FINGERPRINTS = 4;
+	private static final int COMPATIBLE_CHANGES = 5;
+	private static final int BREAKING_CHANGES = 6;
+	private static final int SECTION_COUNT = 7;
+
+	private final Deltas compatibleChanges = new Deltas();
+	private final Deltas breakingChanges = new Deltas();
 	/**
 	 * Map of the last saved state of the manifest file
 	 *
@@ -78,15 +109,144 @@ public class BuildState {
 	private String[] reexportedComponents;
 	private Set<String> apiToolingDependentProjects;
 	private long buildpathCRC = -1L;
+	/**
+	 * Map of type names to the API fingerprints of the types that had no
+	 * delta to the baseline in the last build, see {@link ApiTypeFingerprint}
+	 */
+	private Map<String, Long> apiFingerprints;
+	/**
+	 * The sections read from a state file that are not decoded yet, by
+	 * section, see {@link #load(int)}
+	 */
+	private final ByteBuffer[] encodedSections = new ByteBuffer[SECTION_COUNT];
+
+	/**
+	 * The deltas of one kind by type name. The deltas read from a state file
+	 * stay encoded until the deltas of their type are requested.
+	 */
+	private static final class Deltas {
+		/**
+		 * The section of the state file, until the types in it are indexed
+		 */
+		private ByteBuffer section;
+		private final Map<String, ByteBuffer> encoded = new LinkedHashMap<>();
+		private final Map<String, Set<IDelta>> decoded = new LinkedHashMap<>();
+
+		/**
+		 * Indexes the types of the section read from the state file, if any
+		 */
+		private void index() {
+			if (section == null) {
+				return;
+			}
+			ByteBuffer in = section;
+			section = null;
+			try {
+				int count = readLength(in, 8);
+				for (int i = 0; i < count; i++) {
+					String typeName = readString(in);
+					int length = readLength(in, 1);
+					encoded.put(typeName, in.slice(in.position(), length));
+					in.position(in.position() + length);
+				}
+			} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+				ApiPlugin.log("Corrupt deltas in API tools build state", e); //$NON-NLS-1$
+			}
+		}
+
+		private Set<IDelta> get(String typeName, boolean create) {
+			index();
+			Set<IDelta> deltas = decoded.get(typeName);
+			if (deltas == null) {
+				ByteBuffer bytes = encoded.remove(typeName);
+				if (bytes != null) {
+					deltas = decode(bytes);
+					decoded.put(typeName, deltas);
+				} else if (create) {
+					deltas = new HashSet<>();
+					decoded.put(typeName, deltas);
+				}
+			}
+			return deltas;
+		}
+
+		void add(IDelta delta) {
+			get(delta.getTypeName(), true).add(delta);
+		}
+
+		void remove(String typeName) {
+			index();
+			decoded.remove(typeName);
+			encoded.remove(typeName);
+		}
+
+		/**
+		 * @return all deltas with duplicates removed, never <code>null</code>
+		 */
+		IDelta[] toArray() {
+			index();
+			for (String typeName : new ArrayList<>(encoded.keySet())) {
+				get(typeName, false);
+			}
+			if (decoded.isEmpty()) {
+				return EMPTY_DELTAS;
+			}
+			HashSet<IDelta> collector = new HashSet<>();
+			for (Set<IDelta> set : decoded.values()) {
+				collector.addAll(set);
+			}
+			return collector.toArray(new IDelta[collector.size()]);
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			if (section != null) {
+				writeBuffer(section, out);
+				return;
+			}
+			out.writeInt(encoded.size() + decoded.size());
+			for (Entry<String, ByteBuffer> entry : encoded.entrySet()) {
+				writeString(entry.getKey(), out);
+				out.writeInt(entry.getValue().remaining());
+				writeBuffer(entry.getValue(), out);
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream deltaOut = new DataOutputStream(bytes);
+			for (Entry<String, Set<IDelta>> entry : decoded.entrySet()) {
+				bytes.reset();
+				deltaOut.writeInt(entry.getValue().size());
+				for (IDelta delta : entry.getValue()) {
+					writeDelta(delta, deltaOut);
+				}
+				deltaOut.flush();
+				writeString(entry.getKey(), out);
+				out.writeInt(bytes.size());
+				bytes.writeTo(out);
+			}
+		}
+
+		private static Set<IDelta> decode(ByteBuffer bytes) {
+			Set<IDelta> deltas = new HashSet<>();
+			byte[] array = new byte[bytes.remaining()];
+			bytes.duplicate().get(array);
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(array))) {
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					deltas.add(readDelta(in));
+				}
+			} catch (IOException e) {
+				ApiPlugin.log("Corrupt deltas in API tools build state", e); //$NON-NLS-1$
+			}
+			return deltas;
+		}
+	}
 
 	/**
 	 * Constructor
 	 */
-	BuildState() {
-		this.compatibleChanges = new LinkedHashMap<>();
-		this.breakingChanges = new LinkedHashMap<>();
+	public BuildState() {
 		this.manifestChanges = new LinkedHashMap<>();
 		this.buildPropChanges = new LinkedHashMap<>();
+		this.apiFingerprints = new HashMap<>();
 	}
 
 	/**
@@ -97,70 +257,50 @@ public class BuildState {
 	 * @throws IOException
 	 */
 	public static BuildState read(DataInputStream in) throws IOException {
-		String pluginID = in.readUTF();
-		if (!pluginID.equals(ApiPlugin.PLUGIN_ID)) {
-			throw new IOException(BuilderMessages.build_wrongFileFormat);
-		}
-		String kind = in.readUTF();
-		if (!kind.equals("STATE")) {//$NON-NLS-1$
-			throw new IOException(BuilderMessages.build_wrongFileFormat);
-		}
-		if (in.readInt() != VERSION) {
-			// this is an old build state - a full build is required
-			return null;
-		}
-		if (in.readBoolean()) {
-			// continue to read
-			BuildState state = new BuildState();
-			state.buildpathCRC = in.readLong();
-			int count = in.readInt();
-			// read all compatible deltas
-			for (int i = 0; i < count; i++) {
-				state.addCompatibleChange(readDelta(in));
+		return read(ByteBuffer.wrap(in.readAllBytes()));
+	}
+
+	/**
+	 * Reads the header of a build state, the sections are decoded on demand
+	 *
+	 * @param buffer the contents of the state file
+	 * @return the {@link BuildState} or <code>null</code> if the state was
+	 *         written by another version
+	 * @throws IOException if the buffer has no valid build state
+	 */
+	static BuildState read(ByteBuffer buffer) throws IOException {
+		try {
+			if (!ApiPlugin.PLUGIN_ID.equals(readUTF(buffer))) {
+				throw new IOException(BuilderMessages.build_wrongFileFormat);
 			}
-			count = in.readInt();
-			// read all breaking deltas
-			for (int i = 0; i < count; i++) {
-				state.addBreakingChange(readDelta(in));
+			if (!"STATE".equals(readUTF(buffer))) {//$NON-NLS-1$
+				throw new IOException(BuilderMessages.build_wrongFileFormat);
 			}
-			count = in.readInt();
-			// read all re-exported component names
-			String[] components = new String[count];
-			for (int i = 0; i < count; i++) {
-				components[i] = in.readUTF();
+			if (buffer.getInt() != VERSION) {
+				// this is an old build state - a full build is required
+				return null;
 			}
-			state.reexportedComponents = components;
-			count = in.readInt();
+			BuildState state = new BuildState();
+			state.buildpathCRC = buffer.getLong();
+			int count = buffer.getInt();
+			int data = buffer.position() + count * 12;
 			for (int i = 0; i < count; i++) {
-				state.addApiToolingDependentProject(in.readUTF());
-			}
-			if (in.available() > 0) {
-				count = in.readInt();
-				if (count > 0) {
-					// read the saved headers
-					HashMap<String, String> map = new HashMap<>(count);
-					for (int i = 0; i < count; i++) {
-						String key = in.readUTF();
-						String value = in.readUTF();
-						map.put(key, value);
-					}
-					state.setManifestState(map);
-				}
-				count = in.readInt();
-				if (count > 0) {
-					// read the saved headers
-					HashMap<String, String> map = new LinkedHashMap<>(count);
-					for (int i = 0; i < count; i++) {
-						String key = in.readUTF();
-						String value = in.readUTF();
-						map.put(key, value);
-					}
-					state.setBuildPropertiesState(map);
+				int section = buffer.getInt();
+				int offset = buffer.getInt();
+				int length = buffer.getInt();
+				ByteBuffer bytes = buffer.slice(data + offset, length);
+				if (section == COMPATIBLE_CHANGES) {
+					state.compatibleChanges.section = bytes;
+				} else if (section == BREAKING_CHANGES) {
+					state.breakingChanges.section = bytes;
+				} else if (section >= 0 && section < SECTION_COUNT) {
+					state.encodedSections[section] = bytes;
 				}
 			}
 			return state;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException(BuilderMessages.build_wrongFileFormat, e);
 		}
-		return null;
 	}
 
 	/**
@@ -171,53 +311,206 @@ public class BuildState {
 	 * @throws IOException
 	 */
 	public static void write(BuildState state, DataOutputStream out) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream dataOut = new DataOutputStream(data);
+		int[] offsets = new int[SECTION_COUNT];
+		for (int section = 0; section < SECTION_COUNT; section++) {
+			offsets[section] = dataOut.size();
+			state.writeSection(section, dataOut);
+		}
+		dataOut.flush();
 		out.writeUTF(ApiPlugin.PLUGIN_ID);
 		out.writeUTF("STATE"); //$NON-NLS-1$
 		out.writeInt(VERSION);
-		out.writeBoolean(true);
 		out.writeLong(state.buildpathCRC);
-		IDelta[] compatibleChangesDeltas = state.getCompatibleChanges();
-		int length = compatibleChangesDeltas.length;
-		out.writeInt(length);
-		for (int i = 0; i < length; i++) {
-			writeDelta(compatibleChangesDeltas[i], out);
+		out.writeInt(SECTION_COUNT);
+		for (int section = 0; section < SECTION_COUNT; section++) {
+			int end = section + 1 < SECTION_COUNT ? offsets[section + 1] : dataOut.size();
+			out.writeInt(section);
+			out.writeInt(offsets[section]);
+			out.writeInt(end - offsets[section]);
+		}
+		data.writeTo(out);
+	}
+
+	/**
+	 * Writes the given section, sections that were not decoded are copied
+	 */
+	private void writeSection(int section, DataOutputStream out) throws IOException {
+		switch (section) {
+			case COMPATIBLE_CHANGES:
+				compatibleChanges.write(out);
+				return;
+			case BREAKING_CHANGES:
+				breakingChanges.write(out);
+				return;
+			default:
+				break;
+		}
+		ByteBuffer encoded = encodedSections[section];
+		if (encoded != null) {
+			writeBuffer(encoded, out);
+			return;
 		}
-		IDelta[] breakingChangesDeltas = state.getBreakingChanges();
-		length = breakingChangesDeltas.length;
-		out.writeInt(length);
-		for (int i = 0; i < length; i++) {
-			writeDelta(breakingChangesDeltas[i], out);
+		switch (section) {
+			case REEXPORTED_COMPONENTS: {
+				String[] components = getReexportedComponents();
+				out.writeInt(components.length);
+				for (String component : components) {
+					writeString(component, out);
+				}
+				break;
+			}
+			case DEPENDENT_PROJECTS: {
+				Set<String> projects = getApiToolingDependentProjects();
+				out.writeInt(projects.size());
+				for (String project : projects) {
+					writeString(project, out);
+				}
+				break;
+			}
+			case MANIFEST:
+				writeMap(getManifestState(), out);
+				break;
+			case BUILD_PROPERTIES:
+				writeMap(getBuildPropertiesState(), out);
+				break;
+			case API_FINGERPRINTS:
+				out.writeInt(apiFingerprints.size());
+				for (Entry<String, Long> fingerprint : apiFingerprints.entrySet()) {
+					writeString(fingerprint.getKey(), out);
+					out.writeLong(fingerprint.getValue().longValue());
+				}
+				break;
+			default:
+				break;
 		}
-		String[] reexportedComponents = state.getReexportedComponents();
-		length = reexportedComponents.length;
-		out.writeInt(length);
-		for (int i = 0; i < length; i++) {
-			out.writeUTF(reexportedComponents[i]);
+	}
+
+	/**
+	 * Decodes the given section if it was read from a state file and not
+	 * decoded yet
+	 *
+	 * @param section the section
+	 */
+	private void load(int section) {
+		ByteBuffer in = encodedSections[section];
+		if (in == null) {
+			return;
 		}
-		Set<String> apiToolingDependentsProjects = state.getApiToolingDependentProjects();
-		length = apiToolingDependentsProjects.size();
-		out.writeInt(length);
-		for (String string : apiToolingDependentsProjects) {
-			out.writeUTF(string);
+		encodedSections[section] = null;
+		try {
+			switch (section) {
+				case REEXPORTED_COMPONENTS: {
+					String[] components = new String[readLength(in, 4)];
+					for (int i = 0; i < components.length; i++) {
+						components[i] = readString(in);
+					}
+					this.reexportedComponents = components;
+					break;
+				}
+				case DEPENDENT_PROJECTS: {
+					int count = readLength(in, 4);
+					for (int i = 0; i < count; i++) {
+						addApiToolingDependentProject(readString(in));
+					}
+					break;
+				}
+				case MANIFEST:
+					this.manifestChanges = readMap(in, new HashMap<>());
+					break;
+				case BUILD_PROPERTIES:
+					this.buildPropChanges = readMap(in, new LinkedHashMap<>());
+					break;
+				case API_FINGERPRINTS: {
+					int count = readLength(in, 12);
+					for (int i = 0; i < count; i++) {
+						String typeName = readString(in);
+						this.apiFingerprints.put(typeName, Long.valueOf(in.getLong()));
+					}
+					break;
+				}
+				default:
+					break;
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			ApiPlugin.log("Corrupt section " + section + " in API tools build state", e); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		Map<String, String> map = state.getManifestState();
-		out.writeInt(map.size());
-		Entry<String, String> entry = null;
-		for (Iterator<Entry<String, String>> i = map.entrySet().iterator(); i.hasNext();) {
-			entry = i.next();
-			out.writeUTF(entry.getKey());
-			out.writeUTF(entry.getValue());
+	}
+
+	/**
+	 * Drops the given section if it was read from a state file and not
+	 * decoded yet, as it is replaced
+	 *
+	 * @param section the section
+	 */
+	private void discard(int section) {
+		encodedSections[section] = null;
+	}
+
+	private static Map<String, String> readMap(ByteBuffer in, Map<String, String> map) {
+		int count = readLength(in, 8);
+		for (int i = 0; i < count; i++) {
+			String key = readString(in);
+			map.put(key, readString(in));
 		}
-		map = state.getBuildPropertiesState();
+		return map;
+	}
+
+	private static void writeMap(Map<String, String> map, DataOutputStream out) throws IOException {
 		out.writeInt(map.size());
-		entry = null;
-		for (Iterator<Entry<String, String>> i = map.entrySet().iterator(); i.hasNext();) {
-			entry = i.next();
-			out.writeUTF(entry.getKey());
-			out.writeUTF(entry.getValue());
+		for (Entry<String, String> entry : map.entrySet()) {
+			writeString(entry.getKey(), out);
+			writeString(entry.getValue(), out);
 		}
 	}
 
+	private static String readString(ByteBuffer in) {
+		byte[] bytes = new byte[readLength(in, 1)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a length or a count of elements and checks that the remaining
+	 * bytes can hold that many elements, so a corrupt state file cannot make
+	 * us allocate a negative or a huge array
+	 *
+	 * @param in the buffer to read from
+	 * @param elementSize the minimal size of one element in bytes
+	 * @return the length
+	 * @throws IllegalArgumentException if the length is invalid
+	 */
+	private static int readLength(ByteBuffer in, int elementSize) {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining() / elementSize) {
+			throw new IllegalArgumentException("Invalid length " + length + " in API tools build state"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return length;
+	}
+
+	private static void writeString(String value, DataOutputStream out) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string of the header, written with
+	 * {@link DataOutputStream#writeUTF(String)}
+	 */
+	private static String readUTF(ByteBuffer in) {
+		byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeBuffer(ByteBuffer buffer, DataOutputStream out) throws IOException {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		out.write(bytes);
+	}
+
 	/**
 	 * Read the {@link IDelta} from the build state (input stream)
 	 *
@@ -299,15 +592,7 @@ public class BuildState {
 	 * @param delta the {@link IDelta} to add to the state
 	 */
 	public void addCompatibleChange(IDelta delta) {
-		String typeName = delta.getTypeName();
-		Set<IDelta> object = this.compatibleChanges.get(typeName);
-		if (object == null) {
-			Set<IDelta> changes = new HashSet<>();
-			changes.add(delta);
-			this.compatibleChanges.put(typeName, changes);
-		} else {
-			object.add(delta);
-		}
+		this.compatibleChanges.add(delta);
 	}
 
 	/**
@@ -317,15 +602,7 @@ public class BuildState {
 	 * @param delta the {@link IDelta} to add to the state
 	 */
 	public void addBreakingChange(IDelta delta) {
-		String typeName = delta.getTypeName();
-		Set<IDelta> object = this.breakingChanges.get(typeName);
-		if (object == null) {
-			Set<IDelta> changes = new HashSet<>();
-			changes.add(delta);
-			this.breakingChanges.put(typeName, changes);
-		} else {
-			object.add(delta);
-		}
+		this.breakingChanges.add(delta);
 	}
 
 	/**
@@ -333,15 +610,7 @@ public class BuildState {
 	 *         removed, or an empty array, never <code>null</code>
 	 */
 	public IDelta[] getBreakingChanges() {
-		if (this.breakingChanges == null || this.breakingChanges.isEmpty()) {
-			return EMPTY_DELTAS;
-		}
-		HashSet<IDelta> collector = new HashSet<>();
-		Collection<Set<IDelta>> values = this.breakingChanges.values();
-		for (Set<IDelta> set : values) {
-			collector.addAll(set);
-		}
-		return collector.toArray(new IDelta[collector.size()]);
+		return this.breakingChanges.toArray();
 	}
 
 	/**
@@ -349,21 +618,14 @@ public class BuildState {
 	 *         removed, or an empty array, never <code>null</code>
 	 */
 	public IDelta[] getCompatibleChanges() {
-		if (this.compatibleChanges == null || this.compatibleChanges.isEmpty()) {
-			return EMPTY_DELTAS;
-		}
-		HashSet<IDelta> collector = new HashSet<>();
-		Collection<Set<IDelta>> values = this.compatibleChanges.values();
-		for (Set<IDelta> set : values) {
-			collector.addAll(set);
-		}
-		return collector.toArray(new IDelta[collector.size()]);
+		return this.compatibleChanges.toArray();
 	}
 
 	/**
 	 * @return the complete list of re-exported {@link IApiComponent}s
 	 */
 	public String[] getReexportedComponents() {
+		load(REEXPORTED_COMPONENTS);
 		if (this.reexportedComponents == null) {
 			return NO_REEXPORTED_COMPONENTS;
 		}
@@ -378,9 +640,44 @@ public class BuildState {
 	public void cleanup(String typeName) {
 		this.breakingChanges.remove(typeName);
 		this.compatibleChanges.remove(typeName);
+		discard(REEXPORTED_COMPONENTS);
 		this.reexportedComponents = null;
 	}
 
+	/**
+	 * Returns the API fingerprint the given type had in the last build, if the
+	 * type had no delta to the baseline then
+	 *
+	 * @param typeName the given type name
+	 * @return the fingerprint or <code>null</code> if none was recorded
+	 */
+	public Long getApiFingerprint(String typeName) {
+		load(API_FINGERPRINTS);
+		return this.apiFingerprints.get(typeName);
+	}
+
+	/**
+	 * Records the API fingerprint of a type that has no delta to the baseline
+	 *
+	 * @param typeName the given type name
+	 * @param fingerprint the API fingerprint of the type
+	 */
+	public void setApiFingerprint(String typeName, long fingerprint) {
+		load(API_FINGERPRINTS);
+		this.apiFingerprints.put(typeName, Long.valueOf(fingerprint));
+	}
+
+	/**
+	 * Removes the API fingerprint of the given type, the type has to be
+	 * compared to the baseline in the next build.
+	 *
+	 * @param typeName the given type name
+	 */
+	public void removeApiFingerprint(String typeName) {
+		load(API_FINGERPRINTS);
+		this.apiFingerprints.remove(typeName);
+	}
+
 	/**
 	 * Sets the current list if re-exported {@link IApiComponent}s for this
 	 * build state
@@ -391,6 +688,7 @@ public class BuildState {
 		if (components == null) {
 			return;
 		}
+		load(REEXPORTED_COMPONENTS);
 		if (this.reexportedComponents == null) {
 			final int length = components.length;
 			String[] result = new String[length];
@@ -407,6 +705,7 @@ public class BuildState {
 	 * @param projectName
 	 */
 	public void addApiToolingDependentProject(String projectName) {
+		load(DEPENDENT_PROJECTS);
 		if (this.apiToolingDependentProjects == null) {
 			this.apiToolingDependentProjects = new HashSet<>(3);
 		}
@@ -417,6 +716,7 @@ public class BuildState {
 	 * @return the complete listing of dependent projects
 	 */
 	public Set<String> getApiToolingDependentProjects() {
+		load(DEPENDENT_PROJECTS);
 		return this.apiToolingDependentProjects == null ? Collections.EMPTY_SET : this.apiToolingDependentProjects;
 	}
 
@@ -429,6 +729,7 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	public void setManifestState(Map<String, String> state) {
+		discard(MANIFEST);
 		if (state != null) {
 			Map<String, String> compact = new LinkedHashMap<>(7);
 			for (String key : ApiAnalysisBuilder.IMPORTANT_HEADERS) {
@@ -452,6 +753,7 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	public Map<String, String> getManifestState() {
+		load(MANIFEST);
 		return this.manifestChanges;
 	}
 
@@ -471,6 +773,7 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	public void setBuildPropertiesState(IBuildModel model) {
+		load(BUILD_PROPERTIES);
 		if (model != null) {
 			IBuildEntry[] entries = model.getBuild().getBuildEntries();
 			String name = null;
@@ -497,6 +800,7 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	void setBuildPropertiesState(Map<String, String> map) {
+		discard(BUILD_PROPERTIES);
 		if (map != null) {
 			this.buildPropChanges = map;
 		} else {
@@ -513,6 +817,7 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	public Map<String, String> getBuildPropertiesState() {
+		load(BUILD_PROPERTIES);
 		return this.buildPropChanges;
 	}
 
@@ -555,8 +860,8 @@ public class BuildState {
 		File file = getSerializationFile(project);
 		if (file != null && file.exists()) {
 			try {
-				try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
-					return read(in);
+				try {
+					return read(mapState(file));
 				} finally {
 					if (ApiPlugin.DEBUG_BUILDER) {
 						System.out.println("ApiAnalysisBuilder: Saved state thinks last build failed for " + project.getName()); //$NON-NLS-1$
@@ -576,6 +881,26 @@ public class BuildState {
 		return null;
 	}
 
+	/**
+	 * Returns the contents of the given state file. The file is memory-mapped,
+	 * so only the pages of the sections that are decoded are read. On Windows
+	 * it is read into memory instead, as a mapped file cannot be replaced
+	 * until the mapping is garbage collected.
+	 *
+	 * @param file the state file
+	 * @return the contents of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static ByteBuffer mapState(File file) throws IOException {
+		if (Platform.OS_WIN32.equals(Platform.getOS())) {
+			return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
 	/**
 	 * Sets the last built state for the given project, or null to reset it.
 	 *
@@ -617,7 +942,9 @@ public class BuildState {
 	}
 
 	/**
-	 * Saves the current build state
+	 * Saves the current build state. The state is written to a temporary file
+	 * that replaces the state file, as the state that is written may still
+	 * read sections from a mapping of the state file.
 	 *
 	 * @param project
 	 * @param state
@@ -635,15 +962,21 @@ public class BuildState {
 		if (ApiPlugin.DEBUG_BUILDER) {
 			t = System.currentTimeMillis();
 		}
+		Path tmp = file.toPath().resolveSibling(file.getName() + ".tmp"); //$NON-NLS-1$
 		try {
-			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
-			try (out) {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))))) {
 				write(state, out);
 			}
+			try {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
 		} catch (RuntimeException | IOException e) {
 			try {
+				Files.deleteIfExists(tmp);
 				file.delete();
-			} catch (SecurityException se) {
+			} catch (SecurityException | IOException se) {
 				// could not delete file: cannot do much more
 			}
 			throw new CoreException(Status.error(NLS.bind(BuilderMessages.build_cannotSaveState, project.getName()), e));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2021 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -696,6 +696,13 @@ public class Reference implements IReference {
 		this.fStatus = value;
 	}
 
+	/**
+	 * @return <code>false</code> if the reference must not be resolved
+	 */
+	boolean getResolveStatus() {
+		return this.fStatus;
+	}
+
 	/**
 	 * Returns the string representation for the given reference kind or
 	 * <code>UKNOWN_KIND</code> if the kind cannot be determined.
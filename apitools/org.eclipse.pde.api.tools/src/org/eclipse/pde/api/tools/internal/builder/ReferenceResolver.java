@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,23 @@
 package org.eclipse.pde.api.tools.internal.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.api.tools.internal.ConcurrentClockCache;
+import org.eclipse.pde.api.tools.internal.model.ProjectComponent;
+import org.eclipse.pde.api.tools.internal.model.WorkspaceBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
 
 /**
@@ -32,12 +41,100 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
  */
 public final class ReferenceResolver {
 
+	/**
+	 * The maximum number of resolutions remembered
+	 */
+	private static final int MAX_RESOLUTIONS = 50000;
+
+	/**
+	 * The resolutions of the references to the types of one package in one
+	 * baseline. A new scope is used once the package or the baseline changes,
+	 * so the resolutions of the old scope are not found anymore and are
+	 * evicted from the cache like any other unused entry.
+	 */
+	private static final class ResolutionScope {
+		final IApiBaseline baseline;
+
+		ResolutionScope(IApiBaseline baseline) {
+			this.baseline = baseline;
+		}
+	}
+
+	/**
+	 * Key of a resolution: the scope and the signature key of the references
+	 */
+	private record ResolutionKey(ResolutionScope scope, String signature) {
+	}
+
+	/**
+	 * The current scope of each referenced package of each baseline. Baselines
+	 * are compared by identity, since different baselines may have the same
+	 * name.
+	 */
+	private static final Map<IApiBaseline, Map<String, ResolutionScope>> fScopes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	/**
+	 * The member each signature key resolved to, or an empty optional if it
+	 * could not be resolved, shared by all searches and builds. The
+	 * resolutions of a baseline or of one of its packages are dropped when
+	 * they change, see {@link #clearResolutions(IApiBaseline)} and
+	 * {@link #clearResolutions(IApiBaseline, String)}.
+	 */
+	private static final ConcurrentClockCache<ResolutionKey, Optional<IApiMember>> fResolutions = new ConcurrentClockCache<>(MAX_RESOLUTIONS);
+
 	/**
 	 * Constructor Private constructor, no instantiate
 	 */
 	private ReferenceResolver() {
 	}
 
+	/**
+	 * Forgets the resolutions of references of components in the given
+	 * baseline. Must be called when the components of the baseline change.
+	 *
+	 * @param baseline the baseline
+	 */
+	public static void clearResolutions(IApiBaseline baseline) {
+		fScopes.remove(baseline);
+		if (baseline.isDisposed()) {
+			// do not keep the members of a disposed baseline until evicted
+			fResolutions.removeIf(key -> key.scope().baseline == baseline);
+		}
+	}
+
+	/**
+	 * Forgets the resolutions of references to types of the given package in
+	 * the given baseline. Must be called when the components providing the
+	 * package change.
+	 *
+	 * @param baseline the baseline
+	 * @param packageName the name of the package
+	 */
+	public static void clearResolutions(IApiBaseline baseline, String packageName) {
+		Map<String, ResolutionScope> scopes = fScopes.get(baseline);
+		if (scopes != null) {
+			scopes.remove(packageName);
+		}
+	}
+
+	/**
+	 * @return the number of reference sets that were resolved with a
+	 *         remembered resolution
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static long getResolutionHitCount() {
+		return fResolutions.getHitCount();
+	}
+
+	/**
+	 * @return the number of reference sets that were looked up without finding
+	 *         a remembered resolution
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static long getResolutionMissCount() {
+		return fResolutions.getMissCount();
+	}
+
 	/**
 	 * Resolves retained references.
 	 *
@@ -77,7 +174,7 @@ public final class ReferenceResolver {
 		resolveReferenceSets(sigtoref, monitor);
 		end = System.currentTimeMillis();
 		if (ApiPlugin.DEBUG_REFERENCE_RESOLVER) {
-			System.out.println("Reference resolver: resolved unique references in " + (end - start) + "ms"); //$NON-NLS-1$//$NON-NLS-2$
+			System.out.println("Reference resolver: resolved unique references in " + (end - start) + "ms, resolutions: " + fResolutions); //$NON-NLS-1$//$NON-NLS-2$
 		}
 		// resolve method overrides
 		start = System.currentTimeMillis();
@@ -91,17 +188,30 @@ public final class ReferenceResolver {
 	}
 
 	/**
-	 * Resolves the collect sets of references.
+	 * Resolves the collect sets of references. The resolution of each set is
+	 * remembered for the baseline of the referencing component, so other types
+	 * and components referencing the same member do not resolve it again.
 	 *
 	 * @param map the mapping of keys to sets of {@link IReference}s
 	 * @throws CoreException if something bad happens
 	 */
 	private static void resolveReferenceSets(Map<String, List<IReference>> map, IProgressMonitor monitor) throws CoreException {
 		IReference ref = null;
-		for (List<IReference> refs : map.values()) {
+		for (Map.Entry<String, List<IReference>> entry : map.entrySet()) {
+			List<IReference> refs = entry.getValue();
 			ref = refs.get(0);
-			((Reference) ref).resolve();
-			IApiMember resolved = ref.getResolvedReference();
+			ResolutionKey key = getResolutionKey(ref, entry.getKey());
+			IApiMember resolved;
+			Optional<IApiMember> resolution = key == null ? null : fResolutions.get(key);
+			if (resolution != null) {
+				resolved = resolution.orElse(null);
+			} else {
+				((Reference) ref).resolve();
+				resolved = ref.getResolvedReference();
+				if (key != null && isStable(key.scope().baseline, resolved)) {
+					fResolutions.put(key, Optional.ofNullable(resolved));
+				}
+			}
 			if (resolved != null) {
 				for (IReference ref2 : refs) {
 					((Reference) ref2).setResolution(resolved);
@@ -110,6 +220,63 @@ public final class ReferenceResolver {
 		}
 	}
 
+	/**
+	 * Returns the key to remember the resolution of the given reference with,
+	 * or <code>null</code> if it must not be remembered
+	 *
+	 * @param reference the first reference of a set
+	 * @param signature the signature key of the set
+	 * @return the key or <code>null</code>
+	 * @throws CoreException if the baseline of the component cannot be
+	 *             determined
+	 */
+	private static ResolutionKey getResolutionKey(IReference reference, String signature) throws CoreException {
+		if (!((Reference) reference).getResolveStatus()) {
+			return null;
+		}
+		IApiComponent component = reference.getMember().getApiComponent();
+		if (component == null) {
+			return null;
+		}
+		IApiBaseline baseline = component.getBaseline();
+		if (baseline == null || baseline.isDisposed()) {
+			return null;
+		}
+		// components of different versions may import different packages
+		return new ResolutionKey(getScope(baseline, reference.getReferencedTypeName()), component.getVersion() + '#' + signature);
+	}
+
+	/**
+	 * Returns the current scope of the resolutions of references to the given
+	 * type in the given baseline
+	 *
+	 * @param baseline the baseline of the referencing component
+	 * @param typeName the fully qualified name of the referenced type
+	 * @return the scope
+	 */
+	private static ResolutionScope getScope(IApiBaseline baseline, String typeName) {
+		int index = typeName.lastIndexOf('.');
+		String packageName = index < 0 ? "" : typeName.substring(0, index); //$NON-NLS-1$
+		return fScopes.computeIfAbsent(baseline, b -> new ConcurrentHashMap<>()).computeIfAbsent(packageName, p -> new ResolutionScope(baseline));
+	}
+
+	/**
+	 * Returns if the given resolution stays valid until the baseline changes.
+	 * Members of workspace projects change without the baseline changing, and
+	 * references that could not be resolved in the workspace may resolve once
+	 * a project changes, so they are not remembered.
+	 *
+	 * @param baseline the baseline of the referencing component
+	 * @param resolved the resolved member or <code>null</code>
+	 * @return <code>true</code> if the resolution can be remembered
+	 */
+	private static boolean isStable(IApiBaseline baseline, IApiMember resolved) {
+		if (resolved == null) {
+			return !(baseline instanceof WorkspaceBaseline);
+		}
+		return !(resolved.getApiComponent() instanceof ProjectComponent);
+	}
+
 	/**
 	 * Creates a unique string key for a given reference. The key is of the form
 	 * "component X references type/member"
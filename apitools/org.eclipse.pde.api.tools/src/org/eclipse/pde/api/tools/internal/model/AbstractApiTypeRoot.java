@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -59,7 +59,10 @@ public abstract class AbstractApiTypeRoot extends ApiElement implements IApiType
 			type = (IApiType) cache.getElementInfo(baseline.getName(), comp.getSymbolicName(), this.getTypeName(), IApiElement.TYPE);
 		}
 		if (type == null) {
-			type = TypeStructureBuilder.buildTypeStructure(getContents(), getApiComponent(), this);
+			// the API signature from the baseline index avoids reading the
+			// class file from its archive
+			byte[] contents = comp instanceof BundleComponent bundle ? bundle.getIndexedTypeStructure(getTypeName()) : null;
+			type = TypeStructureBuilder.buildTypeStructure(contents != null ? contents : getContents(), comp, this);
 			if (type == null) {
 				return null;
 			}
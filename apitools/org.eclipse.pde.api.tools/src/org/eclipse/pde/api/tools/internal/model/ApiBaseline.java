@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,8 +33,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -62,6 +64,7 @@ import org.eclipse.osgi.service.resolver.StateObjectFactory;
 import org.eclipse.pde.api.tools.internal.AnyValue;
 import org.eclipse.pde.api.tools.internal.ApiBaselineManager;
 import org.eclipse.pde.api.tools.internal.CoreMessages;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
@@ -99,7 +102,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * Components representing the system library
 	 */
 	// private IApiComponent fSystemLibraryComponent;
-	private ArrayList<IApiComponent> fSystemLibraryComponentList = new ArrayList<>();
+	private List<IApiComponent> fSystemLibraryComponentList = new CopyOnWriteArrayList<>();
 
 	/**
 	 * Whether an execution environment should be automatically resolved as API
@@ -112,6 +115,13 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * location.
 	 */
 	private String fLocation;
+
+	/**
+	 * The persisted index of the jar components of this baseline or
+	 * <code>null</code> if there is none
+	 */
+	private volatile ApiBaselineIndex fIndex;
+
 	/**
 	 * Execution environment status
 	 */
@@ -138,12 +148,12 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * <p>
 	 * Map of <code>componentId -> {@link IApiComponent}</code>
 	 * </p>
-	 * This map is not supposed to be modified except on creation / disposal.
+	 * This map is never modified once published, see addComponents.
 	 */
 	private volatile Map<String, IApiComponent> fComponentsById;
 	/**
 	 * Maps component id's to all components sorted from higher to lower version.
-	 * This map is not supposed to be modified except on creation / disposal.
+	 * This map is never modified once published, see addComponents.
 	 */
 	private volatile Map<String, Set<IApiComponent>> fAllComponentsById;
 	/**
@@ -151,7 +161,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * <p>
 	 * Map of <code>project name -> {@link IApiComponent}</code>
 	 * </p>
-	 * This map is not supposed to be modified except on creation / disposal.
+	 * This map is never modified once published, see addComponents.
 	 */
 	private volatile Map<String, IApiComponent> fComponentsByProjectNames;
 	/**
@@ -326,10 +336,15 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			getState().setPlatformProperties(dictionary);
 		}
 		// clean up previous system library
-		if (!fSystemLibraryComponentList.isEmpty() && fComponentsById != null) {
-			for (IApiComponent comp : fSystemLibraryComponentList) {
-				fComponentsById.remove(comp.getSymbolicName());
-
+		if (!fSystemLibraryComponentList.isEmpty()) {
+			synchronized (this) {
+				if (fComponentsById != null) {
+					Map<String, IApiComponent> componentsById = new LinkedHashMap<>(fComponentsById);
+					for (IApiComponent comp : fSystemLibraryComponentList) {
+						componentsById.remove(comp.getSymbolicName());
+					}
+					fComponentsById = componentsById;
+				}
 			}
 		}
 		if (fSystemPackageNames != null) {
@@ -350,6 +365,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 */
 	private void clearComponentsCache() {
 		fComponentsProvidingPackageCache.clear();
+		ReferenceResolver.clearResolutions(this);
 	}
 
 	/**
@@ -358,51 +374,74 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * @param component
 	 */
 	protected void addComponent(IApiComponent component) {
-		if (isDisposed() || component == null) {
+		addComponents(Collections.singletonList(component));
+	}
+
+	/**
+	 * Adds the given {@link IApiComponent}s to the component mappings. The
+	 * mappings are never modified once published: they are copied, updated and
+	 * published again, so other threads can read them without locking, e.g.
+	 * API analysis jobs reading the workspace baseline in parallel.
+	 *
+	 * @param components
+	 */
+	protected synchronized void addComponents(Collection<? extends IApiComponent> components) {
+		if (isDisposed()) {
 			return;
 		}
-		if (fComponentsById == null) {
-			fComponentsById = new LinkedHashMap<>();
-		}
-		if (fAllComponentsById == null) {
-			fAllComponentsById = new HashMap<>();
-		}
-
-		IApiComponent comp = fComponentsById.get(component.getSymbolicName());
-
-		// if more than 1 components, store all of them
-		if (comp != null) {
-			if (fAllComponentsById.containsKey(component.getSymbolicName())) {
-				Set<IApiComponent> allComponents = fAllComponentsById.get(component.getSymbolicName());
-				if (!allComponents.contains(component)) {
+		Map<String, IApiComponent> componentsById = fComponentsById == null ? new LinkedHashMap<>()
+				: new LinkedHashMap<>(fComponentsById);
+		Map<String, Set<IApiComponent>> allComponentsById = fAllComponentsById == null ? new HashMap<>()
+				: new HashMap<>(fAllComponentsById);
+		Map<String, IApiComponent> componentsByProjectNames = fComponentsByProjectNames == null ? null
+				: new HashMap<>(fComponentsByProjectNames);
+		for (IApiComponent component : components) {
+			if (component == null) {
+				continue;
+			}
+			IApiComponent comp = componentsById.get(component.getSymbolicName());
+
+			// if more than 1 components, store all of them
+			if (comp != null) {
+				Set<IApiComponent> allComponents = allComponentsById.get(component.getSymbolicName());
+				if (allComponents != null) {
+					if (!allComponents.contains(component)) {
+						// the published set must not change either
+						TreeSet<IApiComponent> copy = new TreeSet<>((SortedSet<IApiComponent>) allComponents);
+						copy.add(component);
+						allComponentsById.put(component.getSymbolicName(), copy);
+					}
+				} else {
+					allComponents = new TreeSet<>(
+							(comp1, comp2) -> {
+						if (comp2.getVersion().equals(comp1.getVersion())) {
+							if (comp2.getVersion().contains("JavaSE")) { //$NON-NLS-1$
+								ApiPlugin.logInfoMessage("Multiple locations for the same Java = " //$NON-NLS-1$
+										+ comp1.getLocation() + comp2.getLocation());
+							}
+							return 0;
+						}
+						return new Version(comp2.getVersion()).compareTo(new Version(comp1.getVersion()));
+					});
+					allComponents.add(comp);
 					allComponents.add(component);
+					allComponentsById.put(component.getSymbolicName(), allComponents);
 				}
-			} else {
-				TreeSet<IApiComponent> allComponents = new TreeSet<>(
-						(comp1, comp2) -> {
-					if (comp2.getVersion().equals(comp1.getVersion())) {
-						if (comp2.getVersion().contains("JavaSE")) { //$NON-NLS-1$
-							ApiPlugin.logInfoMessage("Multiple locations for the same Java = " //$NON-NLS-1$
-									+ comp1.getLocation() + comp2.getLocation());
-						}
-						return 0;
-					}
-					return new Version(comp2.getVersion()).compareTo(new Version(comp1.getVersion()));
-				});
-				allComponents.add(comp);
-				allComponents.add(component);
-				fAllComponentsById.put(component.getSymbolicName(), allComponents);
 			}
-		}
 
-		fComponentsById.put(component.getSymbolicName(), component);
-		if (component instanceof ProjectComponent) {
-			ProjectComponent projectApiComponent = (ProjectComponent) component;
-			if (this.fComponentsByProjectNames == null) {
-				this.fComponentsByProjectNames = new HashMap<>();
+			componentsById.put(component.getSymbolicName(), component);
+			if (component instanceof ProjectComponent) {
+				ProjectComponent projectApiComponent = (ProjectComponent) component;
+				if (componentsByProjectNames == null) {
+					componentsByProjectNames = new HashMap<>();
+				}
+				componentsByProjectNames.put(projectApiComponent.getJavaProject().getProject().getName(), component);
 			}
-			this.fComponentsByProjectNames.put(projectApiComponent.getJavaProject().getProject().getName(), component);
 		}
+		fAllComponentsById = allComponentsById;
+		fComponentsByProjectNames = componentsByProjectNames;
+		fComponentsById = componentsById;
+		ReferenceResolver.clearResolutions(this);
 	}
 
 	@Override
@@ -411,6 +450,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			return;
 		}
 		HashSet<String> ees = new HashSet<>();
+		List<IApiComponent> added = new ArrayList<>(components.length);
 		for (IApiComponent apiComponent : components) {
 			BundleComponent component = (BundleComponent) apiComponent;
 			if (component.isSourceComponent()) {
@@ -418,9 +458,10 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			}
 			BundleDescription description = component.getBundleDescription();
 			getState().addBundle(description);
-			addComponent(component);
+			added.add(component);
 			ees.addAll(Arrays.asList(component.getExecutionEnvironments()));
 		}
+		addComponents(added);
 		resolveSystemLibrary(ees);
 		getState().resolve();
 	}
@@ -852,18 +893,11 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			component2.dispose();
 		}
 		clearComponentsCache();
-		if (fComponentsById != null) {
-			fComponentsById.clear();
-			fComponentsById = null;
-		}
-		if (fAllComponentsById != null) {
-			fAllComponentsById.clear();
-			fAllComponentsById = null;
-		}
-		if (fComponentsByProjectNames != null) {
-			fComponentsByProjectNames.clear();
-			fComponentsByProjectNames = null;
-		}
+		fIndex = null;
+		// the maps may still be read by other threads, they are not cleared
+		fComponentsById = null;
+		fAllComponentsById = null;
+		fComponentsByProjectNames = null;
 		if (fSystemPackageNames != null) {
 			fSystemPackageNames.clear();
 		}
@@ -871,7 +905,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			for (IApiComponent iApiComponent : fSystemLibraryComponentList) {
 				iApiComponent.dispose();
 			}
-			fSystemLibraryComponentList = new ArrayList<>();
+			fSystemLibraryComponentList = new CopyOnWriteArrayList<>();
 		}
 	}
 
@@ -947,6 +981,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 */
 	public void clearPackage(String packageName) {
 		fComponentsProvidingPackageCache.remove(packageName);
+		ReferenceResolver.clearResolutions(this, packageName);
 	}
 
 	@Override
@@ -1024,6 +1059,25 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		this.fLocation = location;
 	}
 
+	/**
+	 * Returns the index the components of this baseline are restored from.
+	 *
+	 * @return the index or <code>null</code> if there is none
+	 */
+	public ApiBaselineIndex getIndex() {
+		return fIndex;
+	}
+
+	/**
+	 * Sets the index the components of this baseline are restored from, must
+	 * be set before the components are created.
+	 *
+	 * @param index the index or <code>null</code>
+	 */
+	public void setIndex(ApiBaselineIndex index) {
+		fIndex = index;
+	}
+
 	@Override
 	public IApiComponent getApiComponent(IProject project) {
 		loadBaselineInfos();
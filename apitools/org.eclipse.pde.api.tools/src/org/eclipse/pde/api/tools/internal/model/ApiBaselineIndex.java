@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+
+/**
+ * A persistent, memory-mapped index of the jar components of an
+ * {@link ApiBaseline}. For every jar the index holds the complete manifest,
+ * the contents of the <code>.api_description</code> file and the API
+ * signature of every type: its class file without code and debug attributes,
+ * which is all the {@link TypeStructureBuilder} needs.
+ * <p>
+ * The index allows a restored baseline to create its components and type
+ * structures without opening and re-parsing the jars. Every component is
+ * validated against the length and modification time of its jar, components
+ * that changed after the index was written are read from the jar as before.
+ * </p>
+ * <p>
+ * File layout: a header (magic, version, offset of the component table), the
+ * stripped class files and the component table, which has the location,
+ * fingerprint, manifest, API description and the type table (name, offset and
+ * length of its class file) of every component. Type tables are only decoded
+ * when a type of their component is requested.
+ * </p>
+ * <p>
+ * On Windows the index is read into memory instead of being mapped, so that it
+ * can be replaced when the baseline is saved again and deleted when the
+ * baseline is removed while a previous index is still in use.
+ * </p>
+ */
+public final class ApiBaselineIndex {
+
+	/**
+	 * Constant representing the file extension for a baseline index file.
+	 * Value is: <code>.index</code>
+	 */
+	public static final String INDEX_FILE_EXTENSION = ".index"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x41504958; // APIX
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	private final Map<String, Entry> fEntries;
+
+	/**
+	 * The indexed content of one jar component.
+	 */
+	public static final class Entry {
+		private final ByteBuffer fBuffer;
+		private final long fLength;
+		private final long fLastModified;
+		private final Map<String, String> fManifest;
+		private final String fApiDescription;
+		private final int fTypeTableOffset;
+		private volatile Map<String, int[]> fTypes;
+
+		Entry(ByteBuffer buffer, long length, long lastModified, Map<String, String> manifest, String apiDescription,
+				int typeTableOffset) {
+			fBuffer = buffer;
+			fLength = length;
+			fLastModified = lastModified;
+			fManifest = manifest;
+			fApiDescription = apiDescription;
+			fTypeTableOffset = typeTableOffset;
+		}
+
+		/**
+		 * @return a copy of the complete manifest of the component
+		 */
+		public Map<String, String> getManifest() {
+			return new HashMap<>(fManifest);
+		}
+
+		/**
+		 * @return the contents of the <code>.api_description</code> file of
+		 *         the component or <code>null</code> if it has none
+		 */
+		public String getApiDescription() {
+			return fApiDescription;
+		}
+
+		/**
+		 * Returns the API signature of the given type, a class file that can
+		 * be passed to {@link TypeStructureBuilder#buildTypeStructure}.
+		 *
+		 * @param typeName the fully qualified name of the type
+		 * @return the class file without code or <code>null</code> if the type
+		 *         is not indexed
+		 */
+		public byte[] getTypeStructure(String typeName) {
+			Map<String, int[]> types = fTypes;
+			if (types == null) {
+				try {
+					ByteBuffer in = fBuffer.duplicate().position(fTypeTableOffset);
+					int count = readLength(in, 12);
+					types = new HashMap<>(count * 4 / 3 + 1);
+					for (int i = 0; i < count; i++) {
+						types.put(readString(in), new int[] { in.getInt(), in.getInt() });
+					}
+				} catch (BufferUnderflowException | IllegalArgumentException e) {
+					ApiPlugin.log("Corrupt type table in API baseline index", e); //$NON-NLS-1$
+					types = Collections.emptyMap();
+				}
+				fTypes = types;
+			}
+			int[] position = types.get(typeName);
+			if (position == null || position[0] < 0 || position[1] < 0 || position[0] > fBuffer.limit() - position[1]) {
+				return null;
+			}
+			byte[] bytes = new byte[position[1]];
+			fBuffer.get(position[0], bytes);
+			return bytes;
+		}
+
+		/**
+		 * @return whether the jar at the given location still has the length
+		 *         and modification time it had when it was indexed
+		 */
+		boolean isValid(String location) {
+			File file = new File(location);
+			return file.isFile() && file.length() == fLength && file.lastModified() == fLastModified;
+		}
+	}
+
+	private ApiBaselineIndex(Map<String, Entry> entries) {
+		fEntries = entries;
+	}
+
+	/**
+	 * Opens the given index file.
+	 *
+	 * @param file the index file
+	 * @return the index or <code>null</code> if the file does not exist or was
+	 *         written by an incompatible version
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ApiBaselineIndex open(File file) throws IOException {
+		if (!file.isFile()) {
+			return null;
+		}
+		long start = System.currentTimeMillis();
+		ByteBuffer buffer = mapIndex(file);
+		if (buffer == null || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			return null;
+		}
+		Map<String, Entry> entries;
+		try {
+			ByteBuffer in = buffer.duplicate().position((int) buffer.getLong(8));
+			int count = readLength(in, 4);
+			entries = new HashMap<>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String location = readString(in);
+				long length = in.getLong();
+				long lastModified = in.getLong();
+				int headers = readLength(in, 8);
+				Map<String, String> manifest = new LinkedHashMap<>(headers * 4 / 3 + 1);
+				for (int j = 0; j < headers; j++) {
+					manifest.put(readString(in), readString(in));
+				}
+				String apiDescription = readString(in);
+				int typeTableSize = readLength(in, 1);
+				entries.put(location, new Entry(buffer, length, lastModified, manifest, apiDescription, in.position()));
+				in.position(in.position() + typeTableSize);
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Corrupt API baseline index: " + file, e); //$NON-NLS-1$
+		}
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Time to open baseline index " + file.getName() + ": " //$NON-NLS-1$ //$NON-NLS-2$
+					+ (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$
+		}
+		return new ApiBaselineIndex(entries);
+	}
+
+	/**
+	 * Returns the contents of the given index file. The file is memory-mapped,
+	 * so only the pages of the components that are used are read. On Windows
+	 * it is read into memory instead, as a mapped file can neither be replaced
+	 * by {@link #write} nor deleted until the mapping is garbage collected.
+	 *
+	 * @param file the index file
+	 * @return the contents of the file or <code>null</code> if it is too small
+	 *         or too large to be an index
+	 * @throws IOException if the file cannot be read
+	 */
+	private static ByteBuffer mapIndex(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			if (Platform.OS_WIN32.equals(Platform.getOS())) {
+				ByteBuffer buffer = ByteBuffer.allocate((int) size);
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+					// read the complete file
+				}
+				return buffer.flip();
+			}
+			// the mapping stays valid after the channel is closed
+			return channel.map(MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	/**
+	 * Returns the entry for the jar at the given location if the jar did not
+	 * change since the index was written. The jar is checked on every call,
+	 * callers that read several parts of an entry should keep the entry they
+	 * got instead of asking again, so they do not mix indexed and changed
+	 * content.
+	 *
+	 * @param location the absolute path of the component
+	 * @return the entry or <code>null</code> if the component is not indexed
+	 *         or its jar changed
+	 */
+	public Entry getEntry(String location) {
+		Entry entry = fEntries.get(location);
+		return entry != null && entry.isValid(location) ? entry : null;
+	}
+
+	/**
+	 * Returns the API signature of the given type, a class file that can be
+	 * passed to {@link TypeStructureBuilder#buildTypeStructure}.
+	 *
+	 * @param entry an entry of this index
+	 * @param typeName the fully qualified name of the type
+	 * @return the class file without code or <code>null</code> if the type is
+	 *         not indexed
+	 */
+	public byte[] getTypeStructure(Entry entry, String typeName) {
+		return entry.getTypeStructure(typeName);
+	}
+
+	/**
+	 * Returns whether all jar components of the given baseline are indexed
+	 * and did not change since the index was written.
+	 *
+	 * @param baseline the baseline this index belongs to
+	 * @return <code>true</code> if no component has to be read from its jar
+	 */
+	public boolean isUpToDate(IApiBaseline baseline) {
+		for (IApiComponent component : baseline.getApiComponents()) {
+			if (isIndexable(component) && getEntry(component.getLocation()) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the index of the jar components of the given baseline. The file
+	 * is replaced atomically, readers of an existing index are not affected.
+	 *
+	 * @param baseline the baseline to index
+	 * @param file the index file
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @throws CoreException if a component cannot be read or the index
+	 *             cannot be written
+	 */
+	public static void write(IApiBaseline baseline, File file, IProgressMonitor monitor) throws CoreException {
+		long start = System.currentTimeMillis();
+		IApiComponent[] components = baseline.getApiComponents();
+		SubMonitor subMonitor = SubMonitor.convert(monitor, components.length);
+		Path tmp = file.toPath().resolveSibling(file.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			Files.createDirectories(tmp.getParent());
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(0); // patched below
+				ByteArrayOutputStream table = new ByteArrayOutputStream();
+				DataOutputStream tableOut = new DataOutputStream(table);
+				int count = 0;
+				for (IApiComponent component : components) {
+					subMonitor.split(1);
+					if (isIndexable(component)) {
+						writeComponent(component, out, tableOut);
+						count++;
+					}
+				}
+				long tableOffset = out.size();
+				out.writeInt(count);
+				table.writeTo(out);
+				out.flush();
+				if (channel.size() > Integer.MAX_VALUE) {
+					// could not be mapped
+					throw new IOException("API baseline index too large: " + file); //$NON-NLS-1$
+				}
+				channel.write(ByteBuffer.allocate(8).putLong(0, tableOffset), 8);
+			}
+			Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException ioe) {
+				// ignore
+			}
+			throw new CoreException(Status.error("Unable to write API baseline index: " + file, e)); //$NON-NLS-1$
+		}
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Time to write baseline index " + file.getName() + ": " //$NON-NLS-1$ //$NON-NLS-2$
+					+ (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes the stripped class files of the given component to the data
+	 * section and its record to the component table.
+	 */
+	private static void writeComponent(IApiComponent component, DataOutputStream out, DataOutputStream table) throws CoreException, IOException {
+		File location = new File(component.getLocation());
+		// the fingerprint is taken first, a jar changing while it is indexed
+		// is read again on the next restore
+		long length = location.length();
+		long lastModified = location.lastModified();
+		Map<String, String> manifest = ManifestUtils.loadManifest(location);
+		String apiDescription = BundleComponent.loadApiDescription(location);
+		Map<String, int[]> types = new LinkedHashMap<>();
+		IOException[] failure = new IOException[1];
+		for (IApiTypeContainer container : component.getApiTypeContainers()) {
+			container.accept(new ApiTypeContainerVisitor() {
+				@Override
+				public void visit(String packageName, IApiTypeRoot typeroot) {
+					// like IApiComponent#findTypeRoot, the first type wins
+					if (failure[0] != null || types.containsKey(typeroot.getTypeName())) {
+						return;
+					}
+					try {
+						byte[] bytes = stripClassFile(((AbstractApiTypeRoot) typeroot).getContents());
+						if (out.size() > Integer.MAX_VALUE - bytes.length) {
+							throw new IOException("API baseline index too large"); //$NON-NLS-1$
+						}
+						types.put(typeroot.getTypeName(), new int[] { out.size(), bytes.length });
+						out.write(bytes);
+					} catch (IOException e) {
+						failure[0] = e;
+					} catch (CoreException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+						// not a valid class file, read from the jar if needed
+						ApiPlugin.log(e);
+					}
+				}
+			});
+		}
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		writeString(table, component.getLocation());
+		table.writeLong(length);
+		table.writeLong(lastModified);
+		table.writeInt(manifest.size());
+		for (Map.Entry<String, String> header : manifest.entrySet()) {
+			writeString(table, header.getKey());
+			writeString(table, header.getValue());
+		}
+		writeString(table, apiDescription);
+		ByteArrayOutputStream typeTable = new ByteArrayOutputStream();
+		DataOutputStream typeOut = new DataOutputStream(typeTable);
+		typeOut.writeInt(types.size());
+		for (Map.Entry<String, int[]> type : types.entrySet()) {
+			writeString(typeOut, type.getKey());
+			typeOut.writeInt(type.getValue()[0]);
+			typeOut.writeInt(type.getValue()[1]);
+		}
+		table.writeInt(typeTable.size());
+		typeTable.writeTo(table);
+	}
+
+	/**
+	 * Only components backed by a jar are indexed, their jar can be
+	 * fingerprinted cheaply.
+	 */
+	private static boolean isIndexable(IApiComponent component) {
+		return component instanceof BundleComponent && !(component instanceof ProjectComponent) && !component.isSystemComponent()
+				&& new File(component.getLocation()).isFile();
+	}
+
+	/**
+	 * Removes code, frames and debug attributes from the given class file,
+	 * which leaves the API signature of the type.
+	 */
+	static byte[] stripClassFile(byte[] contents) {
+		ClassReader reader = new ClassReader(contents);
+		ClassWriter writer = new ClassWriter(0);
+		reader.accept(writer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return writer.toByteArray();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a length and checks that the remaining bytes can hold that many
+	 * elements, so a corrupt index cannot make us allocate a negative or a
+	 * huge array
+	 *
+	 * @param in the buffer to read from
+	 * @param elementSize the minimal size of one element in bytes
+	 * @return the length
+	 * @throws IllegalArgumentException if the length is invalid
+	 */
+	private static int readLength(ByteBuffer in, int elementSize) {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining() / elementSize) {
+			throw new IllegalArgumentException("Invalid length " + length + " in API baseline index"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return length;
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length == -1) {
+			return null;
+		}
+		if (length < 0 || length > in.remaining()) {
+			throw new IllegalArgumentException("Invalid string length " + length + " in API baseline index"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
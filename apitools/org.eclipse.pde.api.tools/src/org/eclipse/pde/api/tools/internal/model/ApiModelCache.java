@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,12 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.model;
 
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jdt.internal.core.util.LRUCache;
-import org.eclipse.pde.api.tools.internal.SynchronizedOverflowingLRUCache;
+import org.eclipse.pde.api.tools.internal.ConcurrentClockCache;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
@@ -25,44 +26,64 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 
 /**
  * Manages the caches of {@link IApiElement}s
+ * <p>
+ * Types are cached in bounded caches that can be read and written
+ * concurrently, keyed by baseline, component and type name. Member types are
+ * grouped by their root type, so they can be removed together with it.
+ * </p>
  *
  * @since 1.0.2
  */
 public final class ApiModelCache {
 
 	/**
-	 * Cache used for {@link IApiElement}s
+	 * Key of a type in the caches
+	 *
+	 * @param baseline the name of the baseline
+	 * @param component the symbolic name of the component
+	 * @param typeName the qualified name of the type, or of the root type of
+	 *            a group of member types
 	 */
-	static class Cache<K, V> extends SynchronizedOverflowingLRUCache<K, V> {
+	record TypeKey(String baseline, String component, String typeName) {
+	}
 
-		/**
-		 * Constructor
-		 *
-		 * @param size
-		 * @param overflow
-		 */
-		public Cache(int size, int overflow) {
-			super(size, overflow);
-		}
+	/**
+	 * Key of a component in the caches
+	 *
+	 * @param baseline the name of the baseline
+	 * @param component the symbolic name of the component
+	 */
+	record ComponentKey(String baseline, String component) {
+	}
 
-		@Override
-		protected boolean close(LRUCacheEntry<K, V> entry) {
-			return true;
-		}
+	static final int DEFAULT_CACHE_SIZE = 1000;
 
-		@Override
-		protected LRUCache<K, V> newInstance(int size, int newOverflow) {
-			return new Cache<>(size, newOverflow);
-		}
+	/**
+	 * Maximum number of cached root types in all baselines
+	 */
+	static final int TYPE_CACHE_SIZE = DEFAULT_CACHE_SIZE * 50;
 
-	}
+	/**
+	 * Maximum number of cached groups of member types in all baselines
+	 */
+	static final int MEMBER_TYPE_CACHE_SIZE = DEFAULT_CACHE_SIZE * 10;
 
-	static final int DEFAULT_CACHE_SIZE = 1000;
-	static final int DEFAULT_OVERFLOW = (int) (DEFAULT_CACHE_SIZE * 0.1f);
 	static ApiModelCache fInstance = null;
 
-	Cache<String, Cache<String, Cache<String, IApiElement>>> fRootCache;
-	Cache<String, Cache<String, ApiType>> fMemberTypeCache;
+	final ConcurrentClockCache<TypeKey, IApiElement> fTypeCache = new ConcurrentClockCache<>(TYPE_CACHE_SIZE);
+	final ConcurrentClockCache<TypeKey, Map<String, ApiType>> fMemberTypeCache = new ConcurrentClockCache<>(MEMBER_TYPE_CACHE_SIZE);
+
+	/**
+	 * Names of the baselines types have been cached for, used to share the
+	 * types of system components between baselines
+	 */
+	final Set<String> fBaselines = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Components types have been cached for, so removing a component without
+	 * cached types does not have to look through the caches
+	 */
+	final Set<ComponentKey> fComponents = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Constructor - no instantiation
@@ -82,21 +103,6 @@ public final class ApiModelCache {
 		return fInstance;
 	}
 
-	/**
-	 * Returns the key to use in a cache. The key is of the form:
-	 * <code>[baselineid].[componentid].[typename]</code><br>
-	 *
-	 * @param baseline
-	 * @param component
-	 * @param typename
-	 * @return the member type cache key to use
-	 */
-	private String getCacheKey(String baseline, String component, String typename) {
-		StringBuilder buffer = new StringBuilder();
-		buffer.append(baseline).append('.').append(component).append('.').append(typename);
-		return buffer.toString();
-	}
-
 	/**
 	 * Caches the given {@link IApiElement} in the correct cache based on its
 	 * type.
@@ -109,9 +115,6 @@ public final class ApiModelCache {
 	public void cacheElementInfo(IApiElement element) throws CoreException {
 		switch (element.getType()) {
 			case IApiElement.TYPE: {
-				if (fRootCache == null) {
-					fRootCache = new Cache<>(DEFAULT_CACHE_SIZE / 150, DEFAULT_OVERFLOW / 150);
-				}
 				IApiComponent comp = element.getApiComponent();
 				if (comp != null) {
 					IApiBaseline baseline = comp.getBaseline();
@@ -119,45 +122,15 @@ public final class ApiModelCache {
 					if (id == null) {
 						return;
 					}
-					Cache<String, Cache<String, IApiElement>> compcache = fRootCache.get(baseline.getName());
-					if (compcache == null) {
-						compcache = new Cache<>(DEFAULT_CACHE_SIZE / 2, DEFAULT_OVERFLOW / 2);
-						fRootCache.put(baseline.getName(), compcache);
-					}
-					Cache<String, IApiElement> typecache = compcache.get(id);
-					if (typecache == null) {
-						typecache = new Cache<>(DEFAULT_CACHE_SIZE * 2, DEFAULT_OVERFLOW);
-						compcache.put(comp.getSymbolicName(), typecache);
-					}
+					fBaselines.add(baseline.getName());
+					fComponents.add(new ComponentKey(baseline.getName(), id));
 					ApiType type = (ApiType) element;
-					if (type.isMemberType() || isMemberType(type.getName()) /*
-																			 * cache
-																			 * even
-																			 * a
-																			 * root
-																			 * type
-																			 * with
-																			 * a
-																			 * '$'
-																			 * in
-																			 * its
-																			 * name
-																			 * here
-																			 * as
-																			 * well
-																			 */) {
-						if (this.fMemberTypeCache == null) {
-							this.fMemberTypeCache = new Cache<>(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-						}
-						String key = getCacheKey(baseline.getName(), id, getRootName(type.getName()));
-						Cache<String, ApiType> mcache = this.fMemberTypeCache.get(key);
-						if (mcache == null) {
-							mcache = new Cache<>(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-							this.fMemberTypeCache.put(key, mcache);
-						}
-						mcache.put(type.getName(), type);
+					// cache even a root type with a '$' in its name here as well
+					if (type.isMemberType() || isMemberType(type.getName())) {
+						TypeKey key = new TypeKey(baseline.getName(), id, getRootName(type.getName()));
+						fMemberTypeCache.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(type.getName(), type);
 					} else {
-						typecache.put(element.getName(), element);
+						fTypeCache.put(new TypeKey(baseline.getName(), id, element.getName()), element);
 					}
 				}
 				break;
@@ -213,27 +186,18 @@ public final class ApiModelCache {
 		}
 		switch (type) {
 			case IApiElement.TYPE: {
+				if (identifier == null) {
+					break;
+				}
 				if (isMemberType(identifier)) {
-					if (this.fMemberTypeCache != null) {
-						Cache<String, ApiType> mcache = this.fMemberTypeCache
-								.get(getCacheKey(baselineid, componentid, getRootName(identifier)));
-						if (mcache != null) {
-							return mcache.get(identifier);
-						}
+					Map<String, ApiType> members = fMemberTypeCache.get(new TypeKey(baselineid, componentid, getRootName(identifier)));
+					if (members != null) {
+						return members.get(identifier);
 					}
 				} else {
-					if (this.fRootCache != null) {
-						Cache<String, Cache<String, IApiElement>> compcache = fRootCache.get(baselineid);
-						if (compcache != null) {
-							Cache<String, IApiElement> typecache = compcache.get(componentid);
-							if (typecache != null && identifier != null) {
-								IApiElement ele = typecache.get(identifier);
-								if (ele != null) {
-									return ele;
-								}
-
-							}
-						}
+					IApiElement ele = fTypeCache.get(new TypeKey(baselineid, componentid, identifier));
+					if (ele != null) {
+						return ele;
 					}
 				}
 				break;
@@ -241,7 +205,7 @@ public final class ApiModelCache {
 			default:
 				break;
 			}
-		if (componentid.startsWith("JavaSE-") && this.fRootCache != null) { //$NON-NLS-1$
+		if (componentid.startsWith("JavaSE-") && identifier != null) { //$NON-NLS-1$
 			// for system component, retrieve element from any baseline instead
 			// of recreating the structure and caching the equivalent element info
 			IApiElement element = getElementInfoFromAnyBaseline(baselineid, componentid, identifier);
@@ -253,26 +217,18 @@ public final class ApiModelCache {
 	}
 
 	private IApiElement getElementInfoFromAnyBaseline(String baselineid, String componentid, String updatedIdentifier) {
-		List<String> elements = fRootCache.keysSnapshot();
-		for (String otherBaselines : elements) {
-				if (otherBaselines.equals(baselineid)) {
-					continue;
-				}
-				Cache<String, Cache<String, IApiElement>> compcache = fRootCache.get(otherBaselines);
-				if (compcache != null) {
-					Cache<String, IApiElement> typecache = compcache.get(componentid);
-					if (typecache != null && updatedIdentifier != null) {
-						IApiElement ele = typecache.get(updatedIdentifier);
-						if (ele != null) {
-							return ele;
-						}
-					}
-				}
+		for (String otherBaseline : fBaselines) {
+			if (otherBaseline.equals(baselineid)) {
+				continue;
+			}
+			IApiElement ele = fTypeCache.get(new TypeKey(otherBaseline, componentid, updatedIdentifier));
+			if (ele != null) {
+				return ele;
 			}
+		}
 		return null;
 	}
 
-
 	/**
 	 * Removes the {@link IApiElement} from the given component (given its id)
 	 * with the given identifier and of the given type.
@@ -290,60 +246,29 @@ public final class ApiModelCache {
 		switch (type) {
 			case IApiElement.TYPE: {
 				if (componentid != null && identifier != null) {
-					boolean removed = true;
 					// clean member type cache
-					if (this.fMemberTypeCache != null) {
-						if (isMemberType(identifier)) {
-							Cache<String, ApiType> mcache = this.fMemberTypeCache.get(getCacheKey(baselineid, componentid, getRootName(identifier)));
-							if (mcache != null) {
-								return mcache.remove(identifier) != null;
-							}
-						} else {
-							this.fMemberTypeCache.remove(getCacheKey(baselineid, componentid, getRootName(identifier)));
-						}
-					}
-					if (fRootCache != null) {
-						Cache<String, Cache<String, IApiElement>> compcache = fRootCache.get(baselineid);
-						if (compcache != null) {
-							Cache<String, IApiElement> typecache = compcache.get(componentid);
-							if (typecache != null) {
-								removed &= typecache.remove(identifier) != null;
-								if (typecache.isEmpty()) {
-									removed &= compcache.remove(componentid) != null;
-								}
-								if (compcache.isEmpty()) {
-									removed &= fRootCache.remove(baselineid) != null;
-								}
-								return removed;
-							}
-
+					TypeKey rootKey = new TypeKey(baselineid, componentid, getRootName(identifier));
+					if (isMemberType(identifier)) {
+						Map<String, ApiType> members = fMemberTypeCache.get(rootKey);
+						if (members != null) {
+							return members.remove(identifier) != null;
 						}
 					} else {
-						return false;
+						fMemberTypeCache.remove(rootKey);
 					}
+					return fTypeCache.remove(new TypeKey(baselineid, componentid, identifier)) != null;
 				}
 				break;
 			}
 			case IApiElement.COMPONENT: {
-				flushMemberCache();
-				if (fRootCache != null && componentid != null) {
-					Cache<String, Cache<String, IApiElement>> compcache = fRootCache.get(baselineid);
-					if (compcache != null) {
-						boolean removed = compcache.remove(componentid) != null;
-						if (compcache.isEmpty()) {
-							removed &= fRootCache.remove(baselineid) != null;
-						}
-						return removed;
-					}
+				if (componentid != null && fComponents.remove(new ComponentKey(baselineid, componentid))) {
+					fMemberTypeCache.removeIf(key -> key.baseline().equals(baselineid) && key.component().equals(componentid));
+					return fTypeCache.removeIf(key -> key.baseline().equals(baselineid) && key.component().equals(componentid));
 				}
 				break;
 			}
 			case IApiElement.BASELINE: {
-				flushMemberCache();
-				if (fRootCache != null) {
-					return fRootCache.remove(baselineid) != null;
-				}
-				break;
+				return removeBaseline(baselineid);
 			}
 			default:
 				break;
@@ -351,6 +276,24 @@ public final class ApiModelCache {
 		return false;
 	}
 
+	/**
+	 * Removes the {@link IApiElement} infos of all components of the given
+	 * baseline
+	 *
+	 * @param baselineid the name of the baseline
+	 * @return true if any element was removed, false otherwise
+	 */
+	private boolean removeBaseline(String baselineid) {
+		fBaselines.remove(baselineid);
+		fComponents.removeIf(key -> key.baseline().equals(baselineid));
+		fMemberTypeCache.removeIf(key -> key.baseline().equals(baselineid));
+		boolean removed = fTypeCache.removeIf(key -> key.baseline().equals(baselineid));
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Removed baseline " + baselineid + " from type cache: " + fTypeCache); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return removed;
+	}
+
 	/**
 	 * Removes the given {@link IApiElement} info from the cache and returns it
 	 * if present
@@ -368,26 +311,20 @@ public final class ApiModelCache {
 		switch (element.getType()) {
 			case IApiElement.COMPONENT:
 			case IApiElement.TYPE: {
-				if (fRootCache != null) {
-					IApiComponent comp = element.getApiComponent();
-					if (comp != null) {
-						try {
-							IApiBaseline baseline = comp.getBaseline();
-							return removeElementInfo(baseline.getName(), comp.getSymbolicName(), element.getName(), element.getType());
-						} catch (CoreException ce) {
-							ApiPlugin.log("Failed to remove element info for " + comp.getName(), ce); //$NON-NLS-1$
-						}
+				IApiComponent comp = element.getApiComponent();
+				if (comp != null) {
+					try {
+						IApiBaseline baseline = comp.getBaseline();
+						return removeElementInfo(baseline.getName(), comp.getSymbolicName(), element.getName(), element.getType());
+					} catch (CoreException ce) {
+						ApiPlugin.log("Failed to remove element info for " + comp.getName(), ce); //$NON-NLS-1$
 					}
 				}
 				break;
 			}
 			case IApiElement.BASELINE: {
-				flushMemberCache();
-				if (fRootCache != null) {
-					IApiBaseline baseline = (IApiBaseline) element;
-					return fRootCache.remove(baseline.getName()) != null;
-				}
-				break;
+				IApiBaseline baseline = (IApiBaseline) element;
+				return removeBaseline(baseline.getName());
 			}
 			default:
 				break;
@@ -399,19 +336,14 @@ public final class ApiModelCache {
 	 * Clears out all cached information.
 	 */
 	public void flushCaches() {
-		if (fRootCache != null) {
-			fRootCache.flush();
-		}
-		flushMemberCache();
-	}
-
-	/**
-	 * Flushes the cache of member types
-	 */
-	private void flushMemberCache() {
-		if (this.fMemberTypeCache != null) {
-			this.fMemberTypeCache.flush();
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Flushing type cache: " + fTypeCache); //$NON-NLS-1$
+			System.out.println("Flushing member type cache: " + fMemberTypeCache); //$NON-NLS-1$
 		}
+		fTypeCache.clear();
+		fMemberTypeCache.clear();
+		fBaselines.clear();
+		fComponents.clear();
 	}
 
 	/**
@@ -420,13 +352,6 @@ public final class ApiModelCache {
 	 * @return true if the cache has no entries, false otherwise
 	 */
 	public boolean isEmpty() {
-		boolean empty = true;
-		if (fRootCache != null) {
-			empty &= fRootCache.isEmpty();
-		}
-		if (this.fMemberTypeCache != null) {
-			empty &= this.fMemberTypeCache.isEmpty();
-		}
-		return empty;
+		return fTypeCache.isEmpty() && fMemberTypeCache.isEmpty();
 	}
 }
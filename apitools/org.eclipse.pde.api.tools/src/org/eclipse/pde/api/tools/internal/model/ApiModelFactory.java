@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,8 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -26,8 +28,11 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
@@ -65,13 +70,13 @@ public class ApiModelFactory {
 	/**
 	 * Next available bundle id
 	 */
-	private static long fNextId = 0L;
+	private static final AtomicLong fNextId = new AtomicLong();
 
 	/**
 	 * @return a viable int id for a bundle
 	 */
 	private static long getBundleID() {
-		return fNextId++;
+		return fNextId.getAndIncrement();
 	}
 
 	/**
@@ -246,6 +251,7 @@ public class ApiModelFactory {
 	public static IApiComponent[] addComponents(IApiBaseline baseline, String installLocation, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMonitor = SubMonitor.convert(monitor, Messages.configuring_baseline, 50);
 		IApiComponent[] result = null;
+		long time = System.currentTimeMillis();
 		try {
 			// Acquire the service
 			ITargetPlatformService service = null;
@@ -258,21 +264,10 @@ public class ApiModelFactory {
 				subMonitor.subTask(Messages.resolving_target_definition);
 				container.resolve(definition, subMonitor.split(30));
 				subMonitor.split(1);
-				TargetBundle[] bundles = container.getBundles();
-				List<IApiComponent> components = new ArrayList<>();
-				if (bundles.length > 0) {
-					subMonitor.setWorkRemaining(bundles.length);
-					for (TargetBundle bundle : bundles) {
-						subMonitor.split(1);
-						if (!bundle.isSourceBundle()) {
-							IApiComponent component = ApiModelFactory.newApiComponent(baseline, URIUtil.toFile(bundle.getBundleInfo().getLocation()).getAbsolutePath());
-							if (component != null) {
-								subMonitor.subTask(NLS.bind(Messages.adding_component__0, component.getSymbolicName()));
-								components.add(component);
-							}
-						}
-					}
-				}
+				List<String> locations = getLocations(container.getBundles());
+				time = logPhase(baseline, "scan", time); //$NON-NLS-1$
+				List<IApiComponent> components = newApiComponents(baseline, locations, subMonitor);
+				time = logPhase(baseline, "manifest", time); //$NON-NLS-1$
 				result = components.toArray(new IApiComponent[components.size()]);
 			} else {
 				// The target platform service is unavailable (OSGi isn't
@@ -283,18 +278,19 @@ public class ApiModelFactory {
 					if (files == null) {
 						return NO_COMPONENTS;
 					}
-					List<IApiComponent> components = new ArrayList<>();
+					List<String> locations = new ArrayList<>(files.length);
 					for (File bundle : files) {
-						IApiComponent component = ApiModelFactory.newApiComponent(baseline, bundle.getAbsolutePath());
-						if (component != null) {
-							components.add(component);
-						}
+						locations.add(bundle.getAbsolutePath());
 					}
+					time = logPhase(baseline, "scan", time); //$NON-NLS-1$
+					List<IApiComponent> components = newApiComponents(baseline, locations, subMonitor);
+					time = logPhase(baseline, "manifest", time); //$NON-NLS-1$
 					result = components.toArray(new IApiComponent[components.size()]);
 				}
 			}
 			if (result != null) {
 				baseline.addApiComponents(result);
+				logPhase(baseline, "state resolve", time); //$NON-NLS-1$
 				return result;
 			}
 			return NO_COMPONENTS;
@@ -307,28 +303,19 @@ public class ApiModelFactory {
 		IApiBaseline baseline = new ApiBaseline(name);
 
 		SubMonitor subMonitor = SubMonitor.convert(monitor, Messages.configuring_baseline, 50);
+		long time = System.currentTimeMillis();
 		try {
 			IStatus result = definition.resolve(subMonitor.split(30));
 			if (!result.isOK()) {
 				throw new CoreException(result);
 			}
 			subMonitor.split(1);
-			TargetBundle[] bundles = definition.getBundles();
-			List<IApiComponent> components = new ArrayList<>();
-			if (bundles.length > 0) {
-				subMonitor.setWorkRemaining(bundles.length);
-				for (TargetBundle bundle : bundles) {
-					subMonitor.split(1);
-					if (!bundle.isSourceBundle()) {
-						IApiComponent component = ApiModelFactory.newApiComponent(baseline, URIUtil.toFile(bundle.getBundleInfo().getLocation()).getAbsolutePath());
-						if (component != null) {
-							subMonitor.subTask(NLS.bind(Messages.adding_component__0, component.getSymbolicName()));
-							components.add(component);
-						}
-					}
-				}
-			}
+			List<String> locations = getLocations(definition.getBundles());
+			time = logPhase(baseline, "scan", time); //$NON-NLS-1$
+			List<IApiComponent> components = newApiComponents(baseline, locations, subMonitor);
+			time = logPhase(baseline, "manifest", time); //$NON-NLS-1$
 			baseline.addApiComponents(components.toArray(new IApiComponent[components.size()]));
+			logPhase(baseline, "state resolve", time); //$NON-NLS-1$
 			baseline.setLocation(generateTargetLocation(definition));
 			return baseline;
 		} finally {
@@ -336,6 +323,190 @@ public class ApiModelFactory {
 		}
 	}
 
+	/**
+	 * Returns the locations of the given bundles, except source bundles
+	 *
+	 * @param bundles the resolved bundles of a target
+	 * @return the absolute paths of the bundles
+	 */
+	private static List<String> getLocations(TargetBundle[] bundles) {
+		List<String> locations = new ArrayList<>(bundles.length);
+		for (TargetBundle bundle : bundles) {
+			if (!bundle.isSourceBundle()) {
+				locations.add(URIUtil.toFile(bundle.getBundleInfo().getLocation()).getAbsolutePath());
+			}
+		}
+		return locations;
+	}
+
+	/**
+	 * Creates the API components of the given baseline at the given locations,
+	 * see {@link #newApiComponents(List, ComponentCreator, IProgressMonitor)}
+	 *
+	 * @param baseline the baseline the components are created for, they are
+	 *            not added to it
+	 * @param locations the absolute paths of the components
+	 * @param monitor the monitor to report progress to
+	 * @return the valid components in the order of their locations
+	 * @throws CoreException if a component cannot be created
+	 */
+	private static List<IApiComponent> newApiComponents(IApiBaseline baseline, List<String> locations, SubMonitor monitor) throws CoreException {
+		return newApiComponents(locations, location -> newApiComponent(baseline, location), monitor);
+	}
+
+	/**
+	 * Creates the API component at a location, see
+	 * {@link ApiModelFactory#newApiComponents(List, ComponentCreator, IProgressMonitor)}
+	 */
+	@FunctionalInterface
+	public interface ComponentCreator {
+		/**
+		 * Creates the API component at the given location
+		 *
+		 * @param location the absolute path of the component
+		 * @return the component or <code>null</code> if the location does not
+		 *         contain a valid API component
+		 * @throws CoreException if the component cannot be created
+		 */
+		IApiComponent create(String location) throws CoreException;
+	}
+
+	/**
+	 * Creates the API components at the given locations with the given
+	 * creator. Reading the manifests is I/O bound, so the components are
+	 * created in parallel by a {@link JobGroup} with a job per component and
+	 * at most a thread per processor. The components are returned in the order
+	 * of the locations, so the baseline does not depend on the order they were
+	 * created in. If the creation is canceled or fails, the components created
+	 * so far are disposed.
+	 *
+	 * @param locations the absolute paths of the components
+	 * @param creator creates the component at a location, possibly in
+	 *            parallel
+	 * @param monitor progress monitor or <code>null</code>
+	 * @return the valid components in the order of their locations
+	 * @throws CoreException if a component cannot be created
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public static List<IApiComponent> newApiComponents(List<String> locations, ComponentCreator creator, IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, locations.size());
+		IApiComponent[] created = new IApiComponent[locations.size()];
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), locations.size());
+		try {
+			if (threads <= 1) {
+				for (int i = 0; i < created.length; i++) {
+					subMonitor.split(1);
+					created[i] = creator.create(locations.get(i));
+					if (created[i] != null) {
+						subMonitor.subTask(NLS.bind(Messages.adding_component__0, created[i].getSymbolicName()));
+					}
+				}
+			} else {
+				newApiComponents(locations, creator, created, threads, subMonitor.split(locations.size()));
+			}
+		} catch (CoreException | RuntimeException | Error e) {
+			for (IApiComponent component : created) {
+				if (component != null) {
+					component.dispose();
+				}
+			}
+			throw e;
+		}
+		List<IApiComponent> components = new ArrayList<>(created.length);
+		for (IApiComponent component : created) {
+			if (component != null) {
+				components.add(component);
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Creates the components at the given locations with a job each
+	 *
+	 * @param locations the absolute paths of the components
+	 * @param creator creates the component at a location
+	 * @param created the components by location, filled by the jobs
+	 * @param threads the maximum number of jobs running at once
+	 * @param monitor the monitor to report progress to and to cancel
+	 * @throws CoreException if a component cannot be created
+	 */
+	private static void newApiComponents(List<String> locations, ComponentCreator creator, IApiComponent[] created, int threads, IProgressMonitor monitor) throws CoreException {
+		JobGroup group = new JobGroup(Messages.configuring_baseline, threads, locations.size());
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		for (int i = 0; i < created.length; i++) {
+			int index = i;
+			Job job = Job.create(Messages.configuring_baseline, m -> {
+				try {
+					created[index] = creator.create(locations.get(index));
+				} catch (CoreException | RuntimeException e) {
+					failure.compareAndSet(null, e);
+					group.cancel();
+				}
+			});
+			job.setSystem(true);
+			job.setJobGroup(group);
+			job.schedule();
+		}
+		try {
+			group.join(0, monitor);
+		} catch (InterruptedException e) {
+			cancel(group);
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (OperationCanceledException e) {
+			cancel(group);
+			throw e;
+		}
+		Exception e = failure.get();
+		if (e instanceof CoreException ce) {
+			throw ce;
+		}
+		if (e instanceof RuntimeException re) {
+			throw re;
+		}
+		// the group may have completed before the join noticed the cancellation
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * Cancels the given group and waits for its running jobs, so the
+	 * components they create can be disposed
+	 */
+	private static void cancel(JobGroup group) {
+		group.cancel();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				group.join(0, null);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Reports the time a phase of the creation of the given baseline took
+	 *
+	 * @param baseline the baseline
+	 * @param phase the name of the phase
+	 * @param start the time the phase started
+	 * @return the time the phase ended
+	 */
+	private static long logPhase(IApiBaseline baseline, String phase, long start) {
+		long end = System.currentTimeMillis();
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Baseline " + baseline.getName() + ": " + phase + " took " + (end - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		return end;
+	}
+
 	/**
 	 * Create predictable location description for a target definition. Form is
 	 * <code>target:/targetSeq/definitionLocation</code>. A location must be
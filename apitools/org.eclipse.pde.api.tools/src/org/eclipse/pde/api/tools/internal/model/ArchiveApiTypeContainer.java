@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,7 +28,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jdt.internal.compiler.util.JRTUtil;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
@@ -100,9 +99,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 			}
 			ArchiveApiTypeContainer archive = (ArchiveApiTypeContainer) getParent();
 			try {
-				Path location = archive.getLocation();
-				Path classLocation = location.resolve(getName());
-				fContents = Files.readAllBytes(classLocation);
+				fContents = archive.read(location -> Files.readAllBytes(location.resolve(getName())));
 			} catch (IOException e) {
 				abort("Failed to open class file: " + getTypeName() + " in archive: " + archive.fLocation, e); //$NON-NLS-1$ //$NON-NLS-2$
 			}
@@ -115,6 +112,14 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 		}
 	}
 
+	/**
+	 * Reads from the root of an archive
+	 */
+	@FunctionalInterface
+	private interface ArchiveReader<T> {
+		T read(Path location) throws IOException;
+	}
+
 	/**
 	 * Location of the archive in the local file system.
 	 */
@@ -144,32 +149,52 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	}
 
 	/**
-	 * Converts the location to a path in the applicable file system.
+	 * Reads from the archive. Jar and zip files are opened through the shared
+	 * {@link ArchivePool} and released after reading, the JRT file system is
+	 * kept open.
+	 *
+	 * @param reader reads from the path of the archive in the applicable file
+	 *            system
+	 * @return the result of the reader
+	 * @throws IOException
+	 */
+	private <T> T read(ArchiveReader<T> reader) throws IOException {
+		if (isJrt()) {
+			return reader.read(getJrtLocation());
+		}
+		try (ArchivePool.Handle handle = ArchivePool.getDefault().acquire(Path.of(fLocation))) {
+			return reader.read(handle.getRoot());
+		}
+	}
+
+	private boolean isJrt() {
+		return fLocation.endsWith("jrt-fs.jar"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Converts the location of a <code>jrt-fs.jar</code> to the path of the
+	 * modules in the JRT file system.
 	 *
 	 * @return the path corresponding to the location.
 	 * @throws IOException
 	 */
 	@SuppressWarnings("nls")
-	private Path getLocation() throws IOException {
+	private Path getJrtLocation() throws IOException {
 		Path path = Path.of(fLocation);
-		if (fLocation.endsWith("jrt-fs.jar")) {
-			AtomicReference<IOException> exception = new AtomicReference<>();
-			FileSystem jrtFileSystem = JRTS.computeIfAbsent(path.toRealPath(), it -> {
-				Path jrePath = it.getParent().getParent();
-				try {
-					return FileSystems.newFileSystem(URI.create("jrt:/"), Map.of("java.home", jrePath.toString()));
-				} catch (IOException e) {
-					exception.set(e);
-					return null;
-				}
-			});
-			if (exception.get() != null) {
-				throw exception.get();
+		AtomicReference<IOException> exception = new AtomicReference<>();
+		FileSystem jrtFileSystem = JRTS.computeIfAbsent(path.toRealPath(), it -> {
+			Path jrePath = it.getParent().getParent();
+			try {
+				return FileSystems.newFileSystem(URI.create("jrt:/"), Map.of("java.home", jrePath.toString()));
+			} catch (IOException e) {
+				exception.set(e);
+				return null;
 			}
-			return jrtFileSystem.getPath("modules");
-		} else {
-			return JRTUtil.getJarFileSystem(path).getPath("/");
+		});
+		if (exception.get() != null) {
+			throw exception.get();
 		}
+		return jrtFileSystem.getPath("modules");
 	}
 
 	/**
@@ -210,7 +235,9 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	 */
 	@Override
 	public synchronized void close() throws CoreException {
-		//
+		if (!isJrt()) {
+			ArchivePool.getDefault().close(Path.of(fLocation));
+		}
 	}
 
 	/**
@@ -252,23 +279,25 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	private synchronized void init() throws CoreException {
 		if (fPackages == null) {
 			fPackages = new TreeMap<>();
+			boolean isJrt = isJrt();
 			try {
-				Path location = getLocation();
-				boolean isJrt = "jrt".equals(location.toUri().getScheme()); //$NON-NLS-1$
-				try (Stream<Path> walk = Files.walk(location)) {
-					walk.forEach(it -> {
-						String name = location.relativize(it).toString();
-						if (name.endsWith(Util.DOT_CLASS_SUFFIX)) {
-							// In the JRT file system, the first segment will be the module name,
-							// which we must strip.
-							String className = name.substring(isJrt ? name.indexOf('/') + 1 : 0,
-									name.length() - Util.DOT_CLASS_SUFFIX.length()).replace('/', '.');
-							String pkg = Signatures.getPackageName(className);
-							Map<String, String> fileNames = fPackages.computeIfAbsent(pkg, p -> new TreeMap<>());
-							fileNames.put(className, name);
-						}
-					});
-				}
+				read(location -> {
+					try (Stream<Path> walk = Files.walk(location)) {
+						walk.forEach(it -> {
+							String name = location.relativize(it).toString();
+							if (name.endsWith(Util.DOT_CLASS_SUFFIX)) {
+								// In the JRT file system, the first segment will be the module name,
+								// which we must strip.
+								String className = name.substring(isJrt ? name.indexOf('/') + 1 : 0,
+										name.length() - Util.DOT_CLASS_SUFFIX.length()).replace('/', '.');
+								String pkg = Signatures.getPackageName(className);
+								Map<String, String> fileNames = fPackages.computeIfAbsent(pkg, p -> new TreeMap<>());
+								fileNames.put(className, name);
+							}
+						});
+					}
+					return null;
+				});
 			} catch (IOException e) {
 				abort("Failed to process archive: " + fLocation, e); //$NON-NLS-1$
 			}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+
+/**
+ * A pool of open archives (jar or zip files) shared by all
+ * {@link ArchiveApiTypeContainer}s.
+ * <p>
+ * An archive is opened as a zip file system once and stays open while it is
+ * used, so its central directory is not parsed again for every read. Users
+ * acquire a {@link Handle} for the duration of a read and close it afterwards.
+ * The pool keeps at most {@link #MAX_OPEN_ARCHIVES} archives open: when more
+ * are open, the least recently used archives that are not in use are closed
+ * when an archive is opened or released. Archives in use are never closed,
+ * so the limit may be exceeded while more archives are read at the same time.
+ * </p>
+ * <p>
+ * The archive of a container is closed when the container is closed, e.g.
+ * when its baseline is disposed, and all archives are closed when the plug-in
+ * stops, so no file stays locked. An archive closed while it is in use is
+ * closed once it is released.
+ * </p>
+ * <p>
+ * The pool counts hits, opens and evictions, see {@link #toString()}; they
+ * are reported with the baseline manager debug option when the pool is
+ * cleared.
+ * </p>
+ */
+public final class ArchivePool {
+
+	/**
+	 * The maximum number of archives kept open when they are not in use
+	 */
+	static final int MAX_OPEN_ARCHIVES = 128;
+
+	private static final ArchivePool INSTANCE = new ArchivePool(MAX_OPEN_ARCHIVES);
+
+	/**
+	 * An open archive, released by {@link #close()}
+	 */
+	public final class Handle implements AutoCloseable {
+		final Path fArchive;
+		final FileSystem fFileSystem;
+		/**
+		 * Number of users of the handle, guarded by the pool
+		 */
+		int fReferences;
+		/**
+		 * If the handle was removed from the pool and has to be closed once
+		 * it is released, guarded by the pool
+		 */
+		boolean fRemoved;
+
+		Handle(Path archive, FileSystem fileSystem) {
+			fArchive = archive;
+			fFileSystem = fileSystem;
+		}
+
+		/**
+		 * @return the root of the archive
+		 */
+		public Path getRoot() {
+			return fFileSystem.getPath("/"); //$NON-NLS-1$
+		}
+
+		/**
+		 * Releases the handle, the archive may be closed afterwards
+		 */
+		@Override
+		public void close() {
+			release(this);
+		}
+	}
+
+	/**
+	 * The open archives in access order, guarded by the pool
+	 */
+	private final LinkedHashMap<Path, Handle> fHandles = new LinkedHashMap<>(16, 0.75f, true);
+	private final int fLimit;
+
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fOpens = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param limit the maximum number of archives kept open when they are not
+	 *            in use
+	 */
+	public ArchivePool(int limit) {
+		fLimit = limit;
+	}
+
+	/**
+	 * @return the pool shared by all archive containers
+	 */
+	public static ArchivePool getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns a handle of the given archive, opening it if it is not open
+	 *
+	 * @param archive the path of the archive
+	 * @return the handle, must be closed when the archive was read
+	 * @throws IOException if the archive cannot be opened
+	 */
+	public Handle acquire(Path archive) throws IOException {
+		synchronized (this) {
+			Handle handle = fHandles.get(archive);
+			if (handle != null) {
+				handle.fReferences++;
+				fHits.increment();
+				return handle;
+			}
+		}
+		// open without holding the lock, another thread may open the same
+		// archive meanwhile
+		FileSystem fileSystem = FileSystems.newFileSystem(archive);
+		Handle handle;
+		List<Handle> evicted = null;
+		synchronized (this) {
+			handle = fHandles.get(archive);
+			if (handle == null) {
+				handle = new Handle(archive, fileSystem);
+				handle.fReferences++;
+				fHandles.put(archive, handle);
+				fOpens.increment();
+				fileSystem = null;
+				// the new handle is in use, so it is not evicted
+				evicted = evict();
+			} else {
+				handle.fReferences++;
+				fHits.increment();
+			}
+		}
+		if (fileSystem != null) {
+			close(fileSystem);
+		}
+		close(evicted);
+		return handle;
+	}
+
+	/**
+	 * Releases a user of the given handle. The archive is closed if it was
+	 * removed from the pool meanwhile, otherwise the pool is brought back in
+	 * its limit.
+	 */
+	private void release(Handle handle) {
+		List<Handle> closed;
+		synchronized (this) {
+			handle.fReferences--;
+			if (handle.fReferences > 0) {
+				return;
+			}
+			closed = handle.fRemoved ? Collections.singletonList(handle) : evict();
+		}
+		close(closed);
+	}
+
+	/**
+	 * Removes the least recently used archives that are not in use until the
+	 * pool is in its limit
+	 *
+	 * @return the removed handles, to be closed without holding the lock
+	 */
+	private List<Handle> evict() {
+		List<Handle> evicted = null;
+		for (Iterator<Handle> iterator = fHandles.values().iterator(); fHandles.size() > fLimit && iterator.hasNext();) {
+			Handle handle = iterator.next();
+			if (handle.fReferences == 0) {
+				iterator.remove();
+				handle.fRemoved = true;
+				fEvictions.increment();
+				if (evicted == null) {
+					evicted = new ArrayList<>();
+				}
+				evicted.add(handle);
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Closes the given archive, at once if it is not in use or else once it is
+	 * released
+	 *
+	 * @param archive the path of the archive
+	 */
+	public void close(Path archive) {
+		Handle handle;
+		synchronized (this) {
+			handle = fHandles.remove(archive);
+			if (handle == null) {
+				return;
+			}
+			handle.fRemoved = true;
+			if (handle.fReferences > 0) {
+				return;
+			}
+		}
+		close(handle.fFileSystem);
+	}
+
+	/**
+	 * Closes all archives, the archives in use are closed once they are
+	 * released
+	 */
+	public void clear() {
+		List<Handle> closed = new ArrayList<>();
+		synchronized (this) {
+			for (Handle handle : fHandles.values()) {
+				handle.fRemoved = true;
+				if (handle.fReferences == 0) {
+					closed.add(handle);
+				}
+			}
+			fHandles.clear();
+		}
+		close(closed);
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Closed archives: " + this); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return the number of open archives
+	 */
+	public synchronized int size() {
+		return fHandles.size();
+	}
+
+	/**
+	 * @return the number of requests for an archive that was open
+	 */
+	public long getHitCount() {
+		return fHits.sum();
+	}
+
+	/**
+	 * @return the number of times an archive was opened
+	 */
+	public long getOpenCount() {
+		return fOpens.sum();
+	}
+
+	/**
+	 * @return the number of archives closed to keep the pool in its limit
+	 */
+	public long getEvictionCount() {
+		return fEvictions.sum();
+	}
+
+	private static void close(List<Handle> handles) {
+		if (handles != null) {
+			for (Handle handle : handles) {
+				close(handle.fFileSystem);
+			}
+		}
+	}
+
+	private static void close(FileSystem fileSystem) {
+		try {
+			fileSystem.close();
+		} catch (IOException e) {
+			ApiPlugin.log("Failed to close archive: " + fileSystem, e); //$NON-NLS-1$
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "open=" + size() + "/" + fLimit + ", hits=" + getHitCount() + ", opens=" + getOpenCount() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", evictions=" + getEvictionCount(); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,7 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -124,6 +125,14 @@ public class BundleComponent extends Component {
 	 */
 	private volatile BundleDescription fBundleDescription;
 
+	/**
+	 * Entry of this component in the index of its baseline, empty if there is
+	 * none or the jar changed since the index was written. Checked once, so
+	 * manifest, API description and types of this component are either all
+	 * read from the index or all from the jar.
+	 */
+	private volatile Optional<ApiBaselineIndex.Entry> fIndexEntry;
+
 	/**
 	 * Symbolic name of this bundle
 	 */
@@ -185,6 +194,7 @@ public class BundleComponent extends Component {
 			synchronized (this) {
 				fManifest = null;
 				fBundleDescription = null;
+				fIndexEntry = null;
 			}
 		}
 	}
@@ -200,7 +210,8 @@ public class BundleComponent extends Component {
 		if (fManifest != null) {
 			return fManifest;
 		}
-		Map<String, String> manifest = loadManifest(new File(fLocation), isWorkspaceBinary());
+		ApiBaselineIndex.Entry entry = getIndexEntry();
+		Map<String, String> manifest = entry != null ? entry.getManifest() : loadManifest(new File(fLocation), isWorkspaceBinary());
 		synchronized (this) {
 			if (fManifest == null) {
 				fManifest = manifest;
@@ -231,6 +242,35 @@ public class BundleComponent extends Component {
 		}
 	}
 
+	/**
+	 * Returns the entry of this component in the index of its baseline.
+	 *
+	 * @return the entry or <code>null</code> if the baseline has no index or
+	 *         this component changed since the index was written
+	 */
+	private ApiBaselineIndex.Entry getIndexEntry() {
+		Optional<ApiBaselineIndex.Entry> entry = fIndexEntry;
+		if (entry == null) {
+			ApiBaselineIndex index = getBaseline() instanceof ApiBaseline baseline ? baseline.getIndex() : null;
+			entry = Optional.ofNullable(index != null ? index.getEntry(fLocation) : null);
+			fIndexEntry = entry;
+		}
+		return entry.orElse(null);
+	}
+
+	/**
+	 * Returns the API signature of the given type from the index of the
+	 * baseline, to build its type structure from.
+	 *
+	 * @param typeName the fully qualified name of the type
+	 * @return the class file without code or <code>null</code> if the type is
+	 *         not indexed
+	 */
+	byte[] getIndexedTypeStructure(String typeName) {
+		ApiBaselineIndex.Entry entry = getIndexEntry();
+		return entry != null ? entry.getTypeStructure(typeName) : null;
+	}
+
 	/**
 	 * Reduce the manifest to only contain required headers after
 	 * {@link BundleDescription} creation.
@@ -420,7 +460,8 @@ public class BundleComponent extends Component {
 		// first mark all packages as internal
 		initializeApiDescription(apiDesc, getBundleDescription(), getLocalPackageNames());
 		try {
-			String xml = loadApiDescription(new File(fLocation));
+			ApiBaselineIndex.Entry entry = getIndexEntry();
+			String xml = entry != null ? entry.getApiDescription() : loadApiDescription(new File(fLocation));
 			setHasApiDescription(xml != null);
 			if (xml != null) {
 				ApiDescriptionProcessor.annotateApiSettings(null, apiDesc, xml);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2020 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,10 @@ package org.eclipse.pde.api.tools.internal.model;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -87,14 +89,16 @@ public class WorkspaceBaseline extends ApiBaseline {
 			return;
 		}
 		HashSet<String> ees = new HashSet<>();
+		List<IApiComponent> added = new ArrayList<>(components.length);
 		for (IApiComponent apiComponent : components) {
 			BundleComponent component = (BundleComponent) apiComponent;
 			if (component.isSourceComponent()) {
 				continue;
 			}
-			addComponent(component);
+			added.add(component);
 			ees.addAll(Arrays.asList(component.getExecutionEnvironments()));
 		}
+		addComponents(added);
 		resolveSystemLibrary(ees);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,6 +46,7 @@ import org.eclipse.pde.api.tools.internal.ApiDescriptionManager;
 import org.eclipse.pde.api.tools.internal.JavadocTagManager;
 import org.eclipse.pde.api.tools.internal.SessionManager;
 import org.eclipse.pde.api.tools.internal.WorkspaceDeltaProcessor;
+import org.eclipse.pde.api.tools.internal.model.ArchivePool;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemTypes;
 import org.eclipse.pde.api.tools.internal.util.FileManager;
 import org.eclipse.pde.api.tools.internal.util.Util;
@@ -695,6 +696,7 @@ public class ApiPlugin extends Plugin implements ISaveParticipant, DebugOptionsL
 		try {
 			ApiDescriptionManager.shutdown();
 			ApiBaselineManager.getManager().stop();
+			ArchivePool.getDefault().clear();
 			ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
 			FileManager.getManager().deleteFiles();
 			fBundleContext = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,17 +13,27 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.pde.api.tools.internal.builder.AbstractProblemDetector;
 import org.eclipse.pde.api.tools.internal.comparator.ClassFileComparator;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.model.ProjectComponent;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
 import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
@@ -113,43 +123,72 @@ public class ApiComparator {
 		Set<String> apiComponentsIds = new HashSet<>();
 		final Delta globalDelta = new Delta();
 		SubMonitor apiLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents.length);
-		for (IApiComponent apiComponentMainLoop : apiComponents) {
-			apiLoopMonitor.split(1);
-			IApiComponent apiComponent = apiComponentMainLoop;
-			if (!apiComponent.isSystemComponent()) {
-				String id = apiComponent.getSymbolicName();
-				IApiComponent apiComponentBaseline = baseline.getApiComponent(id);
-				IDelta delta = null;
-				if (apiComponentBaseline == null) {
-					// report removal of an API component
-					delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT,
-							null, id, id);
-				} else {
+		// the components are compared in parallel, but their deltas are added
+		// in the order of the reference components, see ComponentComparison
+		List<ComponentComparison> comparisons = new ArrayList<>(apiComponents.length);
+		ForkJoinPool pool = null;
+		try {
+			for (IApiComponent apiComponent : apiComponents) {
+				if (!apiComponent.isSystemComponent()) {
+					String id = apiComponent.getSymbolicName();
+					IApiComponent apiComponentBaseline = baseline.getApiComponent(id);
+					if (apiComponentBaseline == null) {
+						// report removal of an API component
+						comparisons.add(new ComponentComparison(null, new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE,
+								IDelta.REMOVED, IDelta.API_COMPONENT, null, id, id), null, false));
+						continue;
+					}
 					apiComponentsIds.add(id);
 					String versionString = apiComponent.getVersion();
 					String versionString2 = apiComponentBaseline.getVersion();
 					IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponentBaseline, id,
 							versionString, versionString2);
-					if (bundleVersionChangesDelta != null) {
-						globalDelta.add(bundleVersionChangesDelta);
-					}
+					ForkJoinTask<IDelta> task = null;
+					boolean forked = false;
 					if (!versionString.equals(versionString2) || force) {
-						long time = System.currentTimeMillis();
-						try {
-							delta = compare(apiComponent, apiComponentBaseline, referenceBaseline, baseline,
-									visibilityModifiers, localmonitor.split(1));
-						} finally {
-							if (ApiPlugin.DEBUG_API_COMPARATOR) {
-								System.out.println("Time spent for " + id + " " + versionString + " : " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-										+ (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$
+						task = ForkJoinTask.adapt(() -> {
+							long time = System.currentTimeMillis();
+							try {
+								return compare(apiComponent, apiComponentBaseline, referenceBaseline, baseline,
+										visibilityModifiers, cancelable(apiLoopMonitor));
+							} finally {
+								if (ApiPlugin.DEBUG_API_COMPARATOR) {
+									System.out.println("Time spent for " + id + " " + versionString + " : " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+											+ (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$
+								}
 							}
+						});
+						// workspace components are not thread safe, they are
+						// compared in this thread while merging
+						if (!(apiComponent instanceof ProjectComponent) && !(apiComponentBaseline instanceof ProjectComponent)) {
+							if (pool == null) {
+								pool = newComparatorPool();
+							}
+							pool.execute(task);
+							forked = true;
 						}
 					}
+					comparisons.add(new ComponentComparison(bundleVersionChangesDelta, null, task, forked));
+				}
+			}
+			apiLoopMonitor.setWorkRemaining(comparisons.size());
+			for (ComponentComparison comparison : comparisons) {
+				apiLoopMonitor.split(1);
+				if (comparison.versionDelta() != null) {
+					globalDelta.add(comparison.versionDelta());
+				}
+				IDelta delta = comparison.delta();
+				if (comparison.task() != null) {
+					delta = comparison.forked() ? comparison.task().join() : comparison.task().invoke();
 				}
 				if (delta != null && delta != NO_DELTA) {
 					globalDelta.add(delta);
 				}
 			}
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
 		}
 		SubMonitor elementLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents2.length);
 		for (IApiComponent element : apiComponents2) {
@@ -550,7 +589,14 @@ public class ApiComparator {
 		final Set<IDelta> deltas = new HashSet<>();
 		final CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, baseline, force, visibilityModifiers,
 				continueOnResolverError, localmonitor.split(1));
-		scope.accept(visitor);
+		// the components of the scope are compared in parallel
+		visitor.pool = newComparatorPool();
+		try {
+			scope.accept(visitor);
+			visitor.joinComponentComparisons();
+		} finally {
+			visitor.pool.shutdownNow();
+		}
 
 		// If set to continue on error, return whatever deltas were
 		// collected
@@ -632,7 +678,8 @@ public class ApiComparator {
 	 * @throws CoreException
 	 */
 	private static IDelta internalCompare(final IApiComponent component, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final Delta globalDelta, final IProgressMonitor monitor) throws CoreException {
-		final Set<String> typeRootBaseLineNames = new HashSet<>();
+		// types may be compared concurrently, see comparePackages
+		final Set<String> typeRootBaseLineNames = ConcurrentHashMap.newKeySet();
 		final String id = component.getSymbolicName();
 		IApiTypeContainer[] typeRootContainers = null;
 		IApiTypeContainer[] typeRootContainers2 = null;
@@ -648,143 +695,27 @@ public class ApiComparator {
 		final IApiDescription apiDescription = component.getApiDescription();
 		final IApiDescription apiDescription2 = component2.getApiDescription();
 		if (typeRootContainers != null) {
+			TypeRootComparison comparison = new TypeRootComparison(component, component2, referenceBaseline, baseline,
+					visibilityModifiers, apiDescription, apiDescription2, typeRootBaseLineNames);
 			SubMonitor loopMonitor = localmonitor.split(1).setWorkRemaining(typeRootContainers.length);
 			for (IApiTypeContainer container : typeRootContainers) {
 				SubMonitor iterationMonitor = loopMonitor.split(1);
 				try {
-					container.accept(new ApiTypeContainerVisitor() {
-						@Override
-						public void visit(String packageName, IApiTypeRoot typeRoot) {
-							SubMonitor visitMonitor = iterationMonitor.setWorkRemaining(50).split(1).setWorkRemaining(2);
-							String typeName = typeRoot.getTypeName();
-							try {
-								IApiType typeDescriptor = typeRoot.getStructure();
-								IApiAnnotations elementDescription = apiDescription.resolveAnnotations(typeDescriptor.getHandle());
-								if (typeDescriptor.isMemberType() || typeDescriptor.isAnonymous() || typeDescriptor.isLocal()) {
-									// we skip nested types (member, local and
-									// anonymous)
-									return;
-								}
-								int visibility = 0;
-								if (elementDescription != null) {
-									visibility = elementDescription.getVisibility();
-								}
-								IApiTypeRoot typeRoot2 = null;
-								if (isSWT) {
-									typeRoot2 = component2.findTypeRoot(typeName);
-								} else {
-									typeRoot2 = component2.findTypeRoot(typeName, id);
-								}
-								IApiComponent provider = null;
-								IApiDescription providerApiDesc = null;
-								boolean reexported = false;
-								if (typeRoot2 == null) {
-									// check if the type is provided by a
-									// required component (it could have been
-									// moved/re-exported)
-									IApiComponent[] providers = component2.getBaseline().resolvePackage(component2, packageName);
-									SubMonitor providerMonitor = visitMonitor.split(1).setWorkRemaining(providers.length);
-									int index = 0;
-									while (typeRoot2 == null && index < providers.length) {
-										providerMonitor.split(1);
-										IApiComponent p = providers[index];
-										if (!p.equals(component2)) {
-											String id2 = p.getSymbolicName();
-											if (Util.ORG_ECLIPSE_SWT.equals(id2)) {
-												typeRoot2 = p.findTypeRoot(typeName);
-											} else {
-												typeRoot2 = p.findTypeRoot(typeName, id2);
-											}
-											if (typeRoot2 != null) {
-												provider = p;
-												providerApiDesc = p.getApiDescription();
-												IRequiredComponentDescription[] required = component2.getRequiredComponents();
-												for (IRequiredComponentDescription description : required) {
-													if (description.getId().equals(id2)) {
-														reexported = description.isExported();
-														break;
-													}
-												}
-											}
-										}
-										index++;
-									}
-								} else {
-									provider = component2;
-									providerApiDesc = apiDescription2;
-								}
-								visitMonitor.setWorkRemaining(1).split(1);
-								String deltaComponentID = Util.getDeltaComponentVersionsId(component2);
-								if (typeRoot2 == null) {
-									if ((visibility & visibilityModifiers) == 0) {
-										// we skip the class file according to
-										// their visibility
-										return;
-									}
-									if (visibilityModifiers == VisibilityModifiers.API) {
-										// if the visibility is API, we only
-										// consider public and protected types
-										if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
-											return;
-										}
-									}
-									globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, IDelta.TYPE, RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), 0, typeName, typeName, new String[] {
-											typeName,
-													component2.isFragment()
-															? Util.getComponentVersionsId(component2.getHost())
-															: Util.getComponentVersionsId(component2) }));
-								} else {
-									if ((visibility & visibilityModifiers) == 0) {
-										// we skip the class file according to
-										// their visibility
-										return;
-									}
-									IApiType typeDescriptor2 = typeRoot2.getStructure();
-									IApiAnnotations elementDescription2 = providerApiDesc.resolveAnnotations(typeDescriptor2.getHandle());
-									int visibility2 = 0;
-									if (elementDescription2 != null) {
-										visibility2 = elementDescription2.getVisibility();
-									}
-									if (visibilityModifiers == VisibilityModifiers.API) {
-										// if the visibility is API, we only
-										// consider public and protected types
-										if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
-											return;
-										}
-									}
-									if (Util.isAPI(visibility, typeDescriptor)) {
-										if (!Util.isAPI(visibility2, typeDescriptor2)) {
-											globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, reexported ? IDelta.REEXPORTED_API_TYPE : IDelta.API_TYPE, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
-													typeName,
-													Util.getComponentVersionsId(component2) }));
-											return;
-										}
-									}
-									if ((visibility2 & visibilityModifiers) == 0) {
-										// we simply report a changed visibility
-										globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.CHANGED, IDelta.TYPE_VISIBILITY, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
-												typeName,
-												Util.getComponentVersionsId(component2) }));
-									}
-									typeRootBaseLineNames.add(typeName);
-									ClassFileComparator comparator = new ClassFileComparator(typeDescriptor, typeRoot2, component, provider, referenceBaseline, baseline, visibilityModifiers);
-									IDelta delta = comparator.getDelta(visitMonitor.split(1));
-									if (ApiPlugin.DEBUG_API_COMPARATOR) {
-										IStatus status = comparator.getStatus();
-										if (status != null) {
-											ApiPlugin.log(status);
-										}
-									}
-									if (delta != null && delta != NO_DELTA) {
-										globalDelta.add(delta);
-									}
+					if (inComparatorPool() && !(component instanceof ProjectComponent)) {
+						comparePackages(container, comparison, globalDelta, iterationMonitor);
+					} else {
+						container.accept(new ApiTypeContainerVisitor() {
+							@Override
+							public void visit(String packageName, IApiTypeRoot typeRoot) {
+								try {
+									comparison.compare(packageName, typeRoot, globalDelta, iterationMonitor.setWorkRemaining(50).split(1));
+								} catch (CoreException e) {
+									ApiPlugin.log(e);
+									AbstractProblemDetector.checkIfDisposed(container.getApiComponent(), iterationMonitor);
 								}
-							} catch (CoreException e) {
-								ApiPlugin.log(e);
-								AbstractProblemDetector.checkIfDisposed(container.getApiComponent(), iterationMonitor);
 							}
-						}
-					});
+						});
+					}
 				} catch (CoreException e) {
 					ApiPlugin.log(e);
 					AbstractProblemDetector.checkIfDisposed(container.getApiComponent(), loopMonitor);
@@ -1024,4 +955,291 @@ public class ApiComparator {
 		}
 		return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
 	}
+
+	/**
+	 * Minimum number of types a container must have to compare its packages
+	 * in parallel
+	 */
+	private static final int PARALLEL_TYPES_THRESHOLD = 200;
+
+	/**
+	 * The comparison of one reference component in
+	 * {@link #compare(IApiBaseline, IApiBaseline, int, boolean, IProgressMonitor)}
+	 *
+	 * @param versionDelta the delta of the version change or <code>null</code>
+	 * @param delta the delta of a removed component or <code>null</code>
+	 * @param task the task comparing the component or <code>null</code>
+	 * @param forked whether the task runs in the comparator pool, otherwise it
+	 *            is run by the caller while merging the deltas
+	 */
+	private record ComponentComparison(IDelta versionDelta, IDelta delta, ForkJoinTask<IDelta> task, boolean forked) {
+	}
+
+	/**
+	 * Worker thread of a comparator pool, allows a comparison to find out
+	 * whether it may fork further tasks
+	 */
+	private static final class ComparatorThread extends ForkJoinWorkerThread {
+		ComparatorThread(ForkJoinPool pool) {
+			super(pool);
+		}
+	}
+
+	/**
+	 * Returns a new pool for comparing components, bounded by the number of
+	 * available processors. The caller is responsible for shutting it down.
+	 */
+	static ForkJoinPool newComparatorPool() {
+		return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), ComparatorThread::new, null, false);
+	}
+
+	/**
+	 * Returns whether the current thread is a worker of a comparator pool
+	 */
+	private static boolean inComparatorPool() {
+		return Thread.currentThread() instanceof ComparatorThread;
+	}
+
+	/**
+	 * Returns a monitor for a comparison running in another thread. It does not
+	 * report progress, but is canceled together with the given monitor.
+	 */
+	private static IProgressMonitor cancelable(IProgressMonitor monitor) {
+		return new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+
+			@Override
+			public void setCanceled(boolean cancelled) {
+				monitor.setCanceled(cancelled);
+			}
+		};
+	}
+
+	/**
+	 * Compares the type roots of the given container within a comparator pool.
+	 * The packages of large containers are compared in parallel, each one into
+	 * its own delta. These deltas are added to the global delta in the order
+	 * the packages are visited, so the result is the same as comparing the type
+	 * roots one after the other.
+	 */
+	private static void comparePackages(IApiTypeContainer container, TypeRootComparison comparison, Delta globalDelta, SubMonitor monitor) throws CoreException {
+		Map<String, List<IApiTypeRoot>> packages = new LinkedHashMap<>();
+		container.accept(new ApiTypeContainerVisitor() {
+			@Override
+			public void visit(String packageName, IApiTypeRoot typeRoot) {
+				packages.computeIfAbsent(packageName, p -> new ArrayList<>()).add(typeRoot);
+			}
+		});
+		int typeCount = packages.values().stream().mapToInt(List::size).sum();
+		monitor.setWorkRemaining(typeCount);
+		if (typeCount < PARALLEL_TYPES_THRESHOLD || packages.size() < 2) {
+			for (Map.Entry<String, List<IApiTypeRoot>> entry : packages.entrySet()) {
+				for (IApiTypeRoot typeRoot : entry.getValue()) {
+					compareTypeRoot(comparison, entry.getKey(), typeRoot, globalDelta, monitor.split(1), monitor);
+				}
+			}
+			return;
+		}
+		IProgressMonitor cancelable = cancelable(monitor);
+		List<ForkJoinTask<Delta>> tasks = new ArrayList<>(packages.size());
+		try {
+			for (Map.Entry<String, List<IApiTypeRoot>> entry : packages.entrySet()) {
+				tasks.add(ForkJoinTask.adapt(() -> {
+					Delta packageDelta = new Delta();
+					for (IApiTypeRoot typeRoot : entry.getValue()) {
+						compareTypeRoot(comparison, entry.getKey(), typeRoot, packageDelta, SubMonitor.convert(cancelable), cancelable);
+					}
+					return packageDelta;
+				}).fork());
+			}
+			int index = 0;
+			for (List<IApiTypeRoot> typeRoots : packages.values()) {
+				Delta packageDelta = tasks.get(index++).join();
+				for (IDelta delta : packageDelta.getChildren()) {
+					globalDelta.add(delta);
+				}
+				monitor.split(typeRoots.size());
+			}
+		} finally {
+			for (ForkJoinTask<Delta> task : tasks) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	private static void compareTypeRoot(TypeRootComparison comparison, String packageName, IApiTypeRoot typeRoot, Delta target, SubMonitor typeMonitor, IProgressMonitor monitor) {
+		try {
+			comparison.compare(packageName, typeRoot, target, typeMonitor);
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+			AbstractProblemDetector.checkIfDisposed(typeRoot.getApiComponent(), monitor);
+		}
+	}
+
+	/**
+	 * Compares the type roots of a component with their counterparts in
+	 * another component. A comparison holds no state of its own apart from the
+	 * shared set of compared type names, so the type roots of different
+	 * packages can be compared concurrently.
+	 */
+	private static final class TypeRootComparison {
+		final IApiComponent component;
+		final IApiComponent component2;
+		final IApiBaseline referenceBaseline;
+		final IApiBaseline baseline;
+		final int visibilityModifiers;
+		final IApiDescription apiDescription;
+		final IApiDescription apiDescription2;
+		final Set<String> typeRootBaseLineNames;
+		final String id;
+		final boolean isSWT;
+
+		TypeRootComparison(IApiComponent component, IApiComponent component2, IApiBaseline referenceBaseline,
+				IApiBaseline baseline, int visibilityModifiers, IApiDescription apiDescription,
+				IApiDescription apiDescription2, Set<String> typeRootBaseLineNames) {
+			this.component = component;
+			this.component2 = component2;
+			this.referenceBaseline = referenceBaseline;
+			this.baseline = baseline;
+			this.visibilityModifiers = visibilityModifiers;
+			this.apiDescription = apiDescription;
+			this.apiDescription2 = apiDescription2;
+			this.typeRootBaseLineNames = typeRootBaseLineNames;
+			this.id = component.getSymbolicName();
+			this.isSWT = Util.ORG_ECLIPSE_SWT.equals(id);
+		}
+
+		/**
+		 * Compares the given type root of the reference component and adds the
+		 * resulting deltas to the given target delta.
+		 */
+		void compare(String packageName, IApiTypeRoot typeRoot, Delta target, SubMonitor monitor) throws CoreException {
+			monitor.setWorkRemaining(2);
+			String typeName = typeRoot.getTypeName();
+			IApiType typeDescriptor = typeRoot.getStructure();
+			IApiAnnotations elementDescription = apiDescription.resolveAnnotations(typeDescriptor.getHandle());
+			if (typeDescriptor.isMemberType() || typeDescriptor.isAnonymous() || typeDescriptor.isLocal()) {
+				// we skip nested types (member, local and
+				// anonymous)
+				return;
+			}
+			int visibility = 0;
+			if (elementDescription != null) {
+				visibility = elementDescription.getVisibility();
+			}
+			IApiTypeRoot typeRoot2 = null;
+			if (isSWT) {
+				typeRoot2 = component2.findTypeRoot(typeName);
+			} else {
+				typeRoot2 = component2.findTypeRoot(typeName, id);
+			}
+			IApiComponent provider = null;
+			IApiDescription providerApiDesc = null;
+			boolean reexported = false;
+			if (typeRoot2 == null) {
+				// check if the type is provided by a
+				// required component (it could have been
+				// moved/re-exported)
+				IApiComponent[] providers = component2.getBaseline().resolvePackage(component2, packageName);
+				SubMonitor providerMonitor = monitor.split(1).setWorkRemaining(providers.length);
+				int index = 0;
+				while (typeRoot2 == null && index < providers.length) {
+					providerMonitor.split(1);
+					IApiComponent p = providers[index];
+					if (!p.equals(component2)) {
+						String id2 = p.getSymbolicName();
+						if (Util.ORG_ECLIPSE_SWT.equals(id2)) {
+							typeRoot2 = p.findTypeRoot(typeName);
+						} else {
+							typeRoot2 = p.findTypeRoot(typeName, id2);
+						}
+						if (typeRoot2 != null) {
+							provider = p;
+							providerApiDesc = p.getApiDescription();
+							IRequiredComponentDescription[] required = component2.getRequiredComponents();
+							for (IRequiredComponentDescription description : required) {
+								if (description.getId().equals(id2)) {
+									reexported = description.isExported();
+									break;
+								}
+							}
+						}
+					}
+					index++;
+				}
+			} else {
+				provider = component2;
+				providerApiDesc = apiDescription2;
+			}
+			monitor.setWorkRemaining(1).split(1);
+			String deltaComponentID = Util.getDeltaComponentVersionsId(component2);
+			if (typeRoot2 == null) {
+				if ((visibility & visibilityModifiers) == 0) {
+					// we skip the class file according to
+					// their visibility
+					return;
+				}
+				if (visibilityModifiers == VisibilityModifiers.API) {
+					// if the visibility is API, we only
+					// consider public and protected types
+					if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
+						return;
+					}
+				}
+				target.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, IDelta.TYPE, RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), 0, typeName, typeName, new String[] {
+						typeName,
+								component2.isFragment()
+										? Util.getComponentVersionsId(component2.getHost())
+										: Util.getComponentVersionsId(component2) }));
+			} else {
+				if ((visibility & visibilityModifiers) == 0) {
+					// we skip the class file according to
+					// their visibility
+					return;
+				}
+				IApiType typeDescriptor2 = typeRoot2.getStructure();
+				IApiAnnotations elementDescription2 = providerApiDesc.resolveAnnotations(typeDescriptor2.getHandle());
+				int visibility2 = 0;
+				if (elementDescription2 != null) {
+					visibility2 = elementDescription2.getVisibility();
+				}
+				if (visibilityModifiers == VisibilityModifiers.API) {
+					// if the visibility is API, we only
+					// consider public and protected types
+					if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
+						return;
+					}
+				}
+				if (Util.isAPI(visibility, typeDescriptor)) {
+					if (!Util.isAPI(visibility2, typeDescriptor2)) {
+						target.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, reexported ? IDelta.REEXPORTED_API_TYPE : IDelta.API_TYPE, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
+								typeName,
+								Util.getComponentVersionsId(component2) }));
+						return;
+					}
+				}
+				if ((visibility2 & visibilityModifiers) == 0) {
+					// we simply report a changed visibility
+					target.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.CHANGED, IDelta.TYPE_VISIBILITY, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
+							typeName,
+							Util.getComponentVersionsId(component2) }));
+				}
+				typeRootBaseLineNames.add(typeName);
+				ClassFileComparator comparator = new ClassFileComparator(typeDescriptor, typeRoot2, component, provider, referenceBaseline, baseline, visibilityModifiers);
+				IDelta delta = comparator.getDelta(monitor.split(1));
+				if (ApiPlugin.DEBUG_API_COMPARATOR) {
+					IStatus status = comparator.getStatus();
+					if (status != null) {
+						ApiPlugin.log(status);
+					}
+				}
+				if (delta != null && delta != NO_DELTA) {
+					target.add(delta);
+				}
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,17 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.pde.api.tools.internal.builder.AbstractProblemDetector;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.model.ProjectComponent;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiScopeVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
@@ -41,6 +46,17 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 	boolean containsErrors = false;
 	SubMonitor monitor;
 
+	/**
+	 * Pool to compare the visited components in or <code>null</code> to
+	 * compare them while visiting, see {@link #joinComponentComparisons()}
+	 */
+	ForkJoinPool pool;
+
+	/**
+	 * Comparisons of visited components that run in the pool
+	 */
+	private final List<ForkJoinTask<IDelta>> componentComparisons = new ArrayList<>();
+
 	public CompareApiScopeVisitor(final Set<IDelta> deltas, final IApiBaseline baseline, final boolean force, final int visibilityModifiers, final boolean continueOnResolverError, final SubMonitor monitor) {
 		this.deltas = deltas;
 		this.referenceBaseline = baseline;
@@ -109,6 +125,19 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 		}
 
 		subMonitor.split(50);
+		ForkJoinTask<IDelta> comparison = ForkJoinTask.adapt(() -> compareApiComponent(referenceComponent, component));
+		// workspace components are not thread safe, they are compared while
+		// visiting
+		if (this.pool != null && !(component instanceof ProjectComponent) && !(referenceComponent instanceof ProjectComponent)) {
+			this.pool.execute(comparison);
+			this.componentComparisons.add(comparison);
+		} else {
+			addDeltas(comparison.invoke());
+		}
+		return false;
+	}
+
+	private IDelta compareApiComponent(IApiComponent referenceComponent, IApiComponent component) {
 		final Delta globalDelta = new Delta();
 		globalDelta.add(ApiComparator.compare(referenceComponent, component, this.visibilityModifiers, null));
 		if (referenceComponent != null) {
@@ -119,7 +148,22 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 				globalDelta.add(bundleVersionChangesDelta);
 			}
 		}
-		globalDelta.accept(new DeltaVisitor() {
+		return globalDelta;
+	}
+
+	/**
+	 * Waits for the comparisons of the visited components that run in the
+	 * pool and collects their deltas.
+	 */
+	void joinComponentComparisons() {
+		for (ForkJoinTask<IDelta> comparison : this.componentComparisons) {
+			addDeltas(comparison.join());
+		}
+		this.componentComparisons.clear();
+	}
+
+	private void addDeltas(IDelta delta) {
+		delta.accept(new DeltaVisitor() {
 			@Override
 			public void endVisit(IDelta localDelta) {
 				if (localDelta.getChildren().length == 0) {
@@ -127,7 +171,6 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 				}
 			}
 		});
-		return false;
 	}
 
 	@Override
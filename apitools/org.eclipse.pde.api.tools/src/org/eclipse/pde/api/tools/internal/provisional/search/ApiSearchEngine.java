@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,11 +18,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.pde.api.tools.internal.AntFilterStore;
@@ -53,21 +59,49 @@ public final class ApiSearchEngine {
 	public static final IReference[] NO_REFERENCES = new IReference[0];
 
 	/**
-	 * Visitor used to extract references from the component is is passed to
+	 * Visitor used to extract references from the component is is passed to.
+	 * <p>
+	 * The types of a package are collected while visiting it and searched when
+	 * the package ends: their structures are read and their references are
+	 * extracted in parallel, the references of all types of the package are
+	 * resolved in one batch and the accepted references are reported by the
+	 * reporter thread while the next package is searched. The requestor is only
+	 * called from the searching thread and the reporter receives the same
+	 * results in the same order as when the types are searched one after the
+	 * other.
+	 * </p>
 	 */
 	class ReferenceExtractor extends ApiTypeContainerVisitor {
 		static final int COLLECTOR_MAX = 2500;
+		/**
+		 * The maximum number of results waiting to be reported
+		 */
+		static final int PENDING_REPORTS_MAX = 4;
 		private List<IReference> collector = null;
+		private List<IApiTypeRoot> typeroots = null;
+		private List<Future<?>> pendingReports = null;
 		private IApiSearchRequestor requestor = null;
 		private IApiSearchReporter reporter = null;
 		IApiElement element = null;
 		private SubMonitor monitor = null;
+		/**
+		 * Extracts the references of types in parallel
+		 */
+		private final ExecutorService extractors;
+		/**
+		 * Reports the results in the order they were found
+		 */
+		private final ExecutorService reports;
 
 		/**
 		 * Constructor
 		 */
-		public ReferenceExtractor(IApiSearchRequestor requestor, IApiSearchReporter reporter, IApiElement element, IProgressMonitor monitor) {
+		public ReferenceExtractor(IApiSearchRequestor requestor, IApiSearchReporter reporter, IApiElement element, ExecutorService extractors, ExecutorService reports, IProgressMonitor monitor) {
+			this.extractors = extractors;
+			this.reports = reports;
 			collector = new ArrayList<>();
+			typeroots = new ArrayList<>();
+			pendingReports = new ArrayList<>();
 			this.requestor = requestor;
 			this.reporter = reporter;
 			this.element = element;
@@ -84,22 +118,7 @@ public final class ApiSearchEngine {
 			if (monitor.isCanceled()) {
 				return;
 			}
-			try {
-				IApiType type = typeroot.getStructure();
-				if (type == null || !requestor.acceptMember(type)) {
-					return;
-				}
-				collector.addAll(acceptReferences(requestor, type, getResolvedReferences(requestor, type, monitor.split(1)), monitor.split(1)));
-			} catch (CoreException ce) {
-				ApiPlugin.log(ce);
-			}
-		}
-
-		@Override
-		public void end(String packageName, IApiTypeRoot typeroot) {
-			if (this.collector.size() >= COLLECTOR_MAX) {
-				reportResults();
-			}
+			typeroots.add(typeroot);
 		}
 
 		@Override
@@ -109,12 +128,129 @@ public final class ApiSearchEngine {
 
 		@Override
 		public void endVisitPackage(String packageName) {
+			searchTypes();
 			reportResults();
 		}
 
+		/**
+		 * Searches the types collected for the current package
+		 */
+		private void searchTypes() {
+			if (typeroots.isEmpty()) {
+				return;
+			}
+			List<Future<IApiType>> structures = new ArrayList<>(typeroots.size());
+			for (IApiTypeRoot typeroot : typeroots) {
+				structures.add(extractors.submit(typeroot::getStructure));
+			}
+			typeroots.clear();
+			List<IApiType> types = new ArrayList<>(structures.size());
+			List<Future<List<IReference>>> extractions = new ArrayList<>(structures.size());
+			int kinds = requestor.getReferenceKinds();
+			for (Future<IApiType> structure : structures) {
+				IApiType type = getResult(structure);
+				if (type == null || monitor.isCanceled() || !requestor.acceptMember(type)) {
+					continue;
+				}
+				types.add(type);
+				extractions.add(extractors.submit(() -> type.extractReferences(kinds, null)));
+			}
+			List<List<IReference>> references = new ArrayList<>(extractions.size());
+			List<IReference> all = new ArrayList<>();
+			for (Future<List<IReference>> extraction : extractions) {
+				monitor.split(1);
+				List<IReference> refs = getResult(extraction);
+				references.add(refs);
+				if (refs != null) {
+					all.addAll(refs);
+				}
+			}
+			try {
+				// resolve the references of all types together, so references
+				// to the same member are resolved once for the package
+				ReferenceResolver.resolveReferences(all, null);
+			} catch (CoreException e) {
+				// resolve type by type to skip only the failing types
+				for (int i = 0; i < references.size(); i++) {
+					List<IReference> refs = references.get(i);
+					if (refs != null) {
+						try {
+							ReferenceResolver.resolveReferences(refs, null);
+						} catch (CoreException ce) {
+							ApiPlugin.log(ce);
+							references.set(i, null);
+						}
+					}
+				}
+			}
+			for (int i = 0; i < types.size(); i++) {
+				List<IReference> refs = references.get(i);
+				if (refs == null) {
+					continue;
+				}
+				try {
+					collector.addAll(acceptReferences(requestor, types.get(i), refs, monitor.split(1)));
+				} catch (CoreException ce) {
+					ApiPlugin.log(ce);
+				}
+				if (collector.size() >= COLLECTOR_MAX) {
+					reportResults();
+				}
+			}
+		}
+
+		/**
+		 * Hands the collected references to the reporter thread
+		 */
 		private void reportResults() {
-			reporter.reportResults(this.element, collector.toArray(new IReference[collector.size()]));
+			IReference[] references = collector.toArray(new IReference[collector.size()]);
 			collector.clear();
+			if (pendingReports.size() >= PENDING_REPORTS_MAX) {
+				getResult(pendingReports.remove(0));
+			}
+			pendingReports.add(reports.submit(() -> reporter.reportResults(this.element, references)));
+		}
+
+		/**
+		 * Waits until all collected references were reported
+		 */
+		void awaitReports() {
+			try {
+				for (Future<?> report : pendingReports) {
+					getResult(report);
+				}
+			} finally {
+				pendingReports.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the result of the given task. A {@link CoreException} of the task
+	 * is logged.
+	 *
+	 * @param future the task
+	 * @return the result of the task or <code>null</code> if it failed
+	 */
+	static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException ce) {
+				ApiPlugin.log(ce);
+				return null;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(cause);
 		}
 	}
 
@@ -183,12 +319,14 @@ public final class ApiSearchEngine {
 	 * @param element
 	 * @param reporter search reporter to output xml results as references are
 	 *            found
+	 * @param extractors the executor extracting the references of types
+	 * @param reports the executor reporting the results in order
 	 * @param monitor
 	 * @return the collection of accepted {@link IReference}s or an empty list,
 	 *         never <code>null</code>
 	 * @throws CoreException
 	 */
-	private void searchReferences(IApiSearchRequestor requestor, IApiElement element, IApiSearchReporter reporter, IProgressMonitor monitor) throws CoreException {
+	private void searchReferences(IApiSearchRequestor requestor, IApiElement element, IApiSearchReporter reporter, ExecutorService extractors, ExecutorService reports, IProgressMonitor monitor) throws CoreException {
 		List<IReference> refs = null;
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 3);
 		switch (element.getType())
@@ -207,10 +345,14 @@ public final class ApiSearchEngine {
 				if (localmonitor.isCanceled()) {
 					reporter.reportResults(element, NO_REFERENCES);
 				}
-				ReferenceExtractor visitor = new ReferenceExtractor(requestor, reporter, element,
+				ReferenceExtractor visitor = new ReferenceExtractor(requestor, reporter, element, extractors, reports,
 						localmonitor.split(1));
 				IApiComponent comp = (IApiComponent) element;
-				comp.accept(visitor);
+				try {
+					comp.accept(visitor);
+				} finally {
+					visitor.awaitReports();
+				}
 				comp.close();
 				localmonitor.split(1);
 				break;
@@ -261,6 +403,43 @@ public final class ApiSearchEngine {
 		IApiElement[] scopeelements = scope.getApiElements();
 		SubMonitor localmonitor = SubMonitor.convert(monitor, MessageFormat.format(SearchMessages.ApiSearchEngine_searching_projects, fRequestorContext), scopeelements.length * 2 + 1);
 		long start = System.currentTimeMillis();
+		AtomicInteger count = new AtomicInteger();
+		// the executors are local to the search, so searches can run at the
+		// same time
+		ExecutorService extractors = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "API Use Search " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		ExecutorService reports = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "API Use Search Reporter"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			searchElements(scopeelements, requestor, reporter, extractors, reports, localmonitor);
+		} finally {
+			extractors.shutdownNow();
+			reports.shutdownNow();
+		}
+		if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+			System.out.println("Total Search Time: " + ((System.currentTimeMillis() - start) / 1000) + " seconds"); //$NON-NLS-1$//$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Searches the given elements one after the other
+	 *
+	 * @param scopeelements the elements to search
+	 * @param requestor the requestor to use for the search
+	 * @param reporter the reporter to use when reporting any search results to
+	 *            the user
+	 * @param extractors the executor extracting the references of types
+	 * @param reports the executor reporting the results in order
+	 * @param localmonitor the monitor to report progress to
+	 * @throws CoreException if the search of an element fails
+	 */
+	private void searchElements(IApiElement[] scopeelements, IApiSearchRequestor requestor, IApiSearchReporter reporter, ExecutorService extractors, ExecutorService reports, SubMonitor localmonitor) throws CoreException {
 		long loopstart = 0;
 		String taskname = null;
 		MultiStatus mstatus = null;
@@ -273,11 +452,15 @@ public final class ApiSearchEngine {
 					loopstart = System.currentTimeMillis();
 					System.out.println("Searching " + scopeelements[i].getApiComponent().getSymbolicName() + "..."); //$NON-NLS-1$ //$NON-NLS-2$
 				}
-				searchReferences(requestor, scopeelements[i], reporter, localmonitor.split(1));
-				localmonitor.setTaskName(taskname);
-				if (localmonitor.isCanceled()) {
-					reporter.reportResults(scopeelements[i], NO_REFERENCES);
-					return;
+				try {
+					searchReferences(requestor, scopeelements[i], reporter, extractors, reports, localmonitor.split(1));
+					localmonitor.setTaskName(taskname);
+					if (localmonitor.isCanceled()) {
+						reporter.reportResults(scopeelements[i], NO_REFERENCES);
+						return;
+					}
+				} finally {
+					reporter.reportSearched(scopeelements[i]);
 				}
 				localmonitor.worked(1);
 				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
@@ -291,9 +474,6 @@ public final class ApiSearchEngine {
 				mstatus.add(Status.error(ce.getMessage(), ce));
 			}
 		}
-		if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
-			System.out.println("Total Search Time: " + ((System.currentTimeMillis() - start) / 1000) + " seconds"); //$NON-NLS-1$//$NON-NLS-2$
-		}
 		if (mstatus != null) {
 			throw new CoreException(mstatus);
 		}
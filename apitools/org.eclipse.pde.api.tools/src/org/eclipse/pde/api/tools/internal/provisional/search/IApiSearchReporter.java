@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,15 @@ public interface IApiSearchReporter {
 	 */
 	public void reportResults(IApiElement element, final IReference[] references);
 
+	/**
+	 * Reports that the search of the given element is done and all of its
+	 * results were reported. Reporters that buffer results write them out.
+	 *
+	 * @param element the element that was searched
+	 */
+	public default void reportSearched(IApiElement element) {
+	}
+
 	/**
 	 * Reports the current listing of objects that were not searched for
 	 * whatever reason.
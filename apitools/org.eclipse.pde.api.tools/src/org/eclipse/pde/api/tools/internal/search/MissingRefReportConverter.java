@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2017 IBM Corporation and others.
+ * Copyright (c) 2011, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -69,11 +69,8 @@ public class MissingRefReportConverter extends UseReportConverter {
 		}
 
 		public void endVisitComponent() {
-			try {
-				writeIndexFileForComponent(currentreport);
-			} catch (Exception e) {
-				ApiPlugin.log(e);
-			}
+			Report report = currentreport;
+			writePage(() -> writeIndexFileForComponent(report));
 		}
 
 		private void writeIndexFileForComponent(Report report) throws Exception {
@@ -319,13 +316,20 @@ public class MissingRefReportConverter extends UseReportConverter {
 			System.out.println("Parsing use scan..."); //$NON-NLS-1$
 			start = System.currentTimeMillis();
 		}
-		List<?> result = parse();
-		if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
-			System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
-			System.out.println("Sorting reports and writing index..."); //$NON-NLS-1$
-			start = System.currentTimeMillis();
+		boolean started = startPageWriters();
+		try {
+			List<?> result = parse();
+			if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
+				System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				System.out.println("Sorting reports and writing index..."); //$NON-NLS-1$
+				start = System.currentTimeMillis();
+			}
+			writeIndexPage(result);
+		} finally {
+			if (started) {
+				finishPageWriters();
+			}
 		}
-		writeIndexPage(result);
 	}
 
 	/**
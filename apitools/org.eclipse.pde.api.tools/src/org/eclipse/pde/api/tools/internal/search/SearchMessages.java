@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -112,6 +112,7 @@ public class SearchMessages extends NLS {
 	public static String UseReportConverter_preparing_xslt_file;
 	public static String UseReportConverter_writing_not_searched;
 	public static String UseReportConverter_writing_root_index;
+	public static String UseReportConverter_writing_pages;
 	public static String UseReportConverter___has_total_refs;
 	public static String UseReportConverter_filter_information;
 	public static String UseReportConverter_number_filtered;
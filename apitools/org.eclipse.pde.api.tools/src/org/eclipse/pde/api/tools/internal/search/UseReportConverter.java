@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,17 +30,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -50,7 +53,11 @@ import javax.xml.transform.stream.StreamSource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.osgi.util.TextProcessor;
@@ -139,29 +146,32 @@ public class UseReportConverter extends HTMLConvertor {
 
 		@Override
 		public void endVisitComponent(IComponentDescriptor target) {
-			try {
-				long start = 0;
-				if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
-					System.out.println("Writing report for bundle: " + target.getId()); //$NON-NLS-1$
-					start = System.currentTimeMillis();
-				}
-				if (this.currentreport.counts.getTotalRefCount() > 0) {
-					writeReferencedMemberPage(this.currentreport, this.referees);
-				} else {
-					this.reports.remove(this.currentreport);
-				}
-				if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
-					System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
-				}
-			} catch (Exception e) {
-				ApiPlugin.log(e);
-			} finally {
-				// clear any children as we have written them out - keep the
-				// report object to write a sorted index page
-				this.currentreport.children.clear();
-				this.keys.clear();
-				this.referees.clear();
+			Report report = this.currentreport;
+			if (report.counts.getTotalRefCount() > 0) {
+				List<Type> refs = new ArrayList<>(this.referees);
+				writePage(() -> {
+					try {
+						long start = 0;
+						if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
+							System.out.println("Writing report for bundle: " + target.getId()); //$NON-NLS-1$
+							start = System.currentTimeMillis();
+						}
+						writeReferencedMemberPage(report, refs);
+						if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
+							System.out.println("Wrote report for bundle: " + target.getId() + " in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						}
+					} finally {
+						// clear any children as we have written them out -
+						// keep the report object to write a sorted index page
+						report.children.clear();
+					}
+				});
+			} else {
+				this.reports.remove(report);
+				report.children.clear();
 			}
+			this.keys.clear();
+			this.referees.clear();
 		}
 
 		@Override
@@ -586,6 +596,28 @@ public class UseReportConverter extends HTMLConvertor {
 	private int filteredCount = -1;
 	Pattern[] topatterns = null;
 	Pattern[] frompatterns = null;
+	/**
+	 * Compiled XSLT files by path, the XSLT resources of this bundle by their
+	 * resource path
+	 */
+	private final Map<String, Templates> templates = new ConcurrentHashMap<>();
+	/**
+	 * Writes pages in parallel while the use scan is parsed, <code>null</code>
+	 * if pages are written right away
+	 */
+	private JobGroup pageWriters = null;
+	/**
+	 * Bounds the number of pages held in memory until they are written
+	 */
+	private Semaphore pendingPages = null;
+
+	/**
+	 * Writes a page of the report
+	 */
+	@FunctionalInterface
+	interface PageWriter {
+		void write() throws Exception;
+	}
 
 	/**
 	 * Constructor
@@ -707,15 +739,22 @@ public class UseReportConverter extends HTMLConvertor {
 			start = System.currentTimeMillis();
 		}
 		localmonitor.setTaskName(SearchMessages.UseReportConverter_parsing_use_scan);
-		List<?> result = parse(localmonitor.split(5));
-		localmonitor.split(1);
-		if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
-			System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
-			System.out.println("Sorting reports and writing index..."); //$NON-NLS-1$
-			start = System.currentTimeMillis();
+		boolean started = startPageWriters();
+		try {
+			List<?> result = parse(localmonitor.split(5));
+			localmonitor.split(1);
+			if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
+				System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				System.out.println("Sorting reports and writing index..."); //$NON-NLS-1$
+				start = System.currentTimeMillis();
+			}
+			localmonitor.setTaskName(SearchMessages.UseReportConverter_writing_root_index);
+			writeIndexPage(result);
+		} finally {
+			if (started) {
+				finishPageWriters();
+			}
 		}
-		localmonitor.setTaskName(SearchMessages.UseReportConverter_writing_root_index);
-		writeIndexPage(result);
 		localmonitor.split(1);
 		if (ApiPlugin.DEBUG_USE_REPORT_CONVERTER) {
 			System.out.println("done in: " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
@@ -784,6 +823,121 @@ public class UseReportConverter extends HTMLConvertor {
 		htmlIndex = index;
 	}
 
+	/**
+	 * Starts writing pages in parallel, see {@link #writePage(PageWriter)}
+	 *
+	 * @return <code>true</code> if the writers were started and must be
+	 *         finished with {@link #finishPageWriters()}, <code>false</code>
+	 *         if they were already running
+	 */
+	protected boolean startPageWriters() {
+		if (this.pageWriters != null) {
+			return false;
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		this.pageWriters = new JobGroup(SearchMessages.UseReportConverter_writing_pages, threads, 0);
+		this.pendingPages = new Semaphore(2 * threads);
+		return true;
+	}
+
+	/**
+	 * Writes a page, in parallel to other pages if the page writers were
+	 * started. Each page is written to its own file, so the output does not
+	 * depend on the order the pages are written in. Failures are logged.
+	 *
+	 * @param writer writes the page
+	 */
+	void writePage(PageWriter writer) {
+		if (this.pageWriters == null) {
+			try {
+				writer.write();
+			} catch (Exception e) {
+				ApiPlugin.log(e);
+			}
+			return;
+		}
+		try {
+			this.pendingPages.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		Semaphore pending = this.pendingPages;
+		Job job = Job.create(SearchMessages.UseReportConverter_writing_pages, monitor -> {
+			try {
+				writer.write();
+			} catch (Exception e) {
+				ApiPlugin.log(e);
+			} finally {
+				pending.release();
+			}
+			return Status.OK_STATUS;
+		});
+		job.setSystem(true);
+		job.setJobGroup(this.pageWriters);
+		job.schedule();
+	}
+
+	/**
+	 * Waits until all pages are written and stops the page writers
+	 */
+	void finishPageWriters() {
+		try {
+			this.pageWriters.join(0, null);
+		} catch (InterruptedException e) {
+			this.pageWriters.cancel();
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			this.pageWriters = null;
+			this.pendingPages = null;
+		}
+	}
+
+	/**
+	 * Returns the compiled form of the given XSLT file, compiling it once
+	 *
+	 * @param xsltFile the XSLT file or <code>null</code> for the default XSLT
+	 * @return the compiled XSLT
+	 * @throws Exception if there is no XSLT or it cannot be compiled
+	 */
+	Templates getTemplates(File xsltFile) throws Exception {
+		if (xsltFile == null) {
+			return getTemplates(DEFAULT_XSLT);
+		}
+		String key = xsltFile.getAbsolutePath();
+		Templates compiled = this.templates.get(key);
+		if (compiled != null) {
+			return compiled;
+		}
+		compiled = TransformerFactory.newInstance().newTemplates(new StreamSource(xsltFile));
+		Templates previous = this.templates.putIfAbsent(key, compiled);
+		return previous != null ? previous : compiled;
+	}
+
+	/**
+	 * Returns the compiled form of the given XSLT resource of this bundle,
+	 * compiling it once
+	 *
+	 * @param resource the path of the XSLT resource
+	 * @return the compiled XSLT
+	 * @throws Exception if there is no such resource or it cannot be compiled
+	 */
+	Templates getTemplates(String resource) throws Exception {
+		Templates compiled = this.templates.get(resource);
+		if (compiled != null) {
+			return compiled;
+		}
+		try (InputStream xsltInputStream = UseReportConverter.class.getResourceAsStream(resource)) {
+			if (xsltInputStream == null) {
+				throw new Exception(SearchMessages.UseReportConverter_no_xstl_specified);
+			}
+			compiled = TransformerFactory.newInstance().newTemplates(new StreamSource(new BufferedInputStream(xsltInputStream)));
+		}
+		Templates previous = this.templates.putIfAbsent(resource, compiled);
+		return previous != null ? previous : compiled;
+	}
+
 	/**
 	 * Applies the given XSLT to the given XML to produce HTML in the given file
 	 *
@@ -793,23 +947,11 @@ public class UseReportConverter extends HTMLConvertor {
 	 * @throws TransformerException
 	 */
 	protected void applyXSLT(File xsltFile, File xmlfile, File htmloutput) throws TransformerException, Exception {
-		Source xslt = null;
-		if (xsltFile != null) {
-			xslt = new StreamSource(xsltFile);
-		} else {
-			InputStream defaultXsltInputStream = UseReportConverter.class.getResourceAsStream(DEFAULT_XSLT);
-			if (defaultXsltInputStream != null) {
-				xslt = new StreamSource(new BufferedInputStream(defaultXsltInputStream));
-			}
-		}
-		if (xslt == null) {
-			throw new Exception(SearchMessages.UseReportConverter_no_xstl_specified);
-		}
-		applyXSLT(xslt, xmlfile, htmloutput);
+		applyXSLT(getTemplates(xsltFile), xmlfile, htmloutput);
 	}
 
 	/**
-	 * Applies the given XSLT source to the given XML file outputting to the
+	 * Applies the given compiled XSLT to the given XML file outputting to the
 	 * given HTML file
 	 *
 	 * @param xslt
@@ -817,12 +959,8 @@ public class UseReportConverter extends HTMLConvertor {
 	 * @param htmlfile
 	 * @throws TransformerException
 	 */
-	protected void applyXSLT(Source xslt, File xmlfile, File htmlfile) throws TransformerException {
-		Source xml = new StreamSource(xmlfile);
-		Result html = new StreamResult(htmlfile);
-		TransformerFactory factory = TransformerFactory.newInstance();
-		Transformer former = factory.newTransformer(xslt);
-		former.transform(xml, html);
+	protected void applyXSLT(Templates xslt, File xmlfile, File htmlfile) throws TransformerException {
+		xslt.newTransformer().transform(new StreamSource(xmlfile), new StreamResult(htmlfile));
 	}
 
 	/**
@@ -834,17 +972,36 @@ public class UseReportConverter extends HTMLConvertor {
 	 * @param html
 	 */
 	protected void tranformXml(File[] xmlfiles, File xsltFile) {
-		File html = null;
-		for (File xmlfile : xmlfiles) {
-			try {
-				File htmlroot = new File(getHtmlLocation(), getHTMLFileLocation(xmlfile));
-				if (!htmlroot.exists()) {
-					htmlroot.mkdirs();
-				}
-				html = new File(getNameFromXMLFilename(xmlfile));
-				applyXSLT(xsltFile, xmlfile, html);
-			} catch (Exception e) {
-				ApiPlugin.log(e);
+		Templates compiled;
+		try {
+			compiled = getTemplates(xsltFile);
+		} catch (Exception e) {
+			ApiPlugin.log(e);
+			return;
+		}
+		// transformers are not thread safe, each page takes an idle one
+		Queue<Transformer> transformers = new ConcurrentLinkedQueue<>();
+		boolean started = startPageWriters();
+		try {
+			for (File xmlfile : xmlfiles) {
+				writePage(() -> {
+					File htmlroot = new File(getHtmlLocation(), getHTMLFileLocation(xmlfile));
+					if (!htmlroot.exists()) {
+						htmlroot.mkdirs();
+					}
+					File html = new File(getNameFromXMLFilename(xmlfile));
+					Transformer former = transformers.poll();
+					if (former == null) {
+						former = compiled.newTransformer();
+					}
+					former.transform(new StreamSource(xmlfile), new StreamResult(html));
+					former.reset();
+					transformers.offer(former);
+				});
+			}
+		} finally {
+			if (started) {
+				finishPageWriters();
 			}
 		}
 	}
@@ -1041,7 +1198,6 @@ public class UseReportConverter extends HTMLConvertor {
 	 */
 	void writeNotSearchedPage(final File htmlroot) throws Exception {
 		File originhtml = null;
-		InputStream defaultXsltInputStream = null;
 		try {
 			String filename = "not_searched"; //$NON-NLS-1$
 			originhtml = new File(htmlroot, filename + HTML_EXTENSION);
@@ -1053,17 +1209,9 @@ public class UseReportConverter extends HTMLConvertor {
 				// try <root>/xml in case a raw report root is specified
 				xml = new File(getReportsRoot() + File.separator + "xml", filename + XML_EXTENSION); //$NON-NLS-1$
 			}
-			defaultXsltInputStream = UseReportConverter.class.getResourceAsStream(getNotSearchedXSLPath());
-			Source xslt = null;
-			if (defaultXsltInputStream != null) {
-				xslt = new StreamSource(new BufferedInputStream(defaultXsltInputStream));
-			}
-			if (xslt == null) {
-				throw new Exception(SearchMessages.UseReportConverter_no_xstl_specified);
-			}
 			if (xml.exists()) {
 				try {
-					applyXSLT(xslt, xml, originhtml);
+					applyXSLT(getTemplates(getNotSearchedXSLPath()), xml, originhtml);
 				} catch (TransformerException e) {
 					useNotSearchedXml = true;
 					ApiPlugin.logErrorMessage(SearchMessages.UseReportConverter_te_applying_xslt_skipped);
@@ -1071,14 +1219,8 @@ public class UseReportConverter extends HTMLConvertor {
 			}
 		} catch (IOException ioe) {
 			throw new Exception(NLS.bind(SearchMessages.ioexception_writing_html_file, originhtml.getAbsolutePath()));
-		} catch (TransformerException te) {
-			throw new Exception(SearchMessages.UseReportConverter_te_applying_xslt_skipped, te);
 		} catch (CoreException e) {
 			throw new Exception(NLS.bind(SearchMessages.UseReportConverter_coreexception_writing_html_file, originhtml.getAbsolutePath()));
-		} finally {
-			if (defaultXsltInputStream != null) {
-				defaultXsltInputStream.close();
-			}
 		}
 	}
 
@@ -0,0 +1,532 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMemberDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMethodDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+
+/**
+ * A binary index of the references of an API use scan, compiled once from the
+ * XML reports of the scan and memory mapped for lookups.
+ * <p>
+ * The references are grouped by the referenced component and the top level
+ * type they refer to, in the order the {@link UseScanParser} visits them. All
+ * names are stored once in a sorted string table, so a lookup is a binary
+ * search for the names followed by a binary search for the group.
+ * </p>
+ * <p>
+ * The index file is laid out as follows:
+ * </p>
+ * <ul>
+ * <li>header: magic, format version, fingerprint of the scan and the number of
+ * strings, groups and references</li>
+ * <li>string offsets: offset of each string in the string data, sorted by
+ * string, followed by the end offset</li>
+ * <li>groups: component id, type name, first reference and number of
+ * references, sorted by component id and type name</li>
+ * <li>references: the referenced component version and member, the
+ * referencing component and member, line number, kind, flags and
+ * visibility</li>
+ * <li>string data: the UTF-8 bytes of the strings</li>
+ * </ul>
+ * <p>
+ * Strings are stored as indexes in the string table, <code>-1</code> for
+ * <code>null</code>. The index is immutable, an index of a changed scan is
+ * written to a new file named after the new fingerprint.
+ * </p>
+ */
+final class UseScanIndex {
+
+	/**
+	 * File extension of index files
+	 */
+	static final String INDEX_EXTENSION = ".index"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x55534958;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 28;
+	private static final int GROUP_SIZE = 16;
+	private static final int REFERENCE_SIZE = 60;
+
+	private final ByteBuffer fBuffer;
+	private final long fFingerprint;
+	private final int fStringCount;
+	private final int fGroupCount;
+	private final int fStringsOffset;
+	private final int fGroupsOffset;
+	private final int fReferencesOffset;
+	private final int fDataOffset;
+	/**
+	 * Decoded strings, filled on demand
+	 */
+	private final String[] fStrings;
+
+	private UseScanIndex(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IOException("Invalid use scan index"); //$NON-NLS-1$
+		}
+		fBuffer = buffer;
+		fFingerprint = buffer.getLong(8);
+		fStringCount = buffer.getInt(16);
+		fGroupCount = buffer.getInt(20);
+		int referenceCount = buffer.getInt(24);
+		fStringsOffset = HEADER_SIZE;
+		fGroupsOffset = fStringsOffset + (fStringCount + 1) * 4;
+		fReferencesOffset = fGroupsOffset + fGroupCount * GROUP_SIZE;
+		fDataOffset = fReferencesOffset + referenceCount * REFERENCE_SIZE;
+		if (fDataOffset > buffer.capacity() || fDataOffset + buffer.getInt(fStringsOffset + fStringCount * 4) != buffer.capacity()) {
+			throw new IOException("Truncated use scan index"); //$NON-NLS-1$
+		}
+		fStrings = new String[fStringCount];
+	}
+
+	/**
+	 * Maps the given index file
+	 *
+	 * @param file the index file
+	 * @param fingerprint the expected fingerprint of the scan
+	 * @return the index
+	 * @throws IOException if the file cannot be read, is not an index or is
+	 *             an index of another scan
+	 */
+	static UseScanIndex open(File file, long fingerprint) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		UseScanIndex index = new UseScanIndex(buffer);
+		if (index.fFingerprint != fingerprint) {
+			throw new IOException("Use scan index is out of date: " + file); //$NON-NLS-1$
+		}
+		return index;
+	}
+
+	/**
+	 * Computes the fingerprint of an archived use scan from the path, size and
+	 * time stamp of the archive
+	 *
+	 * @param archive the archive
+	 * @return the fingerprint
+	 */
+	static long fingerprintArchive(File archive) {
+		MessageDigest digest = newDigest();
+		digest.update(archive.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+		digest.update(ByteBuffer.allocate(16).putLong(archive.length()).putLong(archive.lastModified()).array());
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	/**
+	 * Computes the fingerprint of a use scan directory from the paths, sizes
+	 * and time stamps of its reports
+	 *
+	 * @param scanLocation the directory of the scan
+	 * @return the fingerprint
+	 * @throws IOException if the directory cannot be read
+	 */
+	static long fingerprintDirectory(File scanLocation) throws IOException {
+		Path root = scanLocation.toPath();
+		List<String> reports = new ArrayList<>();
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				if (file.getFileName().toString().endsWith(".xml")) { //$NON-NLS-1$
+					reports.add(root.relativize(file) + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis()); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		Collections.sort(reports);
+		MessageDigest digest = newDigest();
+		digest.update(scanLocation.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+		for (String report : reports) {
+			digest.update(report.getBytes(StandardCharsets.UTF_8));
+		}
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	/**
+	 * Computes a stamp of a use scan directory from the time stamps of the
+	 * directory and of the metadata of the scan. The stamp changes when the
+	 * scan is written again, without visiting its reports like
+	 * {@link #fingerprintDirectory(File)}.
+	 *
+	 * @param scanLocation the directory of the scan
+	 * @return the stamp
+	 */
+	static long stampDirectory(File scanLocation) {
+		File metadata = new File(scanLocation, "meta.xml"); //$NON-NLS-1$
+		MessageDigest digest = newDigest();
+		digest.update(scanLocation.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+		digest.update(ByteBuffer.allocate(24).putLong(scanLocation.lastModified()).putLong(metadata.length()).putLong(metadata.lastModified()).array());
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Parses the given use scan and writes its index to the given file
+	 *
+	 * @param scanLocation the directory of the scan, see
+	 *            {@link UseScanManager#getExactScanLocation(String)}
+	 * @param fingerprint the fingerprint of the scan
+	 * @param file the index file to write
+	 * @param monitor the monitor for parsing the scan
+	 * @throws Exception if the scan cannot be parsed or the index cannot be
+	 *             written
+	 */
+	static void compile(String scanLocation, long fingerprint, File file, IProgressMonitor monitor) throws Exception {
+		long start = System.currentTimeMillis();
+		Collector collector = new Collector();
+		new UseScanParser().parse(scanLocation, monitor, collector);
+
+		// sort the strings and the groups by string
+		TreeSet<String> sorted = new TreeSet<>();
+		TreeMap<String, TreeMap<String, Set<IReferenceDescriptor>>> groups = new TreeMap<>();
+		int referenceCount = 0;
+		for (Entry<String, Map<String, Set<IReferenceDescriptor>>> component : collector.fReferences.entrySet()) {
+			sorted.add(component.getKey());
+			TreeMap<String, Set<IReferenceDescriptor>> types = new TreeMap<>(component.getValue());
+			groups.put(component.getKey(), types);
+			for (Entry<String, Set<IReferenceDescriptor>> type : types.entrySet()) {
+				sorted.add(type.getKey());
+				for (IReferenceDescriptor reference : type.getValue()) {
+					collectStrings(reference, sorted);
+					referenceCount++;
+				}
+			}
+		}
+		Map<String, Integer> strings = new HashMap<>(sorted.size() * 2);
+		for (String string : sorted) {
+			strings.put(string, strings.size());
+		}
+		int groupCount = 0;
+		for (TreeMap<String, Set<IReferenceDescriptor>> types : groups.values()) {
+			groupCount += types.size();
+		}
+
+		File parent = file.getParentFile();
+		if (!parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = new File(parent, file.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(fingerprint);
+			out.writeInt(sorted.size());
+			out.writeInt(groupCount);
+			out.writeInt(referenceCount);
+			List<byte[]> data = new ArrayList<>(sorted.size());
+			int offset = 0;
+			for (String string : sorted) {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				data.add(bytes);
+				out.writeInt(offset);
+				offset += bytes.length;
+			}
+			out.writeInt(offset);
+			int first = 0;
+			for (Entry<String, TreeMap<String, Set<IReferenceDescriptor>>> component : groups.entrySet()) {
+				for (Entry<String, Set<IReferenceDescriptor>> type : component.getValue().entrySet()) {
+					out.writeInt(strings.get(component.getKey()));
+					out.writeInt(strings.get(type.getKey()));
+					out.writeInt(first);
+					out.writeInt(type.getValue().size());
+					first += type.getValue().size();
+				}
+			}
+			for (TreeMap<String, Set<IReferenceDescriptor>> types : groups.values()) {
+				for (Set<IReferenceDescriptor> references : types.values()) {
+					for (IReferenceDescriptor reference : references) {
+						writeReference(out, reference, strings);
+					}
+				}
+			}
+			for (byte[] bytes : data) {
+				out.write(bytes);
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		if (ApiPlugin.DEBUG_API_ANALYZER) {
+			System.out.println("Compiled use scan index " + file + " with " + referenceCount + " references in " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$
+		}
+	}
+
+	private static void collectStrings(IReferenceDescriptor reference, Set<String> strings) {
+		addString(reference.getReferencedComponent().getVersion(), strings);
+		addMemberStrings(reference.getReferencedMember(), strings);
+		addString(reference.getComponent().getId(), strings);
+		addString(reference.getComponent().getVersion(), strings);
+		addMemberStrings(reference.getMember(), strings);
+	}
+
+	private static void addMemberStrings(IMemberDescriptor member, Set<String> strings) {
+		addString(getTypeName(member), strings);
+		if (member.getElementType() != IElementDescriptor.TYPE) {
+			addString(member.getName(), strings);
+		}
+		if (member instanceof IMethodDescriptor method) {
+			addString(method.getSignature(), strings);
+		}
+	}
+
+	private static void addString(String string, Set<String> strings) {
+		if (string != null) {
+			strings.add(string);
+		}
+	}
+
+	private static void writeReference(DataOutputStream out, IReferenceDescriptor reference, Map<String, Integer> strings) throws IOException {
+		writeString(out, reference.getReferencedComponent().getVersion(), strings);
+		writeMember(out, reference.getReferencedMember(), strings);
+		writeString(out, reference.getComponent().getId(), strings);
+		writeString(out, reference.getComponent().getVersion(), strings);
+		writeMember(out, reference.getMember(), strings);
+		out.writeInt(reference.getLineNumber());
+		out.writeInt(reference.getReferenceKind());
+		out.writeInt(reference.getReferenceFlags());
+		out.writeInt(reference.getVisibility());
+	}
+
+	private static void writeMember(DataOutputStream out, IMemberDescriptor member, Map<String, Integer> strings) throws IOException {
+		out.writeInt(member.getElementType());
+		writeString(out, getTypeName(member), strings);
+		writeString(out, member.getElementType() == IElementDescriptor.TYPE ? null : member.getName(), strings);
+		writeString(out, member instanceof IMethodDescriptor method ? method.getSignature() : null, strings);
+	}
+
+	private static void writeString(DataOutputStream out, String string, Map<String, Integer> strings) throws IOException {
+		out.writeInt(string == null ? -1 : strings.get(string));
+	}
+
+	private static String getTypeName(IMemberDescriptor member) {
+		if (member instanceof IReferenceTypeDescriptor type) {
+			return type.getQualifiedName();
+		}
+		return member.getEnclosingType().getQualifiedName();
+	}
+
+	/**
+	 * Collects the references of a scan by referenced component and top level
+	 * type, like the {@link UseScanReferenceVisitor} does for one component
+	 */
+	static class Collector extends UseScanVisitor {
+		final Map<String, Map<String, Set<IReferenceDescriptor>>> fReferences = new LinkedHashMap<>();
+		private IComponentDescriptor fCurrentComponent;
+		private IComponentDescriptor fReferencingComponent;
+		private IMemberDescriptor fCurrentReferencedMember;
+		private Set<IReferenceDescriptor> fCurrentReferences;
+
+		@Override
+		public boolean visitComponent(IComponentDescriptor target) {
+			fCurrentComponent = target;
+			return true;
+		}
+
+		@Override
+		public boolean visitReferencingComponent(IComponentDescriptor component) {
+			fReferencingComponent = component;
+			return true;
+		}
+
+		@Override
+		public boolean visitMember(IMemberDescriptor referencedMember) {
+			String rootType = getTypeName(referencedMember);
+			if (rootType.indexOf('$') > -1) {
+				rootType = rootType.substring(0, rootType.indexOf('$'));
+			}
+			fCurrentReferencedMember = referencedMember;
+			fCurrentReferences = fReferences.computeIfAbsent(fCurrentComponent.getId(), id -> new LinkedHashMap<>()).computeIfAbsent(rootType, type -> new LinkedHashSet<>());
+			return true;
+		}
+
+		@Override
+		public void visitReference(IReferenceDescriptor reference) {
+			fCurrentReferences.add(new ReferenceDescriptor(fReferencingComponent, reference.getMember(), reference.getLineNumber(), fCurrentComponent, fCurrentReferencedMember, reference.getReferenceKind(), reference.getReferenceFlags(), reference.getVisibility(), null));
+		}
+	}
+
+	/**
+	 * @return the fingerprint of the scan the index was compiled from
+	 */
+	long getFingerprint() {
+		return fFingerprint;
+	}
+
+	/**
+	 * Adds the references to the given component to the given collection
+	 *
+	 * @param componentId the symbolic name of the referenced component
+	 * @param types the top level types to add the references to or
+	 *            <code>null</code> to add all references to the component
+	 * @param references the collection to add the references to
+	 */
+	void addReferences(String componentId, String[] types, IReferenceCollection references) {
+		int component = findString(componentId);
+		if (component < 0) {
+			return;
+		}
+		if (types == null) {
+			for (int group = findFirstGroup(component, -1); group < fGroupCount && getGroupInt(group, 0) == component; group++) {
+				addReferences(group, references);
+			}
+			return;
+		}
+		for (String type : types) {
+			int name = findString(type);
+			if (name >= 0) {
+				int group = findFirstGroup(component, name);
+				if (group < fGroupCount && getGroupInt(group, 0) == component && getGroupInt(group, 1) == name) {
+					addReferences(group, references);
+				}
+			}
+		}
+	}
+
+	private void addReferences(int group, IReferenceCollection references) {
+		String type = getString(getGroupInt(group, 1));
+		String componentId = getString(getGroupInt(group, 0));
+		int first = getGroupInt(group, 2);
+		int count = getGroupInt(group, 3);
+		for (int i = first; i < first + count; i++) {
+			int offset = fReferencesOffset + i * REFERENCE_SIZE;
+			IComponentDescriptor to = Factory.componentDescriptor(componentId, getString(fBuffer.getInt(offset)));
+			IMemberDescriptor target = getMember(offset + 4);
+			IComponentDescriptor from = Factory.componentDescriptor(getString(fBuffer.getInt(offset + 20)), getString(fBuffer.getInt(offset + 24)));
+			IMemberDescriptor origin = getMember(offset + 28);
+			int line = fBuffer.getInt(offset + 44);
+			int kind = fBuffer.getInt(offset + 48);
+			int flags = fBuffer.getInt(offset + 52);
+			int visibility = fBuffer.getInt(offset + 56);
+			references.add(type, new ReferenceDescriptor(from, origin, line, to, target, kind, flags, visibility, null));
+		}
+	}
+
+	private IMemberDescriptor getMember(int offset) {
+		String type = getString(fBuffer.getInt(offset + 4));
+		return switch (fBuffer.getInt(offset))
+			{
+			case IElementDescriptor.METHOD -> Factory.methodDescriptor(type, getString(fBuffer.getInt(offset + 8)), getString(fBuffer.getInt(offset + 12)));
+			case IElementDescriptor.FIELD -> Factory.fieldDescriptor(type, getString(fBuffer.getInt(offset + 8)));
+			default -> Factory.typeDescriptor(type);
+			};
+	}
+
+	private int getGroupInt(int group, int field) {
+		return fBuffer.getInt(fGroupsOffset + group * GROUP_SIZE + field * 4);
+	}
+
+	/**
+	 * Returns the first group that is not before the given component and type
+	 */
+	private int findFirstGroup(int component, int type) {
+		int low = 0;
+		int high = fGroupCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int cmp = Integer.compare(getGroupInt(mid, 0), component);
+			if (cmp == 0) {
+				cmp = Integer.compare(getGroupInt(mid, 1), type);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index of the given string or <code>-1</code> if it is not
+	 * in the string table
+	 */
+	private int findString(String string) {
+		if (string == null) {
+			return -1;
+		}
+		int low = 0;
+		int high = fStringCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = getString(mid).compareTo(string);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	private String getString(int index) {
+		if (index < 0) {
+			return null;
+		}
+		String string = fStrings[index];
+		if (string == null) {
+			int start = fBuffer.getInt(fStringsOffset + index * 4);
+			int end = fBuffer.getInt(fStringsOffset + (index + 1) * 4);
+			byte[] bytes = new byte[end - start];
+			// absolute bulk get on a duplicate, the buffer is shared by threads
+			fBuffer.duplicate().position(fDataOffset + start).get(bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+			fStrings[index] = string;
+		}
+		return string;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,9 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -58,6 +60,10 @@ public class UseScanManager {
 	 * Number of entries to cache in the {@link UseScanCache}
 	 */
 	public static final int DEFAULT_CACHE_SIZE = 1000;
+	/**
+	 * Folder of the compiled scan indexes in the temporary location
+	 */
+	private static final String INDEX_DIR = "index"; //$NON-NLS-1$
 
 	/**
 	 * Cache to maintain the list of least recently used
@@ -89,6 +95,17 @@ public class UseScanManager {
 
 	private String[] fLocations = null;
 
+	/**
+	 * A compiled index and the stamp of its scan when it was last validated
+	 */
+	private record ValidatedIndex(UseScanIndex index, long stamp) {
+	}
+
+	/**
+	 * The compiled indexes of the scans by location, guarded by the manager
+	 */
+	private final Map<String, ValidatedIndex> fIndexes = new HashMap<>();
+
 	/**
 	 * {@link FileFilter} for finding use scan directories
 	 */
@@ -164,8 +181,6 @@ public class UseScanManager {
 	 * @param monitor
 	 */
 	private void fetch(IApiComponent apiComponent, String[] types, IReferenceCollection references, IProgressMonitor monitor) {
-		UseScanParser parser = new UseScanParser();
-		UseScanReferenceVisitor visitor = new UseScanReferenceVisitor(apiComponent, types, references);
 		SubMonitor localmonitor = SubMonitor.convert(monitor, SearchMessages.load_external_dependencies, 10);
 		try {
 			String[] locations;
@@ -175,49 +190,14 @@ public class UseScanManager {
 				locations = fLocations;
 			}
 			if (locations != null) {
-				IStringVariableManager stringManager = null;
 				localmonitor.setWorkRemaining(locations.length);
-				for (int i = 0; i < locations.length; i++) {
+				for (String location : locations) {
 					SubMonitor iterationMonitor = localmonitor.split(1);
-					File file = new File(locations[i]);
-					if (!file.exists()) {
-						continue;
-					}
-					if (file.isFile()) {
-						if (Util.isArchive(file.getName())) {
-							String destDirPath = tempLocation + file.getName() + '.' + file.getAbsolutePath().hashCode();
-							if (stringManager == null) {
-								stringManager = VariablesPlugin.getDefault().getStringVariableManager();
-							}
-							destDirPath = stringManager.performStringSubstitution(destDirPath);
-							locations[i] = destDirPath + '/' + file.lastModified();
-							File unzipDirLoc = new File(destDirPath);
-							if (unzipDirLoc.exists()) {
-								String[] childDirs = unzipDirLoc.list();
-								for (String childDir : childDirs) {
-									if (!childDir.equals(String.valueOf(file.lastModified()))) {
-										FileManager.getManager().recordTempFileRoot(destDirPath + '/' + childDir);
-									}
-								}
-							} else {
-								Util.unzip(file.getPath(), locations[i]);
-							}
-						} else {
-							continue;
-						}
-					}
 					try {
-						locations[i] = getExactScanLocation(locations[i]);
-						if (locations[i] == null) {
-							String message;
-							if (file.isDirectory()) {
-								message = NLS.bind(SearchMessages.UseScanManager_InvalidDir, file.getAbsolutePath());
-							} else {
-								message = NLS.bind(SearchMessages.UseScanManager_InvalidArchive, file.getAbsolutePath());
-							}
-							throw new Exception(message);
+						UseScanIndex index = getIndex(location, iterationMonitor);
+						if (index != null) {
+							index.addReferences(apiComponent.getSymbolicName(), types, references);
 						}
-						parser.parse(locations[i], iterationMonitor, visitor);
 					} catch (Exception e) {
 						ApiPlugin.log(e); // log the exception and continue with
 											// next location
@@ -235,6 +215,114 @@ public class UseScanManager {
 		}
 	}
 
+	/**
+	 * Returns the index of the scan at the given location. The index is
+	 * compiled when the scan is used for the first time or when its
+	 * fingerprint changed, otherwise the index written before is used. An
+	 * index that was already used is only validated again when the stamp of
+	 * its scan changed, so the reports of a scan directory are not visited on
+	 * every lookup.
+	 *
+	 * @param location the location of a scan directory or archive
+	 * @param monitor the monitor for compiling the index
+	 * @return the index or <code>null</code> if there is no scan at the
+	 *         location
+	 * @throws Exception if the location is not a valid scan or the index
+	 *             cannot be compiled
+	 */
+	private synchronized UseScanIndex getIndex(String location, IProgressMonitor monitor) throws Exception {
+		File file = new File(location);
+		if (!file.exists()) {
+			return null;
+		}
+		String scanLocation = null;
+		long stamp;
+		if (file.isFile()) {
+			if (!Util.isArchive(file.getName())) {
+				return null;
+			}
+			// the fingerprint of an archive is as cheap as a stamp
+			stamp = UseScanIndex.fingerprintArchive(file);
+		} else {
+			scanLocation = getExactScanLocation(location);
+			if (scanLocation == null) {
+				throw new Exception(NLS.bind(SearchMessages.UseScanManager_InvalidDir, file.getAbsolutePath()));
+			}
+			stamp = UseScanIndex.stampDirectory(new File(scanLocation));
+		}
+		String key = file.getAbsolutePath();
+		ValidatedIndex validated = fIndexes.get(key);
+		if (validated != null && validated.stamp() == stamp) {
+			return validated.index();
+		}
+		long fingerprint = scanLocation == null ? stamp : UseScanIndex.fingerprintDirectory(new File(scanLocation));
+		UseScanIndex index = validated == null ? null : validated.index();
+		if (index != null && index.getFingerprint() == fingerprint) {
+			fIndexes.put(key, new ValidatedIndex(index, stamp));
+			return index;
+		}
+		String prefix = Integer.toHexString(key.hashCode()) + '-';
+		File indexFile = new File(VariablesPlugin.getDefault().getStringVariableManager().performStringSubstitution(tempLocation + INDEX_DIR), prefix + Long.toHexString(fingerprint) + UseScanIndex.INDEX_EXTENSION);
+		index = null;
+		if (indexFile.exists()) {
+			try {
+				index = UseScanIndex.open(indexFile, fingerprint);
+			} catch (IOException e) {
+				// compile it again
+				ApiPlugin.log(e);
+			}
+		}
+		if (index == null) {
+			if (scanLocation == null) {
+				scanLocation = extract(file);
+			}
+			UseScanIndex.compile(scanLocation, fingerprint, indexFile, monitor);
+			index = UseScanIndex.open(indexFile, fingerprint);
+			// the indexes of previous versions of the scan may still be
+			// mapped, delete them on shutdown
+			File[] stale = indexFile.getParentFile().listFiles((dir, name) -> name.startsWith(prefix) && !name.equals(indexFile.getName()));
+			if (stale != null) {
+				for (File old : stale) {
+					FileManager.getManager().recordTempFileRoot(old.getAbsolutePath());
+				}
+			}
+		}
+		fIndexes.put(key, new ValidatedIndex(index, stamp));
+		return index;
+	}
+
+	/**
+	 * Extracts the given scan archive into the temporary location
+	 *
+	 * @param file the scan archive
+	 * @return the location of the extracted scan
+	 * @throws Exception if the archive cannot be extracted or does not contain
+	 *             a scan
+	 */
+	private String extract(File file) throws Exception {
+		String destDirPath = tempLocation + file.getName() + '.' + file.getAbsolutePath().hashCode();
+		IStringVariableManager stringManager = VariablesPlugin.getDefault().getStringVariableManager();
+		destDirPath = stringManager.performStringSubstitution(destDirPath);
+		String location = destDirPath + '/' + file.lastModified();
+		File unzipDirLoc = new File(destDirPath);
+		if (unzipDirLoc.exists()) {
+			String[] childDirs = unzipDirLoc.list();
+			for (String childDir : childDirs) {
+				if (!childDir.equals(String.valueOf(file.lastModified()))) {
+					FileManager.getManager().recordTempFileRoot(destDirPath + '/' + childDir);
+				}
+			}
+		}
+		if (!new File(location).exists()) {
+			Util.unzip(file.getPath(), location);
+		}
+		String scanLocation = getExactScanLocation(location);
+		if (scanLocation == null) {
+			throw new Exception(NLS.bind(SearchMessages.UseScanManager_InvalidArchive, file.getAbsolutePath()));
+		}
+		return scanLocation;
+	}
+
 	/**
 	 * Returns the scan
 	 *
@@ -404,5 +492,8 @@ public class UseScanManager {
 			reference.clear();
 		}
 		fApiComponentCache.flush();
+		synchronized (this) {
+			fIndexes.clear();
+		}
 	}
 }
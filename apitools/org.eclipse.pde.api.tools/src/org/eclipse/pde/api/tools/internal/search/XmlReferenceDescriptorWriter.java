@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,12 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.search;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -22,7 +27,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -55,6 +60,16 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Writes reference descriptions to XML files.
+ * <p>
+ * References of a group (a referenced component, referencing component,
+ * visibility and reference type) are written to one XML file. References
+ * appended with {@link #appendReferences(IReferenceDescriptor[])} are written
+ * to a segment file next to the XML file of their group without reading the
+ * XML file. {@link #finish()} merges the segments into the XML files, reading
+ * and writing each XML file once, with the same elements as writing the
+ * references with {@link #writeReferences(IReferenceDescriptor[])} one batch
+ * after the other.
+ * </p>
  *
  * @since 1.0.1
  */
@@ -67,7 +82,23 @@ public class XmlReferenceDescriptorWriter {
 	public static final String METHOD_REFERENCES = "method_references"; //$NON-NLS-1$
 	public static final String FIELD_REFERENCES = "field_references"; //$NON-NLS-1$
 	private static final Integer V_ILLEGAL = Integer.valueOf(VisibilityModifiers.ILLEGAL_API);
+	/**
+	 * Suffix of the segment files appended to before they are merged into the
+	 * XML files
+	 */
+	private static final String SEGMENT_SUFFIX = ".segment"; //$NON-NLS-1$
+
+	/**
+	 * Attributes of the root element of a new XML file
+	 */
+	private record Group(String origin, String referee, String name, int visibility, String alternate) {
+	}
+
 	private String fLocation = null;
+	/**
+	 * The XML files of the groups that have segments to merge
+	 */
+	private final Map<File, Group> fPendingGroups = new LinkedHashMap<>();
 	private Map<String, Map<String, Map<Integer, Map<Integer, Map<String, Set<IReferenceDescriptor>>>>>> fReferenceMap = null;
 	private DocumentBuilder parser = null;
 
@@ -100,6 +131,17 @@ public class XmlReferenceDescriptorWriter {
 	 * @param references
 	 */
 	public void writeReferences(IReferenceDescriptor[] references) {
+		appendReferences(references);
+		finish();
+	}
+
+	/**
+	 * Appends the given references to the segments of their groups. The XML
+	 * files are written by {@link #finish()}.
+	 *
+	 * @param references
+	 */
+	public void appendReferences(IReferenceDescriptor[] references) {
 		if (fLocation != null) {
 			try {
 				File parent = new File(fLocation);
@@ -119,6 +161,23 @@ public class XmlReferenceDescriptorWriter {
 		}
 	}
 
+	/**
+	 * Merges the appended references into the XML files of their groups
+	 */
+	public void finish() {
+		for (Entry<File, Group> entry : fPendingGroups.entrySet()) {
+			File out = entry.getKey();
+			try {
+				mergeGroup(out, entry.getValue());
+			} catch (Exception e) {
+				ApiPlugin.log("Failed to write references into " + out, e); //$NON-NLS-1$
+			} finally {
+				getSegment(out).delete();
+			}
+		}
+		fPendingGroups.clear();
+	}
+
 	/**
 	 * Collates the results into like reference kinds. If two references have
 	 * the same reference, referencer, type, visibility, and member, one will be
@@ -241,8 +300,7 @@ public class XmlReferenceDescriptorWriter {
 	}
 
 	/**
-	 * Writes out a group of references under the newly created element with the
-	 * given name
+	 * Appends a group of references to the segment of the group
 	 *
 	 * @param origin the name of the bundle that has the references in it
 	 * @param referee the name of the bundle that is referenced
@@ -255,179 +313,277 @@ public class XmlReferenceDescriptorWriter {
 			Map<String, Set<IReferenceDescriptor>> map, int visibility)
 			throws CoreException, IOException {
 		if (parent.exists()) {
-			BufferedWriter writer = null;
-			try {
-				Document doc = null;
-				Element root = null;
-				int count = 0;
-				File out = new File(parent, name + ".xml"); //$NON-NLS-1$
-				if (out.exists()) {
-					try {
-						try (FileInputStream inputStream = new FileInputStream(out)) {
-							doc = this.parser.parse(inputStream);
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-						if (doc == null) {
-							return;
+			File out = new File(parent, name + ".xml"); //$NON-NLS-1$
+			if (!fPendingGroups.containsKey(out)) {
+				// remove the segment of an interrupted run
+				getSegment(out).delete();
+				fPendingGroups.put(out, new Group(origin, referee, name, visibility, alternate == null ? null : getId(alternate)));
+			}
+			try (DataOutputStream segment = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getSegment(out), true)))) {
+				segment.writeInt(map.size());
+				for (Entry<String, Set<IReferenceDescriptor>> entry : map.entrySet()) {
+					writeString(segment, entry.getKey());
+					Set<IReferenceDescriptor> refs = entry.getValue();
+					IMemberDescriptor resolved = null;
+					segment.writeInt(refs == null ? 0 : refs.size());
+					if (refs != null) {
+						for (IReferenceDescriptor ref : refs) {
+							writeReference(segment, ref);
+							resolved = ref.getReferencedMember();
 						}
-						root = doc.getDocumentElement();
-						String value = root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT);
-						count = Integer.parseInt(value);
-					} catch (SAXException se) {
-						se.printStackTrace();
-					}
-				} else {
-					doc = Util.newDocument();
-					root = doc.createElement(IApiXmlConstants.REFERENCES);
-					doc.appendChild(root);
-					root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_VISIBILITY, Integer.toString(visibility));
-					root.setAttribute(IApiXmlConstants.ATTR_ORIGIN, origin);
-					root.setAttribute(IApiXmlConstants.ATTR_REFEREE, referee);
-					root.setAttribute(IApiXmlConstants.ATTR_NAME, getFormattedTypeName(name));
-					if (alternate != null) {
-						root.setAttribute(IApiXmlConstants.ATTR_ALTERNATE, getId(alternate));
 					}
+					// set qualified referenced attributes of the last reference
+					writeAttributes(segment, resolved == null ? null : getMemberDetails(resolved));
 				}
-				if (doc == null || root == null) {
-					return;
+			}
+		}
+	}
+
+	/**
+	 * Merges the segment of a group into its XML file
+	 *
+	 * @param out the XML file
+	 * @param group the attributes of a new XML file
+	 */
+	private void mergeGroup(File out, Group group) throws CoreException, IOException {
+		Document doc = null;
+		Element root = null;
+		int count = 0;
+		if (out.exists()) {
+			try (FileInputStream inputStream = new FileInputStream(out)) {
+				doc = this.parser.parse(inputStream);
+			} catch (SAXException e) {
+				ApiPlugin.log("Failed to read references from " + out, e); //$NON-NLS-1$
+				return;
+			}
+			root = doc.getDocumentElement();
+			String value = root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT);
+			count = Integer.parseInt(value);
+		} else {
+			doc = Util.newDocument();
+			root = doc.createElement(IApiXmlConstants.REFERENCES);
+			doc.appendChild(root);
+			root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_VISIBILITY, Integer.toString(group.visibility()));
+			root.setAttribute(IApiXmlConstants.ATTR_ORIGIN, group.origin());
+			root.setAttribute(IApiXmlConstants.ATTR_REFEREE, group.referee());
+			root.setAttribute(IApiXmlConstants.ATTR_NAME, getFormattedTypeName(group.name()));
+			if (group.alternate() != null) {
+				root.setAttribute(IApiXmlConstants.ATTR_ALTERNATE, group.alternate());
+			}
+		}
+		// index the elements, the first element of a name or kind is used
+		Map<String, Element> targets = new HashMap<>();
+		NodeList nodes = root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET);
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Element telement = (Element) nodes.item(i);
+			targets.putIfAbsent(telement.getAttribute(IApiXmlConstants.ATTR_NAME), telement);
+		}
+		Map<Element, Map<String, Element>> kinds = new HashMap<>();
+		try (DataInputStream segment = new DataInputStream(new BufferedInputStream(new FileInputStream(getSegment(out))))) {
+			while (true) {
+				int size;
+				try {
+					size = segment.readInt();
+				} catch (EOFException e) {
+					break;
 				}
-				for (Entry<String, Set<IReferenceDescriptor>> entry : map.entrySet()) {
-					String tname = entry.getKey();
-					Element telement = findTypeElement(root, tname);
+				for (int i = 0; i < size; i++) {
+					String tname = readString(segment);
+					Element telement = tname == null ? null : targets.get(tname);
 					if (telement == null) {
 						telement = doc.createElement(IApiXmlConstants.ELEMENT_TARGET);
 						telement.setAttribute(IApiXmlConstants.ATTR_NAME, tname);
 						root.appendChild(telement);
-					}
-					Set<IReferenceDescriptor> refs = entry.getValue();
-					if (refs != null) {
-						for (Iterator<IReferenceDescriptor> iter2 = refs.iterator(); iter2.hasNext();) {
-							count++;
-							IReferenceDescriptor ref = iter2.next();
-							writeReference(doc, telement, ref);
-							if (!iter2.hasNext()) {
-								// set qualified referenced attributes
-								IMemberDescriptor resolved = ref.getReferencedMember();
-								if (resolved != null) {
-									addMemberDetails(telement, resolved);
-								}
-							}
+						if (tname != null) {
+							targets.put(tname, telement);
 						}
 					}
-				}
-				root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(count));
-				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8));
-				writer.write(Util.serializeDocument(doc));
-				writer.flush();
-			} finally {
-				if (writer != null) {
-					writer.close();
+					Map<String, Element> tkinds = kinds.computeIfAbsent(telement, XmlReferenceDescriptorWriter::getKindElements);
+					int refs = segment.readInt();
+					for (int j = 0; j < refs; j++) {
+						count++;
+						readReference(segment, doc, telement, tkinds);
+					}
+					setAttributes(telement, readAttributes(segment));
 				}
 			}
 		}
+		root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(count));
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8))) {
+			writer.write(Util.serializeDocument(doc));
+			writer.flush();
+		}
+	}
+
+	private static File getSegment(File out) {
+		return new File(out.getPath() + SEGMENT_SUFFIX);
 	}
 
 	/**
-	 * Add member descriptor details to the given element.
+	 * Returns the details of the given member descriptor as attributes
 	 *
-	 * @param element XML element
+	 * @param member member to return details for
+	 * @return the attributes
+	 */
+	private Map<String, String> getMemberDetails(IMemberDescriptor member) {
+		Map<String, String> attributes = new LinkedHashMap<>();
+		addMemberDetails(attributes, member);
+		return attributes;
+	}
+
+	/**
+	 * Add member descriptor details to the given attributes.
+	 *
+	 * @param attributes attributes of an XML element
 	 * @param member member to add details for
 	 */
-	private void addMemberDetails(Element element, IMemberDescriptor member) {
+	private void addMemberDetails(Map<String, String> attributes, IMemberDescriptor member) {
 		switch (member.getElementType()) {
-			case IElementDescriptor.TYPE -> element.setAttribute(IApiXmlConstants.ATTR_TYPE,
+			case IElementDescriptor.TYPE -> attributes.put(IApiXmlConstants.ATTR_TYPE,
 					((IReferenceTypeDescriptor) member).getQualifiedName());
 			case IElementDescriptor.FIELD -> {
 				IReferenceTypeDescriptor encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				attributes.put(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				attributes.put(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
 			}
 			case IElementDescriptor.METHOD -> {
 				IReferenceTypeDescriptor encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
-				element.setAttribute(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
+				attributes.put(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				attributes.put(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				attributes.put(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
 			}
 			default -> { /**/ }
 		}
 	}
 
 	/**
-	 * gets the root kind element
+	 * Returns the reference kind elements of the given target element by kind
 	 *
-	 * @param root
-	 * @param kind
-	 * @return
+	 * @param telement the target element
+	 * @return the first element of each kind
 	 */
-	private Element findTypeElement(Element root, String tname) {
-		if (tname == null) {
-			return null;
-		}
-		Element kelement = null;
-		NodeList nodes = root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET);
+	private static Map<String, Element> getKindElements(Element telement) {
+		Map<String, Element> kinds = new HashMap<>();
+		NodeList nodes = telement.getElementsByTagName(IApiXmlConstants.REFERENCE_KIND);
 		for (int i = 0; i < nodes.getLength(); i++) {
-			kelement = (Element) nodes.item(i);
-			if (tname.equals(kelement.getAttribute(IApiXmlConstants.ATTR_NAME))) {
-				return kelement;
-			}
+			Element kelement = (Element) nodes.item(i);
+			kinds.putIfAbsent(kelement.getAttribute(IApiXmlConstants.ATTR_KIND), kelement);
 		}
-		return null;
+		return kinds;
 	}
 
 	/**
-	 * gets the root kind element
+	 * Appends the given {@link IReference} to a segment
 	 *
-	 * @param root
-	 * @param kind
-	 * @return
+	 * @param segment
+	 * @param reference
 	 */
-	private Element findKindElement(Element root, Integer kind) {
-		Element kelement = null;
-		NodeList nodes = root.getElementsByTagName(IApiXmlConstants.REFERENCE_KIND);
-		for (int i = 0; i < nodes.getLength(); i++) {
-			kelement = (Element) nodes.item(i);
-			if (kind.toString().equals(kelement.getAttribute(IApiXmlConstants.ATTR_KIND))) {
-				return kelement;
-			}
+	private void writeReference(DataOutputStream segment, IReferenceDescriptor reference) throws CoreException, IOException {
+		segment.writeInt(reference.getReferenceKind());
+		segment.writeInt(reference.getReferenceFlags());
+		if (reference.getReferencedMember() == null) {
+			writeAttributes(segment, null);
+			return;
 		}
-		return null;
+		Map<String, String> attributes = new LinkedHashMap<>();
+		IMemberDescriptor member = reference.getMember();
+		attributes.put(IApiXmlConstants.ATTR_ORIGIN, getText(member));
+		String[] messages = reference.getProblemMessages();
+		if (messages != null) {
+			attributes.put(IApiXmlConstants.ELEMENT_PROBLEM_MESSAGE_ARGUMENTS, getText(messages));
+		}
+		// add detailed information about origin
+		addMemberDetails(attributes, member);
+		attributes.put(IApiXmlConstants.ATTR_LINE_NUMBER, Integer.toString(reference.getLineNumber()));
+		writeAttributes(segment, attributes);
 	}
 
 	/**
-	 * Writes the attributes from the given {@link IReference} into a new
-	 * {@link Element} that is added to the given parent.
+	 * Reads a reference from a segment into a new {@link Element} that is added
+	 * to the reference kind element of the given target element.
 	 *
+	 * @param segment
 	 * @param document
-	 * @param parent
-	 * @param reference
+	 * @param parent the target element
+	 * @param kinds the reference kind elements of the target element
 	 */
-	private void writeReference(Document document, Element parent, IReferenceDescriptor reference) throws CoreException {
-		Integer kind = Integer.valueOf(reference.getReferenceKind());
-		Element kelement = findKindElement(parent, kind);
+	private void readReference(DataInputStream segment, Document document, Element parent, Map<String, Element> kinds) throws IOException {
+		int kind = segment.readInt();
+		int flags = segment.readInt();
+		Map<String, String> attributes = readAttributes(segment);
+		String kindValue = Integer.toString(kind);
+		Element kelement = kinds.get(kindValue);
 		if (kelement == null) {
 			kelement = document.createElement(IApiXmlConstants.REFERENCE_KIND);
-			kelement.setAttribute(IApiXmlConstants.ATTR_REFERENCE_KIND_NAME, Reference.getReferenceText(kind.intValue()));
-			kelement.setAttribute(IApiXmlConstants.ATTR_KIND, kind.toString());
-			kelement.setAttribute(IApiXmlConstants.ATTR_FLAGS, Integer.toString(reference.getReferenceFlags()));
+			kelement.setAttribute(IApiXmlConstants.ATTR_REFERENCE_KIND_NAME, Reference.getReferenceText(kind));
+			kelement.setAttribute(IApiXmlConstants.ATTR_KIND, kindValue);
+			kelement.setAttribute(IApiXmlConstants.ATTR_FLAGS, Integer.toString(flags));
 			parent.appendChild(kelement);
+			kinds.put(kindValue, kelement);
 		}
-		Element relement = document.createElement(IApiXmlConstants.ATTR_REFERENCE);
-		IMemberDescriptor member = reference.getMember();
-		relement.setAttribute(IApiXmlConstants.ATTR_ORIGIN, getText(member));
-		String[] messages = reference.getProblemMessages();
-		if (messages != null) {
-			relement.setAttribute(IApiXmlConstants.ELEMENT_PROBLEM_MESSAGE_ARGUMENTS, getText(messages));
-		}
-		// add detailed information about origin
-		addMemberDetails(relement, member);
-		member = reference.getReferencedMember();
-		if (member != null) {
-			relement.setAttribute(IApiXmlConstants.ATTR_LINE_NUMBER, Integer.toString(reference.getLineNumber()));
+		if (attributes != null) {
+			Element relement = document.createElement(IApiXmlConstants.ATTR_REFERENCE);
+			setAttributes(relement, attributes);
 			kelement.appendChild(relement);
 		}
 	}
 
+	private static void setAttributes(Element element, Map<String, String> attributes) {
+		if (attributes != null) {
+			for (Entry<String, String> attribute : attributes.entrySet()) {
+				element.setAttribute(attribute.getKey(), attribute.getValue());
+			}
+		}
+	}
+
+	private static void writeAttributes(DataOutputStream segment, Map<String, String> attributes) throws IOException {
+		if (attributes == null) {
+			segment.writeInt(-1);
+			return;
+		}
+		segment.writeInt(attributes.size());
+		for (Entry<String, String> attribute : attributes.entrySet()) {
+			writeString(segment, attribute.getKey());
+			writeString(segment, attribute.getValue());
+		}
+	}
+
+	private static Map<String, String> readAttributes(DataInputStream segment) throws IOException {
+		int size = segment.readInt();
+		if (size < 0) {
+			return null;
+		}
+		Map<String, String> attributes = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			attributes.put(readString(segment), readString(segment));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Writes the given string, which may be <code>null</code> or longer than
+	 * {@link DataOutputStream#writeUTF(String)} allows
+	 */
+	private static void writeString(DataOutputStream segment, String string) throws IOException {
+		if (string == null) {
+			segment.writeInt(-1);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		segment.writeInt(bytes.length);
+		segment.write(bytes);
+	}
+
+	private static String readString(DataInputStream segment) throws IOException {
+		int length = segment.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		segment.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
 	/**
 	 * Gets the {@link String} value of the given array by calling
 	 * {@link #toString()} on each of the elements in the array.
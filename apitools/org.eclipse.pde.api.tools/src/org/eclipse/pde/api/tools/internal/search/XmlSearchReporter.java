@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -57,6 +57,12 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	private int referenceCount = 0;
 	private int illegalCount = 0;
 	private int internalCount = 0;
+	/**
+	 * Writes the references of the element being searched, the XML files are
+	 * written when its search is done
+	 */
+	private XmlReferenceDescriptorWriter fWriter = null;
+	private IApiElement fElement = null;
 
 	/**
 	 * Constructor
@@ -86,7 +92,13 @@ public class XmlSearchReporter implements IApiSearchReporter {
 		// Use a hashset for counting to remove any duplicate references that
 		// the writer would remove
 		HashSet<IReferenceDescriptor> writtenReferences = new HashSet<>();
-		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(fLocation);
+		if (fWriter != null && fElement != element) {
+			finishReferences();
+		}
+		if (fWriter == null) {
+			fWriter = new XmlReferenceDescriptorWriter(fLocation);
+		}
+		fElement = element;
 		List<IReferenceDescriptor> descriptors = new ArrayList<>(references.length + 1);
 		for (IReference referenceInterface : references) {
 			Reference reference = (Reference) referenceInterface;
@@ -114,7 +126,23 @@ public class XmlSearchReporter implements IApiSearchReporter {
 			}
 		}
 
-		writer.writeReferences(descriptors.toArray(new IReferenceDescriptor[descriptors.size()]));
+		fWriter.appendReferences(descriptors.toArray(new IReferenceDescriptor[descriptors.size()]));
+	}
+
+	@Override
+	public void reportSearched(IApiElement element) {
+		finishReferences();
+	}
+
+	/**
+	 * Writes the references reported so far to the XML files
+	 */
+	private void finishReferences() {
+		if (fWriter != null) {
+			fWriter.finish();
+			fWriter = null;
+			fElement = null;
+		}
 	}
 
 	/**
@@ -136,6 +164,7 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	 */
 	@Override
 	public void reportNotSearched(IApiElement[] elements) {
+		finishReferences();
 		if (elements == null) {
 			return;
 		}
@@ -175,6 +204,7 @@ public class XmlSearchReporter implements IApiSearchReporter {
 
 	@Override
 	public void reportMetadata(IMetadata data) {
+		finishReferences();
 		if (data == null) {
 			return;
 		}
@@ -198,6 +228,7 @@ public class XmlSearchReporter implements IApiSearchReporter {
 
 	@Override
 	public void reportCounts() {
+		finishReferences();
 		if (this.debug) {
 			System.out.println("Writing file for counting total references..."); //$NON-NLS-1$
 		}
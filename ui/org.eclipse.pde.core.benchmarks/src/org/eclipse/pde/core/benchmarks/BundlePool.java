@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.core.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * A generated pool of bundle jars spread over a few directories, used as
+ * target platform by the benchmarks.
+ * <p>
+ * Bundle <code>n</code> exports an API and an internal package, requires up to
+ * two bundles and imports the API packages of up to three bundles with a
+ * lower number, so the pool resolves completely and has a realistic, layered
+ * dependency graph. Pools are generated once per name and size and reused
+ * until {@link #deleteAll()} is called.
+ * </p>
+ */
+public class BundlePool {
+
+	/**
+	 * Number of directories the bundles are spread over, each one becomes a
+	 * target location
+	 */
+	private static final int LOCATIONS = 4;
+
+	private static final Map<String, BundlePool> POOLS = new HashMap<>();
+
+	private final Path fRoot;
+	private final List<Path> fLocations = new ArrayList<>();
+	private final List<Path> fBundles = new ArrayList<>();
+	private final String fPrefix;
+	private long fTouchCount;
+
+	private BundlePool(String name, int bundleCount) throws IOException {
+		fRoot = Files.createTempDirectory("pde-benchmark-" + name + "-" + bundleCount);
+		fPrefix = "benchmark." + name + ".b";
+		for (int i = 0; i < LOCATIONS; i++) {
+			fLocations.add(Files.createDirectories(fRoot.resolve("location" + i)));
+		}
+		Random random = new Random(bundleCount);
+		for (int i = 0; i < bundleCount; i++) {
+			Path jar = fLocations.get(i % LOCATIONS).resolve(getSymbolicName(i) + "_1.0.0.jar");
+			writeBundle(jar, i, random);
+			fBundles.add(jar);
+		}
+	}
+
+	/**
+	 * Returns the pool with the given name and number of bundles, generating
+	 * it on first access. Pools with different names contain bundles with
+	 * different symbolic names.
+	 */
+	public static synchronized BundlePool get(String name, int bundleCount) throws IOException {
+		String key = name + bundleCount;
+		BundlePool pool = POOLS.get(key);
+		if (pool == null) {
+			pool = new BundlePool(name, bundleCount);
+			POOLS.put(key, pool);
+		}
+		return pool;
+	}
+
+	/**
+	 * Deletes all generated pools.
+	 */
+	public static synchronized void deleteAll() throws IOException {
+		for (BundlePool pool : POOLS.values()) {
+			try (Stream<Path> files = Files.walk(pool.fRoot)) {
+				for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+					Files.delete(file);
+				}
+			}
+		}
+		POOLS.clear();
+	}
+
+	public URI[] getBundleURIs() {
+		return fBundles.stream().map(Path::toUri).toArray(URI[]::new);
+	}
+
+	public List<Path> getLocations() {
+		return fLocations;
+	}
+
+	public String getSymbolicName(int bundle) {
+		return fPrefix + bundle;
+	}
+
+	/**
+	 * Changes the modification time of one bundle in every location, so all
+	 * locations have to be resolved again.
+	 */
+	public void touch() {
+		fTouchCount++;
+		for (int i = 0; i < Math.min(LOCATIONS, fBundles.size()); i++) {
+			try {
+				FileTime time = FileTime.fromMillis(System.currentTimeMillis() + fTouchCount * 1000);
+				Files.setLastModifiedTime(fBundles.get(i), time);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private void writeBundle(Path jar, int bundle, Random random) throws IOException {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-ManifestVersion", "2");
+		attributes.putValue("Bundle-SymbolicName", getSymbolicName(bundle));
+		attributes.putValue("Bundle-Version", "1.0.0");
+		attributes.putValue("Export-Package", getSymbolicName(bundle) + ".api;version=\"1.0.0\","
+				+ getSymbolicName(bundle) + ".internal;x-internal:=true");
+		if (bundle > 0) {
+			StringJoiner required = new StringJoiner(",");
+			required.add(getSymbolicName(bundle - 1));
+			if (bundle > 1) {
+				required.add(getSymbolicName(bundle / 2) + ";resolution:=optional");
+			}
+			attributes.putValue("Require-Bundle", required.toString());
+			Set<String> imports = new LinkedHashSet<>();
+			for (int i = 0; i < Math.min(3, bundle); i++) {
+				imports.add(getSymbolicName(random.nextInt(bundle)) + ".api;version=\"[1.0.0,2.0.0)\"");
+			}
+			attributes.putValue("Import-Package", String.join(",", imports));
+		}
+		try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+			// the manifest is all the benchmarks need
+			jarOut.finish();
+		}
+	}
+}
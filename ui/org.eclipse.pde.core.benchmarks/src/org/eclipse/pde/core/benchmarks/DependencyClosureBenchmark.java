@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.core.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.pde.internal.core.DependencyManager;
+import org.eclipse.pde.internal.core.DependencyManager.Options;
+import org.eclipse.pde.internal.core.PDEState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Computes requirements closures with the {@link DependencyManager} in a
+ * resolved state of generated bundles, reusing the closures memoized for the
+ * state and after the state changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class DependencyClosureBenchmark {
+
+	/** The options used to compute the bundles of a launch */
+	private static final Options[] OPTIONS = { Options.INCLUDE_OPTIONAL_DEPENDENCIES, Options.INCLUDE_ALL_FRAGMENTS };
+
+	@Param({ "100", "1000", "10000" })
+	public int bundleCount;
+
+	private org.eclipse.osgi.service.resolver.State fState;
+	private List<BundleDescription> fLeaf;
+	private List<BundleDescription> fAll;
+
+	@Setup
+	public void setUp() throws IOException {
+		BundlePool pool = BundlePool.get("closure", bundleCount);
+		PDEState state = new PDEState(pool.getBundleURIs(), true, true, new NullProgressMonitor());
+		state.resolveState(false);
+		fState = state.getState();
+		fLeaf = List.of(fState.getBundle(pool.getSymbolicName(bundleCount - 1), null));
+		fAll = Arrays.asList(fState.getBundles());
+	}
+
+	@Benchmark
+	public Set<BundleDescription> closureOfLeaf() {
+		return DependencyManager.findRequirementsClosure(fLeaf, OPTIONS);
+	}
+
+	@Benchmark
+	public Set<BundleDescription> closureOfAll() {
+		return DependencyManager.findRequirementsClosure(fAll, OPTIONS);
+	}
+
+	@Benchmark
+	public Set<BundleDescription> closureOfLeafAfterStateChange() {
+		fState.setTimeStamp(fState.getTimeStamp() + 1);
+		return DependencyManager.findRequirementsClosure(fLeaf, OPTIONS);
+	}
+}
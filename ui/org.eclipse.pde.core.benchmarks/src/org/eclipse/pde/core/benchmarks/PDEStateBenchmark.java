@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.core.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.internal.core.TargetManifestCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates the {@link PDEState} of a target platform of generated bundles, with
+ * and without the manifests in the {@link TargetManifestCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class PDEStateBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int bundleCount;
+
+	private URI[] fBundles;
+
+	@Setup
+	public void setUp() throws IOException {
+		fBundles = BundlePool.get("state", bundleCount).getBundleURIs();
+	}
+
+	@Benchmark
+	public PDEState createState() {
+		return new PDEState(fBundles, true, true, new NullProgressMonitor());
+	}
+
+	@Benchmark
+	public PDEState createStateWithoutManifestCache() {
+		TargetManifestCache.getDefault().clear();
+		return new PDEState(fBundles, true, true, new NullProgressMonitor());
+	}
+}
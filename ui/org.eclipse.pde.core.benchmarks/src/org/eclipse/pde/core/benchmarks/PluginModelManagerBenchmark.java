@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.core.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.core.target.ITargetPlatformService;
+import org.eclipse.pde.core.target.LoadTargetDefinitionJob;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PluginModelManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads target definitions of generated bundles as the workspace target
+ * platform, which (re-)initializes the {@link PluginModelManager}. Switching
+ * between two targets without common bundles creates all models from scratch,
+ * loading the same target again only updates the existing models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(0)
+public class PluginModelManagerBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int bundleCount;
+
+	private ITargetPlatformService fService;
+	private ITargetDefinition fOriginalTarget;
+	private ITargetDefinition[] fTargets;
+	private int fNextTarget;
+
+	@Setup
+	public void setUp() throws IOException, CoreException {
+		fService = PDECore.getDefault().acquireService(ITargetPlatformService.class);
+		fOriginalTarget = fService.getWorkspaceTargetDefinition();
+		fTargets = new ITargetDefinition[] { newTarget(BundlePool.get("models1", bundleCount)),
+				newTarget(BundlePool.get("models2", bundleCount)) };
+		for (ITargetDefinition target : fTargets) {
+			target.resolve(new NullProgressMonitor());
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws CoreException {
+		new LoadTargetDefinitionJob(fOriginalTarget).runInWorkspace(new NullProgressMonitor());
+	}
+
+	@Benchmark
+	public IStatus loadOtherTarget() throws CoreException {
+		fNextTarget = (fNextTarget + 1) % fTargets.length;
+		return new LoadTargetDefinitionJob(fTargets[fNextTarget]).runInWorkspace(new NullProgressMonitor());
+	}
+
+	@Benchmark
+	public IStatus reloadTarget() throws CoreException {
+		return new LoadTargetDefinitionJob(fTargets[fNextTarget]).runInWorkspace(new NullProgressMonitor());
+	}
+
+	private ITargetDefinition newTarget(BundlePool pool) {
+		ITargetDefinition target = fService.newTarget();
+		target.setTargetLocations(pool.getLocations().stream() //
+				.map(Path::toString) //
+				.map(fService::newDirectoryLocation) //
+				.toArray(ITargetLocation[]::new));
+		return target;
+	}
+}
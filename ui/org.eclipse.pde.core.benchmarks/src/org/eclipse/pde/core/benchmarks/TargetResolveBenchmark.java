@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.core.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.core.target.ITargetPlatformService;
+import org.eclipse.pde.internal.core.PDECore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves a target definition with a directory location per directory of a
+ * pool of generated bundles, with unchanged directories and after a bundle in
+ * every directory was modified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class TargetResolveBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int bundleCount;
+
+	private BundlePool fPool;
+	private ITargetPlatformService fService;
+
+	@Setup
+	public void setUp() throws IOException {
+		fPool = BundlePool.get("target", bundleCount);
+		fService = PDECore.getDefault().acquireService(ITargetPlatformService.class);
+	}
+
+	@Benchmark
+	public IStatus resolveUnchanged() {
+		return newTarget().resolve(new NullProgressMonitor());
+	}
+
+	@Benchmark
+	public IStatus resolveChanged() {
+		fPool.touch();
+		return newTarget().resolve(new NullProgressMonitor());
+	}
+
+	private ITargetDefinition newTarget() {
+		ITargetDefinition target = fService.newTarget();
+		List<Path> locations = fPool.getLocations();
+		target.setTargetLocations(locations.stream() //
+				.map(location -> fService.newDirectoryLocation(location.toString())) //
+				.toArray(ITargetLocation[]::new));
+		return target;
+	}
+}
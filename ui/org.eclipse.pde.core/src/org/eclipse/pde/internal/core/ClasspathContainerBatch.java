@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.StateHelper;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.PDEClasspathContainer.Rule;
+
+/**
+ * Computes the entries of many {@link RequiredPluginsClasspathContainer}s
+ * together. The containers share the results that do not depend on the project
+ * a container belongs to:
+ * <ul>
+ * <li>the packages visible to a bundle and their access rules,</li>
+ * <li>the library entries of a target plug-in, without access rules.</li>
+ * </ul>
+ * A batch must only be used while the state does not change.
+ * <p>
+ * Computing a container looks up models in the {@link PluginModelManager},
+ * which synchronizes on the same monitor as its model change processing.
+ * Containers must therefore only be computed in parallel when the calling
+ * thread does not hold that monitor, otherwise the workers would block on it
+ * while the caller waits for them.
+ * </p>
+ */
+public class ClasspathContainerBatch {
+
+	private final Map<BundleDescription, Map<BundleDescription, List<Rule>>> fVisiblePackages = new ConcurrentHashMap<>();
+	private final Map<ExportPackageDescription, Rule[]> fRules = new ConcurrentHashMap<>();
+	private final Map<IPluginModelBase, List<IClasspathEntry>> fExternalEntries = new ConcurrentHashMap<>();
+
+	/**
+	 * Computes the classpath entries of all given
+	 * {@link RequiredPluginsClasspathContainer}s. Other containers are ignored.
+	 * If the monitor is canceled, the remaining containers are left to be
+	 * computed when JDT asks for their entries.
+	 *
+	 * @param containers
+	 *            the containers to compute
+	 * @param parallel
+	 *            whether the containers are computed in parallel, must be
+	 *            <code>false</code> if the calling thread holds the monitor of
+	 *            the {@link PluginModelManager}
+	 * @param monitor
+	 *            the monitor to check for cancellation, may be
+	 *            <code>null</code>
+	 */
+	public static void computeClasspathEntries(IClasspathContainer[] containers, boolean parallel,
+			IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		ClasspathContainerBatch batch = new ClasspathContainerBatch();
+		Stream<IClasspathContainer> stream = Arrays.stream(containers);
+		if (parallel) {
+			stream = stream.parallel();
+		}
+		stream.filter(RequiredPluginsClasspathContainer.class::isInstance) //
+				.map(RequiredPluginsClasspathContainer.class::cast) //
+				.forEach(container -> {
+					if (monitor == null || !monitor.isCanceled()) {
+						container.computeClasspathEntries(batch);
+					}
+				});
+		if (PDECore.DEBUG_CLASSPATH) {
+			System.out.println("Computed " + containers.length + " classpath containers in " //$NON-NLS-1$ //$NON-NLS-2$
+					+ (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns the packages visible to the given bundle grouped by their
+	 * exporter, with the access rules that apply to the given bundle.
+	 *
+	 * @return the visible packages, must not be modified
+	 */
+	Map<BundleDescription, List<Rule>> getVisiblePackages(StateHelper helper, BundleDescription desc) {
+		Map<BundleDescription, List<Rule>> visiblePackages = fVisiblePackages.get(desc);
+		if (visiblePackages == null) {
+			visiblePackages = RequiredPluginsClasspathContainer.computeVisiblePackages(helper, desc, this);
+			fVisiblePackages.putIfAbsent(desc, visiblePackages);
+		}
+		return visiblePackages;
+	}
+
+	/**
+	 * Returns the rule for the given package, shared by all bundles that have
+	 * the same access to it.
+	 */
+	Rule getRule(ExportPackageDescription export, boolean discouraged) {
+		Rule[] rules = fRules.computeIfAbsent(export, e -> new Rule[2]);
+		int index = discouraged ? 1 : 0;
+		synchronized (rules) {
+			if (rules[index] == null) {
+				rules[index] = RequiredPluginsClasspathContainer.createRule(export, discouraged);
+			}
+			return rules[index];
+		}
+	}
+
+	/**
+	 * Adds the library entries of the given target plug-in with the given
+	 * access rules, see
+	 * {@link PDEClasspathContainer#addExternalPlugin(IPluginModelBase, Rule[], ArrayList)}.
+	 * The entries are computed once per plug-in, only the access rules differ
+	 * between the containers.
+	 */
+	void addExternalPlugin(IPluginModelBase model, Rule[] rules, ArrayList<IClasspathEntry> entries) {
+		List<IClasspathEntry> libraries = fExternalEntries.get(model);
+		if (libraries == null) {
+			ArrayList<IClasspathEntry> list = new ArrayList<>();
+			PDEClasspathContainer.addExternalPlugin(model, null, list);
+			fExternalEntries.putIfAbsent(model, list);
+			libraries = list;
+		}
+		IAccessRule[] accessRules = rules != null ? PDEClasspathContainer.getAccessRules(rules) : new IAccessRule[0];
+		for (IClasspathEntry library : libraries) {
+			IClasspathEntry entry = JavaCore.newLibraryEntry(library.getPath(), library.getSourceAttachmentPath(),
+					library.getSourceAttachmentRootPath(), accessRules, library.getExtraAttributes(),
+					library.isExported());
+			if (!entries.contains(entry)) {
+				entries.add(entry);
+			}
+		}
+	}
+}
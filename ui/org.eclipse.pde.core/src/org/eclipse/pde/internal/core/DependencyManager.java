@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2022 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,14 +15,12 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
@@ -36,9 +34,6 @@ import org.eclipse.pde.core.target.NameVersionDescriptor;
 import org.osgi.framework.Constants;
 import org.osgi.framework.Version;
 import org.osgi.framework.wiring.BundleRequirement;
-import org.osgi.framework.wiring.BundleRevision;
-import org.osgi.framework.wiring.BundleWire;
-import org.osgi.framework.wiring.BundleWiring;
 
 /**
  * Utility class to return bundle description collections for a variety of
@@ -161,72 +156,20 @@ public class DependencyManager {
 	public static Set<BundleDescription> findRequirementsClosure(Collection<BundleDescription> bundles,
 			Options... options) {
 
-		Set<Options> optionSet = Set.of(options);
-		boolean includeOptional = optionSet.contains(Options.INCLUDE_OPTIONAL_DEPENDENCIES);
-		boolean includeAllFragments = optionSet.contains(Options.INCLUDE_ALL_FRAGMENTS);
-		boolean includeNonTestFragments = optionSet.contains(Options.INCLUDE_NON_TEST_FRAGMENTS);
-		if (includeAllFragments && includeNonTestFragments) {
+		EnumSet<Options> optionSet = EnumSet.noneOf(Options.class);
+		Collections.addAll(optionSet, options);
+		if (optionSet.contains(Options.INCLUDE_ALL_FRAGMENTS)
+				&& optionSet.contains(Options.INCLUDE_NON_TEST_FRAGMENTS)) {
 			throw new AssertionError("Cannot combine INCLUDE_ALL_FRAGMENTS and INCLUDE_NON_TEST_FRAGMENTS"); //$NON-NLS-1$
 		}
-
-		Set<BundleDescription> closure = new HashSet<>(bundles.size() * 4 / 3 + 1);
-		Queue<BundleDescription> pending = new ArrayDeque<>(bundles.size());
-
-		// initialize with given bundles
-		for (BundleDescription bundle : bundles) {
-			addNewRequiredBundle(bundle, closure, pending);
-		}
-
-		// perform exhaustive iterative bfs for required wires
-		while (!pending.isEmpty()) {
-			BundleDescription bundle = pending.remove();
-
-			BundleWiring wiring = bundle.getWiring();
-			if (wiring == null || !wiring.isInUse()) {
-				continue;
-			}
-
-			if (includeAllFragments || includeNonTestFragments) {
-				// A fragment's host is already required by a wire
-				for (BundleDescription fragment : bundle.getFragments()) {
-					if (includeAllFragments || !isTestWorkspaceProject(fragment)) {
-						addNewRequiredBundle(fragment, closure, pending);
-					}
-				}
-			}
-
-			List<BundleWire> requiredWires = wiring.getRequiredWires(null);
-			for (BundleWire wire : requiredWires) {
-				BundleRevision declaringBundle = wire.getRequirement().getRevision();
-				if (declaringBundle != bundle && !closure.contains(declaringBundle)) {
-					// Requirement is declared by an attached fragment, which is
-					// not included into the closure.
-					continue;
-				}
-				BundleRevision provider = wire.getCapability().getRevision();
-				// Use revision of required capability to support the case if
-				// fragments contribute new packages to their host's API.
-				if (provider instanceof BundleDescription && (includeOptional || !isOptional(wire.getRequirement()))) {
-					BundleDescription requiredBundle = (BundleDescription) provider;
-					addNewRequiredBundle(requiredBundle, closure, pending);
-				}
-			}
-		}
-		return closure;
-	}
-
-	private static void addNewRequiredBundle(BundleDescription bundle, Set<BundleDescription> requiredBundles,
-			Queue<BundleDescription> pending) {
-		if (bundle != null && bundle.isResolved() && !bundle.isRemovalPending() && requiredBundles.add(bundle)) {
-			pending.add(bundle);
-		}
+		return RequirementsClosure.compute(bundles, optionSet);
 	}
 
-	private static boolean isOptional(BundleRequirement requirement) {
+	static boolean isOptional(BundleRequirement requirement) {
 		return Constants.RESOLUTION_OPTIONAL.equals(requirement.getDirectives().get(Constants.RESOLUTION_DIRECTIVE));
 	}
 
-	private static boolean isTestWorkspaceProject(BundleDescription f) {
+	static boolean isTestWorkspaceProject(BundleDescription f) {
 		// Be defensive when declaring a fragment as 'test'-fragment
 		IPluginModelBase pluginModel = PluginRegistry.findModel(f);
 		if (pluginModel != null) {
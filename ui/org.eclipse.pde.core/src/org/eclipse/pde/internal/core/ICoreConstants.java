@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -352,6 +352,12 @@ public interface ICoreConstants {
 	 * build as background job
 	 */
 	String RUN_API_ANALYSIS_AS_JOB = "Preferences.MainPage.runAPIAnalysisAsJob";//$NON-NLS-1$
+	/**
+	 * Integer preference how many API analysis jobs of independent projects
+	 * may run in parallel, if API analysis runs as background job. Defaults to
+	 * the number of available processors.
+	 */
+	String API_ANALYSIS_THREADS = "Preferences.MainPage.apiAnalysisThreads";//$NON-NLS-1$
 	/**
 	 * Boolean preference whether add
 	 * '-Dorg.eclipse.swt.graphics.Resource.reportNonDisposed=true' to VM
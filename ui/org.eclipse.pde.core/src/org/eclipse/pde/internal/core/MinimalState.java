@@ -184,7 +184,15 @@ public class MinimalState {
 			throws CoreException {
 		// update for development mode
 		TargetWeaver.weaveManifest(manifest, bundleLocation);
+		return addWovenBundle(bundleLocation, bundleId, manifest);
+	}
 
+	/**
+	 * Adds a bundle whose manifest has already been updated for development
+	 * mode by {@link TargetWeaver#weaveManifest(Map, File)}.
+	 */
+	protected BundleDescription addWovenBundle(File bundleLocation, long bundleId, Map<String, String> manifest)
+			throws CoreException {
 		BundleDescription desc = addBundle(manifest, bundleLocation, bundleId);
 		if (desc != null && manifest != null && "true".equals(manifest.get(ICoreConstants.ECLIPSE_SYSTEM_BUNDLE))) { //$NON-NLS-1$
 			// if this is the system bundle then
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2012 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -33,9 +34,19 @@ import org.eclipse.pde.core.plugin.PluginRegistry;
 
 public class PDEClasspathContainer {
 
+	/**
+	 * Access rule for a package, rules are shared between the containers
+	 * computed in one {@link ClasspathContainerBatch} and can therefore not be
+	 * modified.
+	 */
 	public static class Rule {
-		IPath path;
-		boolean discouraged;
+		final IPath path;
+		final boolean discouraged;
+
+		public Rule(IPath path, boolean discouraged) {
+			this.path = path;
+			this.discouraged = discouraged;
+		}
 
 		@Override
 		public boolean equals(Object other) {
@@ -45,6 +56,11 @@ public class PDEClasspathContainer {
 			return discouraged == ((Rule) other).discouraged && path.equals(((Rule) other).path);
 		}
 
+		@Override
+		public int hashCode() {
+			return Objects.hash(path, Boolean.valueOf(discouraged));
+		}
+
 		@Override
 		public String toString() {
 			return discouraged ? path.toString() + " [discouraged]" : path.toString(); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,10 +18,15 @@ import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.eclipse.core.filesystem.URIUtil;
@@ -30,6 +35,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.osgi.service.resolver.BaseDescription;
 import org.eclipse.osgi.service.resolver.BundleDescription;
@@ -47,6 +53,11 @@ public class PDEState extends MinimalState {
 
 	private final PDEAuxiliaryState fAuxiliaryState;
 	private final ArrayList<IPluginModelBase> fTargetModels = new ArrayList<>();
+	/**
+	 * Fingerprints of the target bundles at the time they were added, keyed by
+	 * their absolute location
+	 */
+	private final Map<String, long[]> fTargetFingerprints = new HashMap<>();
 
 	/**
 	 * Creates a new PDE State containing bundles from the given URLs.
@@ -60,7 +71,8 @@ public class PDEState extends MinimalState {
 		long start = System.currentTimeMillis();
 		fAuxiliaryState = new PDEAuxiliaryState();
 
-		// We no longer try and restore from a cached state as it had no performance benefit
+		// The resolved state is always recreated, but the manifests of unchanged
+		// target bundles are restored from the TargetManifestCache
 		createNewTargetState(addResolver, target, monitor);
 
 		if (removeDuplicates) {
@@ -86,15 +98,38 @@ public class PDEState extends MinimalState {
 			fState.getResolver().setSelectionPolicy(policy);
 		}
 		SubMonitor subMonitor = SubMonitor.convert(monitor, PDECoreMessages.PDEState_CreatingTargetModelState,
-				uris.length);
-		for (URI uri : uris) {
-			File file = toFile(uri);
-			if (file == null) {
-				continue;
-			}
+				2 * uris.length);
+		addTargetBundles(uris, subMonitor);
+	}
+
+	/**
+	 * Adds the bundles at the given locations to the state and returns their
+	 * descriptions. <code>2 * uris.length</code> units of work are reported.
+	 */
+	private List<BundleDescription> addTargetBundles(URI[] uris, SubMonitor subMonitor) {
+		TargetManifestCache cache = TargetManifestCache.getDefault();
+
+		// Reading and parsing the manifests is independent per bundle and
+		// dominated by I/O, so it is done in parallel. The bundle descriptions
+		// are then created by this thread in the original order so that the
+		// bundle ids are the same as if the bundles were added one by one.
+		SubMonitor loadMonitor = subMonitor.split(uris.length).setWorkRemaining(uris.length);
+		List<LoadedManifest> manifests = Arrays.stream(uris).parallel() //
+				.map(uri -> loadManifest(uri, cache, loadMonitor)) //
+				.filter(Objects::nonNull) //
+				.toList();
+		List<BundleDescription> added = new ArrayList<>(manifests.size());
+		for (LoadedManifest loaded : manifests) {
 			try {
-				subMonitor.subTask(file.getName());
-				addBundle(file, -1);
+				if (loaded.error() != null) {
+					throw loaded.error();
+				}
+				subMonitor.subTask(loaded.file().getName());
+				BundleDescription desc = addWovenBundle(loaded.file(), -1, loaded.manifest());
+				if (desc != null) {
+					fTargetFingerprints.put(loaded.file().getAbsolutePath(), loaded.fingerprint());
+					added.add(desc);
+				}
 			} catch (CoreException e) {
 				if (e.getStatus().getCode() != ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST) {
 					PDECore.log(e);
@@ -102,6 +137,149 @@ public class PDEState extends MinimalState {
 			}
 			subMonitor.split(1);
 		}
+		cache.save();
+		return added;
+	}
+
+	/**
+	 * Manifest of a target bundle, updated for development mode, or the error
+	 * that occurred while reading it.
+	 */
+	private record LoadedManifest(File file, long[] fingerprint, Map<String, String> manifest,
+			CoreException error) {
+	}
+
+	/**
+	 * Loads the manifest of a single target bundle. Called from several
+	 * threads at once, so the shared monitor is advanced under its own lock.
+	 */
+	private static LoadedManifest loadManifest(URI uri, TargetManifestCache cache, SubMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		try {
+			File file = toFile(uri);
+			if (file == null) {
+				return null;
+			}
+			long[] fingerprint = TargetManifestCache.fingerprint(file);
+			try {
+				Map<String, String> manifest = cache.getManifest(file);
+				TargetWeaver.weaveManifest(manifest, file);
+				return new LoadedManifest(file, fingerprint, manifest, null);
+			} catch (CoreException e) {
+				return new LoadedManifest(file, fingerprint, null, e);
+			}
+		} finally {
+			synchronized (monitor) {
+				monitor.worked(1);
+			}
+		}
+	}
+
+	/**
+	 * Difference between the target bundles of this state and a new set of
+	 * target bundle locations.
+	 *
+	 * @param added locations of bundles that are new or have changed
+	 * @param removed models of bundles that are no longer part of the target
+	 *            or have changed
+	 */
+	public record TargetChange(URI[] added, IPluginModelBase[] removed) {
+		public boolean isEmpty() {
+			return added.length == 0 && removed.length == 0;
+		}
+
+		public int size() {
+			return added.length + removed.length;
+		}
+	}
+
+	/**
+	 * Compares the target bundles of this state with the given bundle
+	 * locations. A bundle whose location is part of both, but whose content
+	 * changed since it was added to this state or cannot be fingerprinted, is
+	 * reported as removed and added.
+	 *
+	 * @param target locations of the new target bundles
+	 * @return the change to apply with {@link #applyTargetChange(TargetChange, IProgressMonitor)}
+	 */
+	public TargetChange computeTargetChange(URI[] target) {
+		Map<String, IPluginModelBase> current = new HashMap<>();
+		for (IPluginModelBase model : fTargetModels) {
+			String location = model.getInstallLocation();
+			if (location != null) {
+				current.put(new File(location).getAbsolutePath(), model);
+			}
+		}
+		List<URI> added = new ArrayList<>();
+		List<IPluginModelBase> removed = new ArrayList<>();
+		Set<String> unchanged = new HashSet<>();
+		for (URI uri : target) {
+			File file = toFile(uri);
+			if (file == null) {
+				continue;
+			}
+			String location = file.getAbsolutePath();
+			IPluginModelBase model = current.get(location);
+			long[] fingerprint = TargetManifestCache.fingerprint(file);
+			if (model != null && fingerprint != null && Arrays.equals(fTargetFingerprints.get(location), fingerprint)) {
+				unchanged.add(location);
+			} else {
+				added.add(uri);
+			}
+		}
+		current.forEach((location, model) -> {
+			if (!unchanged.contains(location)) {
+				removed.add(model);
+			}
+		});
+		return new TargetChange(added.toArray(URI[]::new), removed.toArray(IPluginModelBase[]::new));
+	}
+
+	/**
+	 * Updates the target bundles of this state in place. Removed models are
+	 * removed from the state, added bundles are added to the state with new
+	 * models. The state is not resolved.
+	 *
+	 * @param change change computed by {@link #computeTargetChange(URI[])}
+	 * @param monitor progress monitor
+	 * @return the models created for the added bundles
+	 */
+	public IPluginModelBase[] applyTargetChange(TargetChange change, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, PDECoreMessages.PDEState_CreatingTargetModelState,
+				2 * change.added().length);
+		for (IPluginModelBase model : change.removed()) {
+			BundleDescription desc = model.getBundleDescription();
+			if (desc != null) {
+				fState.removeBundle(desc);
+				fAuxiliaryState.removeAuxiliaryData(desc);
+			}
+			fTargetModels.remove(model);
+			fTargetFingerprints.remove(new File(model.getInstallLocation()).getAbsolutePath());
+		}
+		List<IPluginModelBase> models = new ArrayList<>();
+		for (BundleDescription desc : addTargetBundles(change.added(), subMonitor)) {
+			if (isDuplicate(desc)) {
+				fState.removeBundle(desc);
+				fAuxiliaryState.removeAuxiliaryData(desc);
+				fTargetFingerprints.remove(new File(desc.getLocation()).getAbsolutePath());
+				continue;
+			}
+			IPluginModelBase model = createExternalModel(desc);
+			fTargetModels.add(model);
+			models.add(model);
+		}
+		return models.toArray(IPluginModelBase[]::new);
+	}
+
+	private boolean isDuplicate(BundleDescription desc) {
+		for (BundleDescription other : fState.getBundles(desc.getSymbolicName())) {
+			if (other.getBundleId() != desc.getBundleId() && other.getVersion().equals(desc.getVersion())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private Comparator<BaseDescription> systemBundlesFirst(String systemBSN) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -102,6 +102,8 @@ public class PluginModelManager implements IModelProviderListener {
 						fProjects.clear();
 						fContainers.clear();
 					}
+					// the job does not hold fEntriesSynchronizer, the containers can be computed in parallel
+					ClasspathContainerBatch.computeClasspathEntries(containers, true, monitor);
 					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, monitor);
 					synchronized (fProjects) {
 						more = !fProjects.isEmpty();
@@ -396,6 +398,8 @@ public class PluginModelManager implements IModelProviderListener {
 			} else {
 				// else update synchronously
 				try {
+					// called with fEntriesSynchronizer held, compute in this thread only
+					ClasspathContainerBatch.computeClasspathEntries(containers, false, null);
 					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, null);
 				} catch (JavaModelException e) {
 				}
@@ -534,13 +538,111 @@ public class PluginModelManager implements IModelProviderListener {
 	}
 
 	/**
-	 * Clears all existing models and recreates them
+	 * Updates the models after the target platform changed. If most of the
+	 * target bundles are unchanged, only the bundles that were added, removed
+	 * or changed are updated in the existing state. Otherwise all existing
+	 * models are cleared and recreated.
 	 */
 	public void targetReloaded(IProgressMonitor monitor) {
 		synchronized (fEntriesSynchronizer) {
+			SubMonitor subMon = SubMonitor.convert(monitor, PDECoreMessages.PluginModelManager_InitializingPluginModels, 100);
+			if (fEntries != null && fState != null && updateTargetModels(subMon.split(50))) {
+				return;
+			}
 			fEntries = null;
-			initializeTable(monitor);
+			initializeTable(subMon.split(50));
+		}
+	}
+
+	/**
+	 * Applies the difference between the target bundles of the current state
+	 * and the bundles of the resolved workspace target to the state and the
+	 * master table. Has to be called synchronized with fEntriesSynchronizer.
+	 *
+	 * @param monitor progress monitor
+	 * @return <code>true</code> if the models have been updated,
+	 *         <code>false</code> if they have to be recreated
+	 */
+	private boolean updateTargetModels(IProgressMonitor monitor) {
+		SubMonitor subMon = SubMonitor.convert(monitor, 100);
+		try {
+			ITargetDefinition unresolvedRepoBasedtarget = TargetPlatformHelper.getUnresolvedRepositoryBasedWorkspaceTarget();
+			if (unresolvedRepoBasedtarget != null && !P2TargetUtils.isProfileValid(unresolvedRepoBasedtarget)) {
+				return false;
+			}
+		} catch (CoreException e) {
+			return false;
+		}
+		long startTime = System.currentTimeMillis();
+		fCancelled = false;
+		URI[] externalUris = getExternalBundles(subMon.split(40));
+		if (subMon.isCanceled()) {
+			// the current target models are kept, see initializeTable
+			if (PDECore.DEBUG_MODEL) {
+				System.out.println("Target platform initialization cancelled by user"); //$NON-NLS-1$
+			}
+			PDECore.log(Status.warning(PDECoreMessages.PluginModelManager_TargetInitCancelledLog));
+			fCancelled = true;
+			return true;
+		}
+		PDEState.TargetChange change = fState.computeTargetChange(externalUris);
+		int targetSize = Math.max(externalUris.length, fExternalManager.getAllModels().length);
+		if (change.size() > targetSize / 2) {
+			// cheaper to start from scratch
+			return false;
+		}
+
+		PluginModelDelta delta = new PluginModelDelta();
+		for (IPluginModelBase model : change.removed()) {
+			String id = model.getPluginBase().getId();
+			if (id != null) {
+				handleRemove(id, model, delta);
+			}
+		}
+		IPluginModelBase[] added = fState.applyTargetChange(change, subMon.split(30));
+		boolean preferWorkspaceBundle = PDECore.getDefault().getPreferencesManager()
+				.getBoolean(ICoreConstants.WORKSPACE_PLUGINS_OVERRIDE_TARGET);
+		Set<String> addedBSNs = new HashSet<>();
+		for (IPluginModelBase model : added) {
+			String id = model.getPluginBase().getId();
+			if (id == null) {
+				continue;
+			}
+			handleAdd(id, model, delta);
+			addedBSNs.add(id);
+			if (fEntries.get(id).hasWorkspaceModels()) {
+				// as in addWorkspaceBundleToState, the workspace bundle either
+				// overrides the new target bundle or takes precedence over it
+				if (preferWorkspaceBundle) {
+					fState.removeBundleDescription(model.getBundleDescription());
+				} else {
+					fState.updateBundleDescription(model.getBundleDescription());
+				}
+			}
+		}
+		fExternalManager.setModels(fState.getTargetModels());
+
+		// the resolver delta below covers all affected projects, so unlike
+		// initializeTable no state change is fired to rebuild all of them
+		saveExternalPluginList(externalUris);
+
+		StateDelta stateDelta;
+		if (addedBSNs.isEmpty()) {
+			stateDelta = fState.resolveState(true);
+		} else {
+			stateDelta = fState.resolveState(addedBSNs.toArray(new String[addedBSNs.size()]));
+		}
+		subMon.split(20);
+		// bundle ids of the added target models have changed
+		PDECore.getDefault().getExtensionsRegistry().targetReloaded();
+		updateAffectedEntries(stateDelta, true);
+		fireStateDelta(stateDelta);
+		fireDelta(delta);
+		if (PDECore.DEBUG_MODEL) {
+			System.out.println("Target changed, " + change.added().length + " target models added and " //$NON-NLS-1$ //$NON-NLS-2$
+					+ change.removed().length + " removed in " + (System.currentTimeMillis() - startTime) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
+		return true;
 	}
 
 	/**
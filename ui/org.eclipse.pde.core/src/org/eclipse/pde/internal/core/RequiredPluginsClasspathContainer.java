@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2018 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -71,6 +71,13 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 	private IClasspathEntry[] fEntries;
 	private boolean addImportedPackages;
 
+	/**
+	 * Batch the entries are computed in, shares the visible packages, rules
+	 * and external plug-in entries with the other containers of the batch.
+	 * <code>null</code> if the entries are computed on their own.
+	 */
+	private ClasspathContainerBatch fBatch;
+
 	/**
 	 * Cached list of {@link IClasspathContributor} from plug-in extensions
 	 * @see #getClasspathContributors()
@@ -125,6 +132,21 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 		return fEntries;
 	}
 
+	/**
+	 * Computes the entries of this container as part of the given batch.
+	 *
+	 * @see ClasspathContainerBatch#computeClasspathEntries(IClasspathContainer[],
+	 *      boolean, org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	void computeClasspathEntries(ClasspathContainerBatch batch) {
+		fBatch = batch;
+		try {
+			getClasspathEntries();
+		} finally {
+			fBatch = null;
+		}
+	}
+
 	private IClasspathEntry[] computePluginEntriesByProject() {
 		try {
 			Optional<Project> bndProject = BndProjectManager.getBndProject(project);
@@ -264,30 +286,48 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 		if (desc == null) {
 			return;
 		}
+		Map<BundleDescription, List<Rule>> packages = fBatch != null ? fBatch.getVisiblePackages(helper, desc)
+				: computeVisiblePackages(helper, desc, null);
+		packages.forEach((exporter, rules) -> {
+			ArrayList<Rule> list = visiblePackages.computeIfAbsent(exporter, e -> new ArrayList<>());
+			for (Rule rule : rules) {
+				if (!list.contains(rule)) {
+					list.add(rule);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the packages visible to the given bundle, grouped by their
+	 * exporter.
+	 *
+	 * @param batch
+	 *            batch to share the rules with or <code>null</code>
+	 */
+	static Map<BundleDescription, List<Rule>> computeVisiblePackages(StateHelper helper, BundleDescription desc,
+			ClasspathContainerBatch batch) {
+		Map<BundleDescription, List<Rule>> visiblePackages = new HashMap<>();
 		ExportPackageDescription[] exports = helper.getVisiblePackages(desc);
 		for (ExportPackageDescription export : exports) {
 			BundleDescription exporter = export.getExporter();
 			if (exporter == null) {
 				continue;
 			}
-			ArrayList<Rule> list = visiblePackages.get(exporter);
-			if (list == null) {
-				list = new ArrayList<>();
-				visiblePackages.put(exporter, list);
-			}
-			Rule rule = getRule(helper, desc, export);
+			List<Rule> list = visiblePackages.computeIfAbsent(exporter, e -> new ArrayList<>());
+			boolean discouraged = helper.getAccessCode(desc, export) == StateHelper.ACCESS_DISCOURAGED;
+			Rule rule = batch != null ? batch.getRule(export, discouraged) : createRule(export, discouraged);
 			if (!list.contains(rule)) {
 				list.add(rule);
 			}
 		}
+		return visiblePackages;
 	}
 
-	private Rule getRule(StateHelper helper, BundleDescription desc, ExportPackageDescription export) {
-		Rule rule = new Rule();
-		rule.discouraged = helper.getAccessCode(desc, export) == StateHelper.ACCESS_DISCOURAGED;
+	static Rule createRule(ExportPackageDescription export, boolean discouraged) {
 		String name = export.getName();
-		rule.path = (name.equals(".")) ? IPath.fromOSString("*") : IPath.fromOSString(name.replace('.', '/') + "/*"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		return rule;
+		IPath path = (name.equals(".")) ? IPath.fromOSString("*") : IPath.fromOSString(name.replace('.', '/') + "/*"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return new Rule(path, discouraged);
 	}
 
 	protected void addDependencyViaImportPackage(BundleDescription desc, HashSet<BundleDescription> added, Map<BundleDescription, ArrayList<Rule>> map, ArrayList<IClasspathEntry> entries) throws CoreException {
@@ -379,6 +419,8 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 
 		if (resource != null) {
 			addProjectEntry(resource.getProject(), rules, model.getPluginBase().exportsExternalAnnotations(), entries);
+		} else if (fBatch != null) {
+			fBatch.addExternalPlugin(model, rules, entries);
 		} else {
 			addExternalPlugin(model, rules, entries);
 		}
@@ -568,10 +610,8 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 				ExportPackageDescription[] expkgs = bdesc.getExportPackages();
 				ArrayList<Rule> rules = new ArrayList<>();
 				for (ExportPackageDescription expkg : expkgs) {
-					Rule rule = new Rule();
-					rule.discouraged = restrictPackage(projectDesc, expkg);
-					rule.path = IPath.fromOSString(expkg.getName().replace('.', '/') + "/*"); //$NON-NLS-1$
-					rules.add(rule);
+					IPath path = IPath.fromOSString(expkg.getName().replace('.', '/') + "/*"); //$NON-NLS-1$
+					rules.add(new Rule(path, restrictPackage(projectDesc, expkg)));
 				}
 				map.put(bdesc, rules);
 
@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.pde.internal.core.DependencyManager.Options;
+import org.osgi.framework.namespace.HostNamespace;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+
+/**
+ * Memoized requirements closures of the bundles of one resolved {@link State}
+ * for one combination of {@link Options}.
+ * <p>
+ * The wiring graph of the state is explored lazily and condensed into its
+ * strongly connected components, the closure of every component is computed
+ * once and shared by all roots that reach it. The closure of a set of roots is
+ * then only the union of the closures of their components.
+ * </p>
+ * <p>
+ * Instances are cached per options for the state they were last requested
+ * for and discarded as soon as closures of another state are requested, the
+ * time stamp of the state changes or, for
+ * {@link Options#INCLUDE_NON_TEST_FRAGMENTS}, a workspace fragment changed from
+ * or to a test fragment.
+ * </p>
+ *
+ * @see DependencyManager#findRequirementsClosure(Collection, Options...)
+ */
+class RequirementsClosure {
+
+	/**
+	 * Closures of one state at one time stamp, per options
+	 */
+	private record Cache(State state, long timeStamp, Map<Set<Options>, RequirementsClosure> closures) {
+	}
+
+	/**
+	 * The closures of the state they were last requested for. Only a single
+	 * state is remembered: the closures reference its bundles, and through
+	 * them the state, so no state could ever be collected if closures were
+	 * kept per state.
+	 */
+	private static Cache fgCache;
+
+	private final long fTimeStamp;
+	private final boolean fIncludeOptional;
+	private final boolean fIncludeAllFragments;
+	private final boolean fIncludeNonTestFragments;
+
+	private final Map<BundleDescription, Node> fNodes = new IdentityHashMap<>();
+	private final List<BundleDescription> fBundles = new ArrayList<>();
+	private final Map<BundleDescription, Boolean> fTestFragments = new HashMap<>();
+	private int fNextIndex;
+
+	/**
+	 * A bundle of the wiring graph. A node is visited once, after that its
+	 * successors are known and once its component is complete, its closure.
+	 */
+	private static class Node {
+		final int id;
+		final BundleDescription bundle;
+		List<Node> successors;
+		int nextSuccessor;
+		int index = -1;
+		int lowLink;
+		boolean onStack;
+		BitSet closure;
+
+		Node(int id, BundleDescription bundle) {
+			this.id = id;
+			this.bundle = bundle;
+		}
+	}
+
+	private RequirementsClosure(long timeStamp, Set<Options> options) {
+		fTimeStamp = timeStamp;
+		fIncludeOptional = options.contains(Options.INCLUDE_OPTIONAL_DEPENDENCIES);
+		fIncludeAllFragments = options.contains(Options.INCLUDE_ALL_FRAGMENTS);
+		fIncludeNonTestFragments = options.contains(Options.INCLUDE_NON_TEST_FRAGMENTS);
+	}
+
+	/**
+	 * Computes the requirements closure of the given bundles, reusing the
+	 * closures computed earlier for the same state and options.
+	 *
+	 * @param bundles
+	 *            the roots of the closure, <code>null</code> elements and
+	 *            unresolved bundles are ignored
+	 * @param options
+	 *            the options for computing the closure, must not be modified
+	 *            afterwards
+	 * @return a new, modifiable set with the closure of the given bundles
+	 */
+	static Set<BundleDescription> compute(Collection<BundleDescription> bundles, Set<Options> options) {
+		State state = getState(bundles);
+		if (state == null || !state.isResolved()) {
+			// nothing to share results with
+			return new RequirementsClosure(0, options).closure(bundles);
+		}
+		RequirementsClosure closure;
+		synchronized (RequirementsClosure.class) {
+			long timeStamp = state.getTimeStamp();
+			Cache cache = fgCache;
+			if (cache == null || cache.state() != state || cache.timeStamp() != timeStamp) {
+				cache = new Cache(state, timeStamp, new HashMap<>());
+				fgCache = cache;
+			}
+			closure = cache.closures().get(options);
+			if (closure == null || !closure.isValid(state)) {
+				closure = new RequirementsClosure(timeStamp, options);
+				cache.closures().put(options, closure);
+			}
+		}
+		synchronized (closure) {
+			return closure.closure(bundles);
+		}
+	}
+
+	/**
+	 * @return the state that contains all given bundles or <code>null</code>
+	 *         if there is no single such state
+	 */
+	private static State getState(Collection<BundleDescription> bundles) {
+		State state = null;
+		for (BundleDescription bundle : bundles) {
+			if (bundle != null) {
+				State containingState = bundle.getContainingState();
+				if (containingState == null || (state != null && state != containingState)) {
+					return null;
+				}
+				state = containingState;
+			}
+		}
+		return state;
+	}
+
+	private boolean isValid(State state) {
+		if (fTimeStamp != state.getTimeStamp()) {
+			return false;
+		}
+		synchronized (this) {
+			for (Entry<BundleDescription, Boolean> entry : fTestFragments.entrySet()) {
+				if (entry.getValue() != DependencyManager.isTestWorkspaceProject(entry.getKey())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Set<BundleDescription> closure(Collection<BundleDescription> bundles) {
+		BitSet ids = new BitSet();
+		for (BundleDescription bundle : bundles) {
+			Node node = getNode(bundle);
+			if (node != null) {
+				ids.or(closure(node));
+			}
+		}
+		Set<BundleDescription> closure = new HashSet<>(ids.cardinality() * 4 / 3 + 1);
+		ids.stream().forEach(id -> closure.add(fBundles.get(id)));
+		return closure;
+	}
+
+	private Node getNode(BundleDescription bundle) {
+		if (bundle == null || !bundle.isResolved() || bundle.isRemovalPending()) {
+			return null;
+		}
+		return fNodes.computeIfAbsent(bundle, b -> {
+			fBundles.add(b);
+			return new Node(fBundles.size() - 1, b);
+		});
+	}
+
+	/**
+	 * Computes the closure of the given node with an iterative version of
+	 * Tarjan's algorithm for strongly connected components. Components are
+	 * completed in reverse topological order, so the closures of all
+	 * components a component depends on are known when it is completed.
+	 */
+	private BitSet closure(Node root) {
+		if (root.closure != null) {
+			return root.closure;
+		}
+		Deque<Node> components = new ArrayDeque<>();
+		Deque<Node> path = new ArrayDeque<>();
+		visit(root, components);
+		path.push(root);
+		while (!path.isEmpty()) {
+			Node node = path.peek();
+			if (node.nextSuccessor < node.successors.size()) {
+				Node successor = node.successors.get(node.nextSuccessor++);
+				if (successor.closure != null) {
+					continue; // component already completed
+				}
+				if (successor.index < 0) {
+					visit(successor, components);
+					path.push(successor);
+				} else if (successor.onStack) {
+					node.lowLink = Math.min(node.lowLink, successor.index);
+				}
+				continue;
+			}
+			path.pop();
+			if (!path.isEmpty()) {
+				Node parent = path.peek();
+				parent.lowLink = Math.min(parent.lowLink, node.lowLink);
+			}
+			if (node.lowLink == node.index) {
+				completeComponent(node, components);
+			}
+		}
+		return root.closure;
+	}
+
+	private void visit(Node node, Deque<Node> components) {
+		node.index = fNextIndex;
+		node.lowLink = fNextIndex;
+		fNextIndex++;
+		node.successors = computeSuccessors(node.bundle);
+		node.onStack = true;
+		components.push(node);
+	}
+
+	private static void completeComponent(Node root, Deque<Node> components) {
+		List<Node> members = new ArrayList<>();
+		Node member;
+		do {
+			member = components.pop();
+			member.onStack = false;
+			members.add(member);
+		} while (member != root);
+		BitSet closure = new BitSet();
+		for (Node node : members) {
+			closure.set(node.id);
+			for (Node successor : node.successors) {
+				if (successor.closure != null) {
+					closure.or(successor.closure);
+				}
+			}
+		}
+		for (Node node : members) {
+			node.closure = closure;
+		}
+	}
+
+	/**
+	 * Returns the bundles directly required by the given bundle: the providers
+	 * of the (non-optional) requirements it declares, including those wired
+	 * through its hosts if it is a fragment, and its fragments if requested.
+	 */
+	private List<Node> computeSuccessors(BundleDescription bundle) {
+		List<Node> successors = new ArrayList<>();
+		BundleWiring wiring = bundle.getWiring();
+		if (wiring == null || !wiring.isInUse()) {
+			return successors;
+		}
+		if (fIncludeAllFragments || fIncludeNonTestFragments) {
+			// A fragment's host is already required by a wire
+			for (BundleDescription fragment : bundle.getFragments()) {
+				if (fIncludeAllFragments || !isTestFragment(fragment)) {
+					addSuccessor(fragment, successors);
+				}
+			}
+		}
+		addRequiredBundles(bundle, wiring, successors);
+		if (bundle.getHost() != null) {
+			// requirements of a fragment are wired through its hosts
+			for (BundleWire hostWire : wiring.getRequiredWires(HostNamespace.HOST_NAMESPACE)) {
+				BundleWiring hostWiring = hostWire.getProviderWiring();
+				if (hostWiring != null && hostWiring.isInUse()) {
+					addRequiredBundles(bundle, hostWiring, successors);
+				}
+			}
+		}
+		return successors;
+	}
+
+	private void addRequiredBundles(BundleDescription bundle, BundleWiring wiring, List<Node> successors) {
+		for (BundleWire wire : wiring.getRequiredWires(null)) {
+			if (wire.getRequirement().getRevision() != bundle) {
+				continue;
+			}
+			BundleRevision provider = wire.getCapability().getRevision();
+			// Use revision of required capability to support the case if
+			// fragments contribute new packages to their host's API.
+			if (provider instanceof BundleDescription requiredBundle
+					&& (fIncludeOptional || !DependencyManager.isOptional(wire.getRequirement()))) {
+				addSuccessor(requiredBundle, successors);
+			}
+		}
+	}
+
+	private void addSuccessor(BundleDescription bundle, List<Node> successors) {
+		Node node = getNode(bundle);
+		if (node != null) {
+			successors.add(node);
+		}
+	}
+
+	private boolean isTestFragment(BundleDescription fragment) {
+		return fTestFragments.computeIfAbsent(fragment, DependencyManager::isTestWorkspaceProject);
+	}
+}
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.eclipse.pde.internal.core.util.UtilMessages;
+
+/**
+ * Persistent, versioned binary cache of the manifest headers of target
+ * bundles. Every entry is keyed by the absolute bundle location and validated
+ * against a fingerprint (size and last modification time) of the bundle, so
+ * that only bundles that changed since the cache was written are opened and
+ * parsed again. Both the {@link PDEState} bundle descriptions and the
+ * {@link PDEAuxiliaryState} plug-in infos are derived from these headers.
+ * <p>
+ * The cache file is read once through a memory mapped buffer and written back
+ * whenever a {@link PDEState} added new or changed entries.
+ * </p>
+ * <p>
+ * Every save starts a new generation and entries remember the generation they
+ * were last used in. Entries that have not been used for
+ * {@link #MAX_UNUSED_GENERATIONS} generations, for example the bundles of a
+ * target that is no longer active, are dropped when saving, and the cache
+ * never keeps more than {@link #MAX_ENTRIES} entries.
+ * </p>
+ */
+public class TargetManifestCache {
+
+	private static final String CACHE_FILE = ".targetManifests"; //$NON-NLS-1$
+
+	/**
+	 * Magic number at the start of the cache file ("PDEM")
+	 */
+	private static final int MAGIC = 0x5044454D;
+
+	/**
+	 * Version of the cache file format, must be incremented whenever the
+	 * layout of the file changes
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Number of saves after which an entry that has not been used is dropped
+	 */
+	static final int MAX_UNUSED_GENERATIONS = 10;
+
+	/**
+	 * Maximum number of entries kept, the least recently used are dropped
+	 * first
+	 */
+	static final int MAX_ENTRIES = 50000;
+
+	private static TargetManifestCache fgDefault;
+
+	/**
+	 * Cached manifest of a bundle location together with the fingerprint of
+	 * the location at the time the manifest was read and the generation the
+	 * entry was last used in. A <code>null</code> header array denotes a
+	 * location that is not a bundle.
+	 */
+	private record CacheEntry(long length, long lastModified, String[] headers, int generation) {
+		boolean matches(long[] fingerprint) {
+			return length == fingerprint[0] && lastModified == fingerprint[1];
+		}
+
+		CacheEntry withGeneration(int newGeneration) {
+			return new CacheEntry(length, lastModified, headers, newGeneration);
+		}
+	}
+
+	private final File fCacheFile;
+	private final Map<String, CacheEntry> fEntries = new ConcurrentHashMap<>();
+	private volatile boolean fDirty;
+	private volatile int fGeneration;
+	private int fHits;
+	private int fMisses;
+
+	TargetManifestCache(File cacheFile) {
+		fCacheFile = cacheFile;
+	}
+
+	/**
+	 * Returns the cache shared by all target states of this workspace, loading
+	 * it from the PDE state location the first time it is accessed.
+	 *
+	 * @return the shared manifest cache
+	 */
+	public static synchronized TargetManifestCache getDefault() {
+		if (fgDefault == null) {
+			File dir = PDECore.getDefault().getStateLocation().toFile();
+			fgDefault = new TargetManifestCache(new File(dir, CACHE_FILE));
+			fgDefault.read();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the manifest headers of the bundle at the given location. If the
+	 * location has not changed since it was cached, the cached headers are
+	 * returned, otherwise the manifest is loaded with
+	 * {@link ManifestUtils#loadManifest(File)} and the cache is updated.
+	 * <p>
+	 * The returned map is always a new, modifiable copy with case insensitive
+	 * header names.
+	 * </p>
+	 *
+	 * @param bundleLocation root location of the bundle
+	 * @return map of bundle manifest headers
+	 * @throws CoreException see {@link ManifestUtils#loadManifest(File)}
+	 */
+	public Map<String, String> getManifest(File bundleLocation) throws CoreException {
+		String key = bundleLocation.getAbsolutePath();
+		long[] fingerprint = fingerprint(bundleLocation);
+		CacheEntry entry = fEntries.get(key);
+		if (fingerprint != null && entry != null && entry.matches(fingerprint)) {
+			synchronized (this) {
+				fHits++;
+			}
+			int generation = fGeneration;
+			if (entry.generation() != generation) {
+				fEntries.put(key, entry.withGeneration(generation));
+				fDirty = true;
+			}
+			if (entry.headers() == null) {
+				throw notABundle(bundleLocation);
+			}
+			return toMap(entry.headers());
+		}
+		synchronized (this) {
+			fMisses++;
+		}
+		try {
+			String[] headers = toArray(ManifestUtils.loadManifest(bundleLocation));
+			if (fingerprint != null) {
+				fEntries.put(key, new CacheEntry(fingerprint[0], fingerprint[1], headers, fGeneration));
+				fDirty = true;
+			}
+			return toMap(headers);
+		} catch (CoreException e) {
+			if (fingerprint != null && e.getStatus().getCode() == ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST) {
+				fEntries.put(key, new CacheEntry(fingerprint[0], fingerprint[1], null, fGeneration));
+				fDirty = true;
+			} else {
+				fEntries.remove(key);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the cache back to disk if it has been modified and starts a new
+	 * generation. Entries of locations that no longer exist or that have not
+	 * been used recently are dropped.
+	 */
+	public synchronized void save() {
+		if (PDECore.DEBUG_MODEL) {
+			System.out.println("Target manifest cache: " + fHits + " hits, " + fMisses + " misses"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		fHits = 0;
+		fMisses = 0;
+		if (!fDirty) {
+			return;
+		}
+		prune();
+		fGeneration++;
+		File tmp = new File(fCacheFile.getParentFile(), CACHE_FILE + ".tmp"); //$NON-NLS-1$
+		try {
+			try (OutputStream os = Files.newOutputStream(tmp.toPath());
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(fGeneration);
+				out.writeInt(fEntries.size());
+				for (Entry<String, CacheEntry> entry : fEntries.entrySet()) {
+					CacheEntry value = entry.getValue();
+					writeString(out, entry.getKey());
+					out.writeLong(value.length());
+					out.writeLong(value.lastModified());
+					out.writeInt(value.generation());
+					String[] headers = value.headers();
+					out.writeInt(headers == null ? -1 : headers.length);
+					if (headers != null) {
+						for (String header : headers) {
+							writeString(out, header);
+						}
+					}
+				}
+			}
+			Files.move(tmp.toPath(), fCacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			fDirty = false;
+		} catch (IOException e) {
+			PDECore.log(Status.warning("Unable to write target manifest cache " + fCacheFile, e)); //$NON-NLS-1$
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * Drops the entries of locations that no longer exist or that have not
+	 * been used for {@link #MAX_UNUSED_GENERATIONS} generations, then the least
+	 * recently used entries beyond {@link #MAX_ENTRIES}.
+	 */
+	synchronized void prune() {
+		int oldest = fGeneration - MAX_UNUSED_GENERATIONS;
+		fEntries.entrySet().removeIf(entry -> entry.getValue().generation() < oldest || !new File(entry.getKey()).exists());
+		int excess = fEntries.size() - MAX_ENTRIES;
+		if (excess > 0) {
+			fEntries.entrySet().stream() //
+					.sorted(Comparator.comparingInt(entry -> entry.getValue().generation())) //
+					.limit(excess) //
+					.map(Entry::getKey) //
+					.toList() //
+					.forEach(fEntries::remove);
+		}
+	}
+
+	/**
+	 * Returns the number of cached entries.
+	 *
+	 * @return the number of entries
+	 */
+	int size() {
+		return fEntries.size();
+	}
+
+	/**
+	 * Discards all cached entries in memory and on disk.
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+		fDirty = false;
+		fCacheFile.delete();
+	}
+
+	/**
+	 * Loads the cache file through a memory mapped buffer. A missing, corrupt
+	 * or outdated file results in an empty cache.
+	 */
+	synchronized void read() {
+		if (!fCacheFile.isFile()) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(fCacheFile.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return;
+			}
+			int generation = buffer.getInt();
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String location = readString(buffer);
+				long length = buffer.getLong();
+				long lastModified = buffer.getLong();
+				int entryGeneration = buffer.getInt();
+				int size = buffer.getInt();
+				String[] headers = null;
+				if (size >= 0) {
+					headers = new String[size];
+					for (int j = 0; j < size; j++) {
+						headers[j] = readString(buffer);
+					}
+				}
+				fEntries.put(location, new CacheEntry(length, lastModified, headers, entryGeneration));
+			}
+			fGeneration = generation;
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			fEntries.clear();
+			if (PDECore.DEBUG_MODEL) {
+				System.out.println("Discarding unreadable target manifest cache: " + e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Returns the size and last modification time identifying the current
+	 * content of the given bundle location or <code>null</code> if the
+	 * location does not exist. For directory bundles the manifest file is used
+	 * as modifying it does not touch the directory itself.
+	 */
+	static long[] fingerprint(File bundleLocation) {
+		File file = bundleLocation;
+		if (bundleLocation.isDirectory()) {
+			file = new File(bundleLocation, JarFile.MANIFEST_NAME);
+		}
+		long lastModified = file.lastModified();
+		if (lastModified == 0L) {
+			return null;
+		}
+		return new long[] { file.length(), lastModified };
+	}
+
+	private static CoreException notABundle(File bundleLocation) {
+		return new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID,
+				ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST,
+				NLS.bind(UtilMessages.ErrorReadingManifest, bundleLocation.getAbsolutePath()), null));
+	}
+
+	private static String[] toArray(Map<String, String> manifest) {
+		String[] headers = new String[manifest.size() * 2];
+		int i = 0;
+		for (Entry<String, String> entry : manifest.entrySet()) {
+			headers[i++] = entry.getKey();
+			headers[i++] = entry.getValue();
+		}
+		return headers;
+	}
+
+	private static Map<String, String> toMap(String[] headers) {
+		// manifest header names are case insensitive
+		Map<String, String> manifest = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < headers.length; i += 2) {
+			manifest.put(headers[i], headers[i + 1]);
+		}
+		return manifest;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Corrupt string length " + length); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.bnd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.osgi.framework.Constants;
+import org.osgi.resource.Capability;
+import org.osgi.resource.Namespace;
+import org.osgi.resource.Requirement;
+
+/**
+ * Index of the capabilities of all bundles of a {@link State} by namespace and
+ * by the value of the namespace's key attribute, that is the package name for
+ * <code>osgi.wiring.package</code>, the symbolic name for
+ * <code>osgi.wiring.bundle</code> and the object classes for
+ * <code>osgi.service</code>.
+ * <p>
+ * The index only narrows down the candidates for a requirement, the candidates
+ * still have to be matched against the requirement's filter. Candidates are
+ * always returned in the order of a linear scan over the bundles of the state.
+ * </p>
+ */
+class CapabilityIndex {
+
+	private static final String SERVICE_NAMESPACE = "osgi.service"; //$NON-NLS-1$
+
+	private final State state;
+	private final long timeStamp;
+	private final Map<String, List<Capability>> byNamespace = new HashMap<>();
+	private final Map<String, Map<String, List<Capability>>> byKey = new HashMap<>();
+	/**
+	 * Namespaces with capabilities that cannot be indexed by their key, e.g.
+	 * because the key attribute is missing or not a string
+	 */
+	private final Set<String> unkeyed = new HashSet<>();
+
+	CapabilityIndex(State state) {
+		this.state = state;
+		this.timeStamp = state.getTimeStamp();
+		for (BundleDescription bundle : state.getBundles()) {
+			for (Capability capability : bundle.getCapabilities(null)) {
+				String namespace = capability.getNamespace();
+				byNamespace.computeIfAbsent(namespace, n -> new ArrayList<>()).add(capability);
+				Collection<String> keys = getKeys(capability.getAttributes().get(getKeyAttribute(namespace)));
+				if (keys == null) {
+					unkeyed.add(namespace);
+					continue;
+				}
+				Map<String, List<Capability>> namespaceIndex = byKey.computeIfAbsent(namespace, n -> new HashMap<>());
+				for (String key : keys) {
+					List<Capability> capabilities = namespaceIndex.computeIfAbsent(key, k -> new ArrayList<>(1));
+					// a multi-valued key may list the same value twice
+					if (capabilities.isEmpty() || capabilities.get(capabilities.size() - 1) != capability) {
+						capabilities.add(capability);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if this index reflects the current content of
+	 *         the given state
+	 */
+	boolean isIndexOf(State other) {
+		return state == other && timeStamp == other.getTimeStamp();
+	}
+
+	/**
+	 * Returns all capabilities that may satisfy the given requirement. If the
+	 * requirement's filter demands a specific value for the namespace's key
+	 * attribute, only capabilities with that value are returned, otherwise all
+	 * capabilities of the requirement's namespace.
+	 *
+	 * @param requirement the requirement to find candidates for
+	 * @return the candidate capabilities, must not be modified
+	 */
+	List<Capability> getCandidates(Requirement requirement) {
+		String namespace = requirement.getNamespace();
+		if (!unkeyed.contains(namespace)) {
+			String key = getKey(requirement.getDirectives().get(Namespace.REQUIREMENT_FILTER_DIRECTIVE),
+					getKeyAttribute(namespace));
+			if (key != null) {
+				return byKey.getOrDefault(namespace, Map.of()).getOrDefault(key, List.of());
+			}
+		}
+		return byNamespace.getOrDefault(namespace, List.of());
+	}
+
+	private static String getKeyAttribute(String namespace) {
+		if (SERVICE_NAMESPACE.equals(namespace)) {
+			return Constants.OBJECTCLASS;
+		}
+		return namespace;
+	}
+
+	private static Collection<String> getKeys(Object value) {
+		if (value instanceof String key) {
+			return List.of(key);
+		}
+		if (value instanceof String[] keys) {
+			return List.of(keys);
+		}
+		if (value instanceof Collection<?> collection && !collection.isEmpty()
+				&& collection.stream().allMatch(String.class::isInstance)) {
+			return collection.stream().map(String.class::cast).toList();
+		}
+		return null;
+	}
+
+	/**
+	 * Extracts the value the given filter requires for the given attribute.
+	 * Only a plain equality test of the whole filter, or of a top level operand
+	 * of an and-filter, is considered as it must hold for every matching
+	 * capability; everything else yields <code>null</code>.
+	 */
+	private static String getKey(String filter, String attribute) {
+		if (filter == null) {
+			return null;
+		}
+		filter = filter.strip();
+		String prefix = '(' + attribute + '=';
+		if (!filter.startsWith("(&")) { //$NON-NLS-1$
+			return getValue(filter, prefix);
+		}
+		int depth = 0;
+		int start = -1;
+		for (int i = 2; i < filter.length() - 1; i++) {
+			char c = filter.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '(') {
+				if (depth++ == 0) {
+					start = i;
+				}
+			} else if (c == ')' && --depth == 0) {
+				String value = getValue(filter.substring(start, i + 1), prefix);
+				if (value != null) {
+					return value;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String getValue(String operand, String prefix) {
+		if (!operand.startsWith(prefix) || !operand.endsWith(")")) { //$NON-NLS-1$
+			return null;
+		}
+		String value = operand.substring(prefix.length(), operand.length() - 1);
+		for (int i = 0; i < value.length(); i++) {
+			switch (value.charAt(i)) {
+				case '*', '\\', '(', ')':
+					// wildcards, escapes and nested filters are not indexed
+					return null;
+				default:
+			}
+		}
+		return value;
+	}
+}
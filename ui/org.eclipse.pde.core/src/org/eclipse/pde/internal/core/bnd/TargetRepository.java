@@ -15,6 +15,7 @@ package org.eclipse.pde.internal.core.bnd;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Dictionary;
@@ -32,10 +33,12 @@ import java.util.stream.Stream;
 
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
 import org.eclipse.pde.core.plugin.IPluginLibrary;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.PluginRegistry;
 import org.eclipse.pde.internal.core.ClasspathUtilCore;
+import org.eclipse.pde.internal.core.IStateDeltaListener;
 import org.eclipse.pde.internal.core.PDECore;
 import org.osgi.resource.Capability;
 import org.osgi.resource.Requirement;
@@ -49,6 +52,23 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 
 	private static final TargetRepository instance = new TargetRepository();
 
+	private volatile CapabilityIndex capabilityIndex;
+
+	private boolean stateListenerRegistered;
+
+	private final IStateDeltaListener stateListener = new IStateDeltaListener() {
+
+		@Override
+		public void stateResolved(StateDelta delta) {
+			capabilityIndex = null;
+		}
+
+		@Override
+		public void stateChanged(State newState) {
+			capabilityIndex = null;
+		}
+	};
+
 	private TargetRepository() {
 	}
 
@@ -115,6 +135,7 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 		if (!result.alreadyReleased) {
 			state.addBundle(description);
 		}
+		capabilityIndex = null;
 		result.digest = options.digest;
 		return result;
 	}
@@ -152,12 +173,45 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 	}
 
 	public List<Capability> findProvider(Requirement requirement) {
-		String namespace = requirement.getNamespace();
-		return bundles(null).flatMap(resource -> ResourceUtils.capabilityStream(resource, namespace))
+		CapabilityIndex index = getCapabilityIndex();
+		if (index == null) {
+			return new ArrayList<>();
+		}
+		return index.getCandidates(requirement).stream()
 				.filter(ResourceUtils.matcher(requirement, ResourceUtils::filterPredicate))
 				.collect(ResourceUtils.toCapabilities());
 	}
 
+	/**
+	 * Aquires the capability index of the current state, the index is created
+	 * on first use and dropped whenever the state changes or is resolved
+	 *
+	 * @return the index for the current PDE state or <code>null</code> if no
+	 *         state is currently aviable
+	 */
+	private CapabilityIndex getCapabilityIndex() {
+		Optional<State> state = getTargetPlatformState();
+		if (state.isEmpty()) {
+			return null;
+		}
+		CapabilityIndex index = capabilityIndex;
+		if (index != null && index.isIndexOf(state.get())) {
+			return index;
+		}
+		synchronized (this) {
+			index = capabilityIndex;
+			if (index == null || !index.isIndexOf(state.get())) {
+				if (!stateListenerRegistered) {
+					PDECore.getDefault().getModelManager().addStateDeltaListener(stateListener);
+					stateListenerRegistered = true;
+				}
+				index = new CapabilityIndex(state.get());
+				capabilityIndex = index;
+			}
+			return index;
+		}
+	}
+
 	/**
 	 * Aquires a stream of bundles from the current state
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,10 @@ package org.eclipse.pde.internal.core.target;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.eclipse.core.runtime.CoreException;
@@ -68,6 +71,31 @@ public abstract class AbstractBundleContainer extends PlatformObject implements
 
 	static private HashMap<AbstractBundleContainer, String[]> hash = new HashMap<>();
 
+	/**
+	 * Maximum number of resolved locations remembered by their fingerprint
+	 */
+	private static final int RESOLVED_CONTENT_LIMIT = 64;
+
+	/**
+	 * Bundles and features of a successfully resolved location
+	 */
+	private record ResolvedContent(TargetBundle[] bundles, TargetFeature[] features) {
+	}
+
+	/**
+	 * Results of previous resolutions keyed by the fingerprint of the location
+	 * content they were resolved from, shared by all target definitions.
+	 */
+	private static final Map<String, ResolvedContent> RESOLVED_CONTENT = Collections
+			.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ResolvedContent> eldest) {
+					return size() > RESOLVED_CONTENT_LIMIT;
+				}
+			});
+
 	/**
 	 * Resolves any string substitution variables in the given text returning
 	 * the result.
@@ -93,12 +121,26 @@ public abstract class AbstractBundleContainer extends PlatformObject implements
 
 		SubMonitor subMonitor = SubMonitor.convert(monitor, resolveBundlesWork + resolveFeaturesWork);
 		try {
+			String fingerprint = getFingerprint(definition);
+			ResolvedContent previous = fingerprint != null ? RESOLVED_CONTENT.get(fingerprint) : null;
+			if (previous != null) {
+				// content is unchanged since it was last resolved
+				fBundles = previous.bundles().clone();
+				fFeatures = previous.features().clone();
+				fResolutionStatus = Status.OK_STATUS;
+				if (PDECore.DEBUG_MODEL) {
+					System.out.println("Target location unchanged, reusing previous resolution: " + this); //$NON-NLS-1$
+				}
+				return fResolutionStatus;
+			}
 			fResolutionStatus = Status.OK_STATUS;
 			fBundles = resolveBundles(definition, subMonitor.split(resolveBundlesWork));
 			fFeatures = resolveFeatures(definition, subMonitor.split(resolveFeaturesWork));
 			if (subMonitor.isCanceled()) {
 				fBundles = null;
 				fResolutionStatus = Status.CANCEL_STATUS;
+			} else if (fingerprint != null && fBundles != null && fFeatures != null) {
+				RESOLVED_CONTENT.put(fingerprint, new ResolvedContent(fBundles.clone(), fFeatures.clone()));
 			}
 		} catch (CoreException e) {
 			fBundles = new TargetBundle[0];
@@ -114,6 +156,19 @@ public abstract class AbstractBundleContainer extends PlatformObject implements
 		return fResolutionStatus;
 	}
 
+	/**
+	 * Returns whether this location can be resolved by another thread while
+	 * other locations of the same target are resolved. Only locations that
+	 * share no mutable state with other locations may return
+	 * <code>true</code>, so this is not open to subclasses outside of this
+	 * package.
+	 *
+	 * @return <code>false</code> unless overridden
+	 */
+	boolean isConcurrentResolveSupported() {
+		return false;
+	}
+
   /**
    * Can be overridden in subclasses to redistribute the work between {@link #resolveBundles(ITargetDefinition, IProgressMonitor)}
    * and {@link #resolveFeatures(ITargetDefinition, IProgressMonitor)}.
@@ -214,6 +269,36 @@ public abstract class AbstractBundleContainer extends PlatformObject implements
 	@Override
 	public abstract String getLocation(boolean resolve) throws CoreException;
 
+	/**
+	 * Returns a fingerprint of the current content of this container. When the
+	 * container is resolved again and the fingerprint did not change, the
+	 * bundles and features of the previous resolution are reused instead of
+	 * reading the content again.
+	 * <p>
+	 * The fingerprint must include the type and resolved location of the
+	 * container as well as everything else the resolution depends on. It must
+	 * be much cheaper to compute than a full resolution, see
+	 * {@link ContentFingerprint}. The default implementation returns
+	 * <code>null</code>, which means the container is always fully resolved.
+	 * </p>
+	 *
+	 * @param definition target context
+	 * @return fingerprint of the content or <code>null</code> if unknown
+	 * @throws CoreException if unable to compute the fingerprint
+	 */
+	protected String computeFingerprint(ITargetDefinition definition) throws CoreException {
+		return null;
+	}
+
+	private String getFingerprint(ITargetDefinition definition) {
+		try {
+			return computeFingerprint(definition);
+		} catch (CoreException e) {
+			// the resolution will report the problem
+			return null;
+		}
+	}
+
 	/**
 	 * Sets the resolution status to null.  This container will be considered unresolved.
 	 */
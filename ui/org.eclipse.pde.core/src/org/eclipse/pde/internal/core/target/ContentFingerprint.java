@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.target;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.jar.JarFile;
+
+import org.eclipse.pde.internal.core.ICoreConstants;
+
+/**
+ * Builds a digest that identifies the content of a target location without
+ * reading the bundles it contains. Files contribute their name, size and
+ * last modification time, directories the same information of their
+ * children.
+ *
+ * @see AbstractBundleContainer#computeFingerprint(org.eclipse.pde.core.target.ITargetDefinition)
+ */
+public final class ContentFingerprint {
+
+	private final MessageDigest fDigest;
+
+	/**
+	 * Creates a new fingerprint for a location of the given type.
+	 *
+	 * @param type location type, see {@link AbstractBundleContainer#getType()}
+	 */
+	public ContentFingerprint(String type) {
+		try {
+			fDigest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		add(type);
+	}
+
+	/**
+	 * Adds the given value, <code>null</code> is allowed.
+	 *
+	 * @param value value to add
+	 * @return this fingerprint
+	 */
+	public ContentFingerprint add(String value) {
+		if (value == null) {
+			fDigest.update((byte) 0);
+		} else {
+			fDigest.update((byte) 1);
+			fDigest.update(value.getBytes(StandardCharsets.UTF_8));
+			fDigest.update((byte) 0);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the path, size and last modification time of the given file. A
+	 * missing file is allowed and contributes its path only.
+	 *
+	 * @param file file to add
+	 * @return this fingerprint
+	 */
+	public ContentFingerprint addFile(File file) {
+		add(file.getPath());
+		ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+		buffer.putLong(file.length()).putLong(file.lastModified());
+		fDigest.update(buffer.array());
+		return this;
+	}
+
+	/**
+	 * Adds the direct children of the given directory in a stable order. For
+	 * child directories, the bundle manifest and feature descriptor are added
+	 * as well because changing them does not change the directory itself.
+	 *
+	 * @param directory directory to add
+	 * @return this fingerprint
+	 */
+	public ContentFingerprint addDirectory(File directory) {
+		addFile(directory);
+		File[] children = directory.listFiles();
+		if (children == null) {
+			return this;
+		}
+		Arrays.sort(children);
+		for (File child : children) {
+			addFile(child);
+			if (child.isDirectory()) {
+				addFile(new File(child, JarFile.MANIFEST_NAME));
+				addFile(new File(child, ICoreConstants.FEATURE_FILENAME_DESCRIPTOR));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Completes the fingerprint. No more content may be added afterwards.
+	 *
+	 * @return hex encoded digest of all content added
+	 */
+	public String compute() {
+		return HexFormat.of().formatHex(fDigest.digest());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2020 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -69,6 +69,11 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 		return TYPE;
 	}
 
+	@Override
+	boolean isConcurrentResolveSupported() {
+		return true;
+	}
+
 	@Override
 	protected TargetBundle[] resolveBundles(ITargetDefinition definition, IProgressMonitor monitor) throws CoreException {
 		File dir = getDirectory();
@@ -111,6 +116,15 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 		throw new CoreException(Status.error(NLS.bind(Messages.DirectoryBundleContainer_1, dir.toString())));
 	}
 
+	@Override
+	protected String computeFingerprint(ITargetDefinition definition) throws CoreException {
+		File dir = getDirectory();
+		if (!dir.isDirectory()) {
+			return null;
+		}
+		return new ContentFingerprint(TYPE).addDirectory(getSite(dir)).addDirectory(getFeatureSite(dir)).compute();
+	}
+
 	/**
 	 * Returns the directory to search for bundles in.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2022 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,7 @@ import org.eclipse.pde.core.target.ITargetPlatformService;
 import org.eclipse.pde.core.target.NameVersionDescriptor;
 import org.eclipse.pde.core.target.TargetBundle;
 import org.eclipse.pde.core.target.TargetFeature;
+import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.ExternalFeatureModelManager;
 import org.eclipse.pde.internal.core.ICoreConstants;
 import org.eclipse.pde.internal.core.PDECore;
@@ -121,6 +122,24 @@ public class FeatureBundleContainer extends AbstractBundleContainer {
 		return IPath.fromOSString(resolveVariables(fHome));
 	}
 
+	@Override
+	protected String computeFingerprint(ITargetDefinition definition) throws CoreException {
+		File home = resolveHomeLocation().toFile();
+		if (!home.isDirectory()) {
+			return null;
+		}
+		// the included plug-ins depend on the target environment
+		return new ContentFingerprint(TYPE).add(fId).add(fVersion) //
+				.add(definition.getOS()).add(definition.getWS()).add(definition.getArch()).add(definition.getNL()) //
+				.addDirectory(new File(home, IPDEBuildConstants.DEFAULT_PLUGIN_LOCATION))
+				.addDirectory(new File(home, IPDEBuildConstants.DEFAULT_FEATURE_LOCATION)).compute();
+	}
+
+	@Override
+	boolean isConcurrentResolveSupported() {
+		return true;
+	}
+
 	@Override
 	protected TargetBundle[] resolveBundles(ITargetDefinition definition, IProgressMonitor monitor) throws CoreException {
 		IFeatureModel model = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2020 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,10 +35,12 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.equinox.frameworkadmin.BundleInfo;
+import org.eclipse.equinox.simpleconfigurator.manipulator.SimpleConfiguratorManipulator;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.target.ITargetDefinition;
 import org.eclipse.pde.core.target.TargetBundle;
 import org.eclipse.pde.core.target.TargetFeature;
+import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.P2Utils;
 import org.eclipse.pde.internal.core.PDECore;
 
@@ -110,6 +112,11 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 		return fConfiguration;
 	}
 
+	@Override
+	boolean isConcurrentResolveSupported() {
+		return true;
+	}
+
 	@Override
 	protected TargetBundle[] resolveBundles(ITargetDefinition definition, IProgressMonitor monitor) throws CoreException {
 		String home = resolveHomeLocation().toOSString();
@@ -250,6 +257,24 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 		return new TargetFeature[0];
 	}
 
+	@Override
+	protected String computeFingerprint(ITargetDefinition definition) throws CoreException {
+		File home = resolveHomeLocation().toFile();
+		if (!home.isDirectory()) {
+			return null;
+		}
+		ContentFingerprint fingerprint = new ContentFingerprint(TYPE);
+		File configurationArea = getConfigurationArea();
+		if (configurationArea != null) {
+			fingerprint.addFile(new File(configurationArea, CONFIG_INI));
+			fingerprint.addFile(new File(configurationArea, SimpleConfiguratorManipulator.BUNDLES_INFO_PATH));
+			fingerprint.addFile(new File(configurationArea, SimpleConfiguratorManipulator.SOURCE_INFO_PATH));
+		}
+		fingerprint.addDirectory(new File(home, IPDEBuildConstants.DEFAULT_PLUGIN_LOCATION));
+		fingerprint.addDirectory(new File(home, IPDEBuildConstants.DEFAULT_FEATURE_LOCATION));
+		return fingerprint.compute();
+	}
+
 	/**
 	 * Returns the home location with all variables resolved as a path.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -393,44 +394,70 @@ public class TargetDefinition implements ITargetDefinition {
 				// clear all previous maps
 				P2TargetUtils.fgTargetArtifactRepo.clear();
 				P2TargetUtils.fgArtifactKeyRepoFile.clear();
-				// Process synchronizers first, then perform resolves against the individual
-				// containers. A synchronizer may be shared among several containers, do we
-				// keep track of the synchronizers processed.
+				// Locations without a synchronizer do not depend on anything else,
+				// those that support it are resolved concurrently, overlapping with
+				// the synchronizers.
+				List<ITargetLocation> independent = new ArrayList<>();
 				for (ITargetLocation container : containers) {
-					subMonitor.checkCanceled();
-					subMonitor.subTask(Messages.TargetDefinition_4);
-					P2TargetUtils synchronizer = container.getAdapter(P2TargetUtils.class);
-					if (synchronizer != null && !seen.contains(synchronizer)) {
-						seen.add(synchronizer);
-						try {
-							synchronizer.synchronize(this,
-									subMonitor.split(synchronizerNumContainerMap.get(synchronizer).intValue() * 95));
-							IStatus containerStatus = container.getStatus();
-							if (containerStatus != null && !containerStatus.isOK()) {
-								status.add(containerStatus);
+					if (container.getAdapter(P2TargetUtils.class) == null) {
+						independent.add(container);
+					}
+				}
+				try (TargetLocationResolver resolver = new TargetLocationResolver(this, independent, subMonitor)) {
+					// Process synchronizers first, then perform resolves against the individual
+					// containers. A synchronizer may be shared among several containers, do we
+					// keep track of the synchronizers processed.
+					for (ITargetLocation container : containers) {
+						subMonitor.checkCanceled();
+						subMonitor.subTask(Messages.TargetDefinition_4);
+						P2TargetUtils synchronizer = container.getAdapter(P2TargetUtils.class);
+						if (synchronizer != null && !seen.contains(synchronizer)) {
+							seen.add(synchronizer);
+							long start = System.currentTimeMillis();
+							try {
+								synchronizer.synchronize(this,
+										subMonitor.split(synchronizerNumContainerMap.get(synchronizer).intValue() * 95));
+								IStatus containerStatus = container.getStatus();
+								if (containerStatus != null && !containerStatus.isOK()) {
+									status.add(containerStatus);
+								}
+							} catch (CoreException e) {
+								PDECore.log(e.getStatus());
+								status.add(e.getStatus());
+							}
+							if (PDECore.DEBUG_MODEL) {
+								System.out.println("Time to synchronize target location " //$NON-NLS-1$
+										+ TargetLocationResolver.getLabel(container) + ": " //$NON-NLS-1$
+										+ (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$
 							}
-						} catch (CoreException e) {
-							PDECore.log(e.getStatus());
-							status.add(e.getStatus());
 						}
 					}
-				}
-				synchronizerNumContainerMap.clear();
-				if (!status.isOK()) {
-					fResolutionStatus = status;
-					return fResolutionStatus;
-				}
-				for (ITargetLocation container : containers) {
-					subMonitor.checkCanceled();
-					subMonitor.subTask(Messages.TargetDefinition_4);
-					P2TargetUtils synchronizer = container.getAdapter(P2TargetUtils.class);
-					int totalWork = 5;
-					if (synchronizer == null) {
-						totalWork = 100;
+					synchronizerNumContainerMap.clear();
+					if (!status.isOK()) {
+						fResolutionStatus = status;
+						return fResolutionStatus;
+					}
+					Map<ITargetLocation, IStatus> results = new IdentityHashMap<>();
+					for (ITargetLocation container : containers) {
+						if (container.getAdapter(P2TargetUtils.class) != null) {
+							subMonitor.checkCanceled();
+							subMonitor.subTask(Messages.TargetDefinition_4);
+							results.put(container, TargetLocationResolver.resolve(this, container, subMonitor.split(5)));
+						}
 					}
-					IStatus s = container.resolve(this, subMonitor.split(totalWork));
-					if (!s.isOK()) {
-						status.add(s);
+					IStatus[] independentResults = resolver.join(subMonitor);
+					for (int i = 0; i < independentResults.length; i++) {
+						results.put(independent.get(i), independentResults[i]);
+					}
+					// aggregate in the order of the locations
+					for (ITargetLocation container : containers) {
+						IStatus s = results.get(container);
+						if (s != null && s.matches(IStatus.CANCEL)) {
+							throw new OperationCanceledException();
+						}
+						if (s != null && !s.isOK()) {
+							status.add(s);
+						}
 					}
 				}
 			}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.target;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.internal.core.PDECore;
+
+/**
+ * Resolves target locations that do not depend on each other. Locations that
+ * support it (see {@link AbstractBundleContainer#isConcurrentResolveSupported()})
+ * are resolved by jobs of a {@link JobGroup} limited to the number of
+ * processors, all other locations are resolved one after the other by the
+ * calling thread in {@link #join(SubMonitor)}. Locations backed by a p2
+ * synchronizer are not handled here as they must be resolved after the
+ * synchronizer ran, but their synchronization can run while the concurrent
+ * locations are resolved.
+ * <p>
+ * Concurrent resolution starts as soon as the resolver is created.
+ * {@link #join(SubMonitor)} waits for the results, {@link #close()} cancels
+ * and waits for any location that is still being resolved.
+ * </p>
+ */
+class TargetLocationResolver implements AutoCloseable {
+
+	private final ITargetDefinition fDefinition;
+	private final List<ITargetLocation> fLocations;
+	private final IStatus[] fStatuses;
+	private final Job[] fJobs;
+	private final JobGroup fGroup;
+
+	/**
+	 * Progress monitor handed to a concurrently resolved location. It only
+	 * forwards cancellation of its job and of the calling thread's monitor as
+	 * progress monitors are not thread safe.
+	 */
+	private static class CancelMonitor extends NullProgressMonitor {
+		private final IProgressMonitor fJobMonitor;
+		private final IProgressMonitor fParent;
+
+		CancelMonitor(IProgressMonitor jobMonitor, IProgressMonitor parent) {
+			fJobMonitor = jobMonitor;
+			fParent = parent;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || fJobMonitor.isCanceled() || (fParent != null && fParent.isCanceled());
+		}
+	}
+
+	/**
+	 * Starts resolving the given locations that support concurrent resolution.
+	 *
+	 * @param definition target definition the locations belong to
+	 * @param locations independent locations to resolve
+	 * @param monitor monitor of the calling thread used to detect cancellation
+	 */
+	TargetLocationResolver(ITargetDefinition definition, List<ITargetLocation> locations, IProgressMonitor monitor) {
+		fDefinition = definition;
+		fLocations = locations;
+		fStatuses = new IStatus[locations.size()];
+		fJobs = new Job[locations.size()];
+		int concurrent = (int) locations.stream().filter(TargetLocationResolver::isConcurrent).count();
+		if (concurrent == 0) {
+			fGroup = null;
+			return;
+		}
+		fGroup = new JobGroup(Messages.TargetDefinition_4, Runtime.getRuntime().availableProcessors(), concurrent);
+		for (int i = 0; i < fJobs.length; i++) {
+			ITargetLocation location = locations.get(i);
+			if (!isConcurrent(location)) {
+				continue;
+			}
+			int index = i;
+			Job job = Job.create(getLabel(location), jobMonitor -> {
+				fStatuses[index] = resolve(definition, location, new CancelMonitor(jobMonitor, monitor));
+			});
+			job.setSystem(true);
+			job.setJobGroup(fGroup);
+			fJobs[i] = job;
+			job.schedule();
+		}
+	}
+
+	private static boolean isConcurrent(ITargetLocation location) {
+		return location instanceof AbstractBundleContainer container && container.isConcurrentResolveSupported();
+	}
+
+	/**
+	 * Resolves the locations that do not support concurrent resolution, waits
+	 * for all other locations to be resolved and returns their resolution
+	 * status in the order the locations were given.
+	 *
+	 * @param monitor progress monitor, 100 units of work are reported for
+	 *            each location
+	 * @return the status of each location
+	 * @throws OperationCanceledException if the monitor or the resolution of
+	 *             a location was cancelled
+	 */
+	IStatus[] join(SubMonitor monitor) {
+		for (int i = 0; i < fJobs.length; i++) {
+			if (fJobs[i] == null) {
+				monitor.checkCanceled();
+				fStatuses[i] = checkCanceled(resolve(fDefinition, fLocations.get(i), monitor.split(100)));
+			}
+		}
+		for (int i = 0; i < fJobs.length; i++) {
+			if (fJobs[i] != null) {
+				try {
+					fJobs[i].join(0, monitor);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+				IStatus result = fJobs[i].getResult();
+				if (fStatuses[i] == null && result != null && !result.isOK()) {
+					// the job failed outside of the location's resolve
+					fStatuses[i] = result;
+				}
+				checkCanceled(fStatuses[i]);
+				monitor.split(100);
+			}
+		}
+		return fStatuses;
+	}
+
+	private static IStatus checkCanceled(IStatus status) {
+		if (status != null && status.matches(IStatus.CANCEL)) {
+			throw new OperationCanceledException();
+		}
+		return status;
+	}
+
+	/**
+	 * Cancels all locations that are still being resolved and waits for them
+	 * to finish.
+	 */
+	@Override
+	public void close() {
+		if (fGroup == null) {
+			return;
+		}
+		fGroup.cancel();
+		try {
+			fGroup.join(0, null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Resolves a single location, tracing the time it took.
+	 */
+	static IStatus resolve(ITargetDefinition definition, ITargetLocation location, IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		try {
+			return location.resolve(definition, monitor);
+		} catch (OperationCanceledException e) {
+			return Status.CANCEL_STATUS;
+		} finally {
+			if (PDECore.DEBUG_MODEL) {
+				System.out.println("Time to resolve target location " + getLabel(location) + ": " //$NON-NLS-1$ //$NON-NLS-2$
+						+ (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	static String getLabel(ITargetLocation location) {
+		try {
+			return location.getType() + " " + location.getLocation(false); //$NON-NLS-1$
+		} catch (CoreException e) {
+			return location.getType();
+		}
+	}
+}
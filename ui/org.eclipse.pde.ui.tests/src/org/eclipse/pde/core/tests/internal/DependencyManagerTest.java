@@ -340,6 +340,41 @@ public class DependencyManagerTest {
 		assertThat(optionalClosure).isEqualTo(Set.of(bundleOptional, bundleA1, bundleA2, bundleProvider));
 	}
 
+	@Test
+	public void testFindRequirementsClosure_cyclicRequirements() throws Exception {
+
+		setTargetPlatform( //
+				bundle("bundle.a", "1.0.0", //
+						entry(EXPORT_PACKAGE, "pack.a"), //
+						entry(IMPORT_PACKAGE, "pack.b")),
+
+				bundle("bundle.b", "1.0.0", //
+						entry(EXPORT_PACKAGE, "pack.b"), //
+						entry(IMPORT_PACKAGE, "pack.a,pack.c")),
+
+				bundle("bundle.c", "1.0.0", //
+						entry(EXPORT_PACKAGE, "pack.c")),
+
+				bundle("bundle.d", "1.0.0", //
+						entry(REQUIRE_BUNDLE, "bundle.a")));
+
+		BundleDescription bundleA = bundleDescription("bundle.a", "1.0.0");
+		BundleDescription bundleB = bundleDescription("bundle.b", "1.0.0");
+		BundleDescription bundleC = bundleDescription("bundle.c", "1.0.0");
+		BundleDescription bundleD = bundleDescription("bundle.d", "1.0.0");
+
+		Set<BundleDescription> dClosure = findRequirementsClosure(Set.of(bundleD));
+		assertThat(dClosure).isEqualTo(Set.of(bundleD, bundleA, bundleB, bundleC));
+
+		// closures are shared internally, returned sets must be independent
+		dClosure.clear();
+		Set<BundleDescription> bClosure = findRequirementsClosure(Set.of(bundleB));
+		assertThat(bClosure).isEqualTo(Set.of(bundleA, bundleB, bundleC));
+
+		Set<BundleDescription> cdClosure = findRequirementsClosure(List.of(bundleC, bundleD));
+		assertThat(cdClosure).isEqualTo(Set.of(bundleD, bundleA, bundleB, bundleC));
+	}
+
 	// --- utility methods ---
 
 	@SafeVarargs
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2021 Red Hat Inc. and others.
+ * Copyright (c) 2020, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,6 +36,10 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.project.IPackageExportDescription;
+import org.eclipse.pde.core.project.IPackageImportDescription;
+import org.eclipse.pde.core.project.IRequiredBundleDescription;
+import org.eclipse.pde.internal.core.ClasspathContainerBatch;
 import org.eclipse.pde.internal.core.PDECore;
 import org.eclipse.pde.internal.core.RequiredPluginsClasspathContainer;
 import org.eclipse.pde.ui.tests.util.ProjectUtils;
@@ -138,6 +142,44 @@ public class ClasspathResolutionTest {
 		assertThat(classpathEntries).isEmpty();
 	}
 
+	@Test
+	public void testBatchedEntriesMatchSingleEntries() throws Exception {
+		loadTargetPlatform(javaxAnnotationProviderBSN);
+		IProject base = ProjectUtils.createPluginProject("batch.base", "batch.base", "1.0.0", (description, service) -> {
+			description.setPackageExports(new IPackageExportDescription[] {
+					service.newPackageExport("batch.base", null, true, null),
+					service.newPackageExport("batch.base.internal", null, false, new String[] { "batch.a" }) });
+			description.setRequiredBundles(new IRequiredBundleDescription[] {
+					service.newRequiredBundle("org.eclipse.osgi", null, false, true) });
+		});
+		IProject a = ProjectUtils.createPluginProject("batch.a", "batch.a", "1.0.0", (description, service) -> {
+			description.setRequiredBundles(new IRequiredBundleDescription[] {
+					service.newRequiredBundle("batch.base", null, false, true) });
+			description.setPackageImports(new IPackageImportDescription[] {
+					service.newPackageImport("javax.annotation", null, false) });
+		});
+		IProject b = ProjectUtils.createPluginProject("batch.b", "batch.b", "1.0.0", (description, service) -> {
+			description.setRequiredBundles(new IRequiredBundleDescription[] {
+					service.newRequiredBundle("batch.a", null, false, false) });
+		});
+		IProject[] projects = { base, a, b };
+
+		for (boolean parallel : new boolean[] { false, true }) {
+			IClasspathContainer[] batched = new IClasspathContainer[projects.length];
+			for (int i = 0; i < projects.length; i++) {
+				IPluginModelBase model = PDECore.getDefault().getModelManager().findModel(projects[i]);
+				batched[i] = new RequiredPluginsClasspathContainer(model, projects[i]);
+			}
+			ClasspathContainerBatch.computeClasspathEntries(batched, parallel, null);
+			for (int i = 0; i < projects.length; i++) {
+				IPluginModelBase model = PDECore.getDefault().getModelManager().findModel(projects[i]);
+				IClasspathContainer single = new RequiredPluginsClasspathContainer(model, projects[i]);
+				assertThat(batched[i].getClasspathEntries()).as(projects[i].getName())
+						.containsExactly(single.getClasspathEntries());
+			}
+		}
+	}
+
 	// --- utilitiy methods ---
 
 	private List<String> getRequiredPluginContainerEntries(IProject project) throws CoreException {
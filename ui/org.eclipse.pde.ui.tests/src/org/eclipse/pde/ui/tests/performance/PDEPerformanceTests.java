@@ -18,6 +18,8 @@ import org.eclipse.pde.ui.tests.performance.parts.PDEModelManagerPerfTest;
 import org.eclipse.pde.ui.tests.performance.parts.SchemaLoaderPerfTest;
 import org.eclipse.pde.ui.tests.performance.parts.SchemaTraversePerfTest;
 import org.eclipse.pde.ui.tests.performance.parts.TargetPlatformPerfTest;
+import org.eclipse.pde.ui.tests.performance.parts.TargetRepositoryPerfTest;
+import org.eclipse.pde.ui.tests.performance.parts.TargetStateCachePerfTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -25,7 +27,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
 	PDEModelManagerPerfTest.class, SchemaLoaderPerfTest.class, SchemaTraversePerfTest.class,
-	OpenManifestEditorPerfTest.class, TargetPlatformPerfTest.class
+	OpenManifestEditorPerfTest.class, TargetPlatformPerfTest.class, TargetStateCachePerfTest.class,
+	TargetRepositoryPerfTest.class
 })
 public class PDEPerformanceTests {
 
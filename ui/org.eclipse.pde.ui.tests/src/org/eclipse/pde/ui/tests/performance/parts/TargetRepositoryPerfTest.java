@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.bnd.TargetRepository;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+import org.osgi.framework.Filter;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.namespace.BundleNamespace;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.resource.Capability;
+import org.osgi.resource.Namespace;
+import org.osgi.resource.Requirement;
+import org.osgi.resource.Resource;
+
+/**
+ * Compares the indexed {@link TargetRepository#findProvider(Requirement)}
+ * lookup with a linear scan over all capabilities of the target platform
+ * state, using a requirement for every package and bundle of the target.
+ */
+public class TargetRepositoryPerfTest extends PerformanceTestCase {
+
+	private State fState;
+	private List<Requirement> fRequirements;
+
+	private record FilterRequirement(String namespace, String filter) implements Requirement {
+
+		@Override
+		public String getNamespace() {
+			return namespace;
+		}
+
+		@Override
+		public Map<String, String> getDirectives() {
+			return Map.of(Namespace.REQUIREMENT_FILTER_DIRECTIVE, filter);
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return Map.of();
+		}
+
+		@Override
+		public Resource getResource() {
+			return null;
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fState = PDECore.getDefault().getModelManager().getState().getState();
+		fRequirements = new ArrayList<>();
+		for (BundleDescription bundle : fState.getBundles()) {
+			if (bundle.getSymbolicName() != null && bundle.getHost() == null) {
+				fRequirements.add(new FilterRequirement(BundleNamespace.BUNDLE_NAMESPACE,
+						"(osgi.wiring.bundle=" + bundle.getSymbolicName() + ")"));
+			}
+			for (ExportPackageDescription export : bundle.getExportPackages()) {
+				fRequirements.add(new FilterRequirement(PackageNamespace.PACKAGE_NAMESPACE,
+						"(&(osgi.wiring.package=" + export.getName() + ")(version>=0.0.0))"));
+			}
+		}
+		assertFalse(fRequirements.isEmpty());
+	}
+
+	public void testLinearScan() throws Exception {
+		tagAsSummary("Find providers (linear scan)", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		for (int i = 0; i < 2; i++) {
+			linearScan();
+		}
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			linearScan();
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testIndexedLookup() throws Exception {
+		tagAsSummary("Find providers (indexed)", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		TargetRepository repository = TargetRepository.getTargetRepository();
+		for (int i = 0; i < 2; i++) {
+			for (Requirement requirement : fRequirements) {
+				repository.findProvider(requirement);
+			}
+		}
+		for (int i = 0; i < 10; i++) {
+			startMeasuring();
+			for (Requirement requirement : fRequirements) {
+				assertFalse(repository.findProvider(requirement).isEmpty());
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void linearScan() throws Exception {
+		for (Requirement requirement : fRequirements) {
+			Filter filter = FrameworkUtil
+					.createFilter(requirement.getDirectives().get(Namespace.REQUIREMENT_FILTER_DIRECTIVE));
+			List<Capability> providers = new ArrayList<>();
+			for (BundleDescription bundle : fState.getBundles()) {
+				for (Capability capability : bundle.getCapabilities(requirement.getNamespace())) {
+					if (filter.matches(capability.getAttributes())) {
+						providers.add(capability);
+					}
+				}
+			}
+			assertFalse(providers.isEmpty());
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.internal.core.TargetManifestCache;
+import org.eclipse.pde.internal.core.TargetPlatformHelper;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+/**
+ * Compares the time it takes to create the target {@link PDEState} on a cold
+ * start (empty {@link TargetManifestCache}) with a warm start where all
+ * manifests are restored from the cache.
+ */
+public class TargetStateCachePerfTest extends PerformanceTestCase {
+
+	private URI[] fBundles;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		TargetPlatformHelper.getKnownExecutionEnvironments();
+		IPath testBundles = TargetPlatformPerfTest.extractTargetPerfTestPlugins().append("plugins");
+		List<URI> uris = new ArrayList<>();
+		File[] files = testBundles.toFile().listFiles();
+		assertNotNull(files);
+		for (File file : files) {
+			uris.add(file.toURI());
+		}
+		fBundles = uris.toArray(new URI[uris.size()]);
+		TargetManifestCache.getDefault().clear();
+	}
+
+	public void testColdStateCreation() throws Exception {
+		tagAsSummary("Create target state (cold)", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		// Warm-up Iterations
+		for (int i = 0; i < 3; i++) {
+			TargetManifestCache.getDefault().clear();
+			new PDEState(fBundles, true, true, new NullProgressMonitor());
+		}
+		// Test Iterations
+		for (int i = 0; i < 20; i++) {
+			TargetManifestCache.getDefault().clear();
+			startMeasuring();
+			new PDEState(fBundles, true, true, new NullProgressMonitor());
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testWarmStateCreation() throws Exception {
+		tagAsSummary("Create target state (warm)", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		// Warm-up Iterations, the first one fills the cache
+		for (int i = 0; i < 3; i++) {
+			new PDEState(fBundles, true, true, new NullProgressMonitor());
+		}
+		// Test Iterations
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			PDEState state = new PDEState(fBundles, true, true, new NullProgressMonitor());
+			stopMeasuring();
+			assertTrue(state.getTargetModels().length > 0);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		TargetManifestCache.getDefault().clear();
+		super.tearDown();
+	}
+
+}
@@ -32,7 +32,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	MinimalTargetDefinitionResolutionTests.class, //
 	MinimalTargetDefinitionFeatureResolutionTests.class, //
 	IUBundleContainerTests.class, //
-	ProfileContainerTests.class
+	ProfileContainerTests.class, //
+	TargetLocationReuseTests.class, //
+	TargetReloadTests.class
 })
 public class AllTargetMinimalTests {
 }
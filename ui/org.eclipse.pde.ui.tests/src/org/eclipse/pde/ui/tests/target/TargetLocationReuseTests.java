@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.core.target.TargetBundle;
+import org.eclipse.pde.ui.tests.PDETestsPlugin;
+import org.junit.Test;
+
+/**
+ * Tests that target locations reuse the bundles of a previous resolution of
+ * unchanged content and resolve changed content again.
+ */
+public class TargetLocationReuseTests extends AbstractTargetTest {
+
+	/**
+	 * Resolves a new directory location for the given path in the given target
+	 * and returns its bundles
+	 */
+	private TargetBundle[] resolve(ITargetDefinition definition, IPath path) {
+		ITargetLocation location = getTargetService().newDirectoryLocation(path.toOSString());
+		IStatus status = location.resolve(definition, null);
+		assertTrue("Resolution failed: " + status, status.isOK());
+		TargetBundle[] bundles = location.getBundles();
+		assertNotNull("Bundles not available when resolved", bundles);
+		return bundles;
+	}
+
+	private Set<String> getSymbolicNames(TargetBundle[] bundles) {
+		return Arrays.stream(bundles).map(bundle -> bundle.getBundleInfo().getSymbolicName())
+				.collect(Collectors.toSet());
+	}
+
+	/**
+	 * Writes the manifest of a directory bundle with the given version
+	 */
+	private void writeManifest(File bundle, String version, long lastModified) throws Exception {
+		File manifest = new File(bundle, "META-INF/MANIFEST.MF");
+		manifest.getParentFile().mkdirs();
+		Files.writeString(manifest.toPath(), """
+				Manifest-Version: 1.0
+				Bundle-ManifestVersion: 2
+				Bundle-SymbolicName: reuse.bundle
+				Bundle-Version: %s
+				""".formatted(version));
+		manifest.setLastModified(lastModified);
+	}
+
+	/**
+	 * Tests that locations of the same unchanged content share the bundles of
+	 * the first resolution
+	 */
+	@Test
+	public void testUnchangedContentReused() throws Exception {
+		IPath path = extractAbcdePlugins().append("plugins");
+		TargetBundle[] first = resolve(getNewTarget(), path);
+		TargetBundle[] second = resolve(getNewTarget(), path);
+		assertEquals("Wrong number of bundles", 10, first.length);
+		assertNotSame("Each location should have its own bundle array", first, second);
+		assertEquals("Wrong number of bundles", first.length, second.length);
+		for (int i = 0; i < first.length; i++) {
+			assertSame("Bundle should be reused", first[i], second[i]);
+		}
+	}
+
+	/**
+	 * Tests that touching a bundle jar resolves the location again
+	 */
+	@Test
+	public void testTouchedJarResolvedAgain() throws Exception {
+		IPath path = extractAbcdePlugins().append("plugins");
+		TargetBundle[] first = resolve(getNewTarget(), path);
+		File jar = path.append("bundle.a_1.0.0.jar").toFile();
+		assertTrue(jar.setLastModified(jar.lastModified() + 10000));
+		TargetBundle[] second = resolve(getNewTarget(), path);
+		assertEquals("Wrong bundles", getSymbolicNames(first), getSymbolicNames(second));
+		for (TargetBundle bundle : second) {
+			assertTrue("Bundle should be read again", Arrays.stream(first).noneMatch(b -> b == bundle));
+		}
+	}
+
+	/**
+	 * Tests that changing the manifest of a directory bundle resolves the
+	 * location again
+	 */
+	@Test
+	public void testChangedManifestResolvedAgain() throws Exception {
+		IPath path = PDETestsPlugin.getDefault().getStateLocation().append("reuse-plugins");
+		File dir = path.toFile();
+		if (dir.exists()) {
+			delete(dir);
+		}
+		File bundle = new File(dir, "reuse.bundle");
+		long lastModified = System.currentTimeMillis() - 60000;
+		writeManifest(bundle, "1.0.0", lastModified);
+		TargetBundle[] first = resolve(getNewTarget(), path);
+		assertEquals("Wrong number of bundles", 1, first.length);
+		assertEquals("1.0.0", first[0].getBundleInfo().getVersion());
+
+		writeManifest(bundle, "2.0.0", lastModified + 10000);
+		TargetBundle[] second = resolve(getNewTarget(), path);
+		assertEquals("Wrong number of bundles", 1, second.length);
+		assertEquals("Changed manifest not read", "2.0.0", second[0].getBundleInfo().getVersion());
+		delete(dir);
+	}
+
+	/**
+	 * Tests that target definitions resolving different locations in turn each
+	 * get their own content, and that changing the bundles of one location
+	 * does not affect another location of the same content
+	 */
+	@Test
+	public void testNoCrossTalk() throws Exception {
+		IPath abcde = extractAbcdePlugins().append("plugins");
+		IPath multiVersions = extractMultiVersionPlugins();
+		ITargetDefinition first = getNewTarget();
+		ITargetDefinition second = getNewTarget();
+		Set<String> abcdeNames = getSymbolicNames(resolve(first, abcde));
+		Set<String> multiVersionNames = getSymbolicNames(resolve(second, multiVersions));
+		assertEquals("Wrong bundles", Set.of("a.typical.bundle"), multiVersionNames);
+		assertTrue("Wrong bundles", abcdeNames.contains("bundle.a"));
+
+		assertEquals("Wrong bundles", multiVersionNames, getSymbolicNames(resolve(first, multiVersions)));
+		assertEquals("Wrong bundles", abcdeNames, getSymbolicNames(resolve(second, abcde)));
+
+		TargetBundle[] bundles = resolve(first, abcde);
+		Arrays.fill(bundles, null);
+		assertEquals("Wrong bundles", abcdeNames, getSymbolicNames(resolve(second, abcde)));
+	}
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.ModelEntry;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.internal.core.ICoreConstants;
+import org.eclipse.pde.internal.core.IStateDeltaListener;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PDEPreferencesManager;
+import org.eclipse.pde.internal.core.PluginModelManager;
+import org.eclipse.pde.ui.tests.runtime.TestUtils;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.junit.Test;
+
+/**
+ * Tests that reloading a target platform of which only a few bundles changed
+ * updates the existing models instead of recreating all of them.
+ */
+public class TargetReloadTests extends AbstractTargetTest {
+
+	private static final String TYPICAL_BUNDLE = "a.typical.bundle";
+
+	private IPath fPlugins;
+
+	private final AtomicInteger fStateResolved = new AtomicInteger();
+
+	private final AtomicInteger fStateChanged = new AtomicInteger();
+
+	private final IStateDeltaListener fListener = new IStateDeltaListener() {
+		@Override
+		public void stateResolved(StateDelta delta) {
+			fStateResolved.incrementAndGet();
+		}
+
+		@Override
+		public void stateChanged(State newState) {
+			fStateChanged.incrementAndGet();
+		}
+	};
+
+	/**
+	 * Extracts the abcde plug-ins and sets them as the target platform
+	 */
+	private void setUpTarget() throws Exception {
+		fPlugins = extractAbcdePlugins().append("plugins");
+		loadTarget();
+		getModelManager().addStateDeltaListener(fListener);
+	}
+
+	private void tearDownTarget() throws Exception {
+		getModelManager().removeStateDeltaListener(fListener);
+		resetTargetPlatform();
+	}
+
+	private PluginModelManager getModelManager() {
+		return PDECore.getDefault().getModelManager();
+	}
+
+	/**
+	 * Sets a new target definition of the plug-ins directory as target
+	 * platform, so the directory content is resolved again
+	 */
+	private void loadTarget() throws Exception {
+		ITargetDefinition definition = getNewTarget();
+		ITargetLocation container = getTargetService().newDirectoryLocation(fPlugins.toOSString());
+		definition.setTargetLocations(new ITargetLocation[] { container });
+		fStateResolved.set(0);
+		fStateChanged.set(0);
+		setTargetPlatform(definition);
+	}
+
+	/**
+	 * Copies a bundle that is not part of the abcde plug-ins to the plug-ins
+	 * directory
+	 */
+	private void addTypicalBundle() throws Exception {
+		File jar = extractMultiVersionPlugins().append("a.typical.bundle_1.0.0.200907071058.jar").toFile();
+		Files.copy(jar.toPath(), fPlugins.append(jar.getName()).toFile().toPath());
+	}
+
+	private BundleDescription[] getStateBundles(String id) {
+		return getModelManager().getState().getState().getBundles(id);
+	}
+
+	/**
+	 * Asserts that the last reload only fired a resolver delta and no state
+	 * change that rebuilds all projects
+	 */
+	private void assertIncremental() {
+		assertTrue("Resolver delta not fired", fStateResolved.get() > 0);
+		assertEquals("State change fired", 0, fStateChanged.get());
+	}
+
+	/**
+	 * Tests that a bundle added to the target gets a model and that the
+	 * models of unchanged bundles are kept
+	 */
+	@Test
+	public void testAddedBundle() throws Exception {
+		try {
+			setUpTarget();
+			IPluginModelBase unchanged = PluginRegistry.findModel("bundle.b");
+			assertNotNull(unchanged);
+			assertNull(PluginRegistry.findModel(TYPICAL_BUNDLE));
+
+			addTypicalBundle();
+			loadTarget();
+			assertIncremental();
+			IPluginModelBase added = PluginRegistry.findModel(TYPICAL_BUNDLE);
+			assertNotNull("Model of added bundle missing", added);
+			assertNull("Added bundle should be external", added.getUnderlyingResource());
+			assertEquals("Added bundle not in state", 1, getStateBundles(TYPICAL_BUNDLE).length);
+			assertSame("Unchanged model recreated", unchanged, PluginRegistry.findModel("bundle.b"));
+		} finally {
+			tearDownTarget();
+		}
+	}
+
+	/**
+	 * Tests that a bundle removed from the target loses its model and that the
+	 * models of unchanged bundles are kept
+	 */
+	@Test
+	public void testRemovedBundle() throws Exception {
+		try {
+			setUpTarget();
+			IPluginModelBase unchanged = PluginRegistry.findModel("bundle.b");
+			assertNotNull(PluginRegistry.findModel("bundle.a"));
+
+			assertTrue(fPlugins.append("bundle.a_1.0.0.jar").toFile().delete());
+			loadTarget();
+			assertIncremental();
+			assertNull("Model of removed bundle not removed", PluginRegistry.findModel("bundle.a"));
+			assertEquals("Removed bundle still in state", 0, getStateBundles("bundle.a").length);
+			assertSame("Unchanged model recreated", unchanged, PluginRegistry.findModel("bundle.b"));
+		} finally {
+			tearDownTarget();
+		}
+	}
+
+	/**
+	 * Tests that an added target bundle with the id of a workspace bundle is
+	 * removed from the state when workspace bundles override target bundles
+	 */
+	@Test
+	public void testShadowedBundle() throws Exception {
+		doTestShadowedBundle(true);
+	}
+
+	/**
+	 * Tests that an added target bundle with the id of a workspace bundle stays
+	 * in the state next to the workspace bundle when workspace bundles don't
+	 * override target bundles
+	 */
+	@Test
+	public void testShadowedBundleNotOverridden() throws Exception {
+		doTestShadowedBundle(false);
+	}
+
+	private void doTestShadowedBundle(boolean override) throws Exception {
+		PDEPreferencesManager prefs = PDECore.getDefault().getPreferencesManager();
+		boolean original = prefs.getBoolean(ICoreConstants.WORKSPACE_PLUGINS_OVERRIDE_TARGET);
+		try {
+			prefs.setValue(ICoreConstants.WORKSPACE_PLUGINS_OVERRIDE_TARGET, override);
+			setUpTarget();
+			ProjectUtils.createPluginProject(TYPICAL_BUNDLE, "1.0.0");
+			TestUtils.waitForJobs(name.getMethodName(), 100, 10000);
+
+			addTypicalBundle();
+			loadTarget();
+			ModelEntry entry = PluginRegistry.findEntry(TYPICAL_BUNDLE);
+			assertNotNull(entry);
+			assertEquals("Wrong number of workspace models", 1, entry.getWorkspaceModels().length);
+			assertEquals("Wrong number of target models", 1, entry.getExternalModels().length);
+			assertSame("Workspace model should be used", entry.getWorkspaceModels()[0], entry.getModel());
+			BundleDescription[] inState = getStateBundles(TYPICAL_BUNDLE);
+			if (override) {
+				assertEquals("Shadowed target bundle still in state", 1, inState.length);
+				assertSame(entry.getWorkspaceModels()[0].getBundleDescription(), inState[0]);
+			} else {
+				assertEquals("Both bundles should be in state", 2, inState.length);
+			}
+		} finally {
+			prefs.setValue(ICoreConstants.WORKSPACE_PLUGINS_OVERRIDE_TARGET, original);
+			tearDownTarget();
+		}
+	}
+}